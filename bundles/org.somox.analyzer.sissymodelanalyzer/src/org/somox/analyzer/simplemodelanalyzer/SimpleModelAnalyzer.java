@@ -19,11 +19,16 @@ import org.somox.analyzer.ModelAnalyzer;
 import org.somox.analyzer.ModelAnalyzerException;
 import org.somox.analyzer.simplemodelanalyzer.builder.ComponentBuilder;
 import org.somox.analyzer.simplemodelanalyzer.builder.PCMSystemBuilder;
+import org.somox.analyzer.simplemodelanalyzer.builder.util.BulkConstructionMode;
+import org.somox.analyzer.simplemodelanalyzer.detection.IncrementalAnalysisBaseline;
 import org.somox.analyzer.simplemodelanalyzer.detection.util.ComponentPrinter;
 import org.somox.analyzer.simplemodelanalyzer.factories.BasicSoMoXStrategiesFactory;
 import org.somox.analyzer.simplemodelanalyzer.factories.ISoMoXStrategiesFactory;
 import org.somox.configuration.SoMoXConfiguration;
 import org.somox.extractor.ExtractionResult;
+import org.somox.instrumentation.FlightRecorderEvent;
+import org.somox.instrumentation.FlightRecorderEventType;
+import org.somox.instrumentation.PerformanceCounters;
 import org.somox.kdmhelper.KDMReader;
 import org.somox.kdmhelper.metamodeladdition.Root;
 import org.somox.sourcecodedecorator.ComponentImplementingClassesLink;
@@ -72,6 +77,7 @@ public class SimpleModelAnalyzer implements ModelAnalyzer {
             final IProgressMonitor progressMonitor) throws ModelAnalyzerException {
 
         this.status = ModelAnalyzer.Status.RUNNING;
+        PerformanceCounters.getInstance().reset();
         logger.info("SISSy Analyzer started with"
                 +"\n SOMOX Configuration: "+somoxConfiguration
                 +"\n extractionResultMap "+extractionResultMap);
@@ -84,7 +90,13 @@ public class SimpleModelAnalyzer implements ModelAnalyzer {
             final URI fileURI = URI.createPlatformResourceURI(platformPath, true);
             if (fileURI.fileExtension().toLowerCase().equals("xmi")) {
                 try {
-                    final Root root = KDMReader.loadFile(fileURI);
+                    final long start = System.nanoTime();
+                    final FlightRecorderEvent loadEvent = FlightRecorderEventType.RESOURCE_IO.begin();
+                    final Root root = KDMReader.loadFile(fileURI,
+                            somoxConfiguration.getClusteringConfig().getParallelism(),
+                            somoxConfiguration.getStubbedTypesPattern());
+                    loadEvent.set(0, fileURI.toString()).set(1, "load").commit();
+                    PerformanceCounters.getInstance().recordPhase("load_model", start);
                     analysisResult = analyzeGASTModel(root, somoxConfiguration, progressMonitor);
                 } catch (final IOException e) {
                     logger.error("Failed to load GAST Model",e);
@@ -96,6 +108,27 @@ public class SimpleModelAnalyzer implements ModelAnalyzer {
         return analysisResult;
     }
 
+    /**
+     * Analyze an already loaded model, e.g. in standalone runs which load the model themselves
+     * instead of reading it from the configured analyser input file. In contrast to the other
+     * analyze method, the {@link PerformanceCounters} are not reset so that the caller can record
+     * its own phases before.
+     * @param root The loaded model to analyze
+     * @param somoxConfiguration The configuration of this SoMoX run
+     * @param progressMonitor Progress monitor used to indicate detection progress
+     * @return The analysis result
+     * @throws ModelAnalyzerException Thrown if the component detection fails
+     */
+    public AnalysisResult analyze(
+            final Root root,
+            final SoMoXConfiguration somoxConfiguration,
+            final IProgressMonitor progressMonitor) throws ModelAnalyzerException {
+        this.status = ModelAnalyzer.Status.RUNNING;
+        final AnalysisResult analysisResult = analyzeGASTModel(root, somoxConfiguration, progressMonitor);
+        this.status = ModelAnalyzer.Status.FINISHED;
+        return analysisResult;
+    }
+
     /**
      * Analyze the given GAST model to find components
      * @param astModel The root of the GAST model to analyze
@@ -112,14 +145,58 @@ public class SimpleModelAnalyzer implements ModelAnalyzer {
         final SimpleAnalysisResult analysisResult = initializeAnalysisResult();
         analysisResult.setResultStatus(AnalysisResult.ResultStatus.FAILED);
 
+        // the result models are only populated by the builders until the analysis finishes
+        final BulkConstructionMode bulkConstructionMode = BulkConstructionMode.begin(analysisResult);
+        try {
+            buildAnalysisResult(astModel, somoxConfiguration, analysisResult, progressMonitor);
+        } finally {
+            bulkConstructionMode.end();
+        }
+
+        analysisResult.setResultStatus(AnalysisResult.ResultStatus.SUCCESS);
+
+        return analysisResult;
+    }
+
+    /**
+     * Runs the detection phases which populate the models of the analysis result
+     * @param astModel The root of the GAST model to analyze
+     * @param somoxConfiguration The configuration of this SoMoX run
+     * @param analysisResult The result to populate
+     * @param progressMonitor Progress monitor used to indicate detection progress
+     * @throws ModelAnalyzerException Thrown if the component detection fails
+     */
+    private void buildAnalysisResult(
+            final Root astModel,
+            final SoMoXConfiguration somoxConfiguration,
+            final SimpleAnalysisResult analysisResult,
+            final IProgressMonitor progressMonitor) throws ModelAnalyzerException {
+
+        // Previous run of an incremental analysis
+        long start = System.nanoTime();
+        final IncrementalAnalysisBaseline incrementalBaseline = IncrementalAnalysisBaseline.load(somoxConfiguration);
+        if (incrementalBaseline != null) {
+            PerformanceCounters.getInstance().recordPhase("incremental_baseline", start);
+        }
+
         // Set up model builder
         final ComponentBuilder pcmComponentBuilder = new ComponentBuilder(astModel, somoxConfiguration, analysisResult);
-        final ISoMoXStrategiesFactory strategiesFactory = new BasicSoMoXStrategiesFactory(astModel, somoxConfiguration);
+        final ISoMoXStrategiesFactory strategiesFactory =
+                new BasicSoMoXStrategiesFactory(astModel, somoxConfiguration, incrementalBaseline);
 
         // Initial Components
-        final List<ComponentImplementingClassesLink> initialComponents = detectInitialComponentCandidates(
+        start = System.nanoTime();
+        List<ComponentImplementingClassesLink> initialComponents = detectInitialComponentCandidates(
                 astModel, somoxConfiguration, pcmComponentBuilder, strategiesFactory,
                 progressMonitor);
+        PerformanceCounters.getInstance().recordPhase("initial_components", start);
+
+        // Warm start with the unchanged components of the previous run
+        if (incrementalBaseline != null) {
+            start = System.nanoTime();
+            initialComponents = incrementalBaseline.seedInitialComponents(initialComponents, pcmComponentBuilder);
+            PerformanceCounters.getInstance().recordPhase("incremental_seeding", start);
+        }
 
         //removelater
         //		String fileName = "01initialComponentsPCKDM.txt";
@@ -133,19 +210,21 @@ public class SimpleModelAnalyzer implements ModelAnalyzer {
         //		org.somox.changetest.Helper.sortFile(fileName);
 
         // Component Detection
+        start = System.nanoTime();
         clusterComponents(initialComponents, somoxConfiguration, pcmComponentBuilder,
                 strategiesFactory, progressMonitor);
+        PerformanceCounters.getInstance().recordPhase("clustering", start);
 
         // Post Detection Phase
+        start = System.nanoTime();
         postComponentDetection(somoxConfiguration, analysisResult, strategiesFactory, progressMonitor);
+        PerformanceCounters.getInstance().recordPhase("post_detection", start);
 
         // Create PCM System
+        start = System.nanoTime();
         final PCMSystemBuilder pcmSystemBuilder = new PCMSystemBuilder(astModel, somoxConfiguration, analysisResult, pcmComponentBuilder);
         pcmSystemBuilder.buildSystemModel();
-
-        analysisResult.setResultStatus(AnalysisResult.ResultStatus.SUCCESS);
-
-        return analysisResult;
+        PerformanceCounters.getInstance().recordPhase("system_model", start);
     }
 
     private void postComponentDetection(
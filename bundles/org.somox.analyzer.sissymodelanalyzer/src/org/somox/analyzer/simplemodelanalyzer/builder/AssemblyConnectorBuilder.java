@@ -50,20 +50,52 @@ public class AssemblyConnectorBuilder extends AbstractBuilder {
             final RepositoryComponent requiredComponentInstance,
             final RepositoryComponent providedComponentInstance) {
 
+        final AssemblyContext providingAssemblyContext = findAssemblyContext(
+                parentComponent, providedComponentInstance);
+        final AssemblyContext requiringAssemblyContext = findAssemblyContext(
+                parentComponent, requiredComponentInstance);
+
+        return createAssemblyConnector(parentComponent, requiredRole, providedRole,
+                requiredComponentInstance, providedComponentInstance,
+                requiringAssemblyContext, providingAssemblyContext);
+    }
+
+    /**
+     * Create a new instance of an assembly connector between component instances whose assembly
+     * contexts have already been looked up, e.g., by an {@link AssemblyConnectorPlanner}.
+     *
+     * @param parentComponent
+     *            the outer composite component
+     * @param requiredRole
+     *            the required port of an inner component
+     * @param providedRole
+     *            the provided port of an inner component
+     * @param requiredComponentInstance
+     *            the requiring component used to name the connector
+     * @param providedComponentInstance
+     *            the providing component used to name the connector
+     * @param requiringAssemblyContext
+     *            the assembly context of the requiring component
+     * @param providingAssemblyContext
+     *            the assembly context of the providing component
+     */
+    static Connector createAssemblyConnector(
+            final ComposedStructure parentComponent,
+            final OperationRequiredRole requiredRole,
+            final OperationProvidedRole providedRole,
+            final RepositoryComponent requiredComponentInstance,
+            final RepositoryComponent providedComponentInstance,
+            final AssemblyContext requiringAssemblyContext,
+            final AssemblyContext providingAssemblyContext) {
+
         final AssemblyConnector newConnector = createAssemblyConnectorEntity(
                 parentComponent, requiredComponentInstance,
                 providedComponentInstance);
 
         newConnector.setProvidedRole_AssemblyConnector(providedRole);
         newConnector.setRequiredRole_AssemblyConnector(requiredRole);
-
-        final AssemblyContext providingAssemblyContext = findAssemblyContext(
-                parentComponent, providedComponentInstance);
         newConnector
         .setProvidingAssemblyContext_AssemblyConnector(providingAssemblyContext);
-
-        final AssemblyContext requiringAssemblyContext = findAssemblyContext(
-                parentComponent, requiredComponentInstance);
         newConnector
         .setRequiringAssemblyContext_AssemblyConnector(requiringAssemblyContext);
 
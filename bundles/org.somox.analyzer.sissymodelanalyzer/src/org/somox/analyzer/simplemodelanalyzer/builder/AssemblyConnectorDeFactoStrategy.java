@@ -9,7 +9,6 @@ import org.palladiosimulator.pcm.core.entity.ComposedProvidingRequiringEntity;
 import org.palladiosimulator.pcm.repository.CompositeComponent;
 import org.palladiosimulator.pcm.repository.OperationProvidedRole;
 import org.palladiosimulator.pcm.repository.OperationRequiredRole;
-import org.palladiosimulator.pcm.repository.ProvidedRole;
 import org.palladiosimulator.pcm.repository.RequiredRole;
 import org.somox.metrics.ClusteringRelation;
 import org.somox.sourcecodedecorator.ComponentImplementingClassesLink;
@@ -41,9 +40,11 @@ public class AssemblyConnectorDeFactoStrategy implements IAssemblyConnectorStrat
 		if (!compositeComponentCandidate.isCompositeComponent()) {
 			throw new IllegalArgumentException("Add assembly connectors not allowed for primitive components");
 		}
+		AssemblyConnectorPlanner planner = new AssemblyConnectorPlanner(
+				(CompositeComponent)compositeComponentCandidate.getComponent());
 		for (ClusteringRelation edge : compositeComponentSubgraph.edgeSet()) {
 			probeAssemblyConnector(
-					(CompositeComponent)compositeComponentCandidate.getComponent(),
+					planner,
 					compositeComponentSubgraph.getEdgeSource(edge),
 					compositeComponentSubgraph.getEdgeTarget(edge));
 		}
@@ -52,39 +53,33 @@ public class AssemblyConnectorDeFactoStrategy implements IAssemblyConnectorStrat
 	/**
 	 * Tries to establish an assembly connector for matching interfaces;
 	 * i.e. a provided and required role match within a component. 
-	 * @param component
+	 * The provided roles of the target are looked up by the required interface.
+	 * @param planner Planner of the composite component containing both components
 	 * @param edgeSource
 	 * @param edgeTarget
 	 */
 	private void probeAssemblyConnector(
-			CompositeComponent component,
+			AssemblyConnectorPlanner planner,
 			ComponentImplementingClassesLink edgeSource,
 			ComponentImplementingClassesLink edgeTarget) {
 		Collection<RequiredRole> requiredRoles = edgeSource.getComponent().getRequiredRoles_InterfaceRequiringEntity();
-		Collection<ProvidedRole> providedRoles = edgeTarget.getComponent().getProvidedRoles_InterfaceProvidingEntity();
 		for (RequiredRole requiredRole : requiredRoles) {
-			for (ProvidedRole providedRole : providedRoles) {
-				logger.debug("compare reqrole.getReqEnt and prorole.getProEnt");
-				logger.debug("reqrole.getReqEnt = " + requiredRole.getRequiringEntity_RequiredRole());
-				logger.debug("prorole.getProEnt = " + providedRole.getProvidingEntity_ProvidedRole());
-				if(requiredRole instanceof OperationRequiredRole && providedRole instanceof OperationProvidedRole){
-					OperationRequiredRole opReqRole = (OperationRequiredRole) requiredRole;
-					OperationProvidedRole opProvRole = (OperationProvidedRole) providedRole;
-					if (opReqRole.getRequiredInterface__OperationRequiredRole().equals(opProvRole.getProvidedInterface__OperationProvidedRole())) {
-						AssemblyConnectorBuilder.createAssemblyConnector(
-								component,
-								opReqRole,
-								opProvRole,
-								edgeSource.getComponent(),
-								edgeTarget.getComponent());
-					}
-				} else {
-					logger.warn("Role types: "
-							+ providedRole.getClass().getSimpleName()
-							+ " and "
-							+ requiredRole.getClass().getSimpleName()
-							+ " not yet supported.");
+			if(requiredRole instanceof OperationRequiredRole){
+				OperationRequiredRole opReqRole = (OperationRequiredRole) requiredRole;
+				for (OperationProvidedRole opProvRole : planner.getProvidedRoles(
+						edgeTarget.getComponent(), opReqRole.getRequiredInterface__OperationRequiredRole())) {
+					logger.debug("reqrole.getReqEnt = " + requiredRole.getRequiringEntity_RequiredRole());
+					logger.debug("prorole.getProEnt = " + opProvRole.getProvidingEntity_ProvidedRole());
+					planner.createAssemblyConnector(
+							opReqRole,
+							opProvRole,
+							edgeSource.getComponent(),
+							edgeTarget.getComponent());
 				}
+			} else {
+				logger.warn("Role type: "
+						+ requiredRole.getClass().getSimpleName()
+						+ " not yet supported.");
 			}
 		}
 		
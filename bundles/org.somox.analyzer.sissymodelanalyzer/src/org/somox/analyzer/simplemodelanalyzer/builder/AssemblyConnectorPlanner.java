@@ -0,0 +1,184 @@
+package org.somox.analyzer.simplemodelanalyzer.builder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.log4j.Logger;
+import org.palladiosimulator.pcm.core.composition.AssemblyConnector;
+import org.palladiosimulator.pcm.core.composition.AssemblyContext;
+import org.palladiosimulator.pcm.core.composition.ComposedStructure;
+import org.palladiosimulator.pcm.core.composition.Connector;
+import org.palladiosimulator.pcm.core.composition.ProvidedDelegationConnector;
+import org.palladiosimulator.pcm.core.composition.RequiredDelegationConnector;
+import org.palladiosimulator.pcm.repository.Interface;
+import org.palladiosimulator.pcm.repository.OperationProvidedRole;
+import org.palladiosimulator.pcm.repository.OperationRequiredRole;
+import org.palladiosimulator.pcm.repository.ProvidedRole;
+import org.palladiosimulator.pcm.repository.RepositoryComponent;
+import org.palladiosimulator.pcm.repository.RequiredRole;
+
+/**
+ * Index of a composed structure used to create its assembly connectors. Assembly contexts are resolved through a
+ * map from their encapsulated component, the provided roles of the inner components are indexed by their interface
+ * and the required roles bound in connectors are kept in a hash set. Hence, connecting all roles of a composed
+ * structure is linear in the number of roles. The planner has to be used for all connectors created in the composed
+ * structure while it is in use; connectors added otherwise are not tracked.
+ */
+public class AssemblyConnectorPlanner {
+
+    private static final Logger logger = Logger.getLogger(AssemblyConnectorPlanner.class);
+
+    private final ComposedStructure composedStructure;
+
+    private final Map<RepositoryComponent, AssemblyContext> assemblyContexts = new HashMap<RepositoryComponent, AssemblyContext>();
+
+    /**
+     * Components encapsulated in more than one assembly context of the composed structure
+     */
+    private final Set<RepositoryComponent> ambiguousComponents = new HashSet<RepositoryComponent>();
+
+    private final Set<RequiredRole> boundRequiredRoles = new HashSet<RequiredRole>();
+
+    private final Map<RepositoryComponent, Map<Interface, List<OperationProvidedRole>>> providedRoles =
+            new HashMap<RepositoryComponent, Map<Interface, List<OperationProvidedRole>>>();
+
+    /**
+     * @param composedStructure The structure whose assembly contexts and existing connectors are indexed
+     */
+    public AssemblyConnectorPlanner(final ComposedStructure composedStructure) {
+        super();
+
+        this.composedStructure = composedStructure;
+        for (final AssemblyContext assemblyContext : composedStructure.getAssemblyContexts__ComposedStructure()) {
+            final RepositoryComponent component = assemblyContext.getEncapsulatedComponent__AssemblyContext();
+            if (assemblyContexts.containsKey(component)) {
+                ambiguousComponents.add(component);
+            } else {
+                assemblyContexts.put(component, assemblyContext);
+            }
+        }
+        for (final Connector connector : composedStructure.getConnectors__ComposedStructure()) {
+            registerConnector(connector);
+        }
+    }
+
+    /**
+     * @param requiredRole A required role of an inner component
+     * @return true if the role is bound in an assembly connector or a required delegation connector
+     */
+    public boolean isBound(final RequiredRole requiredRole) {
+        return boundRequiredRoles.contains(requiredRole);
+    }
+
+    /**
+     * Creates assembly connectors from the given required role to every provided role of the given components
+     * which provides the required interface.
+     * @param requiringComponent The inner component owning the required role
+     * @param requiredRole The role to connect
+     * @param providingComponents The inner components to search for matching provided roles, in connection order
+     */
+    public void connectToMatchingProvidedRoles(
+            final RepositoryComponent requiringComponent,
+            final RequiredRole requiredRole,
+            final Iterable<RepositoryComponent> providingComponents) {
+        if (!(requiredRole instanceof OperationRequiredRole)) {
+            logger.warn("Required role type: " + requiredRole.getClass().getSimpleName() + " not yet supported");
+            return;
+        }
+        final OperationRequiredRole opReqRole = (OperationRequiredRole) requiredRole;
+        for (final RepositoryComponent providingComponent : providingComponents) {
+            for (final OperationProvidedRole opProvRole : getProvidedRoles(
+                    providingComponent, opReqRole.getRequiredInterface__OperationRequiredRole())) {
+                createAssemblyConnector(opReqRole, opProvRole, requiringComponent, providingComponent);
+            }
+        }
+    }
+
+    /**
+     * @param component An inner component
+     * @param providedInterface The interface to search
+     * @return The operation provided roles of the component providing the interface in role order
+     */
+    public List<OperationProvidedRole> getProvidedRoles(
+            final RepositoryComponent component, final Interface providedInterface) {
+        Map<Interface, List<OperationProvidedRole>> rolesByInterface = providedRoles.get(component);
+        if (rolesByInterface == null) {
+            rolesByInterface = new LinkedHashMap<Interface, List<OperationProvidedRole>>();
+            for (final ProvidedRole providedRole : component.getProvidedRoles_InterfaceProvidingEntity()) {
+                if (providedRole instanceof OperationProvidedRole) {
+                    final OperationProvidedRole opProvRole = (OperationProvidedRole) providedRole;
+                    List<OperationProvidedRole> roles = rolesByInterface.get(opProvRole.getProvidedInterface__OperationProvidedRole());
+                    if (roles == null) {
+                        roles = new ArrayList<OperationProvidedRole>(1);
+                        rolesByInterface.put(opProvRole.getProvidedInterface__OperationProvidedRole(), roles);
+                    }
+                    roles.add(opProvRole);
+                } else {
+                    logger.warn("Provided role type: " + providedRole.getClass().getSimpleName() + " not yet supported");
+                }
+            }
+            providedRoles.put(component, rolesByInterface);
+        }
+        final List<OperationProvidedRole> result = rolesByInterface.get(providedInterface);
+        return result == null ? Collections.<OperationProvidedRole>emptyList() : result;
+    }
+
+    /**
+     * Creates an assembly connector between two inner components of the composed structure.
+     * @param requiredRole The required role of the requiring component
+     * @param providedRole The provided role of the providing component
+     * @param requiringComponent The requiring inner component
+     * @param providingComponent The providing inner component
+     * @return The new connector, already added to the composed structure
+     */
+    public Connector createAssemblyConnector(
+            final OperationRequiredRole requiredRole,
+            final OperationProvidedRole providedRole,
+            final RepositoryComponent requiringComponent,
+            final RepositoryComponent providingComponent) {
+        final Connector result = AssemblyConnectorBuilder.createAssemblyConnector(
+                composedStructure, requiredRole, providedRole,
+                requiringComponent, providingComponent,
+                getAssemblyContext(requiringComponent), getAssemblyContext(providingComponent));
+        boundRequiredRoles.add(requiredRole);
+        return result;
+    }
+
+    /**
+     * @param component An inner component
+     * @return The assembly context encapsulating the component or null if there is none
+     * @throws IllegalArgumentException Thrown if several assembly contexts encapsulate the component
+     */
+    public AssemblyContext getAssemblyContext(final RepositoryComponent component) {
+        if (ambiguousComponents.contains(component)) {
+            throw new IllegalArgumentException(
+                    "Assumption on input model does not hold. "
+                            + "Only one instance per component type per composite component assumed!");
+        }
+        final AssemblyContext result = assemblyContexts.get(component);
+        if (result == null) {
+            logger.warn("No subcomponent instance found for parent "
+                    + composedStructure.getEntityName() + " and child component "
+                    + component.getEntityName());
+        }
+        return result;
+    }
+
+    private void registerConnector(final Connector connector) {
+        if (connector instanceof AssemblyConnector) {
+            boundRequiredRoles.add(((AssemblyConnector) connector).getRequiredRole_AssemblyConnector());
+        } else if (connector instanceof ProvidedDelegationConnector) {
+            /* Provided delegation connectors can never be connected to required roles */
+        } else if (connector instanceof RequiredDelegationConnector) {
+            boundRequiredRoles.add(((RequiredDelegationConnector) connector).getInnerRequiredRole_RequiredDelegationConnector());
+        } else {
+            logger.warn("Connector type " + connector.getClass().getSimpleName() + " not yet supported.");
+        }
+    }
+}
@@ -161,8 +161,8 @@ public class ComponentAndTypeNaming {
                             maxNumberPackageId = Root.getIdForPackage(KDMHelper.getSurroundingPackage(currentClass));
                         }
                     }
-                } else if (KDMHelper.getJavaNodeSourceRegion(currentClass) != null && KDMHelper.getSourceFile(KDMHelper.getJavaNodeSourceRegion(currentClass)) != null){
-                    directoryName = KDMHelper.getSourceFile(KDMHelper.getJavaNodeSourceRegion(currentClass)).getPath();
+                } else if (KDMHelper.getSourceFile(currentClass) != null){
+                    directoryName = KDMHelper.getSourceFile(currentClass).getPath();
                 } else {
                     logger.warn("found neither packages nor directories for GAST class " + KDMHelper.computeFullQualifiedName(currentClass));
                 }
@@ -1,14 +1,20 @@
 package org.somox.analyzer.simplemodelanalyzer.builder;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.log4j.Logger;
 import org.eclipse.emf.common.util.BasicEList;
 import org.eclipse.emf.common.util.EList;
+import org.eclipse.gmt.modisco.java.MethodDeclaration;
 import org.eclipse.gmt.modisco.java.Type;
+import org.eclipse.gmt.modisco.omg.kdm.source.SourceFile;
 import org.jgrapht.Graph;
 import org.palladiosimulator.pcm.core.composition.AssemblyContext;
 import org.palladiosimulator.pcm.core.composition.ComposedStructure;
@@ -17,6 +23,7 @@ import org.palladiosimulator.pcm.repository.CompositeComponent;
 import org.palladiosimulator.pcm.repository.RepositoryComponent;
 import org.palladiosimulator.pcm.repository.RepositoryFactory;
 import org.somox.analyzer.AnalysisResult;
+import org.somox.analyzer.simplemodelanalyzer.builder.util.BulkConstructionMode;
 import org.somox.configuration.SoMoXConfiguration;
 import org.somox.kdmhelper.KDMHelper;
 import org.somox.kdmhelper.metamodeladdition.Root;
@@ -42,6 +49,18 @@ public class ComponentBuilder extends AbstractBuilder {
     private IAssemblyConnectorStrategy assemblyConnectorInnerBuilder = null;
     private IRoleBuilderStrategy roleBuilder = null;
 
+    /**
+     * Parent pointers of all subcomponents added to composite components created by this builder
+     */
+    private final Map<ComponentImplementingClassesLink, ComponentImplementingClassesLink> parentComponents =
+            new HashMap<ComponentImplementingClassesLink, ComponentImplementingClassesLink>();
+
+    /**
+     * Composite components whose subcomponents are all recorded in {@link #parentComponents}
+     */
+    private final Set<ComponentImplementingClassesLink> indexedCompositeComponents =
+            new HashSet<ComponentImplementingClassesLink>();
+
     private static Logger logger = Logger.getLogger(ComponentBuilder.class);
 
     /**
@@ -102,9 +121,10 @@ public class ComponentBuilder extends AbstractBuilder {
 
         result.setComponent(newComponentType);
         result.getSubComponents().addAll(compositeComponentSubgraph.vertexSet());
+        indexSubComponents(result, compositeComponentSubgraph.vertexSet());
 
-        this.analysisResult.getSourceCodeDecoratorRepository().getComponentImplementingClassesLink().add(result);
-        this.analysisResult.getInternalArchitectureModel().getComponents__Repository().add(newComponentType);
+        BulkConstructionMode.addUnique(this.analysisResult.getSourceCodeDecoratorRepository().getComponentImplementingClassesLink(), result);
+        BulkConstructionMode.addUnique(this.analysisResult.getInternalArchitectureModel().getComponents__Repository(), newComponentType);
 
         this.assemblyConnectorDeFactoBuilder.buildAssemblyConnectors(result,compositeComponentSubgraph);
         this.assemblyConnectorInnerBuilder.buildAssemblyConnectors(result,compositeComponentSubgraph);
@@ -210,17 +230,7 @@ public class ComponentBuilder extends AbstractBuilder {
 
         //removelater
         //String componentName = componentNamingStrategy.createSimpleComponentName(gastClasses, true);
-        final String componentName = componentNamingStrategy.createSimpleComponentName(gastClasses, false);//for metric compare reasons
-
-        logger.info("Creating primitive component "+componentName);
-
-        this.analysisResult.getSourceCodeDecoratorRepository().getComponentImplementingClassesLink().add(primitiveComponent);
-
-        final RepositoryComponent newComponentType = RepositoryFactory.eINSTANCE.createBasicComponent();
-        newComponentType.setEntityName(componentName); //short name
-        //newComponentType.setDocumentation(componentNamingStrategy.createSimpleComponentName(gastClasses, false)); //long description
-        this.analysisResult.getInternalArchitectureModel().getComponents__Repository().add(newComponentType);
-        primitiveComponent.setComponent(newComponentType);
+        final RepositoryComponent newComponentType = createBasicComponent(gastClasses, primitiveComponent);
 
         // TODO: check whether now duplicate classes are added
         for(final Type currentGASTclass : gastClasses) {
@@ -235,6 +245,80 @@ public class ComponentBuilder extends AbstractBuilder {
         return primitiveComponent;
     }
 
+    /**
+     * Analyses the given GASTClass for the creation of a primitive component without changing any model. As
+     * the GAST model is only read, plans of different classes may be computed concurrently.
+     * @param gastClass The main GASTClass for which a new primitive component is planned
+     * @return The plan to pass to {@link #createPrimitiveComponentFromPlan(PrimitiveComponentPlan)}
+     */
+    public PrimitiveComponentPlan planPrimitiveComponentFromGASTClass(final Type gastClass) {
+        final List<Type> implementingClasses = new ArrayList<Type>(getInnerClasses(gastClass));
+        final Map<Type, List<Type>> supertypes = new HashMap<Type, List<Type>>();
+        final Map<Type, List<MethodDeclaration>> signatureMethods = new HashMap<Type, List<MethodDeclaration>>();
+
+        for (final Type implementingClass : implementingClasses) {
+            // public methods become the interface of components without provided interfaces
+            signatureMethods.put(implementingClass, OperationBuilder.getSignatureMethods(implementingClass));
+            final List<Type> classSupertypes = interfaceBuilder.collectSupertypes(implementingClass);
+            for (final Type superType : classSupertypes) {
+                if (!signatureMethods.containsKey(superType)) {
+                    signatureMethods.put(superType, OperationBuilder.getSignatureMethods(superType));
+                }
+            }
+            supertypes.put(implementingClass, classSupertypes);
+        }
+
+        return new PrimitiveComponentPlan(gastClass, implementingClasses, supertypes, signatureMethods);
+    }
+
+    /**
+     * Method to create a primitive component, its source decoration and its provided and required interfaces
+     * from a plan. Equivalent to {@link #createPrimitiveComponentFromGASTClass(Type)} for the planned class.
+     * @param plan Plan created by {@link #planPrimitiveComponentFromGASTClass(Type)}
+     * @return The {@link ComponentImplementingClassesLink} annotation describing the new component and its origin in the source code
+     */
+    public ComponentImplementingClassesLink createPrimitiveComponentFromPlan(
+            final PrimitiveComponentPlan plan) {
+        final ComponentImplementingClassesLink primitiveComponent =
+                SourceCodeDecoratorFactory.eINSTANCE.createComponentImplementingClassesLink();
+        final RepositoryComponent newComponentType =
+                createBasicComponent(Collections.singletonList(plan.getGastClass()), primitiveComponent);
+
+        for (final Type implementingClass : plan.getImplementingClasses()) {
+            storeFileLocationInSourceCodeDecorator(implementingClass, newComponentType);
+        }
+        BulkConstructionMode.addAllUnique(primitiveComponent.getImplementingClasses(), plan.getImplementingClasses());
+
+        interfaceBuilder.findAndAddRequiredInterfaces(primitiveComponent);
+        interfaceBuilder.addProvidedInterfaces(primitiveComponent, plan);
+        // remove duplicate interfaces which are provided AND required
+        interfaceBuilder.removeInterfaceSelfAccesses(primitiveComponent);
+
+        return primitiveComponent;
+    }
+
+    /**
+     * Creates the SAMM basic component of a new primitive component and registers both
+     * @param gastClasses The main GASTClasses of the component used to name it
+     * @param primitiveComponent The component link which gets the new basic component
+     * @return The new basic component
+     */
+    private RepositoryComponent createBasicComponent(
+            final List<Type> gastClasses, final ComponentImplementingClassesLink primitiveComponent) {
+        final String componentName = componentNamingStrategy.createSimpleComponentName(gastClasses, false);//for metric compare reasons
+
+        logger.info("Creating primitive component "+componentName);
+
+        BulkConstructionMode.addUnique(this.analysisResult.getSourceCodeDecoratorRepository().getComponentImplementingClassesLink(), primitiveComponent);
+
+        final RepositoryComponent newComponentType = RepositoryFactory.eINSTANCE.createBasicComponent();
+        newComponentType.setEntityName(componentName); //short name
+        //newComponentType.setDocumentation(componentNamingStrategy.createSimpleComponentName(gastClasses, false)); //long description
+        BulkConstructionMode.addUnique(this.analysisResult.getInternalArchitectureModel().getComponents__Repository(), newComponentType);
+        primitiveComponent.setComponent(newComponentType);
+        return newComponentType;
+    }
+
     /**
      * Create a component link from a GAST class only. Attention: Does not create the SAMM component!
      * Only sets the gast class.
@@ -246,9 +330,9 @@ public class ComponentBuilder extends AbstractBuilder {
 
         final ComponentImplementingClassesLink newPrimitiveComponent =
                 SourceCodeDecoratorFactory.eINSTANCE.createComponentImplementingClassesLink();
-        this.analysisResult.getSourceCodeDecoratorRepository().getComponentImplementingClassesLink().add(newPrimitiveComponent);
+        BulkConstructionMode.addUnique(this.analysisResult.getSourceCodeDecoratorRepository().getComponentImplementingClassesLink(), newPrimitiveComponent);
 
-        newPrimitiveComponent.getImplementingClasses().addAll(getInnerClasses(gastClass));
+        BulkConstructionMode.addAllUnique(newPrimitiveComponent.getImplementingClasses(), getInnerClasses(gastClass));
 
         return newPrimitiveComponent;
     }
@@ -298,10 +382,11 @@ public class ComponentBuilder extends AbstractBuilder {
                 assemblyContext.setEncapsulatedComponent__AssemblyContext(newInnerPrimitiveComponent.getComponent());
                 assemblyContext.setEntityName(this.componentNamingStrategy.createComponentInstanceName(newInnerPrimitiveComponent.getComponent()));
 
-                ((CompositeComponent)compositeComponentLink.getComponent()).getAssemblyContexts__ComposedStructure().add(assemblyContext);
+                BulkConstructionMode.addUnique(((CompositeComponent)compositeComponentLink.getComponent()).getAssemblyContexts__ComposedStructure(), assemblyContext);
 
                 // update the result source code decorator
-                compositeComponentLink.getSubComponents().add(newInnerPrimitiveComponent);
+                BulkConstructionMode.addUnique(compositeComponentLink.getSubComponents(), newInnerPrimitiveComponent);
+                indexSubComponents(compositeComponentLink, Collections.singleton(newInnerPrimitiveComponent));
             } else {
                 // do not handle an existing component
             }
@@ -394,7 +479,7 @@ public class ComponentBuilder extends AbstractBuilder {
      * @return a list containing the given class plus all inner classes
      */
     private Set<Type> getInnerClasses (final Type element) {
-        final Set<Type> currentList = new HashSet<Type>();
+        final Set<Type> currentList = new LinkedHashSet<Type>();
         currentList.add(element);
 
         final List<Type> innerClasses = KDMHelper.getInnerClasses(element);
@@ -420,10 +505,47 @@ public class ComponentBuilder extends AbstractBuilder {
         //TODO inner classes?
         final FileLevelSourceCodeLink link = SourceCodeDecoratorFactory.eINSTANCE.createFileLevelSourceCodeLink();
         link.setRepositoryComponent(newComponent);
-        if(KDMHelper.getJavaNodeSourceRegion(gastClass) != null && KDMHelper.getSourceFile(KDMHelper.getJavaNodeSourceRegion(gastClass)) != null) { // can be null for C code
-            link.setFile(KDMHelper.getSourceFile(KDMHelper.getJavaNodeSourceRegion(gastClass)));
+        final SourceFile sourceFile = KDMHelper.getSourceFile(gastClass);
+        if(sourceFile != null) { // can be null for C code
+            link.setFile(sourceFile);
+        }
+        BulkConstructionMode.addUnique(this.analysisResult.getSourceCodeDecoratorRepository().getFileLevelSourceCodeLink(), link);
+    }
+
+    /**
+     * Records the parent pointers of subcomponents added to a composite component. A composite component is only
+     * marked as indexed if all of its subcomponents have been recorded.
+     * @param compositeComponentLink The outer composite component
+     * @param subComponents The newly added subcomponents
+     */
+    private void indexSubComponents(
+            final ComponentImplementingClassesLink compositeComponentLink,
+            final Set<ComponentImplementingClassesLink> subComponents) {
+        for(final ComponentImplementingClassesLink subComponent : subComponents) {
+            this.parentComponents.put(subComponent, compositeComponentLink);
+        }
+        if(compositeComponentLink.getSubComponents().size() == subComponents.size()
+                || this.indexedCompositeComponents.contains(compositeComponentLink)) {
+            this.indexedCompositeComponents.add(compositeComponentLink);
         }
-        this.analysisResult.getSourceCodeDecoratorRepository().getFileLevelSourceCodeLink().add(link);
+    }
+
+    /**
+     * @param componentLink A component created during component detection
+     * @return The composite component created by this builder which contains the component; null if the component
+     * 		is not a subcomponent of such a composite component
+     */
+    public ComponentImplementingClassesLink getParentComponent(final ComponentImplementingClassesLink componentLink) {
+        return this.parentComponents.get(componentLink);
+    }
+
+    /**
+     * @param componentLink A component link of the source code decorator
+     * @return true if the parent pointers of all subcomponents of the component are known to this builder.
+     * 		Subcomponents of other composite components have to be inspected directly.
+     */
+    public boolean isIndexedCompositeComponent(final ComponentImplementingClassesLink componentLink) {
+        return this.indexedCompositeComponents.contains(componentLink);
     }
 
     /**
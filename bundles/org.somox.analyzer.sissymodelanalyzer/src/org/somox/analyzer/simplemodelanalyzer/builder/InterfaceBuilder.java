@@ -1,15 +1,21 @@
 package org.somox.analyzer.simplemodelanalyzer.builder;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import org.apache.log4j.Logger;
 import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.util.EcoreUtil;
 import org.eclipse.gmt.modisco.java.ASTNode;
+import org.eclipse.gmt.modisco.java.MethodDeclaration;
 import org.eclipse.gmt.modisco.java.ParameterizedType;
 import org.eclipse.gmt.modisco.java.Type;
 import org.eclipse.gmt.modisco.java.TypeAccess;
@@ -26,12 +32,14 @@ import org.palladiosimulator.pcm.repository.RepositoryFactory;
 import org.palladiosimulator.pcm.repository.RequiredRole;
 import org.palladiosimulator.pcm.repository.Role;
 import org.somox.analyzer.AnalysisResult;
+import org.somox.analyzer.simplemodelanalyzer.builder.util.BulkConstructionMode;
 import org.somox.analyzer.simplemodelanalyzer.builder.util.InterfacePortBuilderHelper;
 import org.somox.analyzer.simplemodelanalyzer.detection.ComponentInterfaceStrategy;
 import org.somox.analyzer.simplemodelanalyzer.detection.IComponentInterfaceStrategy;
 import org.somox.analyzer.simplemodelanalyzer.detection.util.AccessFilter;
 import org.somox.configuration.SoMoXConfiguration;
 import org.somox.filter.EClassBasedFilter;
+import org.somox.instrumentation.PerformanceCounters;
 import org.somox.kdmhelper.KDMHelper;
 import org.somox.kdmhelper.metamodeladdition.Root;
 import org.somox.sourcecodedecorator.ComponentImplementingClassesLink;
@@ -53,6 +61,12 @@ public class InterfaceBuilder extends AbstractBuilder {
      */
     private final Map<Type, OperationInterface> alreadyCreatedInterfaces = new HashMap<Type, OperationInterface>();
 
+    /**
+     * Signature methods collected by applied {@link PrimitiveComponentPlan}s for classes whose interfaces have
+     * not been created yet
+     */
+    private final Map<Type, List<MethodDeclaration>> plannedSignatureMethods = new HashMap<Type, List<MethodDeclaration>>();
+
     /**
      * Logger of this builder
      */
@@ -118,8 +132,18 @@ public class InterfaceBuilder extends AbstractBuilder {
      */
     public boolean findAndAddRequiredInterfaces(
             final ComponentImplementingClassesLink componentCandidate) {
-        boolean addedARequiredInterface = false;
+        return addRequiredInterfaces(planRequiredInterfaces(componentCandidate));
+    }
 
+    /**
+     * Finds the required interfaces of the given component without changing any model. As the GAST model
+     * and the source code decorator are only read, plans of different components may be computed concurrently
+     * as long as no plan is applied meanwhile.
+     * @param componentCandidate The component whose required interfaces are searched
+     * @return The plan to pass to {@link #addRequiredInterfaces(RequiredInterfacePlan)}
+     */
+    public RequiredInterfacePlan planRequiredInterfaces(
+            final ComponentImplementingClassesLink componentCandidate) {
         // Filter used to remove inheritance type relations from the list of accesses
         final EClassBasedFilter<ASTNode> accessFilter = new EClassBasedFilter<ASTNode>(
                 new EClass[] {
@@ -141,24 +165,65 @@ public class InterfaceBuilder extends AbstractBuilder {
         // remove self accesses inside component (NOT equal to a self access)
         filteredAccessedClasses.removeAll(componentClasses);
 
+        final Set<Type> interfaceClasses = new LinkedHashSet<Type>();
         for (final Type accessedClass : this.somoxConfiguration.getBlacklistFilter().filter(filteredAccessedClasses)) {
-            if (interfaceStrategy.isComponentInterface(accessedClass)) {
-
-                // Setting null here since the interface implementation is not generally known; i. e. there could be multiple
-                // implementations.
-                final OperationInterface reqInterface = createInterface(null,accessedClass);
-
-                // If the interface has already been added to component, do not
-                // add it again
-                if (!doesComponentAlreadyRequireInterface(reqInterface,
-                        componentCandidate.getComponent())) {
-                    createRequiredPort(componentCandidate.getComponent(),
-                            reqInterface);
-                    //update source code decorator:
-                    updateInterfacesInSourceCodeDecorator(componentCandidate, reqInterface, accessedClass, !PROVIDED_INTERFACE);
-
-                    addedARequiredInterface = true;
-                }
+            if (!interfaceClasses.contains(accessedClass) && interfaceStrategy.isComponentInterface(accessedClass)) {
+                interfaceClasses.add(accessedClass);
+            }
+        }
+
+        return new RequiredInterfacePlan(componentCandidate, new ArrayList<Type>(interfaceClasses));
+    }
+
+    /**
+     * Finds the required interfaces of all given components in parallel.
+     * @param components The components whose required interfaces are searched
+     * @param parallelism Number of worker threads
+     * @return The plans in the order of the components
+     * @see #planRequiredInterfaces(ComponentImplementingClassesLink)
+     */
+    public List<RequiredInterfacePlan> planRequiredInterfaces(
+            final List<ComponentImplementingClassesLink> components,
+            final int parallelism) {
+        final long start = System.nanoTime();
+        final ComponentImplementingClassesLink[] componentArray =
+                components.toArray(new ComponentImplementingClassesLink[components.size()]);
+        final RequiredInterfacePlan[] plans = new RequiredInterfacePlan[componentArray.length];
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new RequiredInterfacePlanningTask(componentArray, plans, 0, componentArray.length));
+        } finally {
+            pool.shutdown();
+        }
+        PerformanceCounters.getInstance().timer("somox_required_interface_planning_seconds").record(System.nanoTime() - start);
+        return Arrays.asList(plans);
+    }
+
+    /**
+     * Creates the required roles and source code decorator links of a plan. Interfaces which do not exist yet
+     * are created as well.
+     * @param plan Plan created by {@link #planRequiredInterfaces(ComponentImplementingClassesLink)}
+     * @return true if a interface was added; false else
+     */
+    public boolean addRequiredInterfaces(final RequiredInterfacePlan plan) {
+        final ComponentImplementingClassesLink componentCandidate = plan.getComponent();
+        boolean addedARequiredInterface = false;
+
+        for (final Type accessedClass : plan.getInterfaceClasses()) {
+            // Setting null here since the interface implementation is not generally known; i. e. there could be multiple
+            // implementations.
+            final OperationInterface reqInterface = createInterface(null,accessedClass);
+
+            // If the interface has already been added to component, do not
+            // add it again
+            if (!doesComponentAlreadyRequireInterface(reqInterface,
+                    componentCandidate.getComponent())) {
+                createRequiredPort(componentCandidate.getComponent(),
+                        reqInterface);
+                //update source code decorator:
+                updateInterfacesInSourceCodeDecorator(componentCandidate, reqInterface, accessedClass, !PROVIDED_INTERFACE);
+
+                addedARequiredInterface = true;
             }
         }
 
@@ -198,6 +263,61 @@ public class InterfaceBuilder extends AbstractBuilder {
         }
     }
 
+    /**
+     * Create provided roles and their interfaces if they do not exist for the given component. Uses the
+     * supertypes and signature methods collected by the plan instead of querying the GAST model.
+     * @param componentCandidate Source code annotation of the detected component for which the
+     * provided interfaces should be created. It has to point to a {@link PrimitiveComponent}.
+     * @param plan The plan the component has been created from
+     */
+    public void addProvidedInterfaces(
+            final ComponentImplementingClassesLink componentCandidate,
+            final PrimitiveComponentPlan plan) {
+
+        // Check precondition
+        if (componentCandidate.isCompositeComponent()) {
+            throw new IllegalArgumentException("This method can only be called on primitive components");
+        }
+
+        for (final Map.Entry<Type, List<MethodDeclaration>> methods : plan.getSignatureMethods().entrySet()) {
+            if (!alreadyCreatedInterfaces.containsKey(methods.getKey())) {
+                plannedSignatureMethods.put(methods.getKey(), methods.getValue());
+            }
+        }
+
+        for (final Type gastClass : componentCandidate.getImplementingClasses()) {
+            for (final Type superType : plan.getSupertypes(gastClass)) {
+                addProvidedInterfaceForSupertype(componentCandidate, gastClass, superType);
+            }
+        }
+
+        if (componentCandidate.getComponent().getProvidedRoles_InterfaceProvidingEntity().isEmpty()) {
+            assignPublicMethodsAsInterfaceForComponentsWithoutInterface(componentCandidate);
+        }
+    }
+
+    /**
+     * Collects the supertypes of a class which are checked for component interfaces by
+     * {@link #addProvidedInterfaces(ComponentImplementingClassesLink)}. Only reads the GAST model, hence it may
+     * be called concurrently.
+     * @param gastClass An implementing class of a component
+     * @return The not blacklisted, unpacked supertypes of the class. Supertypes of a supertype precede it
+     */
+    public List<Type> collectSupertypes(final Type gastClass) {
+        final List<Type> result = new ArrayList<Type>();
+        for (final Type superType : this.somoxConfiguration.getBlacklistFilter().filter(KDMHelper.getSuperTypes(gastClass))) {
+            collectSupertypes(superType, result);
+        }
+        return result;
+    }
+
+    private void collectSupertypes(final Type rawSuperType, final List<Type> result) {
+        for (final Type ownSuperType : this.somoxConfiguration.getBlacklistFilter().filter(KDMHelper.getSuperTypes(rawSuperType))) {
+            collectSupertypes(ownSuperType, result);
+        }
+        result.add(unpackParametricType(rawSuperType));
+    }
+
     /**
      * Add the given interface in a required role to the given component
      * @param component The component which gets the interface as required role
@@ -272,7 +392,12 @@ public class InterfaceBuilder extends AbstractBuilder {
             createInterfaceForSupertype(componentCandidate, gastClass, ownSuperType);
         }
 
-        final Type superType = unpackParametricType(rawSuperType);
+        addProvidedInterfaceForSupertype(componentCandidate, gastClass, unpackParametricType(rawSuperType));
+    }
+
+    private void addProvidedInterfaceForSupertype(
+            final ComponentImplementingClassesLink componentCandidate,
+            final Type gastClass, final Type superType) {
         if (interfaceStrategy.isComponentInterface(superType)) {
             logger.debug("Found interface "+KDMHelper.computeFullQualifiedName(superType)+" for component "+
                     componentCandidate.getComponent().getEntityName());
@@ -373,7 +498,7 @@ public class InterfaceBuilder extends AbstractBuilder {
         compInterface.setEntityName(naming.createInterfaceNameForClass(gastClass));
         //compInterface.setDocumentation(gastClass.getName());
 
-        this.operationBuilder.createOperations(gastClass,compInterface);
+        createOperations(gastClass,compInterface);
 
         this.alreadyCreatedInterfaces.put(gastClass, compInterface);
         this.analysisResult.getInternalArchitectureModel().getInterfaces__Repository().add(compInterface);
@@ -414,7 +539,7 @@ public class InterfaceBuilder extends AbstractBuilder {
             operationInterface.setEntityName(naming.createInterfaceName(interfaceClass));
             //result.setDocumentation(KDMHelper.computeFullQualifiedName(interfaceClass));
 
-            operationBuilder.createOperations(interfaceClass, operationInterface);
+            createOperations(interfaceClass, operationInterface);
 
             this.alreadyCreatedInterfaces.put(interfaceClass, operationInterface);
             this.analysisResult.getInternalArchitectureModel().getInterfaces__Repository()
@@ -423,6 +548,20 @@ public class InterfaceBuilder extends AbstractBuilder {
         return operationInterface;
     }
 
+    /**
+     * Create the operations of a new interface, using the methods collected by a plan if available
+     * @param interfaceClass The class the interface is created for
+     * @param operationInterface The new interface
+     */
+    private void createOperations(final Type interfaceClass, final OperationInterface operationInterface) {
+        final List<MethodDeclaration> signatureMethods = plannedSignatureMethods.remove(interfaceClass);
+        if (signatureMethods != null) {
+            operationBuilder.createOperations(signatureMethods, operationInterface);
+        } else {
+            operationBuilder.createOperations(interfaceClass, operationInterface);
+        }
+    }
+
     /**
      * Checks whether the interface is already present (created before)
      *
@@ -462,8 +601,8 @@ public class InterfaceBuilder extends AbstractBuilder {
         }
         interfaceLink.setInterface(interf);
 
-        this.analysisResult.getSourceCodeDecoratorRepository()
-        .getInterfaceSourceCodeLink().add(interfaceLink);
+        BulkConstructionMode.addUnique(this.analysisResult.getSourceCodeDecoratorRepository()
+                .getInterfaceSourceCodeLink(), interfaceLink);
         if(isProvidedInterface) {
             component.getProvidedInterfaces().add(interfaceLink);
         } else {
@@ -480,12 +619,19 @@ public class InterfaceBuilder extends AbstractBuilder {
     public void updateRequiredInterfacesOfExistingPrimitiveComponents() {
         boolean addedANewInterface = false;
 
+        // the component interface check does not change while applying required interfaces, hence all
+        // plans can be computed up front
+        final List<ComponentImplementingClassesLink> primitiveComponents = new ArrayList<ComponentImplementingClassesLink>();
         for(final ComponentImplementingClassesLink compLink : analysisResult.getSourceCodeDecoratorRepository().getComponentImplementingClassesLink()) {
             if(!compLink.isCompositeComponent()) {
-                addedANewInterface = findAndAddRequiredInterfaces(compLink);
-                addedANewInterface = true;
+                primitiveComponents.add(compLink);
             }
         }
+        for(final RequiredInterfacePlan plan : planRequiredInterfaces(primitiveComponents,
+                somoxConfiguration.getClusteringConfig().getParallelism())) {
+            addedANewInterface = addRequiredInterfaces(plan);
+            addedANewInterface = true;
+        }
 
         // assembly connector builder: for new interfaces (assembly connectors for surrounding composites)
         final IAssemblyConnectorStrategy assemblyConnectorStrategy = new AssemblyConnectorsInsideCompositeComponentStrategy();
@@ -521,7 +667,7 @@ public class InterfaceBuilder extends AbstractBuilder {
                 //update source code decorator
                 final InterfaceSourceCodeLink ifLink = SourceCodeDecoratorFactory.eINSTANCE.createInterfaceSourceCodeLink();
                 ifLink.setGastClass(currentClass);
-                analysisResult.getSourceCodeDecoratorRepository().getInterfaceSourceCodeLink().add(ifLink);
+                BulkConstructionMode.addUnique(analysisResult.getSourceCodeDecoratorRepository().getInterfaceSourceCodeLink(), ifLink);
             }
         }
     }
@@ -595,5 +741,47 @@ public class InterfaceBuilder extends AbstractBuilder {
         public Role role;
     }
 
+    /**
+     * Plans the required interfaces of a range of components, storing each plan at the index of its component.
+     */
+    private final class RequiredInterfacePlanningTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Maximum number of components planned sequentially by a single fork join task
+         */
+        private static final int CHUNK_SIZE = 16;
+
+        private final ComponentImplementingClassesLink[] components;
+        private final RequiredInterfacePlan[] plans;
+        private final int from;
+        private final int to;
+
+        private RequiredInterfacePlanningTask(
+                final ComponentImplementingClassesLink[] components,
+                final RequiredInterfacePlan[] plans,
+                final int from,
+                final int to) {
+            this.components = components;
+            this.plans = plans;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > CHUNK_SIZE) {
+                final int middle = (from + to) >>> 1;
+                invokeAll(new RequiredInterfacePlanningTask(components, plans, from, middle),
+                        new RequiredInterfacePlanningTask(components, plans, middle, to));
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                plans[i] = planRequiredInterfaces(components[i]);
+            }
+        }
+    }
+
 
 }
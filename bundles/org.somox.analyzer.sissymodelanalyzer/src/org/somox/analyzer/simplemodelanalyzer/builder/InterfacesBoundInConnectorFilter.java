@@ -1,13 +1,20 @@
 package org.somox.analyzer.simplemodelanalyzer.builder;
 
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 
 import org.apache.log4j.Logger;
+import org.palladiosimulator.pcm.core.composition.AssemblyContext;
+import org.palladiosimulator.pcm.repository.Role;
 import org.somox.analyzer.simplemodelanalyzer.builder.util.EndpointInformation;
 import org.somox.filter.BaseFilter;
 
 /**
- * Removes role interface accesses already captured in connector
+ * Removes role interface accesses already captured in connector. The bound endpoints are indexed
+ * by their role, so each check takes constant time.
  *
  * @author Klaus Krogmann
  *
@@ -17,7 +24,10 @@ BaseFilter<EndpointInformation> {
 
     private static Logger LOGGER = Logger.getLogger(InterfacesBoundInConnectorFilter.class);
 
-    private final Collection<EndpointInformation> connectorEndpoints;
+    /**
+     * Assembly contexts of the bound endpoints indexed by their role
+     */
+    private final Map<Role, Set<AssemblyContext>> boundContextsByRole = new HashMap<Role, Set<AssemblyContext>>();
 
     /**
      * Filter constructor
@@ -28,20 +38,21 @@ BaseFilter<EndpointInformation> {
      */
     public InterfacesBoundInConnectorFilter(final Collection<EndpointInformation> connectorEndpoints) {
         super();
-        this.connectorEndpoints = connectorEndpoints;
+        for (final EndpointInformation current : connectorEndpoints) {
+            Set<AssemblyContext> boundContexts = boundContextsByRole.get(current.getRole());
+            if (boundContexts == null) {
+                boundContexts = new HashSet<AssemblyContext>();
+                boundContextsByRole.put(current.getRole(), boundContexts);
+            }
+            boundContexts.add(current.getAssemblyContext());
+        }
     }
 
     @Override
     public boolean passes(final EndpointInformation endpointInformation) {
-        boolean isUnboundEndpoint = true;
-
-        for (final EndpointInformation current : connectorEndpoints) {
-            if (current.getAssemblyContext().equals(endpointInformation.getAssemblyContext()) &&
-                    current.getRole().equals(endpointInformation.getRole())) {
-                isUnboundEndpoint = false;
-                break;
-            }
-        }
+        final Set<AssemblyContext> boundContexts = boundContextsByRole.get(endpointInformation.getRole());
+        final boolean isUnboundEndpoint = boundContexts == null
+                || !boundContexts.contains(endpointInformation.getAssemblyContext());
 
         if (LOGGER.isDebugEnabled() && isUnboundEndpoint) {
             LOGGER.debug("Found unbound endpoint " + endpointInformation);
@@ -22,6 +22,7 @@ import org.palladiosimulator.pcm.repository.RepositoryFactory;
 import org.palladiosimulator.pcm.repository.RequiredRole;
 import org.palladiosimulator.pcm.repository.Role;
 import org.somox.analyzer.AnalysisResult;
+import org.somox.analyzer.simplemodelanalyzer.builder.util.BulkConstructionMode;
 import org.somox.analyzer.simplemodelanalyzer.builder.util.EndpointInformation;
 import org.somox.analyzer.simplemodelanalyzer.builder.util.InterfacePortBuilderHelper;
 import org.somox.configuration.SoMoXConfiguration;
@@ -163,7 +164,7 @@ public class NonDuplicatingInterfacePortBuilder extends AbstractBuilder implemen
 
                 // add to parent repository:
                 final SourceCodeDecoratorRepository parentRepository = (SourceCodeDecoratorRepository) compositeComponentLink.eContainer();
-                parentRepository.getInterfaceSourceCodeLink().add(newInterfaceLink);
+                BulkConstructionMode.addUnique(parentRepository.getInterfaceSourceCodeLink(), newInterfaceLink);
             } else {
                 logger.warn("Source code decorator: InterfaceLink had no interface or class set.");
             }
@@ -219,7 +220,7 @@ public class NonDuplicatingInterfacePortBuilder extends AbstractBuilder implemen
 
                 // add to parent repository:
                 final SourceCodeDecoratorRepository parentRepository = (SourceCodeDecoratorRepository) compositeComponentLink.eContainer();
-                parentRepository.getInterfaceSourceCodeLink().add(newInterfaceLink);
+                BulkConstructionMode.addUnique(parentRepository.getInterfaceSourceCodeLink(), newInterfaceLink);
             } else {
                 logger.warn("Interface type yet not supported: "+linkedInterface.getClass().getSimpleName());
             }
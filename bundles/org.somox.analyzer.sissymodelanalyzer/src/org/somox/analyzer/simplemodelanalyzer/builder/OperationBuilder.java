@@ -1,5 +1,6 @@
 package org.somox.analyzer.simplemodelanalyzer.builder;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -11,6 +12,7 @@ import org.eclipse.gmt.modisco.java.PrimitiveTypeVoid;
 import org.eclipse.gmt.modisco.java.SingleVariableDeclaration;
 import org.eclipse.gmt.modisco.java.Type;
 import org.eclipse.gmt.modisco.java.VisibilityKind;
+import org.eclipse.gmt.modisco.omg.kdm.source.SourceFile;
 import org.palladiosimulator.pcm.core.entity.Entity;
 import org.palladiosimulator.pcm.repository.CollectionDataType;
 import org.palladiosimulator.pcm.repository.CompositeDataType;
@@ -23,6 +25,7 @@ import org.palladiosimulator.pcm.repository.PrimitiveDataType;
 import org.palladiosimulator.pcm.repository.Repository;
 import org.palladiosimulator.pcm.repository.RepositoryFactory;
 import org.somox.analyzer.AnalysisResult;
+import org.somox.analyzer.simplemodelanalyzer.builder.util.BulkConstructionMode;
 import org.somox.analyzer.simplemodelanalyzer.builder.util.DefaultResourceEnvironment;
 import org.somox.configuration.SoMoXConfiguration;
 import org.somox.kdmhelper.GetAccessedType;
@@ -54,34 +57,57 @@ public class OperationBuilder extends AbstractBuilder {
     public void createOperations(
             final Type interfaceClass,
             final OperationInterface interf) {
+        createOperations(getSignatureMethods(interfaceClass), interf);
+    }
 
+    /**
+     * Collects the methods of a class which become operation signatures. Only reads the GAST model, hence it
+     * may be called concurrently.
+     * @param interfaceClass The class whose methods are collected
+     * @return The public and package visible methods in declaration order
+     */
+    public static List<MethodDeclaration> getSignatureMethods(final Type interfaceClass) {
+        final List<MethodDeclaration> result = new ArrayList<MethodDeclaration>();
         for (final MethodDeclaration method : KDMHelper.getMethods(interfaceClass)) {
-
             if ((KDMHelper.isModifierOfKind(method, VisibilityKind.NONE))
                     || KDMHelper.isModifierOfKind(method, VisibilityKind.PUBLIC)) {
-
-                final MethodDeclaration realMethod = method;
-
-                /*
-                 * StB: I have no idea for what reason this code exists.
-                 * The real method's declaration should be the same or a refinement of the original one.
-                 *
-                if (implementationClass != null) {
-                    realMethod = getRealMethod(implementationClass, method);
-                    if (realMethod == null) {
-                        realMethod = method;
-                        LOGGER.error("GAST Model misses a method "
-                                + method.getName());
-                    }
-                } else {
-                    LOGGER.warn("no implementation class for method "
-                            + method.getName() + " of interface "
-                            + interfaceClass.getName());
-                }*/
-                final OperationSignature op = createOperationSignature(realMethod,interf);
-                interf.getSignatures__OperationInterface().add(op);
+                result.add(method);
             }
         }
+        return result;
+    }
+
+    /**
+     * Adds an operation signature for each of the given methods to the interface
+     * @param signatureMethods Methods as collected by {@link #getSignatureMethods(Type)}
+     * @param interf The interface which gets the signatures
+     */
+    public void createOperations(
+            final List<MethodDeclaration> signatureMethods,
+            final OperationInterface interf) {
+
+        for (final MethodDeclaration method : signatureMethods) {
+            final MethodDeclaration realMethod = method;
+
+            /*
+             * StB: I have no idea for what reason this code exists.
+             * The real method's declaration should be the same or a refinement of the original one.
+             *
+            if (implementationClass != null) {
+                realMethod = getRealMethod(implementationClass, method);
+                if (realMethod == null) {
+                    realMethod = method;
+                    LOGGER.error("GAST Model misses a method "
+                            + method.getName());
+                }
+            } else {
+                LOGGER.warn("no implementation class for method "
+                        + method.getName() + " of interface "
+                        + interfaceClass.getName());
+            }*/
+            final OperationSignature op = createOperationSignature(realMethod,interf);
+            interf.getSignatures__OperationInterface().add(op);
+        }
     }
 
     /**
@@ -226,15 +252,13 @@ public class OperationBuilder extends AbstractBuilder {
         link.setFunction(method);
         link.setOperation(operation);
 
-        if (KDMHelper.getJavaNodeSourceRegion(method) != null
-                && KDMHelper.getSourceFile(KDMHelper
-                        .getJavaNodeSourceRegion(method)) != null) {
-            link.setFile(KDMHelper.getSourceFile(KDMHelper
-                    .getJavaNodeSourceRegion(method)));
+        final SourceFile sourceFile = KDMHelper.getSourceFile(method);
+        if (sourceFile != null) {
+            link.setFile(sourceFile);
         }
 
-        this.analysisResult.getSourceCodeDecoratorRepository()
-        .getMethodLevelSourceCodeLink().add(link);
+        BulkConstructionMode.addUnique(this.analysisResult.getSourceCodeDecoratorRepository()
+                .getMethodLevelSourceCodeLink(), link);
     }
 
     /**
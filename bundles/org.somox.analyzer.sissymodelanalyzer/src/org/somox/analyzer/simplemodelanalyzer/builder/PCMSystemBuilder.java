@@ -83,7 +83,10 @@ public class PCMSystemBuilder extends AbstractBuilder {
 
     /**
      * Returns all components which are not used (subcomponent) in another
-     * composite component.
+     * composite component. Containment is read from the parent pointers kept
+     * by the component builder. Only the subcomponents of composite components
+     * which have not been created by the builder are collected from the source
+     * code decorator, so the selection is linear in the number of components.
      *
      * @return List of non-contained components
      */
@@ -95,15 +98,19 @@ public class PCMSystemBuilder extends AbstractBuilder {
                 .getSourceCodeDecoratorRepository()
                 .getComponentImplementingClassesLink();
 
+        // subcomponents of composite components not indexed by the component builder
+        final Set<ComponentImplementingClassesLink> containedComponents = new HashSet<ComponentImplementingClassesLink>();
+        for (final ComponentImplementingClassesLink potentialOuterCompLink : componentImplementingClassesLinks) {
+            if (!componentBuilder.isIndexedCompositeComponent(potentialOuterCompLink)) {
+                containedComponents.addAll(potentialOuterCompLink.getSubComponents());
+            }
+        }
+
         for (final ComponentImplementingClassesLink compLinkToCheckWhetherContained : componentImplementingClassesLinks) {
 
-            boolean isComponentLinkToCheckContained = false;
-            for (final ComponentImplementingClassesLink potentialOuterCompLink : componentImplementingClassesLinks) {
-                if (potentialOuterCompLink.getSubComponents().contains(compLinkToCheckWhetherContained)) {
-                    isComponentLinkToCheckContained = true;
-                    break; // contained; no more looping required
-                }
-            }
+            final boolean isComponentLinkToCheckContained =
+                    componentBuilder.getParentComponent(compLinkToCheckWhetherContained) != null
+                    || containedComponents.contains(compLinkToCheckWhetherContained);
             if (!isComponentLinkToCheckContained) {
                 nonContainedComponents.add(compLinkToCheckWhetherContained);
                 logger.debug("non-contained component: "
@@ -0,0 +1,77 @@
+package org.somox.analyzer.simplemodelanalyzer.builder;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.gmt.modisco.java.MethodDeclaration;
+import org.eclipse.gmt.modisco.java.Type;
+
+/**
+ * Immutable result of the read-only analysis of a GAST class which becomes a primitive component. Plans are
+ * created by {@link ComponentBuilder#planPrimitiveComponentFromGASTClass(Type)} and may be computed concurrently
+ * for many classes. Applying a plan with {@link ComponentBuilder#createPrimitiveComponentFromPlan(PrimitiveComponentPlan)}
+ * creates the model elements and has to happen on a single thread.
+ */
+public final class PrimitiveComponentPlan {
+
+    private final Type gastClass;
+
+    private final List<Type> implementingClasses;
+
+    private final Map<Type, List<Type>> supertypes;
+
+    private final Map<Type, List<MethodDeclaration>> signatureMethods;
+
+    /**
+     * @param gastClass The main class of the component
+     * @param implementingClasses The main class and all its inner classes
+     * @param supertypes Not blacklisted supertypes of each implementing class in the order in which they are
+     * 		checked for component interfaces
+     * @param signatureMethods Methods which become operation signatures of the interfaces created for the
+     * 		supertypes or the implementing classes
+     */
+    PrimitiveComponentPlan(
+            final Type gastClass,
+            final List<Type> implementingClasses,
+            final Map<Type, List<Type>> supertypes,
+            final Map<Type, List<MethodDeclaration>> signatureMethods) {
+        super();
+
+        this.gastClass = gastClass;
+        this.implementingClasses = Collections.unmodifiableList(implementingClasses);
+        this.supertypes = Collections.unmodifiableMap(supertypes);
+        this.signatureMethods = Collections.unmodifiableMap(signatureMethods);
+    }
+
+    /**
+     * @return The main class of the planned component
+     */
+    public Type getGastClass() {
+        return gastClass;
+    }
+
+    /**
+     * @return The main class and all its inner classes
+     */
+    public List<Type> getImplementingClasses() {
+        return implementingClasses;
+    }
+
+    /**
+     * @param implementingClass One of the implementing classes
+     * @return The not blacklisted supertypes of the class, parametric types are unpacked. Supertypes of a
+     * 		supertype precede it
+     */
+    public List<Type> getSupertypes(final Type implementingClass) {
+        final List<Type> result = supertypes.get(implementingClass);
+        return result == null ? Collections.<Type>emptyList() : result;
+    }
+
+    /**
+     * @return The public methods of all supertypes and implementing classes
+     */
+    public Map<Type, List<MethodDeclaration>> getSignatureMethods() {
+        return signatureMethods;
+    }
+}
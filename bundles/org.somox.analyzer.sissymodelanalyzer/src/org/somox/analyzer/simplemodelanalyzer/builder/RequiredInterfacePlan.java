@@ -0,0 +1,45 @@
+package org.somox.analyzer.simplemodelanalyzer.builder;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.gmt.modisco.java.Type;
+import org.somox.sourcecodedecorator.ComponentImplementingClassesLink;
+
+/**
+ * Immutable result of the read-only discovery of the required interfaces of a component. Plans are created by
+ * {@link InterfaceBuilder#planRequiredInterfaces(ComponentImplementingClassesLink)} and may be computed
+ * concurrently for many components. Applying a plan creates roles and source code decorator links and has to
+ * happen on a single thread.
+ */
+public final class RequiredInterfacePlan {
+
+    private final ComponentImplementingClassesLink component;
+
+    private final List<Type> interfaceClasses;
+
+    /**
+     * @param component The component requiring the interfaces
+     * @param interfaceClasses The accessed component interfaces in the order of their first access
+     */
+    RequiredInterfacePlan(final ComponentImplementingClassesLink component, final List<Type> interfaceClasses) {
+        super();
+
+        this.component = component;
+        this.interfaceClasses = Collections.unmodifiableList(interfaceClasses);
+    }
+
+    /**
+     * @return The component requiring the interfaces
+     */
+    public ComponentImplementingClassesLink getComponent() {
+        return component;
+    }
+
+    /**
+     * @return The classes accessed by the component which are component interfaces, without duplicates
+     */
+    public List<Type> getInterfaceClasses() {
+        return interfaceClasses;
+    }
+}
@@ -18,9 +18,9 @@ import org.palladiosimulator.pcm.repository.SinkRole;
 import org.palladiosimulator.pcm.seff.ResourceDemandingSEFF;
 import org.palladiosimulator.pcm.seff.SeffFactory;
 import org.somox.analyzer.AnalysisResult;
-import org.somox.analyzer.simplemodelanalyzer.detection.util.EqualityChecker;
+import org.somox.analyzer.simplemodelanalyzer.builder.util.BulkConstructionMode;
 import org.somox.configuration.SoMoXConfiguration;
-import org.somox.kdmhelper.KDMHelper;
+import org.somox.kdmhelper.TypeHierarchy;
 import org.somox.kdmhelper.metamodeladdition.Root;
 import org.somox.sourcecodedecorator.ComponentImplementingClassesLink;
 import org.somox.sourcecodedecorator.MethodLevelSourceCodeLink;
@@ -100,7 +100,7 @@ public class Seff2JavaASTBuilder extends AbstractBuilder {
                     "! Reverse engineering of behaviour will NOT be able to succeed for this method!");
         }
         seff2MethodMapping.setSeff(seff);
-        this.analysisResult.getSourceCodeDecoratorRepository().getSeff2MethodLink().add(seff2MethodMapping);
+        BulkConstructionMode.addUnique(this.analysisResult.getSourceCodeDecoratorRepository().getSeff2MethodLink(), seff2MethodMapping);
 
     }
 
@@ -115,11 +115,11 @@ public class Seff2JavaASTBuilder extends AbstractBuilder {
             final ComponentImplementingClassesLink component) {
 
         for(final Type implementingClass : component.getImplementingClasses()) {
-            for(final MethodDeclaration implementedMethod : KDMHelper.getMethods(implementingClass)) {
-                if(EqualityChecker.areFunctionsEqual(function, implementedMethod)) { //FIXME: check why equal fails
-                    //if(implementedMethod.equals(function)) {
-                    return implementedMethod.getBody();
-                }
+            // same signature according to EqualityChecker.areFunctionsEqual
+            final MethodDeclaration implementedMethod =
+                    TypeHierarchy.getTypeHierarchy(implementingClass).getDeclaredMethod(implementingClass, function);
+            if(implementedMethod != null) { //FIXME: check why equal fails
+                return implementedMethod.getBody();
             }
         }
 
@@ -0,0 +1,156 @@
+package org.somox.analyzer.simplemodelanalyzer.builder.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.log4j.Logger;
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.util.InternalEList;
+import org.somox.analyzer.AnalysisResult;
+import org.somox.instrumentation.PerformanceCounters;
+
+/**
+ * Construction mode for the models of an {@link AnalysisResult} while the builders create large numbers of model
+ * elements. Notification delivery of the root elements is disabled until {@link #end()} is called. The builders
+ * populate the large lists of the source code decorator with {@link #addUnique(EList, Object)} which skips the
+ * uniqueness check of EMF lists, as they only add newly created elements. {@link #end()} re-enables delivery and
+ * checks the skipped uniqueness and containment constraints in a single pass.
+ * <br>
+ * Adapters attached to the root elements are not informed about changes made while the mode is active.
+ */
+public final class BulkConstructionMode {
+
+    private static final Logger logger = Logger.getLogger(BulkConstructionMode.class);
+
+    private final List<EObject> roots = new ArrayList<EObject>();
+
+    private final List<Boolean> previousDelivery = new ArrayList<Boolean>();
+
+    private boolean active = true;
+
+    private BulkConstructionMode(final EObject... roots) {
+        super();
+
+        for (final EObject root : roots) {
+            if (root != null) {
+                this.roots.add(root);
+                this.previousDelivery.add(root.eDeliver());
+                root.eSetDeliver(false);
+            }
+        }
+    }
+
+    /**
+     * Starts the bulk construction of the models of an analysis result.
+     * @param analysisResult The result holding the repository, the source code decorator, the system, the allocation
+     * 		and the QoS annotations to construct
+     * @return The active construction mode. {@link #end()} has to be called when construction has finished
+     */
+    public static BulkConstructionMode begin(final AnalysisResult analysisResult) {
+        return new BulkConstructionMode(
+                analysisResult.getInternalArchitectureModel(),
+                analysisResult.getSourceCodeDecoratorRepository(),
+                analysisResult.getSystemModel(),
+                analysisResult.getAllocation(),
+                analysisResult.getQosAnnotationModel());
+    }
+
+    /**
+     * Adds an element which is known not to be contained in the list yet without checking uniqueness.
+     * @param list The list to populate
+     * @param element A newly created element
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> void addUnique(final EList<T> list, final T element) {
+        if (list instanceof InternalEList<?>) {
+            ((InternalEList<T>) list).addUnique(element);
+        } else {
+            list.add(element);
+        }
+    }
+
+    /**
+     * Adds elements which are known to be distinct and not to be contained in the list yet without checking
+     * uniqueness.
+     * @param list The list to populate
+     * @param elements Distinct elements not contained in the list
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> void addAllUnique(final EList<T> list, final Collection<? extends T> elements) {
+        if (list instanceof InternalEList<?>) {
+            ((InternalEList<T>) list).addAllUnique(elements);
+        } else {
+            list.addAll(elements);
+        }
+    }
+
+    /**
+     * Re-enables notification delivery of the root elements and checks the lists of the roots and of their direct
+     * children. Duplicate entries are removed and logged, as they indicate a builder which added an existing
+     * element with {@link #addUnique(EList, Object)}.
+     * @return The number of removed duplicates
+     */
+    public int end() {
+        if (!active) {
+            return 0;
+        }
+        active = false;
+
+        final long start = System.nanoTime();
+        int duplicates = 0;
+        for (int i = 0; i < roots.size(); i++) {
+            final EObject root = roots.get(i);
+            root.eSetDeliver(previousDelivery.get(i));
+            duplicates += checkLists(root);
+            for (final EObject child : root.eContents()) {
+                duplicates += checkLists(child);
+            }
+        }
+        PerformanceCounters.getInstance().timer("somox_bulk_construction_check_seconds").record(System.nanoTime() - start);
+
+        if (duplicates > 0) {
+            logger.warn("Removed " + duplicates + " duplicate entries after bulk model construction");
+        }
+        return duplicates;
+    }
+
+    private static int checkLists(final EObject object) {
+        int duplicates = 0;
+        for (final EReference reference : object.eClass().getEAllReferences()) {
+            if (!reference.isMany() || reference.isDerived() || reference.isTransient() || !reference.isUnique()) {
+                continue;
+            }
+            @SuppressWarnings("unchecked")
+            final InternalEList<Object> list = (InternalEList<Object>) object.eGet(reference, false);
+            if (list.size() < 2) {
+                continue;
+            }
+            final Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>(list.size()));
+            final List<Object> duplicateEntries = new ArrayList<Object>();
+            final Iterator<Object> iterator = list.basicIterator();
+            while (iterator.hasNext()) {
+                final Object element = iterator.next();
+                if (!seen.add(element)) {
+                    duplicateEntries.add(element);
+                } else if (reference.isContainment() && ((EObject) element).eContainer() != object) {
+                    logger.error("Element " + element + " is listed in " + reference.getName()
+                            + " but contained in " + ((EObject) element).eContainer());
+                }
+            }
+            for (final Object element : duplicateEntries) {
+                logger.error("Duplicate entry in " + reference.getName() + " of " + object + ": " + element);
+                // removes one occurrence without inverse updates, so the remaining entry keeps its container
+                list.basicRemove(element, null);
+            }
+            duplicates += duplicateEntries.size();
+        }
+        return duplicates;
+    }
+}
@@ -3,8 +3,10 @@ package org.somox.analyzer.simplemodelanalyzer.builder.util;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.log4j.Logger;
 import org.eclipse.emf.common.util.EList;
@@ -147,7 +149,14 @@ public class InterfacePortBuilderHelper {
     private static Collection<EndpointInformation> collectComponentEndpoints(
             final ComponentImplementingClassesLink componentLink, final boolean collectProvided) {
         final Collection<EndpointInformation> allInterfaceLinks = new ArrayList<EndpointInformation>();
+        Map<RepositoryComponent, AssemblyContext> subComponentInstances = null;
+        if(componentLink.getComponent() != null) { // regular case: a component link
+            subComponentInstances = indexSubComponentInstances((CompositeComponent)componentLink.getComponent());
+        } else if(componentLink instanceof PCMSystemImplementatingClassesLink) { // SAMM system architecture case:
+            subComponentInstances = indexSubComponentInstances(((PCMSystemImplementatingClassesLink)componentLink).getSystemModel());
+        }
         for(final ComponentImplementingClassesLink currentSubComponentLink : componentLink.getSubComponents()) {
+            final Map<Interface, Role> rolesByInterface = indexInterfacePorts(currentSubComponentLink, collectProvided);
             List<InterfaceSourceCodeLink> interfaceLinkSubList;
             if(collectProvided) {
                 interfaceLinkSubList = currentSubComponentLink.getProvidedInterfaces();
@@ -157,16 +166,16 @@ public class InterfacePortBuilderHelper {
             for(final InterfaceSourceCodeLink currentInterfaceLinkSub : interfaceLinkSubList) {
                 //collect additional information for connector creation:
                 AssemblyContext matchingSubComponentInstance = null;
-                if(componentLink.getComponent() != null) { // regular case: a component link
-                    matchingSubComponentInstance =
-                            getSubComponentInstance( (CompositeComponent)componentLink.getComponent(), currentSubComponentLink);
-                } else { // SAMM system architecture case:
-                    if(componentLink instanceof PCMSystemImplementatingClassesLink) {
-                        matchingSubComponentInstance =
-                                getSubComponentInstance( ((PCMSystemImplementatingClassesLink)componentLink).getSystemModel(), currentSubComponentLink);
+                if(subComponentInstances != null) {
+                    matchingSubComponentInstance = subComponentInstances.get(currentSubComponentLink.getComponent());
+                    if(matchingSubComponentInstance == null) {
+                        logger.warn("no subcomponent instance found");
                     }
                 }
-                final Role role = getInterfacePort(currentSubComponentLink, currentInterfaceLinkSub, collectProvided);
+                final Role role = rolesByInterface.get(currentInterfaceLinkSub.getInterface());
+                if(role == null) {
+                    logger.warn("should find an interface port");
+                }
 
                 if(role != null){
                     allInterfaceLinks.add(new EndpointInformation(currentInterfaceLinkSub, role, matchingSubComponentInstance));
@@ -229,22 +238,59 @@ public class InterfacePortBuilderHelper {
     }
 
     /**
-     * Search matching SubcomponentInstance. Condition: outerCompositeComponent
-     * must have the linked subcomponent.
+     * Index the roles of a component by their interface. For several roles of the same
+     * interface, the first role is kept as in {@link #getInterfacePort(ComponentImplementingClassesLink, InterfaceSourceCodeLink, boolean)}.
+     * @param subComponentLink The component whose roles are indexed
+     * @param indexProvidedRoles switch provided / required roles
+     * @return The roles mapped on their interfaces
+     */
+    private static Map<Interface, Role> indexInterfacePorts(
+            final ComponentImplementingClassesLink subComponentLink,
+            final boolean indexProvidedRoles) {
+        final Map<Interface, Role> result = new HashMap<Interface, Role>();
+        final RepositoryComponent linkComponent = subComponentLink.getComponent();
+
+        if(indexProvidedRoles) {
+            for(final ProvidedRole currentRole : linkComponent.getProvidedRoles_InterfaceProvidingEntity()) {
+                if(currentRole instanceof OperationProvidedRole){
+                    final Interface componentInterface = ((OperationProvidedRole)currentRole).getProvidedInterface__OperationProvidedRole();
+                    if(!result.containsKey(componentInterface)) {
+                        result.put(componentInterface, currentRole);
+                    }
+                } else {
+                    logger.warn("Role type not supported: "+currentRole.getClass().getSimpleName());
+                }
+            }
+        } else {
+            for(final RequiredRole currentRole : linkComponent.getRequiredRoles_InterfaceRequiringEntity()) {
+                if(currentRole instanceof OperationRequiredRole){
+                    final Interface componentInterface = ((OperationRequiredRole)currentRole).getRequiredInterface__OperationRequiredRole();
+                    if(!result.containsKey(componentInterface)) {
+                        result.put(componentInterface, currentRole);
+                    }
+                } else {
+                    logger.warn("Role type not supported: "+currentRole.getClass().getSimpleName());
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Index the SubcomponentInstances of a composed structure by their encapsulated component. For
+     * several instances of the same component, the first instance is kept.
      * @param outerCompositeComponent
-     * @param subComponentLink
-     * @return
+     * @return The instances mapped on their components
      */
-    private static AssemblyContext getSubComponentInstance(
-            final ComposedStructure outerCompositeComponent,
-            final ComponentImplementingClassesLink subComponentLink) {
+    private static Map<RepositoryComponent, AssemblyContext> indexSubComponentInstances(
+            final ComposedStructure outerCompositeComponent) {
+        final Map<RepositoryComponent, AssemblyContext> result = new HashMap<RepositoryComponent, AssemblyContext>();
         for(final AssemblyContext innerAssemblyContext : outerCompositeComponent.getAssemblyContexts__ComposedStructure()) {
-            if(innerAssemblyContext.getEncapsulatedComponent__AssemblyContext().equals(subComponentLink.getComponent())) {
-                return innerAssemblyContext;
+            if(!result.containsKey(innerAssemblyContext.getEncapsulatedComponent__AssemblyContext())) {
+                result.put(innerAssemblyContext.getEncapsulatedComponent__AssemblyContext(), innerAssemblyContext);
             }
         }
-        logger.warn("no subcomponent instance found");
-        return null;
+        return result;
     }
 
 
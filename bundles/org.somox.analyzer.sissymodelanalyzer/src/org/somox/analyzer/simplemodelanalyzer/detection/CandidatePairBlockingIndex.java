@@ -0,0 +1,311 @@
+package org.somox.analyzer.simplemodelanalyzer.detection;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.log4j.Logger;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.gmt.modisco.java.Package;
+import org.eclipse.gmt.modisco.java.Type;
+import org.eclipse.gmt.modisco.omg.kdm.source.Directory;
+import org.jgrapht.DirectedGraph;
+import org.somox.analyzer.simplemodelanalyzer.metrics.CompositionIndicationFunction;
+import org.somox.analyzer.simplemodelanalyzer.metrics.MergeIndicationFunction;
+import org.somox.configuration.SoMoXConfiguration;
+import org.somox.kdmhelper.StructuralSnapshot;
+import org.somox.metrics.ICompositionFunction;
+import org.somox.metrics.MetricID;
+import org.somox.metrics.helper.ClassAccessGraphEdge;
+import org.somox.metrics.helper.ComponentToImplementingClassesHelper;
+import org.somox.metrics.hierarchy.DirectoryMapping;
+import org.somox.metrics.hierarchy.PackageMapping;
+import org.somox.metrics.naming.NameResemblance;
+import org.somox.metrics.ratio.AdherenceToInterfaceCommunication;
+import org.somox.metrics.ratio.Coupling;
+import org.somox.metrics.ratio.DMS;
+import org.somox.metrics.structure.SliceLayerArchitectureQuality;
+import org.somox.metrics.structure.SubsystemComponent;
+import org.somox.sourcecodedecorator.ComponentImplementingClassesLink;
+
+/**
+ * Blocking index used to prune the pairs of component candidates for which clustering relations are computed.
+ * Pairs which are not emitted do not get any edge in the clustering graph. A pair is only skipped if neither its
+ * merge nor its composition indicating metric can exceed the lowest threshold of the clustering, hence blocking
+ * does not change the detected components:
+ * <ul>
+ * <li>A pair is always emitted if a class of one component accesses a class of the other component (edge in the
+ * class access graph computed by {@link org.somox.metrics.helper.Class2ClassAccessGraphHelper}).</li>
+ * <li>For all other pairs, the coupling and the interface adherence are zero. Their merge and composition indicating
+ * metrics are bounded by applying the {@link MergeIndicationFunction} and the {@link CompositionIndicationFunction}
+ * to the highest values the other metrics can take: a name resemblance and subsystem component value of one, a DMS
+ * value of zero and both SLAQ values selecting a subsystem component weight. The package and directory mapping are
+ * bounded by the depth of the deepest package respectively directory shared by both components. A pair is emitted
+ * if a bound exceeds the minimum threshold of its mode.</li>
+ * </ul>
+ * With non-negative weights, the functions are monotone in these values, also in floating point arithmetic. Hence a
+ * bound is never below the metric value. As the clustering never uses thresholds below the configured minimum and
+ * only keeps relations exceeding the threshold, a skipped pair would never have passed a threshold. The merge bound is
+ * only checked for pairs of initial components as other pairs never pass the merge filter. With a negative weight all
+ * pairs are emitted. How many pairs are skipped
+ * depends on the weights: with high package or directory mapping weights, components in the same package subtree may
+ * be composed without any access between them and their pairs are emitted.
+ */
+public class CandidatePairBlockingIndex {
+
+    private static final Logger LOG = Logger.getLogger(CandidatePairBlockingIndex.class);
+
+    /**
+     * For each component, the set of components containing a class accessing or accessed by one of its classes
+     */
+    private final Map<ComponentImplementingClassesLink, Set<ComponentImplementingClassesLink>> accessPartners =
+            new HashMap<ComponentImplementingClassesLink, Set<ComponentImplementingClassesLink>>();
+
+    /**
+     * For each component, the packages containing its classes and their ancestors mapped on their depth
+     */
+    private final Map<ComponentImplementingClassesLink, Hierarchy> packageHierarchies =
+            new HashMap<ComponentImplementingClassesLink, Hierarchy>();
+
+    /**
+     * For each component, the directories containing its classes and their ancestors mapped on their depth
+     */
+    private final Map<ComponentImplementingClassesLink, Hierarchy> directoryHierarchies =
+            new HashMap<ComponentImplementingClassesLink, Hierarchy>();
+
+    private final SoMoXConfiguration somoxConfiguration;
+
+    private final ICompositionFunction mergeFunction;
+
+    private final ICompositionFunction compositionFunction;
+
+    /**
+     * Whether all weights entering the bounds are non-negative
+     */
+    private final boolean boundsApplicable;
+
+    /**
+     * @param componentCandidates The component candidates of the current clustering iteration
+     * @param componentToClassHelper Helper used to derive the classes implementing a component
+     * @param accessGraph The filtered class access graph
+     * @param snapshot Structural snapshot used by the package and directory mapping
+     * @param somoxConfiguration Configuration providing the weights and thresholds of the clustering
+     */
+    public CandidatePairBlockingIndex(
+            final Collection<ComponentImplementingClassesLink> componentCandidates,
+            final ComponentToImplementingClassesHelper componentToClassHelper,
+            final DirectedGraph<Type, ClassAccessGraphEdge> accessGraph,
+            final StructuralSnapshot snapshot,
+            final SoMoXConfiguration somoxConfiguration) {
+        super();
+
+        this.somoxConfiguration = somoxConfiguration;
+        this.mergeFunction = new MergeIndicationFunction(somoxConfiguration);
+        this.compositionFunction = new CompositionIndicationFunction(somoxConfiguration);
+        this.boundsApplicable = hasNonNegativeWeights(somoxConfiguration);
+        if (!boundsApplicable) {
+            LOG.warn("Candidate pair blocking requires non-negative weights, no component pairs are skipped");
+        }
+
+        final Map<Type, Set<ComponentImplementingClassesLink>> classOwners =
+                new HashMap<Type, Set<ComponentImplementingClassesLink>>();
+        for (final ComponentImplementingClassesLink component : componentCandidates) {
+            final Hierarchy packages = new Hierarchy();
+            final Hierarchy directories = new Hierarchy();
+            for (final Type clazz : componentToClassHelper.deriveImplementingClasses(component)) {
+                addToIndex(classOwners, clazz, component);
+                packages.add(snapshot.getPackage(clazz));
+                directories.add(snapshot.getDirectory(clazz));
+            }
+            packageHierarchies.put(component, packages);
+            directoryHierarchies.put(component, directories);
+        }
+
+        for (final ComponentImplementingClassesLink component : componentCandidates) {
+            final Set<ComponentImplementingClassesLink> partners = new HashSet<ComponentImplementingClassesLink>();
+            for (final Type clazz : componentToClassHelper.deriveImplementingClasses(component)) {
+                addAccessPartners(partners, classOwners, accessGraph, clazz);
+            }
+            partners.remove(component);
+            accessPartners.put(component, partners);
+        }
+    }
+
+    /**
+     * @param pair The pair to check
+     * @return true if the relations of the pair may pass a merge or compose threshold and have to be computed
+     */
+    public boolean isCandidatePair(final NodePair pair) {
+        final Set<ComponentImplementingClassesLink> partners = accessPartners.get(pair.getFirst());
+        if (partners == null || !accessPartners.containsKey(pair.getSecond())) {
+            throw new IllegalArgumentException("Component candidates "+pair.getFirst()+" and "+pair.getSecond()+" are not contained in the blocking index");
+        }
+        if (partners.contains(pair.getSecond()) || !boundsApplicable) {
+            return true;
+        }
+
+        final Map<MetricID, Double> metricBounds = new HashMap<MetricID, Double>();
+        metricBounds.put(NameResemblance.METRIC_ID, 1.0);
+        metricBounds.put(SubsystemComponent.METRIC_ID, 1.0);
+        metricBounds.put(PackageMapping.METRIC_ID, getMappingBound(
+                packageHierarchies.get(pair.getFirst()), packageHierarchies.get(pair.getSecond()), 0));
+        metricBounds.put(DirectoryMapping.METRIC_ID, getMappingBound(
+                directoryHierarchies.get(pair.getFirst()), directoryHierarchies.get(pair.getSecond()),
+                DirectoryMapping.LEVEL_OFFSET));
+        metricBounds.put(DMS.METRIC_ID, 0.0);
+        metricBounds.put(Coupling.METRIC_ID, 0.0);
+        metricBounds.put(AdherenceToInterfaceCommunication.METRIC_ID, 0.0);
+
+        if (pair.getFirst().isInitialComponent() && pair.getSecond().isInitialComponent()
+                && getScoreBound(mergeFunction, metricBounds)
+                > somoxConfiguration.getClusteringConfig().getMinMergeClusteringThreshold()) {
+            return true;
+        }
+        return getScoreBound(compositionFunction, metricBounds)
+                > somoxConfiguration.getClusteringConfig().getMinComposeClusteringThreshold();
+    }
+
+    /**
+     * @param pairs The pairs to filter
+     * @return The subset of the given pairs which are candidate pairs
+     */
+    public List<NodePair> filterCandidatePairs(final Collection<NodePair> pairs) {
+        final List<NodePair> result = new ArrayList<NodePair>(pairs.size());
+        for (final NodePair pair : pairs) {
+            if (isCandidatePair(pair)) {
+                result.add(pair);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Bounds the merge or composition indicating metric of a pair without accesses between its components.
+     * @param function The merge or composition indication function
+     * @param metricBounds The upper bounds of the metrics the function is applied to, except for the SLAQ
+     * @return The maximum of the function over a low and a high SLAQ value
+     */
+    private double getScoreBound(final ICompositionFunction function, final Map<MetricID, Double> metricBounds) {
+        metricBounds.put(SliceLayerArchitectureQuality.METRIC_ID, 0.0);
+        final double lowSLAQBound = function.computeOverallDirectedMetricValue(metricBounds);
+        metricBounds.put(SliceLayerArchitectureQuality.METRIC_ID, 1.0);
+        return Math.max(lowSLAQBound, function.computeOverallDirectedMetricValue(metricBounds));
+    }
+
+    /**
+     * Bounds the package or directory mapping by the deepest element shared by both hierarchies: the common path
+     * of the hierarchy mapping ends at a shared element.
+     * @param hierarchy1 The hierarchy of the first component
+     * @param hierarchy2 The hierarchy of the second component
+     * @param offset The offset added to the common and the maximum height by the mapping
+     * @return The upper bound of the mapping
+     */
+    private double getMappingBound(final Hierarchy hierarchy1, final Hierarchy hierarchy2, final int offset) {
+        final int maxHeight = Math.max(hierarchy1.height, hierarchy2.height);
+        if (maxHeight == 0) {
+            return 0.0;
+        }
+        final Hierarchy smaller = hierarchy1.depths.size() <= hierarchy2.depths.size() ? hierarchy1 : hierarchy2;
+        final Hierarchy larger = smaller == hierarchy1 ? hierarchy2 : hierarchy1;
+        int maxCommonDepth = 0;
+        for (final Map.Entry<EObject, Integer> element : smaller.depths.entrySet()) {
+            if (element.getValue() > maxCommonDepth && larger.depths.containsKey(element.getKey())) {
+                maxCommonDepth = element.getValue();
+            }
+        }
+        return (double) (maxCommonDepth + offset) / (double) (maxHeight + offset);
+    }
+
+    private boolean hasNonNegativeWeights(final SoMoXConfiguration config) {
+        return config.getWeightLowNameResemblance() >= 0.0
+                && config.getWeightLowSLAQ() >= 0.0
+                && config.getWeightHighSLAQ() >= 0.0
+                && config.getWeightPackageMapping() >= 0.0
+                && config.getWeightDirectoryMapping() >= 0.0
+                && config.getWeightDMS() >= 0.0;
+    }
+
+    private void addAccessPartners(
+            final Set<ComponentImplementingClassesLink> partners,
+            final Map<Type, Set<ComponentImplementingClassesLink>> classOwners,
+            final DirectedGraph<Type, ClassAccessGraphEdge> accessGraph,
+            final Type clazz) {
+        if (!accessGraph.containsVertex(clazz)) {
+            return;
+        }
+        for (final ClassAccessGraphEdge edge : accessGraph.outgoingEdgesOf(clazz)) {
+            addOwners(partners, classOwners, edge.getTargetClazz());
+        }
+        for (final ClassAccessGraphEdge edge : accessGraph.incomingEdgesOf(clazz)) {
+            addOwners(partners, classOwners, edge.getSourceClazz());
+        }
+    }
+
+    private void addOwners(
+            final Set<ComponentImplementingClassesLink> partners,
+            final Map<Type, Set<ComponentImplementingClassesLink>> classOwners,
+            final Type clazz) {
+        final Set<ComponentImplementingClassesLink> owners = classOwners.get(clazz);
+        if (owners != null) {
+            partners.addAll(owners);
+        }
+    }
+
+    private <K> void addToIndex(
+            final Map<K, Set<ComponentImplementingClassesLink>> index,
+            final K key,
+            final ComponentImplementingClassesLink component) {
+        Set<ComponentImplementingClassesLink> owners = index.get(key);
+        if (owners == null) {
+            owners = new HashSet<ComponentImplementingClassesLink>();
+            index.put(key, owners);
+        }
+        owners.add(component);
+    }
+
+    /**
+     * Packages or directories of the classes of a component and all their ancestors, mapped on their depth, i.e.,
+     * the number of elements on their path from the root. The height is the maximum depth, as computed by the
+     * prefix tree of {@link org.somox.metrics.hierarchy.AbstractHierarchyMapping}.
+     */
+    private static final class Hierarchy {
+
+        private final Map<EObject, Integer> depths = new HashMap<EObject, Integer>();
+
+        private int height = 0;
+
+        /**
+         * @param element The package or directory of a class, may be null
+         */
+        private void add(final EObject element) {
+            height = Math.max(height, addWithAncestors(element));
+        }
+
+        private int addWithAncestors(final EObject element) {
+            if (element == null) {
+                return 0;
+            }
+            Integer depth = depths.get(element);
+            if (depth == null) {
+                depth = addWithAncestors(getParent(element)) + 1;
+                depths.put(element, depth);
+            }
+            return depth;
+        }
+
+        /**
+         * @return The parent as defined by {@link org.somox.metrics.hierarchy.PackageMapping} and
+         *  {@link org.somox.metrics.hierarchy.DirectoryMapping}
+         */
+        private EObject getParent(final EObject element) {
+            if (element instanceof Package) {
+                return ((Package) element).getPackage();
+            }
+            return element.eContainer() instanceof Directory ? element.eContainer() : null;
+        }
+    }
+}
@@ -1,27 +1,24 @@
 package org.somox.analyzer.simplemodelanalyzer.detection;
 
+import java.io.IOException;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorCompletionService;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.log4j.Logger;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.SubProgressMonitor;
+import org.eclipse.gmt.modisco.java.Model;
 import org.eclipse.gmt.modisco.java.Type;
 import org.jgrapht.DirectedGraph;
 import org.jgrapht.Graph;
 import org.jgrapht.alg.ConnectivityInspector;
-import org.jgrapht.graph.DirectedSubgraph;
-import org.jgrapht.graph.SimpleDirectedGraph;
 import org.jgrapht.graph.Subgraph;
 import org.somox.analyzer.ModelAnalyzerException;
 import org.somox.analyzer.simplemodelanalyzer.builder.ComponentBuilder;
@@ -31,9 +28,13 @@ import org.somox.analyzer.simplemodelanalyzer.detection.util.VertexTypeAndEdgeTh
 import org.somox.analyzer.simplemodelanalyzer.metrics.DefaultCompositionIndicatingMetric;
 import org.somox.analyzer.simplemodelanalyzer.metrics.DefaultMergeIndicatingMetric;
 import org.somox.analyzer.simplemodelanalyzer.metricvalues.MetricValuesWriter;
+import org.somox.configuration.ClusteringConfiguration.RelationStorage;
 import org.somox.configuration.SoMoXConfiguration;
 import org.somox.filter.BaseFilter;
-import org.somox.filter.FilteredCollectionsFactory;
+import org.somox.instrumentation.FlightRecorderEvent;
+import org.somox.instrumentation.FlightRecorderEventType;
+import org.somox.instrumentation.PerformanceCounters;
+import org.somox.kdmhelper.StructuralSnapshot;
 import org.somox.kdmhelper.metamodeladdition.Root;
 import org.somox.metrics.ClusteringRelation;
 import org.somox.metrics.IMetric;
@@ -41,6 +42,7 @@ import org.somox.metrics.MetricID;
 import org.somox.metrics.helper.Class2ClassAccessGraphHelper;
 import org.somox.metrics.helper.ClassAccessGraphEdge;
 import org.somox.metrics.helper.ComponentToImplementingClassesHelper;
+import org.somox.metrics.registry.MetricDependencyGraph;
 import org.somox.metrics.registry.MetricsRegistry;
 import org.somox.metrics.util.GraphPrinter;
 //import de.fzi.gast.core.Root;
@@ -60,6 +62,25 @@ public class ComponentDetectionByClustering implements IDetectionStrategy {
      */
     private final static Logger LOG = Logger.getLogger(ComponentDetectionByClustering.class);
 
+    /**
+     * Estimated heap needed per directed relation in addition to the metric values, i.e., the relation, its
+     * result mask and view, the shared intermediate results and the graph edge entries
+     */
+    private static final long ESTIMATED_HEAP_BYTES_PER_RELATION = 400;
+
+    /**
+     * Share of the maximum heap the relations may take before the automatic storage maps them to files
+     */
+    private static final double MAX_HEAP_SHARE_OF_RELATIONS = 0.5;
+
+    /**
+     * Flight recorder event of one clustering iteration
+     */
+    private static final FlightRecorderEventType ITERATION_EVENT = FlightRecorderEventType.create(
+            "org.somox.ClusteringIteration", "Clustering Iteration",
+            new String[] { "iteration", "mode", "threshold", "pairCount", "componentCount", "mergedComponentCount" },
+            new Class<?>[] { int.class, String.class, double.class, int.class, int.class, int.class });
+
     /**
      * KDM model used to detect components
      */
@@ -91,26 +112,56 @@ public class ComponentDetectionByClustering implements IDetectionStrategy {
     private final Map<MetricID, IMetric> allMetrics;
 
     /**
-     * Executor service which is used to compute any damage to the clustering graph in parallel
+     * Graph of the accesses between the classes of the initial component candidates
      */
-    private final ExecutorCompletionService<ClusteringRelation[]> completionService;
+    private final DirectedGraph<Type, ClassAccessGraphEdge> accessGraph;
 
-    private ExecutorService pool;
+    /**
+     * Number of component pairs skipped by the candidate pair blocking during this detection
+     */
+    private long skippedPairCount = 0;
+
+    /**
+     * Scheduler which is used to compute any damage to the clustering graph in parallel
+     */
+    private final PairwiseRelationComputationScheduler relationScheduler;
+
+    /**
+     * Result of a previous run used to skip the relations of settled components or <code>null</code> if all
+     * components are clustered from scratch
+     */
+    private final IncrementalAnalysisBaseline incrementalBaseline;
 
     public ComponentDetectionByClustering(
             final Root kdmModelToAnalyze,
             final List<ComponentImplementingClassesLink> initialComponentCandidates,
             final SoMoXConfiguration somoxConfig) {
+        this(kdmModelToAnalyze, initialComponentCandidates, somoxConfig, null);
+    }
+
+    /**
+     * @param kdmModelToAnalyze KDM model used to detect components
+     * @param initialComponentCandidates The initial component candidates, already seeded by the baseline if given
+     * @param somoxConfig Somox configuration to use to configure detection
+     * @param incrementalBaseline Result of a previous run or <code>null</code> to cluster all components from scratch
+     */
+    public ComponentDetectionByClustering(
+            final Root kdmModelToAnalyze,
+            final List<ComponentImplementingClassesLink> initialComponentCandidates,
+            final SoMoXConfiguration somoxConfig,
+            final IncrementalAnalysisBaseline incrementalBaseline) {
         super();
 
         validateConfiguration(somoxConfig);
 
         this.kdmModel = kdmModelToAnalyze;
         this.somoxConfiguration = somoxConfig;
-        this.allMetrics = initializeMetrics(initialComponentCandidates);
+        this.incrementalBaseline = incrementalBaseline;
+        this.accessGraph = getAccessGraph(initialComponentCandidates);
+        this.allMetrics = initializeMetrics();
         this.compositionIndicatingMetric = getMetric(allMetrics, DefaultCompositionIndicatingMetric.METRIC_ID);
         this.mergeIndicatingMetric = getMetric(allMetrics, DefaultMergeIndicatingMetric.METRIC_ID);
-        this.completionService = initializeExecutorCompletionService();
+        this.relationScheduler = initializeRelationScheduler();
 
         GraphPrinter.cleanOutputFolder(somoxConfig.getFileLocations().getAnalyserInputFile());
     }
@@ -133,14 +184,13 @@ public class ComponentDetectionByClustering implements IDetectionStrategy {
     }
 
     /**
-     * Initialize the {@link ExecutorCompletionService} used to compute repair tasks of the clustering graph
-     * @return the created {@link ExecutorCompletionService} initialized to the number of CPU cores or 1 in debug mode
+     * Initialize the {@link PairwiseRelationComputationScheduler} used to compute repair tasks of the clustering graph
+     * @return the created scheduler initialized to the configured parallelism or 1 in debug mode
      */
-    private ExecutorCompletionService<ClusteringRelation[]> initializeExecutorCompletionService() {
-        final int poolSize = LOG.isDebugEnabled() ? 1 : Runtime.getRuntime().availableProcessors() + 1;
+    private PairwiseRelationComputationScheduler initializeRelationScheduler() {
+        final int poolSize = LOG.isDebugEnabled() ? 1 : somoxConfiguration.getClusteringConfig().getParallelism();
         LOG.debug("Initialized thread pool to compute repair actions of the clustering graph with "+poolSize+" threads");
-        pool = Executors.newFixedThreadPool(poolSize);
-        return new ExecutorCompletionService<ClusteringRelation[]>(pool);
+        return new PairwiseRelationComputationScheduler(mergeIndicatingMetric, allMetrics, poolSize);
     }
 
     private enum OperationMode {
@@ -167,76 +217,104 @@ public class ComponentDetectionByClustering implements IDetectionStrategy {
         int componentCountPreviousIteration = componentCandidates.size();
         boolean newComponentsFound = true;
         int iteration = 0;
-        final DirectedGraph<ComponentImplementingClassesLink, ClusteringRelation> componentIndicatingGraph =
-                setupGraph(componentCandidates);
+        final IClusteringRelationStore componentIndicatingGraph = initializeRelationStore(componentCandidates.size());
 
-        // Cluster as long as there is a chance to find new components in the clustering step
-        while (clusteringCanContinue(componentCandidates, currentMode, currentThreshold, currentThresholdBound)) {
+        try {
+            // Cluster as long as there is a chance to find new components in the clustering step
+            while (clusteringCanContinue(componentCandidates, currentMode, currentThreshold, currentThresholdBound)) {
+
+                iteration++;
+                final long iterationStart = System.nanoTime();
+                final FlightRecorderEvent iterationEvent = ITERATION_EVENT.begin();
+                final int componentCountBeforeIteration = componentCandidates.size();
+                int pairCount = 0;
+
+                LOG.info("Clustering iteration nr.: " + iteration + " in mode: " + currentMode);
+                LOG.info("NR Component candidates: " + componentCandidates.size());
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("Operation mode: "+currentMode+", current threshold value: "+currentThreshold+", current delta: "+currentDelta+", current bound: "+currentThresholdBound);
+                }
 
-            iteration++;
+                if (newComponentsFound) {
+                    // Recompute missing metrics and add their corresponding vertices and edges
+                    LOG.debug("Computing clustering graphs");
+                    pairCount = computeAllMetrics(
+                            componentCandidates,
+                            componentIndicatingGraph,
+                            progressMonitor);
 
-            LOG.info("Clustering iteration nr.: " + iteration + " in mode: " + currentMode);
-            LOG.info("NR Component candidates: " + componentCandidates.size());
-            if (LOG.isDebugEnabled()) {
-                LOG.debug("Operation mode: "+currentMode+", current threshold value: "+currentThreshold+", current delta: "+currentDelta+", current bound: "+currentThresholdBound);
-            }
+                    saveMetricValuesModel(componentIndicatingGraph, iteration, currentThreshold, currentMode, componentCandidates);
+                }
 
-            if (newComponentsFound) {
-                // Recompute missing metrics and add their corresponding vertices and edges
-                LOG.debug("Computing clustering graphs");
-                computeAllMetrics(
-                        componentCandidates,
-                        mergeIndicatingMetric,
+                // 2. create projected graph from one with evaluated metrics:
+                LOG.debug("Projecting graph based on current threshold "+currentThreshold);
+                final DirectedGraph<ComponentImplementingClassesLink, ClusteringRelation> projectedGraph = createProjectedGraph(
                         componentIndicatingGraph,
-                        progressMonitor);
-
-                saveMetricValuesModel(componentIndicatingGraph, iteration, currentThreshold, currentMode, componentCandidates);
-            }
-
-            // 2. create projected graph from one with evaluated metrics:
-            LOG.debug("Projecting graph based on current threshold "+currentThreshold);
-            final DirectedGraph<ComponentImplementingClassesLink, ClusteringRelation> projectedGraph = createProjectedGraph(
-                    componentIndicatingGraph,
-                    currentThreshold,
-                    currentMode);
-            createDebugOutputForIteration(currentMode, iteration, componentIndicatingGraph, projectedGraph);
-
-
-            // 3. Component Clustering
-            componentCandidates = componentComposition(pcmBuilder, projectedGraph, iteration, currentMode == OperationMode.MERGE);
-
-            // update existing components for new interfaces
-            // TODO: the following line causes a lot of performance overhead and is only useful if
-            // public methods are being recognized as interfaces in a fall back strategy
-            pcmBuilder.updateRequiredInterfacesOfExistingPrimitiveComponents();
-
-            // 4. Check whether new components have been found in this iteration
-            if (componentCandidates.size() == componentCountPreviousIteration) {
-                newComponentsFound = false;
-            } else {
-                componentCountPreviousIteration = componentCandidates.size();
-                newComponentsFound = true;
-            }
-
-            // 5. adapt thresholds if necessary
-            if (!newComponentsFound) {
-                currentThreshold += currentDelta;
-                if (currentMode == OperationMode.MERGE && isSwitchToCompose(currentThreshold,currentThresholdBound)) {
-                    LOG.info("Done merging primitive components, now starting to compose.");
-                    currentMode = OperationMode.COMPOSE;
-                    currentThreshold = somoxConfiguration.getClusteringConfig().getMaxComposeClusteringThreshold();
-                    currentThresholdBound = somoxConfiguration.getClusteringConfig().getMinComposeClusteringThreshold();
-                    currentDelta = -somoxConfiguration.getClusteringConfig().getClusteringComposeThresholdDecrement();
+                        currentThreshold,
+                        currentMode);
+                createDebugOutputForIteration(currentMode, iteration, componentIndicatingGraph, projectedGraph);
+
+
+                // 3. Component Clustering
+                final long compositionStart = System.nanoTime();
+                componentCandidates = componentComposition(pcmBuilder, projectedGraph, iteration, currentMode == OperationMode.MERGE);
+                PerformanceCounters.getInstance().timer("somox_clustering_composition_seconds")
+                .record(System.nanoTime() - compositionStart);
+
+                // update existing components for new interfaces
+                // TODO: the following line causes a lot of performance overhead and is only useful if
+                // public methods are being recognized as interfaces in a fall back strategy
+                final long interfaceUpdateStart = System.nanoTime();
+                pcmBuilder.updateRequiredInterfacesOfExistingPrimitiveComponents();
+                PerformanceCounters.getInstance().timer("somox_interface_update_seconds")
+                .record(System.nanoTime() - interfaceUpdateStart);
+
+                // 4. Check whether new components have been found in this iteration
+                if (componentCandidates.size() == componentCountPreviousIteration) {
+                    newComponentsFound = false;
+                } else {
+                    componentCountPreviousIteration = componentCandidates.size();
+                    newComponentsFound = true;
+                }
+                PerformanceCounters.getInstance().timer("somox_clustering_iteration_seconds", "mode", currentMode.name().toLowerCase())
+                .record(System.nanoTime() - iterationStart);
+                iterationEvent.set(0, iteration)
+                .set(1, currentMode.name())
+                .set(2, currentThreshold)
+                .set(3, pairCount)
+                .set(4, componentCandidates.size())
+                .set(5, componentCountBeforeIteration - componentCandidates.size())
+                .commit();
+
+                // 5. adapt thresholds if necessary
+                if (!newComponentsFound) {
+                    currentThreshold += currentDelta;
+                    if (currentMode == OperationMode.MERGE && isSwitchToCompose(currentThreshold,currentThresholdBound)) {
+                        LOG.info("Done merging primitive components, now starting to compose.");
+                        currentMode = OperationMode.COMPOSE;
+                        currentThreshold = somoxConfiguration.getClusteringConfig().getMaxComposeClusteringThreshold();
+                        currentThresholdBound = somoxConfiguration.getClusteringConfig().getMinComposeClusteringThreshold();
+                        currentDelta = -somoxConfiguration.getClusteringConfig().getClusteringComposeThresholdDecrement();
+                    }
                 }
             }
+        } finally {
+            this.relationScheduler.shutdown();
+            componentIndicatingGraph.close();
+            GraphPrinter.awaitPendingDumps();
+        }
+
+        if (somoxConfiguration.getClusteringConfig().isCandidatePairBlocking()) {
+            LOG.info("Candidate pair blocking skipped "+skippedPairCount+" component pairs in total");
+        }
+        if (incrementalBaseline != null) {
+            incrementalBaseline.logReport();
         }
 
         if (LOG.isDebugEnabled()) {
             ComponentPrinter.printComponents(componentCandidates,LOG);
         }
 
-        this.pool.shutdown();
-
         return componentCandidates;
     }
 
@@ -270,14 +348,17 @@ public class ComponentDetectionByClustering implements IDetectionStrategy {
     }
 
     private void saveMetricValuesModel(
-            final DirectedGraph<ComponentImplementingClassesLink, ClusteringRelation> metricsGraph,
+            final IClusteringRelationStore metricsGraph,
             final int iteration, final double currentThreshold,
             final OperationMode mode,
             final List<ComponentImplementingClassesLink> componentCandidates)
     {
+        // the metric values model holds all relations in the heap, hence it only lists the components if the relations are mapped
+        final Iterable<ClusteringRelation> relations = metricsGraph.isInHeap() ?
+                metricsGraph.getRelations() : Collections.<ClusteringRelation>emptyList();
         final MetricValuesWriter mvWriter = new MetricValuesWriter(this.somoxConfiguration);
         mvWriter.saveMetricValuesModel(
-                metricsGraph,
+                relations,
                 iteration,
                 currentThreshold,
                 componentCandidates,
@@ -289,15 +370,17 @@ public class ComponentDetectionByClustering implements IDetectionStrategy {
      * Dumps graphs and values in trace mode.
      * @param isMergeIteration
      * @param iteration
-     * @param componentIndicatingGraph
+     * @param relationStore
      * @param projectedGraph
      */
     private void createDebugOutputForIteration(
             final OperationMode currentMode,
             final int iteration,
-            final DirectedGraph<ComponentImplementingClassesLink, ClusteringRelation> componentIndicatingGraph,
+            final IClusteringRelationStore relationStore,
             final DirectedGraph<ComponentImplementingClassesLink, ClusteringRelation> projectedGraph) {
-        if(LOG.isTraceEnabled()) {
+        if(GraphPrinter.isEnabled()) {
+            final DirectedGraph<ComponentImplementingClassesLink, ClusteringRelation> componentIndicatingGraph =
+                    relationStore.createProjectedGraph(null);
             LOG.trace("graph in mode = " + currentMode + " contains " + projectedGraph.edgeSet().size() + " edges, " + projectedGraph.vertexSet().size() +
                     " vertices / orig graph: " + componentIndicatingGraph.edgeSet().size() + " edges, " + projectedGraph.vertexSet().size() + " vertices");
 
@@ -321,27 +404,47 @@ public class ComponentDetectionByClustering implements IDetectionStrategy {
         final DirectedGraph<Type,ClassAccessGraphEdge> accessGraph =
                 Class2ClassAccessGraphHelper.computeFilteredClass2ClassAccessGraph(
                         somoxConfiguration,
-                        this.componentToImplementingClassHelper.collectAllClasses(componentCandidates));
+                        this.componentToImplementingClassHelper.collectAllClasses(componentCandidates),
+                        kdmModel == null ? null : kdmModel.getStructuralSnapshot());
 
         return accessGraph;
     }
 
     /**
-     * This method is used to initialize all metrics used in the clustering algorithm
-     * @param componentCandidates The set of component candidates. They will be used to limit the
-     * size of the caching graph which is sent to the metric instances.
+     * This method is used to initialize all metrics used in the clustering algorithm. The access graph
+     * of the initial component candidates is used to limit the size of the caching graph which is sent
+     * to the metric instances. Only the composition and merge indicating metrics and the metrics they
+     * require are initialized. Metrics which cannot influence their values with the configured weights,
+     * see {@link org.somox.metrics.IWeightedCompositionFunction}, are neither initialized nor computed.
      * @return The initialized set of metrics mapped on their IDs
      * @throws AnalyzerRuleException If the initialization of a metric fails, an {@link AnalyzerRuleException} is thrown
      */
-    private Map<MetricID, IMetric> initializeMetrics(final List<ComponentImplementingClassesLink> componentCandidates) {
-        final Map<MetricID, IMetric> allMetrics = MetricsRegistry.getRegisteredMetrics();
+    private Map<MetricID, IMetric> initializeMetrics() {
+        final Map<MetricID, IMetric> registeredMetrics = MetricsRegistry.getRegisteredMetrics();
+        final Map<MetricID, IMetric> initializedMetrics = new LinkedHashMap<MetricID, IMetric>();
+
+        final LinkedList<IMetric> pendingMetrics = new LinkedList<IMetric>();
+        pendingMetrics.add(getMetric(registeredMetrics, DefaultMergeIndicatingMetric.METRIC_ID));
+        pendingMetrics.add(getMetric(registeredMetrics, DefaultCompositionIndicatingMetric.METRIC_ID));
+        while (!pendingMetrics.isEmpty()) {
+            final IMetric metric = pendingMetrics.removeFirst();
+            if (initializedMetrics.containsKey(metric.getMID())) {
+                continue;
+            }
+            metric.initialize(kdmModel, somoxConfiguration, registeredMetrics, accessGraph, this.componentToImplementingClassHelper );
+            initializedMetrics.put(metric.getMID(), metric);
+            // the required metrics are known after the initialization
+            Collections.addAll(pendingMetrics, MetricDependencyGraph.getRequiredMetrics(metric));
+        }
 
-        final DirectedGraph<Type, ClassAccessGraphEdge> accessGraph = getAccessGraph(componentCandidates);
-        for (final IMetric metric : allMetrics.values()) {
-            metric.initialize(kdmModel, somoxConfiguration, allMetrics, accessGraph, this.componentToImplementingClassHelper );
+        final Set<MetricID> skippedMetrics = new HashSet<MetricID>(registeredMetrics.keySet());
+        skippedMetrics.removeAll(initializedMetrics.keySet());
+        if (!skippedMetrics.isEmpty()) {
+            LOG.info("Metrics not used with the configured weights: " + skippedMetrics);
         }
+        PerformanceCounters.getInstance().counter("somox_metrics_skipped_total").add(skippedMetrics.size());
 
-        return allMetrics;
+        return initializedMetrics;
     }
 
     /**
@@ -354,7 +457,7 @@ public class ComponentDetectionByClustering implements IDetectionStrategy {
      * @return The projected graphs with removed edges.
      */
     private DirectedGraph<ComponentImplementingClassesLink, ClusteringRelation> createProjectedGraph(
-            final DirectedGraph<ComponentImplementingClassesLink, ClusteringRelation> componentIndicatingGraph,
+            final IClusteringRelationStore componentIndicatingGraph,
             final double currentThreshold,
             final OperationMode currentMode) {
 
@@ -362,78 +465,63 @@ public class ComponentDetectionByClustering implements IDetectionStrategy {
                 currentMode == OperationMode.MERGE ?
                         new VertexTypeAndEdgeThresholdFilter(mergeIndicatingMetric.getMID(), currentThreshold) :
                             new EdgeThresholdFilter(compositionIndicatingMetric.getMID(), currentThreshold);
-                        return new DirectedSubgraph<ComponentImplementingClassesLink, ClusteringRelation>(
-                                componentIndicatingGraph,
-                                componentIndicatingGraph.vertexSet(),
-                                FilteredCollectionsFactory.getFilteredHashSet(filter,componentIndicatingGraph.edgeSet()));
+        return componentIndicatingGraph.createProjectedGraph(filter);
     }
 
     /**
      * For the given list of potential components, i.e., classes, compute a triangular matrix of metrics indicating the
      * relationship of the two classes.
      * @param newComponentCandidates The list of potential components
-     * @param metricComputationStrategy A class which encapsulates the computation of the metrics.
-     * 		The top level metric which is to be computed (merge or compose).
+     * @param previousGraph The graph to which the computed relations are added
      * @param progressMonitor The progress monitor used to indicate clustering progress
-     * @return The elements of the triangular matrix showing the relationship of all classes pairwise
+     * @return The number of component pairs whose relations have been computed
      * @throws ModelAnalyzerException Thrown if the metric computation fails unexpectedly
      */
-    private void computeAllMetrics(
+    private int computeAllMetrics(
             final List<ComponentImplementingClassesLink> newComponentCandidates,
-            final IMetric metricComputationStrategy,
-            final DirectedGraph<ComponentImplementingClassesLink, ClusteringRelation> previousGraph,
+            final IClusteringRelationStore previousGraph,
             final IProgressMonitor progressMonitor) throws ModelAnalyzerException {
 
         final Collection<NodePair> work = deriveComputationWork(newComponentCandidates,previousGraph);
         final int totalCount = work.size();
+        PerformanceCounters.getInstance().histogram("somox_clustering_pairs_per_iteration").record(totalCount);
 
         final IProgressMonitor clusteringProgressMonitor = new SubProgressMonitor(progressMonitor,totalCount);
         final long startTimeClustering = System.nanoTime();
         LOG.debug("Creating weighted directed graph for "+newComponentCandidates.size() + " components.");
 
-        for (final NodePair nodePair : work) {
-            completionService.submit(nodePair.getWorkTask(metricComputationStrategy,allMetrics));
-        }
-
-        try {
-            for (int stepNo = 0; stepNo < totalCount; stepNo++) {
-                final ClusteringRelation[] computedRelationPair = completionService.take().get();
-                for (final ClusteringRelation relation : computedRelationPair) {
-                    previousGraph.addEdge(relation.getSourceComponent(),relation.getTargetComponent(),relation);
-                }
-                LOG.debug(stepNo * 100 / totalCount + "% of clustering done.");
-            }
-        } catch (final InterruptedException e) {
-            throw new RuntimeException("Parallel execution failed unexpectedly",e);
-        } catch (final ExecutionException e) {
-            throw new RuntimeException("Parallel execution failed unexpectedly",e);
-        }
+        relationScheduler.computeRelations(work, previousGraph, progressMonitor);
 
         final long clusteringTime = System.nanoTime() - startTimeClustering;
+        PerformanceCounters.getInstance().timer("somox_clustering_metrics_seconds").record(clusteringTime);
+        if (incrementalBaseline != null) {
+            incrementalBaseline.recordComputedPairs(totalCount, clusteringTime);
+        }
         LOG.debug("TIME for Compute All Metrics: " + TimeUnit.NANOSECONDS.toSeconds(clusteringTime) + " s");
 
         clusteringProgressMonitor.done();
+        return totalCount;
     }
 
     private Collection<NodePair> deriveComputationWork(
             final List<ComponentImplementingClassesLink> componentCandidates,
-            final DirectedGraph<ComponentImplementingClassesLink, ClusteringRelation> previousGraph) {
+            final IClusteringRelationStore previousGraph) {
         final Set<ComponentImplementingClassesLink> newNodes = new HashSet<ComponentImplementingClassesLink>();
         final Set<ComponentImplementingClassesLink> nodesToRemove = new HashSet<ComponentImplementingClassesLink>();
 
-        for (final ComponentImplementingClassesLink link : previousGraph.vertexSet()) {
+        for (final ComponentImplementingClassesLink link : previousGraph.getComponents()) {
             if (!componentCandidates.contains(link)) {
                 nodesToRemove.add(link);
             }
         }
 
-        previousGraph.removeAllVertices(nodesToRemove);
-        final Set<ComponentImplementingClassesLink> oldNodesSet = new HashSet<ComponentImplementingClassesLink>(previousGraph.vertexSet());
+        previousGraph.removeComponents(nodesToRemove);
+        final Set<ComponentImplementingClassesLink> oldNodesSet = new HashSet<ComponentImplementingClassesLink>(previousGraph.getComponents());
 
         for (final ComponentImplementingClassesLink link : componentCandidates) {
-            if (!previousGraph.vertexSet().contains(link)) {
+            if (!previousGraph.getComponents().contains(link)) {
                 newNodes.add(link);
-                previousGraph.addVertex(link);
+                previousGraph.addComponent(link);
             }
         }
 
@@ -442,12 +530,43 @@ public class ComponentDetectionByClustering implements IDetectionStrategy {
         final int totalCount = newNodes.size() * (newNodes.size() - 1) / 2 +
                 newNodes.size() * oldNodesSet.size();
 
-        final Collection<NodePair> pairsToCompute = derivePairsToCompute(newNodes,oldNodesSet);
+        Collection<NodePair> pairsToCompute = derivePairsToCompute(newNodes,oldNodesSet);
         assert pairsToCompute.size() == totalCount;
 
+        if (incrementalBaseline != null) {
+            pairsToCompute = incrementalBaseline.removeSettledPairs(pairsToCompute);
+        }
+
+        if (somoxConfiguration.getClusteringConfig().isCandidatePairBlocking()) {
+            return pruneComputationWork(componentCandidates, pairsToCompute);
+        }
         return pairsToCompute;
     }
 
+    /**
+     * Removes all pairs whose relations cannot pass any merge or compose threshold of the clustering. Skipped pairs
+     * do not get any edge in the clustering graph.
+     * @param componentCandidates The component candidates of the current iteration
+     * @param pairsToCompute All pairs whose relations are missing in the clustering graph
+     * @return The candidate pairs emitted by the {@link CandidatePairBlockingIndex}
+     */
+    private Collection<NodePair> pruneComputationWork(
+            final List<ComponentImplementingClassesLink> componentCandidates,
+            final Collection<NodePair> pairsToCompute) {
+        final CandidatePairBlockingIndex blockingIndex = new CandidatePairBlockingIndex(
+                componentCandidates, this.componentToImplementingClassHelper, this.accessGraph,
+                kdmModel == null ? new StructuralSnapshot(Collections.<Model>emptyList()) : kdmModel.getStructuralSnapshot(),
+                somoxConfiguration);
+        final Collection<NodePair> candidatePairs = blockingIndex.filterCandidatePairs(pairsToCompute);
+
+        final int skipped = pairsToCompute.size() - candidatePairs.size();
+        skippedPairCount += skipped;
+        PerformanceCounters.getInstance().counter("somox_clustering_skipped_pairs_total").add(skipped);
+        LOG.info("Candidate pair blocking skipped "+skipped+" of "+pairsToCompute.size()+" component pairs");
+
+        return candidatePairs;
+    }
+
     private Collection<NodePair> derivePairsToCompute(
             final Set<ComponentImplementingClassesLink> newNodes,
             final Set<ComponentImplementingClassesLink> oldNodesSet) {
@@ -470,11 +589,30 @@ public class ComponentDetectionByClustering implements IDetectionStrategy {
         return result;
     }
 
-    private DirectedGraph<ComponentImplementingClassesLink, ClusteringRelation> setupGraph(
-            final List<ComponentImplementingClassesLink> componentCandidates) {
-        final DirectedGraph<ComponentImplementingClassesLink, ClusteringRelation> result =
-                new SimpleDirectedGraph<ComponentImplementingClassesLink, ClusteringRelation>(ClusteringRelation.class);
-        return result;
+    /**
+     * Create the store of the clustering graph. The automatic storage estimates the heap needed if all pairs of
+     * the initial component candidates get relations and maps the relations to files if the estimate exceeds
+     * {@link #MAX_HEAP_SHARE_OF_RELATIONS} of the maximum heap.
+     * @param componentCount The number of initial component candidates
+     * @return The created store
+     */
+    private IClusteringRelationStore initializeRelationStore(final int componentCount) {
+        RelationStorage storage = somoxConfiguration.getClusteringConfig().getRelationStorage();
+        if (storage == RelationStorage.AUTOMATIC) {
+            final double estimatedBytes = (double) componentCount * (componentCount - 1)
+                    * (ESTIMATED_HEAP_BYTES_PER_RELATION + 8 * allMetrics.size());
+            storage = estimatedBytes > MAX_HEAP_SHARE_OF_RELATIONS * Runtime.getRuntime().maxMemory() ?
+                    RelationStorage.MAPPED : RelationStorage.HEAP;
+            LOG.debug("Estimated "+(long) (estimatedBytes / (1 << 20))+" MB of heap for the relations of "+componentCount+" components, using "+storage+" relation storage");
+        }
+        if (storage == RelationStorage.MAPPED) {
+            try {
+                return new MappedClusteringRelationStore(allMetrics.keySet());
+            } catch (final IOException e) {
+                LOG.warn("Unable to create memory mapped relation store, keeping relations in heap", e);
+            }
+        }
+        return new InHeapClusteringRelationStore();
     }
 
     /**
@@ -513,7 +651,7 @@ public class ComponentDetectionByClustering implements IDetectionStrategy {
                         DirectedGraph<ComponentImplementingClassesLink,ClusteringRelation>>(relationshipGraph, componentsToMerge);
 
                 // debug:
-                if (compositeComponentSubgraph.edgeSet().size() > 0 && LOG.isTraceEnabled()) {
+                if (compositeComponentSubgraph.edgeSet().size() > 0 && GraphPrinter.isEnabled()) {
                     GraphPrinter.dumpGraph(this.componentToImplementingClassHelper,compositeComponentSubgraph,
                             somoxConfiguration.getFileLocations().getAnalyserInputFile(), iteration, subgraphNo++);
                 }
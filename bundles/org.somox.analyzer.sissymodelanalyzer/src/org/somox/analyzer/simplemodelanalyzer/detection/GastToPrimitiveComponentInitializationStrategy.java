@@ -2,12 +2,16 @@ package org.somox.analyzer.simplemodelanalyzer.detection;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import org.eclipse.gmt.modisco.java.Type;
 import org.somox.analyzer.simplemodelanalyzer.builder.ComponentBuilder;
+import org.somox.analyzer.simplemodelanalyzer.builder.PrimitiveComponentPlan;
 import org.somox.configuration.SoMoXConfiguration;
 import org.somox.filter.ComposedFilter;
 import org.somox.filter.EClassBasedFilter;
+import org.somox.instrumentation.PerformanceCounters;
 import org.somox.kdmhelper.metamodeladdition.Root;
 //import de.fzi.gast.core.Root;
 //import de.fzi.gast.types.GASTClass;
@@ -19,12 +23,20 @@ import org.somox.sourcecodedecorator.ComponentImplementingClassesLink;
  * <br>
  * Classes are extracted from the Resource and "bundled" with their inner classes. 
  * Each such bundle immediately becomes a primitive component.
+ * <br>
+ * The classes are filtered and analysed in parallel, the analysis only reads the GAST model. Afterwards,
+ * the components are created from the analysis results on a single thread in the order of the classes.
  * 
  * @author Steffen Becker, Johannes Stammel, Grischa Liebel, Klaus Krogmann
  *
  */
 public class GastToPrimitiveComponentInitializationStrategy extends AbstractInitializationStrategy {
 	
+	/**
+	 * Maximum number of classes analysed sequentially by a single fork join task
+	 */
+	private static final int CHUNK_SIZE = 32;
+	
 	/**
 	 * Create an initial list of component candidates by following a simple heuristic: each GASTClass is 
 	 * a component. Its implementation consists of the GAST class itself and the set of all inner, i.e., nested, classes
@@ -41,8 +53,8 @@ public class GastToPrimitiveComponentInitializationStrategy extends AbstractInit
 //		}
 //		org.somox.changetest.Helper.sortFile(fileName);
 
-		for (Type clazz : getFilter(config).filter(classList)){
-			ComponentImplementingClassesLink newPrimitiveComponent = builder.createPrimitiveComponentFromGASTClass(clazz);
+		for (PrimitiveComponentPlan plan : planComponents(classList, config, builder)){
+			ComponentImplementingClassesLink newPrimitiveComponent = builder.createPrimitiveComponentFromPlan(plan);
 			newPrimitiveComponent.setIsInitialComponent(true);
 			result.add(newPrimitiveComponent);
 		}
@@ -50,6 +62,31 @@ public class GastToPrimitiveComponentInitializationStrategy extends AbstractInit
 		return result;
 	}
 	
+	/**
+	 * Filters the classes and plans a primitive component for each passing class in parallel.
+	 * @return The plans in the order of the classes
+	 */
+	private List<PrimitiveComponentPlan> planComponents(List<Type> classList, SoMoXConfiguration config, ComponentBuilder builder) {
+		final long start = System.nanoTime();
+		final Type[] classes = classList.toArray(new Type[classList.size()]);
+		final PrimitiveComponentPlan[] plans = new PrimitiveComponentPlan[classes.length];
+		final ForkJoinPool pool = new ForkJoinPool(config.getClusteringConfig().getParallelism());
+		try {
+			pool.invoke(new PlanningTask(classes, plans, 0, classes.length, getFilter(config), builder));
+		} finally {
+			pool.shutdown();
+		}
+		
+		List<PrimitiveComponentPlan> result = new ArrayList<PrimitiveComponentPlan>(plans.length);
+		for (PrimitiveComponentPlan plan : plans) {
+			if (plan != null) {
+				result.add(plan);
+			}
+		}
+		PerformanceCounters.getInstance().timer("somox_initial_component_planning_seconds").record(System.nanoTime() - start);
+		return result;
+	}
+	
 	@SuppressWarnings("unchecked")
 	private ComposedFilter<Type> getFilter(SoMoXConfiguration config) {
 		ComposedFilter<Type> gastClassFilter = new ComposedFilter<Type>(
@@ -65,4 +102,45 @@ public class GastToPrimitiveComponentInitializationStrategy extends AbstractInit
 		return gastClassFilter;		
 	}	
 	
+	/**
+	 * Plans the components of a range of classes, storing each plan at the index of its class.
+	 * Classes not passing the filter get no plan.
+	 */
+	private static final class PlanningTask extends RecursiveAction {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private final Type[] classes;
+		private final PrimitiveComponentPlan[] plans;
+		private final int from;
+		private final int to;
+		private final ComposedFilter<Type> filter;
+		private final ComponentBuilder builder;
+		
+		private PlanningTask(Type[] classes, PrimitiveComponentPlan[] plans, int from, int to,
+				ComposedFilter<Type> filter, ComponentBuilder builder) {
+			this.classes = classes;
+			this.plans = plans;
+			this.from = from;
+			this.to = to;
+			this.filter = filter;
+			this.builder = builder;
+		}
+		
+		@Override
+		protected void compute() {
+			if (to - from > CHUNK_SIZE) {
+				int middle = (from + to) >>> 1;
+				invokeAll(new PlanningTask(classes, plans, from, middle, filter, builder),
+						new PlanningTask(classes, plans, middle, to, filter, builder));
+				return;
+			}
+			for (int i = from; i < to; i++) {
+				if (classes[i] != null && filter.passes(classes[i])) {
+					plans[i] = builder.planPrimitiveComponentFromGASTClass(classes[i]);
+				}
+			}
+		}
+	}
+	
 }
@@ -0,0 +1,59 @@
+package org.somox.analyzer.simplemodelanalyzer.detection;
+
+import java.util.Collection;
+import java.util.Set;
+
+import org.jgrapht.DirectedGraph;
+import org.somox.filter.BaseFilter;
+import org.somox.metrics.ClusteringRelation;
+import org.somox.sourcecodedecorator.ComponentImplementingClassesLink;
+
+/**
+ * Storage of the clustering graph, i.e., the current component candidates and the pairwise
+ * {@link ClusteringRelation}s computed between them.
+ */
+public interface IClusteringRelationStore {
+
+    /**
+     * @return The component candidates stored, read only
+     */
+    public Set<ComponentImplementingClassesLink> getComponents();
+
+    /**
+     * @param component A new component candidate without any relations
+     */
+    public void addComponent(ComponentImplementingClassesLink component);
+
+    /**
+     * @param components Component candidates to remove together with all their relations
+     */
+    public void removeComponents(Collection<ComponentImplementingClassesLink> components);
+
+    /**
+     * @param relation A computed relation between two stored component candidates
+     */
+    public void addRelation(ClusteringRelation relation);
+
+    /**
+     * @param filter Filter of the relations to include, <code>null</code> to include all relations
+     * @return A graph containing all stored component candidates and the relations passing the filter
+     */
+    public DirectedGraph<ComponentImplementingClassesLink, ClusteringRelation> createProjectedGraph(
+            BaseFilter<ClusteringRelation> filter);
+
+    /**
+     * @return All stored relations. Relations may be created on the fly while iterating
+     */
+    public Iterable<ClusteringRelation> getRelations();
+
+    /**
+     * @return <code>true</code> if all relations are kept in the heap, i.e., iterating them is cheap and
+     * 		the relations may be held by the caller
+     */
+    public boolean isInHeap();
+
+    /**
+     * Releases all resources of the store, the store must not be used afterwards.
+     */
+    public void close();
+}
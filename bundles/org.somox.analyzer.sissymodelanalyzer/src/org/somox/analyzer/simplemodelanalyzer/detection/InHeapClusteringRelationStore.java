@@ -0,0 +1,69 @@
+package org.somox.analyzer.simplemodelanalyzer.detection;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.jgrapht.DirectedGraph;
+import org.jgrapht.graph.DirectedSubgraph;
+import org.jgrapht.graph.SimpleDirectedGraph;
+import org.somox.filter.BaseFilter;
+import org.somox.filter.FilteredCollectionsFactory;
+import org.somox.metrics.ClusteringRelation;
+import org.somox.sourcecodedecorator.ComponentImplementingClassesLink;
+
+/**
+ * Relation store keeping the clustering graph in the heap. Projected graphs are views on the stored graph.
+ */
+public class InHeapClusteringRelationStore implements IClusteringRelationStore {
+
+    private final DirectedGraph<ComponentImplementingClassesLink, ClusteringRelation> graph =
+            new SimpleDirectedGraph<ComponentImplementingClassesLink, ClusteringRelation>(ClusteringRelation.class);
+
+    @Override
+    public Set<ComponentImplementingClassesLink> getComponents() {
+        return Collections.unmodifiableSet(graph.vertexSet());
+    }
+
+    @Override
+    public void addComponent(final ComponentImplementingClassesLink component) {
+        graph.addVertex(component);
+    }
+
+    @Override
+    public void removeComponents(final Collection<ComponentImplementingClassesLink> components) {
+        graph.removeAllVertices(new HashSet<ComponentImplementingClassesLink>(components));
+    }
+
+    @Override
+    public void addRelation(final ClusteringRelation relation) {
+        graph.addEdge(relation.getSourceComponent(), relation.getTargetComponent(), relation);
+    }
+
+    @Override
+    public DirectedGraph<ComponentImplementingClassesLink, ClusteringRelation> createProjectedGraph(
+            final BaseFilter<ClusteringRelation> filter) {
+        if (filter == null) {
+            return graph;
+        }
+        return new DirectedSubgraph<ComponentImplementingClassesLink, ClusteringRelation>(
+                graph,
+                graph.vertexSet(),
+                FilteredCollectionsFactory.getFilteredHashSet(filter, graph.edgeSet()));
+    }
+
+    @Override
+    public Iterable<ClusteringRelation> getRelations() {
+        return Collections.unmodifiableSet(graph.edgeSet());
+    }
+
+    @Override
+    public boolean isInHeap() {
+        return true;
+    }
+
+    @Override
+    public void close() {
+    }
+}
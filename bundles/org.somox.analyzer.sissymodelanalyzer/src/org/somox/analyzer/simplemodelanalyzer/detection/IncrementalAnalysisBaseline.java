@@ -0,0 +1,473 @@
+package org.somox.analyzer.simplemodelanalyzer.detection;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.common.util.WrappedException;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.URIConverter;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.emf.ecore.util.InternalEList;
+import org.eclipse.emf.ecore.xmi.impl.XMIResourceFactoryImpl;
+import org.eclipse.gmt.modisco.java.AbstractTypeDeclaration;
+import org.eclipse.gmt.modisco.java.BodyDeclaration;
+import org.eclipse.gmt.modisco.java.Type;
+import org.jgrapht.DirectedGraph;
+import org.jgrapht.graph.SimpleDirectedGraph;
+import org.palladiosimulator.pcm.repository.CompositeComponent;
+import org.somox.analyzer.simplemodelanalyzer.builder.ComponentBuilder;
+import org.somox.configuration.SoMoXConfiguration;
+import org.somox.instrumentation.PerformanceCounters;
+import org.somox.kdmhelper.KDMHelper;
+import org.somox.metrics.ClusteringRelation;
+import org.somox.metrics.helper.Class2ClassAccessGraphHelper;
+import org.somox.metrics.helper.ClassAccessGraphEdge;
+import org.somox.metrics.helper.ComponentToImplementingClassesHelper;
+import org.somox.sourcecodedecorator.ComponentImplementingClassesLink;
+import org.somox.sourcecodedecorator.SourceCodeDecoratorPackage;
+import org.somox.sourcecodedecorator.SourceCodeDecoratorRepository;
+
+/**
+ * Result of a previous SoMoX run used to warm-start the clustering of an incremental analysis. The classes of the
+ * previous and the current model are matched by their fully qualified names. A class has changed if it is new, if
+ * its members have changed or if its accesses in the class access graph differ from the previous run.
+ * <p>
+ * Primitive components of the previous run whose classes are all unchanged are settled: merged components are
+ * created again from the initial component candidates of their classes before the clustering starts. The relations
+ * between two settled components are not computed again unless both were part of the same composite component in
+ * the previous run, i.e., settled components keep their previous clustering and only components whose classes or
+ * accesses changed are clustered anew.
+ */
+public class IncrementalAnalysisBaseline {
+
+    private static final Logger LOG = Logger.getLogger(IncrementalAnalysisBaseline.class);
+
+    /**
+     * Primitive component of the previous run
+     */
+    private static final class PreviousComponent {
+
+        private final String name;
+
+        private final Set<String> classNames = new HashSet<String>();
+
+        /**
+         * The outermost component of the previous run containing this component, the component itself if it
+         * has not been part of a composite component
+         */
+        private final ComponentImplementingClassesLink topLevelComponent;
+
+        private boolean changed = false;
+
+        private PreviousComponent(final String name, final ComponentImplementingClassesLink topLevelComponent) {
+            super();
+
+            this.name = name;
+            this.topLevelComponent = topLevelComponent;
+        }
+    }
+
+    private final SoMoXConfiguration somoxConfiguration;
+
+    private final List<PreviousComponent> previousComponents = new ArrayList<PreviousComponent>();
+
+    /**
+     * Primitive components of the previous run mapped by the fully qualified names of their classes
+     */
+    private final Map<String, PreviousComponent> previousComponentByClass = new HashMap<String, PreviousComponent>();
+
+    /**
+     * Members and accesses of the classes of the previous run mapped by their fully qualified names
+     */
+    private final Map<String, String> previousClassSignatures;
+
+    /**
+     * Component candidates of this run which have been settled mapped on their previous component
+     */
+    private final Map<ComponentImplementingClassesLink, PreviousComponent> settledComponents =
+            new HashMap<ComponentImplementingClassesLink, PreviousComponent>();
+
+    private int newClassCount = 0;
+
+    private long pairsAvoidedBySeeding = 0;
+
+    private long skippedPairs = 0;
+
+    private long computedPairs = 0;
+
+    private long computationNanos = 0;
+
+    private IncrementalAnalysisBaseline(
+            final SoMoXConfiguration somoxConfiguration,
+            final SourceCodeDecoratorRepository previousDecorator) {
+        super();
+
+        this.somoxConfiguration = somoxConfiguration;
+
+        final Map<ComponentImplementingClassesLink, ComponentImplementingClassesLink> parents =
+                new HashMap<ComponentImplementingClassesLink, ComponentImplementingClassesLink>();
+        for (final ComponentImplementingClassesLink link : previousDecorator.getComponentImplementingClassesLink()) {
+            for (final ComponentImplementingClassesLink subComponent : link.getSubComponents()) {
+                parents.put(subComponent, link);
+            }
+        }
+
+        final Set<Type> previousClasses = new HashSet<Type>();
+        for (final ComponentImplementingClassesLink link : previousDecorator.getComponentImplementingClassesLink()) {
+            if (link.getComponent() instanceof CompositeComponent || link.getImplementingClasses().isEmpty()) {
+                continue;
+            }
+            ComponentImplementingClassesLink topLevelComponent = link;
+            while (parents.containsKey(topLevelComponent)) {
+                topLevelComponent = parents.get(topLevelComponent);
+            }
+            final PreviousComponent previousComponent = new PreviousComponent(
+                    link.getComponent() == null ? null : link.getComponent().getEntityName(), topLevelComponent);
+            previousComponents.add(previousComponent);
+            for (final Type clazz : link.getImplementingClasses()) {
+                final String className = KDMHelper.computeFullQualifiedName(clazz);
+                previousComponent.classNames.add(className);
+                previousClasses.add(clazz);
+                final PreviousComponent otherComponent = previousComponentByClass.put(className, previousComponent);
+                if (otherComponent != null && otherComponent != previousComponent) {
+                    // ambiguous assignment, cluster both components anew
+                    otherComponent.changed = true;
+                    previousComponent.changed = true;
+                }
+            }
+        }
+        // the previous classes are not the classes of this analysis, do not replace its cached access graph
+        this.previousClassSignatures = computeClassSignatures(previousClasses, false);
+    }
+
+    /**
+     * Loads the source code decorator of a previous run configured in the file locations. If the model analysed
+     * by the previous run has been copied, references into the current input file are redirected to the copy.
+     * <p>
+     * Without a copy, the classes of the previous decorator resolve into the current input file. If that file has
+     * been regenerated in place after the previous run, the previous classes are the current ones and no change
+     * would be detected. The baseline is not used in this case and all components are detected from scratch.
+     * @param somoxConfiguration The configuration of this run
+     * @return The baseline or <code>null</code> if no previous run is configured or it cannot be loaded
+     */
+    public static IncrementalAnalysisBaseline load(final SoMoXConfiguration somoxConfiguration) {
+        final String decoratorFile = somoxConfiguration.getFileLocations().getPreviousSourceCodeDecoratorFile();
+        if (decoratorFile == null || decoratorFile.trim().length() == 0) {
+            return null;
+        }
+        SourceCodeDecoratorPackage.eINSTANCE.eClass();
+
+        final ResourceSet resourceSet = new ResourceSetImpl();
+        resourceSet
+        .getResourceFactoryRegistry()
+        .getExtensionToFactoryMap()
+        .put(Resource.Factory.Registry.DEFAULT_EXTENSION,
+                new XMIResourceFactoryImpl());
+        final String inputFile = somoxConfiguration.getFileLocations().getAnalyserInputFile();
+        final String previousInputFile = somoxConfiguration.getFileLocations().getPreviousAnalyserInputFile();
+        final boolean previousInputCopied = previousInputFile != null && previousInputFile.trim().length() > 0;
+        if (inputFile != null && previousInputCopied) {
+            resourceSet.getURIConverter().getURIMap().put(
+                    URI.createPlatformResourceURI(inputFile, true),
+                    URI.createPlatformResourceURI(previousInputFile, true));
+        }
+
+        try {
+            final URI decoratorURI = URI.createPlatformResourceURI(decoratorFile, true);
+            final Resource resource = resourceSet.getResource(decoratorURI, true);
+            for (final EObject content : resource.getContents()) {
+                if (content instanceof SourceCodeDecoratorRepository) {
+                    if (inputFile != null && !previousInputCopied
+                            && isRegeneratedInPlace(resourceSet, (SourceCodeDecoratorRepository) content,
+                                    URI.createPlatformResourceURI(inputFile, true), decoratorURI)) {
+                        LOG.warn("The previous source code decorator " + decoratorFile + " refers to the input file "
+                                + inputFile + " which has been modified after the previous run. Configure a copy of"
+                                + " the previously analysed model as previous input file to detect changes."
+                                + " Detecting all components from scratch");
+                        return null;
+                    }
+                    final IncrementalAnalysisBaseline baseline = new IncrementalAnalysisBaseline(
+                            somoxConfiguration, (SourceCodeDecoratorRepository) content);
+                    LOG.info("Incremental analysis based on " + baseline.previousComponents.size()
+                            + " primitive components of " + decoratorFile);
+                    return baseline;
+                }
+            }
+            LOG.warn("No source code decorator found in " + decoratorFile + ", detecting all components from scratch");
+        } catch (final WrappedException e) {
+            LOG.warn("Unable to load previous source code decorator " + decoratorFile
+                    + ", detecting all components from scratch", e);
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether the previous decorator refers to classes of the current input file and the input file is not
+     * known to be older than the decorator. The references are inspected without resolving them.
+     * @return <code>true</code> if the previous classes would resolve to the regenerated current classes
+     */
+    private static boolean isRegeneratedInPlace(
+            final ResourceSet resourceSet,
+            final SourceCodeDecoratorRepository previousDecorator,
+            final URI inputURI,
+            final URI decoratorURI) {
+        final URIConverter uriConverter = resourceSet.getURIConverter();
+        final URI normalizedInputURI = uriConverter.normalize(inputURI);
+        boolean refersToInput = false;
+        for (final ComponentImplementingClassesLink link : previousDecorator.getComponentImplementingClassesLink()) {
+            final Iterator<Type> classes = ((InternalEList<Type>) link.getImplementingClasses()).basicIterator();
+            while (!refersToInput && classes.hasNext()) {
+                final URI classURI = EcoreUtil.getURI(classes.next()).trimFragment();
+                refersToInput = normalizedInputURI.equals(uriConverter.normalize(classURI));
+            }
+            if (refersToInput) {
+                break;
+            }
+        }
+        if (!refersToInput) {
+            return false;
+        }
+
+        final Object inputTimeStamp =
+                uriConverter.getAttributes(inputURI, null).get(URIConverter.ATTRIBUTE_TIME_STAMP);
+        final Object decoratorTimeStamp =
+                uriConverter.getAttributes(decoratorURI, null).get(URIConverter.ATTRIBUTE_TIME_STAMP);
+        if (!(inputTimeStamp instanceof Long) || !(decoratorTimeStamp instanceof Long)) {
+            // unknown modification times, the input file may have been regenerated
+            return true;
+        }
+        return (Long) inputTimeStamp > (Long) decoratorTimeStamp;
+    }
+
+    /**
+     * Diffs the classes of the initial component candidates against the previous run and settles the primitive
+     * components whose classes are unchanged. The initial component candidates of the classes of a settled merged
+     * component are replaced by a new merged component.
+     * @param initialComponentCandidates The initial component candidates of this run
+     * @param componentBuilder Builder used to create the merged components
+     * @return The component candidates to start the clustering with
+     */
+    public List<ComponentImplementingClassesLink> seedInitialComponents(
+            final List<ComponentImplementingClassesLink> initialComponentCandidates,
+            final ComponentBuilder componentBuilder) {
+        final ComponentToImplementingClassesHelper classesHelper = new ComponentToImplementingClassesHelper();
+        final Map<String, String> classSignatures =
+                computeClassSignatures(classesHelper.collectAllClasses(initialComponentCandidates), true);
+
+        for (final Map.Entry<String, PreviousComponent> entry : previousComponentByClass.entrySet()) {
+            final String className = entry.getKey();
+            if (!classSignatures.containsKey(className)
+                    || !classSignatures.get(className).equals(previousClassSignatures.get(className))) {
+                entry.getValue().changed = true;
+            }
+        }
+        for (final String className : classSignatures.keySet()) {
+            if (!previousComponentByClass.containsKey(className)) {
+                newClassCount++;
+            }
+        }
+
+        // group the candidates by the unchanged previous component containing all of their classes
+        final Map<PreviousComponent, List<ComponentImplementingClassesLink>> candidatesByComponent =
+                new LinkedHashMap<PreviousComponent, List<ComponentImplementingClassesLink>>();
+        final Map<PreviousComponent, Set<String>> classNamesByComponent = new HashMap<PreviousComponent, Set<String>>();
+        for (final ComponentImplementingClassesLink candidate : initialComponentCandidates) {
+            final PreviousComponent previousComponent = getUnchangedPreviousComponent(candidate, classesHelper);
+            if (previousComponent != null) {
+                if (!candidatesByComponent.containsKey(previousComponent)) {
+                    candidatesByComponent.put(previousComponent, new ArrayList<ComponentImplementingClassesLink>());
+                    classNamesByComponent.put(previousComponent, new HashSet<String>());
+                }
+                candidatesByComponent.get(previousComponent).add(candidate);
+                for (final Type clazz : classesHelper.deriveImplementingClasses(candidate)) {
+                    classNamesByComponent.get(previousComponent).add(KDMHelper.computeFullQualifiedName(clazz));
+                }
+            }
+        }
+
+        final Map<ComponentImplementingClassesLink, ComponentImplementingClassesLink> replacements =
+                new HashMap<ComponentImplementingClassesLink, ComponentImplementingClassesLink>();
+        for (final Map.Entry<PreviousComponent, List<ComponentImplementingClassesLink>> entry : candidatesByComponent.entrySet()) {
+            final PreviousComponent previousComponent = entry.getKey();
+            final List<ComponentImplementingClassesLink> candidates = entry.getValue();
+            if (!classNamesByComponent.get(previousComponent).equals(previousComponent.classNames)) {
+                previousComponent.changed = true;
+            } else if (candidates.size() == 1) {
+                settledComponents.put(candidates.get(0), previousComponent);
+            } else {
+                final DirectedGraph<ComponentImplementingClassesLink, ClusteringRelation> mergeGraph =
+                        new SimpleDirectedGraph<ComponentImplementingClassesLink, ClusteringRelation>(ClusteringRelation.class);
+                for (final ComponentImplementingClassesLink candidate : candidates) {
+                    mergeGraph.addVertex(candidate);
+                }
+                final ComponentImplementingClassesLink mergedComponent = componentBuilder.createMergedComponent(mergeGraph);
+                settledComponents.put(mergedComponent, previousComponent);
+                for (final ComponentImplementingClassesLink candidate : candidates) {
+                    replacements.put(candidate, mergedComponent);
+                }
+            }
+        }
+
+        final List<ComponentImplementingClassesLink> result = new ArrayList<ComponentImplementingClassesLink>();
+        final Set<ComponentImplementingClassesLink> added = new HashSet<ComponentImplementingClassesLink>();
+        for (final ComponentImplementingClassesLink candidate : initialComponentCandidates) {
+            final ComponentImplementingClassesLink replacement =
+                    replacements.containsKey(candidate) ? replacements.get(candidate) : candidate;
+            if (added.add(replacement)) {
+                result.add(replacement);
+            }
+        }
+
+        final long initialCount = initialComponentCandidates.size();
+        final long seededCount = result.size();
+        this.pairsAvoidedBySeeding = initialCount * (initialCount - 1) / 2 - seededCount * (seededCount - 1) / 2;
+        LOG.info("Incremental analysis settled " + settledComponents.size() + " components, "
+                + seededCount + " instead of " + initialCount + " component candidates are clustered");
+        return result;
+    }
+
+    /**
+     * Removes all pairs of settled components which have not been part of the same composite component in the
+     * previous run.
+     * @param pairsToCompute The pairs whose relations are missing in the clustering graph
+     * @return The pairs whose relations have to be computed
+     */
+    public Collection<NodePair> removeSettledPairs(final Collection<NodePair> pairsToCompute) {
+        final List<NodePair> result = new ArrayList<NodePair>(pairsToCompute.size());
+        for (final NodePair pair : pairsToCompute) {
+            final PreviousComponent first = settledComponents.get(pair.getFirst());
+            final PreviousComponent second = settledComponents.get(pair.getSecond());
+            if (first == null || second == null || first.topLevelComponent == second.topLevelComponent) {
+                result.add(pair);
+            }
+        }
+        final int skipped = pairsToCompute.size() - result.size();
+        skippedPairs += skipped;
+        PerformanceCounters.getInstance().counter("somox_incremental_skipped_pairs_total").add(skipped);
+        return result;
+    }
+
+    /**
+     * @param pairCount Number of component pairs whose relations have been computed
+     * @param nanos Time needed to compute the relations
+     */
+    public void recordComputedPairs(final int pairCount, final long nanos) {
+        computedPairs += pairCount;
+        computationNanos += nanos;
+    }
+
+    /**
+     * Logs the previous components affected by changes and estimates the time saved by the incremental analysis
+     * from the average time needed to compute the relations of one component pair.
+     */
+    public void logReport() {
+        final List<String> affectedComponents = new ArrayList<String>();
+        for (final PreviousComponent previousComponent : previousComponents) {
+            if (previousComponent.changed) {
+                affectedComponents.add(previousComponent.name);
+            }
+        }
+        Collections.sort(affectedComponents, new Comparator<String>() {
+            @Override
+            public int compare(final String name1, final String name2) {
+                return String.valueOf(name1).compareTo(String.valueOf(name2));
+            }
+        });
+        PerformanceCounters.getInstance().counter("somox_incremental_affected_components").add(affectedComponents.size());
+
+        LOG.info("Incremental analysis: " + affectedComponents.size() + " of " + previousComponents.size()
+                + " previous components are affected by changes, " + newClassCount + " classes are new");
+        for (final String affectedComponent : affectedComponents) {
+            LOG.info("Affected component: " + affectedComponent);
+        }
+
+        final long avoidedPairs = pairsAvoidedBySeeding + skippedPairs;
+        if (computedPairs > 0) {
+            final long savedNanos = (long) ((double) computationNanos / computedPairs * avoidedPairs);
+            PerformanceCounters.getInstance().timer("somox_incremental_estimated_saved_seconds").record(savedNanos);
+            LOG.info("Incremental analysis avoided " + avoidedPairs + " relation computations, estimated time saved: "
+                    + TimeUnit.NANOSECONDS.toSeconds(savedNanos) + " s");
+        } else {
+            LOG.info("Incremental analysis avoided " + avoidedPairs + " relation computations");
+        }
+    }
+
+    /**
+     * @return The previous component containing all classes of the candidate if it is unchanged,
+     * 		<code>null</code> otherwise
+     */
+    private PreviousComponent getUnchangedPreviousComponent(
+            final ComponentImplementingClassesLink candidate,
+            final ComponentToImplementingClassesHelper classesHelper) {
+        PreviousComponent result = null;
+        for (final Type clazz : classesHelper.deriveImplementingClasses(candidate)) {
+            final PreviousComponent previousComponent =
+                    previousComponentByClass.get(KDMHelper.computeFullQualifiedName(clazz));
+            if (previousComponent == null || previousComponent.changed
+                    || (result != null && result != previousComponent)) {
+                return null;
+            }
+            result = previousComponent;
+        }
+        return result;
+    }
+
+    /**
+     * Computes a signature of the members and the accesses of each class. Accesses are taken from the filtered
+     * class access graph, i.e., they are given by the accessed classes and the number of accesses in both directions.
+     * @param classes The classes to compute the signatures for
+     * @param currentClasses <code>true</code> if the classes are the ones of this analysis, only their access graph
+     * 		is read from and written to the derived model cache
+     * @return The signatures mapped by the fully qualified names of the classes
+     */
+    private Map<String, String> computeClassSignatures(final Set<Type> classes, final boolean currentClasses) {
+        final DirectedGraph<Type, ClassAccessGraphEdge> accessGraph = currentClasses
+                ? Class2ClassAccessGraphHelper.computeFilteredClass2ClassAccessGraph(somoxConfiguration, classes)
+                : Class2ClassAccessGraphHelper.computeUncachedFilteredClass2ClassAccessGraph(somoxConfiguration, classes);
+        final Map<Type, String> names = new HashMap<Type, String>(classes.size() * 2);
+        for (final Type clazz : classes) {
+            names.put(clazz, KDMHelper.computeFullQualifiedName(clazz));
+        }
+
+        final Map<String, String> result = new HashMap<String, String>(classes.size() * 2);
+        for (final Type clazz : classes) {
+            final List<String> signature = new ArrayList<String>();
+            if (clazz instanceof AbstractTypeDeclaration) {
+                for (final BodyDeclaration member : ((AbstractTypeDeclaration) clazz).getBodyDeclarations()) {
+                    signature.add("member " + member.eClass().getName() + " " + member.getName());
+                }
+            }
+            if (accessGraph.containsVertex(clazz)) {
+                for (final ClassAccessGraphEdge edge : accessGraph.outgoingEdgesOf(clazz)) {
+                    signature.add("out " + getName(names, edge.getTargetClazz()) + " " + edge.getCount());
+                }
+                for (final ClassAccessGraphEdge edge : accessGraph.incomingEdgesOf(clazz)) {
+                    signature.add("in " + getName(names, edge.getSourceClazz()) + " " + edge.getCount());
+                }
+            }
+            Collections.sort(signature);
+            result.put(names.get(clazz), signature.toString());
+        }
+        return result;
+    }
+
+    private static String getName(final Map<Type, String> names, final Type clazz) {
+        final String name = names.get(clazz);
+        return name == null ? KDMHelper.computeFullQualifiedName(clazz) : name;
+    }
+}
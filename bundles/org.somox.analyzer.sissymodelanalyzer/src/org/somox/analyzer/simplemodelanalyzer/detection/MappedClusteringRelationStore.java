@@ -0,0 +1,351 @@
+package org.somox.analyzer.simplemodelanalyzer.detection;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.apache.log4j.Logger;
+import org.jgrapht.DirectedGraph;
+import org.jgrapht.graph.SimpleDirectedGraph;
+import org.somox.filter.BaseFilter;
+import org.somox.metrics.ClusteringRelation;
+import org.somox.metrics.MetricID;
+import org.somox.sourcecodedecorator.ComponentImplementingClassesLink;
+
+/**
+ * Relation store keeping the relations in memory mapped temporary files, so that the heap needed by the
+ * clustering grows linearly with the number of component candidates. Each component candidate gets an ordinal
+ * which is never reused. The relations of the pair with the ordinals <code>low &lt; high</code> are stored in
+ * a fixed-width record at index <code>high * (high - 1) / 2 + low</code>, so new component candidates only
+ * append records and records of pairs which are never computed remain holes in sparse files.
+ * <p>
+ * A record consists of a header word flagging the stored directions followed by one block per direction, i.e.,
+ * from the lower to the higher ordinal and vice versa. A block contains a bit mask of the computed metrics and a
+ * value per metric. The files are split into segments of at most {@link #SEGMENT_BYTES} bytes which are mapped on
+ * first use. Projected graphs only contain the relations passing the filter, relations are created on the fly
+ * while iterating the records. The store is not thread-safe.
+ */
+public class MappedClusteringRelationStore implements IClusteringRelationStore {
+
+    private static final Logger LOG = Logger.getLogger(MappedClusteringRelationStore.class);
+
+    /**
+     * Default maximum size of a mapped segment file
+     */
+    private static final long SEGMENT_BYTES = 1L << 30;
+
+    private static final int WORD_BYTES = 8;
+
+    /**
+     * The metrics which can be stored, indexed by their column in a record block
+     */
+    private final MetricID[] columns;
+
+    private final Map<MetricID, Integer> columnIndex = new HashMap<MetricID, Integer>();
+
+    private final int maskWords;
+
+    private final int blockBytes;
+
+    private final int recordBytes;
+
+    private final long recordsPerSegment;
+
+    private final File directory;
+
+    private final List<MappedByteBuffer> segments = new ArrayList<MappedByteBuffer>();
+
+    private final Map<ComponentImplementingClassesLink, Integer> ordinals =
+            new HashMap<ComponentImplementingClassesLink, Integer>();
+
+    /**
+     * Component candidates indexed by their ordinal, <code>null</code> for removed candidates
+     */
+    private final List<ComponentImplementingClassesLink> componentsByOrdinal =
+            new ArrayList<ComponentImplementingClassesLink>();
+
+    private final Set<ComponentImplementingClassesLink> components =
+            new LinkedHashSet<ComponentImplementingClassesLink>();
+
+    /**
+     * @param metrics The metrics whose values are stored. Relations must not contain values of other metrics
+     * @throws IOException Thrown if the temporary directory cannot be created
+     */
+    public MappedClusteringRelationStore(final Collection<MetricID> metrics) throws IOException {
+        this(metrics, SEGMENT_BYTES);
+    }
+
+    /**
+     * @param metrics The metrics whose values are stored. Relations must not contain values of other metrics
+     * @param segmentBytes Maximum size of a mapped segment file, at least the size of one record
+     * @throws IOException Thrown if the temporary directory cannot be created
+     */
+    MappedClusteringRelationStore(final Collection<MetricID> metrics, final long segmentBytes) throws IOException {
+        super();
+
+        this.columns = metrics.toArray(new MetricID[metrics.size()]);
+        for (int i = 0; i < columns.length; i++) {
+            columnIndex.put(columns[i], i);
+        }
+        this.maskWords = Math.max(1, (columns.length + 63) >>> 6);
+        this.blockBytes = WORD_BYTES * (maskWords + columns.length);
+        this.recordBytes = WORD_BYTES + 2 * blockBytes;
+        this.recordsPerSegment = segmentBytes / recordBytes;
+        if (recordsPerSegment == 0) {
+            throw new IllegalArgumentException("A segment of " + segmentBytes
+                    + " bytes cannot hold a record of " + recordBytes + " bytes");
+        }
+        this.directory = Files.createTempDirectory("somox-relations").toFile();
+        LOG.info("Storing clustering relations in " + directory + " using " + recordBytes + " bytes per component pair");
+    }
+
+    @Override
+    public Set<ComponentImplementingClassesLink> getComponents() {
+        return Collections.unmodifiableSet(components);
+    }
+
+    @Override
+    public void addComponent(final ComponentImplementingClassesLink component) {
+        if (ordinals.containsKey(component)) {
+            return;
+        }
+        ordinals.put(component, componentsByOrdinal.size());
+        componentsByOrdinal.add(component);
+        components.add(component);
+    }
+
+    @Override
+    public void removeComponents(final Collection<ComponentImplementingClassesLink> componentsToRemove) {
+        for (final ComponentImplementingClassesLink component : componentsToRemove) {
+            final Integer ordinal = ordinals.remove(component);
+            if (ordinal != null) {
+                componentsByOrdinal.set(ordinal, null);
+                components.remove(component);
+            }
+        }
+    }
+
+    @Override
+    public void addRelation(final ClusteringRelation relation) {
+        final int source = getOrdinal(relation.getSourceComponent());
+        final int target = getOrdinal(relation.getTargetComponent());
+        final long index = getRecordIndex(source, target);
+        final MappedByteBuffer segment = getSegment(index / recordsPerSegment, true);
+        final int record = (int) (index % recordsPerSegment) * recordBytes;
+        final int direction = source < target ? 0 : 1;
+        final int block = record + WORD_BYTES + direction * blockBytes;
+
+        final long[] mask = new long[maskWords];
+        for (final Map.Entry<MetricID, Double> result : relation.getResult().entrySet()) {
+            final Integer column = columnIndex.get(result.getKey());
+            if (column == null) {
+                throw new IllegalArgumentException("Metric " + result.getKey() + " cannot be stored in this relation store");
+            }
+            mask[column >>> 6] |= 1L << column;
+            segment.putDouble(block + WORD_BYTES * (maskWords + column), result.getValue());
+        }
+        for (int word = 0; word < maskWords; word++) {
+            segment.putLong(block + WORD_BYTES * word, mask[word]);
+        }
+        segment.putLong(record, segment.getLong(record) | (1L << direction));
+    }
+
+    @Override
+    public DirectedGraph<ComponentImplementingClassesLink, ClusteringRelation> createProjectedGraph(
+            final BaseFilter<ClusteringRelation> filter) {
+        final DirectedGraph<ComponentImplementingClassesLink, ClusteringRelation> result =
+                new SimpleDirectedGraph<ComponentImplementingClassesLink, ClusteringRelation>(ClusteringRelation.class);
+        for (final ComponentImplementingClassesLink component : components) {
+            result.addVertex(component);
+        }
+        for (final ClusteringRelation relation : getRelations()) {
+            if (filter == null || filter.passes(relation)) {
+                result.addEdge(relation.getSourceComponent(), relation.getTargetComponent(), relation);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Iterable<ClusteringRelation> getRelations() {
+        return new Iterable<ClusteringRelation>() {
+            @Override
+            public Iterator<ClusteringRelation> iterator() {
+                return new RelationIterator();
+            }
+        };
+    }
+
+    @Override
+    public boolean isInHeap() {
+        return false;
+    }
+
+    @Override
+    public void close() {
+        segments.clear();
+        final File[] files = directory.listFiles();
+        if (files != null) {
+            for (final File file : files) {
+                // mapped files cannot be deleted on some platforms until the buffers are collected
+                if (!file.delete()) {
+                    file.deleteOnExit();
+                }
+            }
+        }
+        if (!directory.delete()) {
+            directory.deleteOnExit();
+        }
+    }
+
+    private int getOrdinal(final ComponentImplementingClassesLink component) {
+        final Integer ordinal = ordinals.get(component);
+        if (ordinal == null) {
+            throw new IllegalArgumentException("Component of the clustering relation is not part of the relation store");
+        }
+        return ordinal;
+    }
+
+    /**
+     * @return The index of the record of the pair with the given ordinals, independent of their order
+     */
+    static long getRecordIndex(final int first, final int second) {
+        final long low = Math.min(first, second);
+        final long high = Math.max(first, second);
+        return high * (high - 1) / 2 + low;
+    }
+
+    /**
+     * @param segmentIndex Index of the segment
+     * @param create Whether missing segments are created
+     * @return The mapped segment or <code>null</code> if it does not exist and is not created
+     */
+    private MappedByteBuffer getSegment(final long segmentIndex, final boolean create) {
+        if (segmentIndex >= segments.size() && !create) {
+            return null;
+        }
+        while (segments.size() <= segmentIndex) {
+            final File file = new File(directory, "relations-" + segments.size() + ".bin");
+            try {
+                final RandomAccessFile segmentFile = new RandomAccessFile(file, "rw");
+                try {
+                    segments.add(segmentFile.getChannel().map(
+                            FileChannel.MapMode.READ_WRITE, 0, recordsPerSegment * recordBytes));
+                } finally {
+                    segmentFile.close();
+                }
+            } catch (final IOException e) {
+                throw new RuntimeException("Unable to map clustering relation store file " + file, e);
+            }
+        }
+        return segments.get((int) segmentIndex);
+    }
+
+    /**
+     * Creates the relation of the given direction stored in a record.
+     */
+    private ClusteringRelation readRelation(
+            final MappedByteBuffer segment,
+            final int record,
+            final int direction,
+            final ComponentImplementingClassesLink source,
+            final ComponentImplementingClassesLink target) {
+        final ClusteringRelation result = new ClusteringRelation(source, target);
+        final int block = record + WORD_BYTES + direction * blockBytes;
+        for (int word = 0; word < maskWords; word++) {
+            long mask = segment.getLong(block + WORD_BYTES * word);
+            while (mask != 0) {
+                final int column = (word << 6) + Long.numberOfTrailingZeros(mask);
+                result.setResultMetric(columns[column], segment.getDouble(block + WORD_BYTES * (maskWords + column)));
+                mask &= mask - 1;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Iterates the records of all pairs of stored component candidates in record order.
+     */
+    private final class RelationIterator implements Iterator<ClusteringRelation> {
+
+        private final int[] liveOrdinals;
+
+        private int high = 1;
+
+        private int low = 0;
+
+        private final LinkedList<ClusteringRelation> pending = new LinkedList<ClusteringRelation>();
+
+        private RelationIterator() {
+            final int[] ordinalsInUse = new int[components.size()];
+            int count = 0;
+            for (int ordinal = 0; ordinal < componentsByOrdinal.size(); ordinal++) {
+                if (componentsByOrdinal.get(ordinal) != null) {
+                    ordinalsInUse[count++] = ordinal;
+                }
+            }
+            this.liveOrdinals = ordinalsInUse;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (pending.isEmpty() && high < liveOrdinals.length) {
+                readPair(liveOrdinals[low], liveOrdinals[high]);
+                low++;
+                if (low == high) {
+                    high++;
+                    low = 0;
+                }
+            }
+            return !pending.isEmpty();
+        }
+
+        @Override
+        public ClusteringRelation next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return pending.removeFirst();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("Relations cannot be removed while iterating");
+        }
+
+        private void readPair(final int lowOrdinal, final int highOrdinal) {
+            final long index = getRecordIndex(lowOrdinal, highOrdinal);
+            final MappedByteBuffer segment = getSegment(index / recordsPerSegment, false);
+            if (segment == null) {
+                return;
+            }
+            final int record = (int) (index % recordsPerSegment) * recordBytes;
+            final long directions = segment.getLong(record);
+            if (directions == 0) {
+                return;
+            }
+            final ComponentImplementingClassesLink lowComponent = componentsByOrdinal.get(lowOrdinal);
+            final ComponentImplementingClassesLink highComponent = componentsByOrdinal.get(highOrdinal);
+            if ((directions & 1L) != 0) {
+                pending.add(readRelation(segment, record, 0, lowComponent, highComponent));
+            }
+            if ((directions & 2L) != 0) {
+                pending.add(readRelation(segment, record, 1, highComponent, lowComponent));
+            }
+        }
+    }
+}
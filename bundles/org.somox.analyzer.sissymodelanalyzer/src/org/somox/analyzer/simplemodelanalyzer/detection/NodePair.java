@@ -35,12 +35,27 @@ public final class NodePair {
         this.second = second;
     }
 
+    /**
+     * @return the first component candidate of this pair
+     */
+    public ComponentImplementingClassesLink getFirst() {
+        return first;
+    }
+
+    /**
+     * @return the second component candidate of this pair
+     */
+    public ComponentImplementingClassesLink getSecond() {
+        return second;
+    }
+
     public Callable<ClusteringRelation[]> getWorkTask(final IMetric overallMetric,
             final Map<MetricID, IMetric> allMetrics) {
+        final ClusteringRelation firstRelation = new ClusteringRelation(first, second);
         return new PairwiseRelationComputationTask(
                 overallMetric,
-                new ClusteringRelation(first, second),
-                new ClusteringRelation(second, first),
+                firstRelation,
+                new ClusteringRelation(second, first, firstRelation.getIntermediateResults()),
                 allMetrics);
     }
 
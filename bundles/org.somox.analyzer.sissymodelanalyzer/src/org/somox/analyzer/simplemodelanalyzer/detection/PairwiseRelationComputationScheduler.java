@@ -0,0 +1,392 @@
+package org.somox.analyzer.simplemodelanalyzer.detection;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.somox.instrumentation.FlightRecorderEvent;
+import org.somox.instrumentation.FlightRecorderEventType;
+import org.somox.instrumentation.Histogram;
+import org.somox.instrumentation.PerformanceCounters;
+import org.somox.metrics.ClusteringRelation;
+import org.somox.metrics.IMetric;
+import org.somox.metrics.MetricID;
+import org.somox.metrics.registry.MetricDependencyGraph;
+import org.somox.sourcecodedecorator.ComponentImplementingClassesLink;
+
+/**
+ * Work-stealing scheduler which computes the {@link ClusteringRelation}s of a set of {@link NodePair}s. The pairs
+ * are ordered by their first component candidate so that pairs sharing a source component end up in the same chunk.
+ * Chunks are processed by a {@link ForkJoinPool}, each chunk collects its relations in its own result buffer. Hence,
+ * no task object is created per pair. Completed buffers are handed to the calling thread, which adds their relations
+ * to the {@link IClusteringRelationStore} while the remaining chunks are computed. At most
+ * {@link #BUFFERED_CHUNKS_PER_THREAD} buffers per worker thread wait for the caller, workers finishing further
+ * chunks block until the caller catches up. So the heap needed for relations not yet stored does not depend on the
+ * number of pairs. Workers block through {@link ForkJoinPool#managedBlock(ForkJoinPool.ManagedBlocker)}, so the pool
+ * may start compensating threads while its workers wait.
+ * <p>
+ * The metrics of a relation are computed level by level along the {@link MetricDependencyGraph}, so that metrics
+ * shared by several composed metrics are computed only once. If there are fewer pairs than worker threads, the
+ * independent metrics of a level are computed as separate tasks.
+ */
+public class PairwiseRelationComputationScheduler {
+
+    /**
+     * The logger of this scheduler
+     */
+    private static final Logger LOG = Logger.getLogger(PairwiseRelationComputationScheduler.class);
+
+    /**
+     * Maximum number of pairs computed sequentially by a single fork join task
+     */
+    private static final int CHUNK_SIZE = 64;
+
+    /**
+     * Maximum number of completed chunks per worker thread waiting to be added to the relation store
+     */
+    private static final int BUFFERED_CHUNKS_PER_THREAD = 2;
+
+    /**
+     * Time the calling thread waits for a completed chunk before it checks whether the computation is done
+     */
+    private static final long CHUNK_POLL_MILLISECONDS = 100;
+
+    /**
+     * Time to wait for running tasks when the scheduler is shut down
+     */
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+    /**
+     * Flight recorder event of computing one chunk of pairs
+     */
+    private static final FlightRecorderEventType CHUNK_EVENT = FlightRecorderEventType.create(
+            "org.somox.RelationChunk", "Pairwise Relation Chunk",
+            new String[] { "pairCount", "forkedLevels" },
+            new Class<?>[] { int.class, boolean.class });
+
+    /**
+     * The pool executing the chunks
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Number of worker threads of the pool
+     */
+    private final int parallelism;
+
+    /**
+     * Levels of the top level metric (merge or compose) and its dependencies in evaluation order
+     */
+    private final List<IMetric[]> evaluationLevels;
+
+    /**
+     * All initialized metrics mapped on their IDs
+     */
+    private final Map<MetricID, IMetric> allMetrics;
+
+    /**
+     * Number of tasks waiting in the pool, sampled whenever a chunk starts
+     */
+    private final Histogram queueDepth = PerformanceCounters.getInstance().histogram("somox_relation_pool_queued_tasks");
+
+    /**
+     * @param overallMetric The top level metric which is to be computed for each relation
+     * @param allMetrics All initialized metrics mapped on their IDs
+     * @param parallelism The number of worker threads of the pool
+     */
+    public PairwiseRelationComputationScheduler(
+            final IMetric overallMetric,
+            final Map<MetricID, IMetric> allMetrics,
+            final int parallelism) {
+        super();
+
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be a positive number");
+        }
+
+        this.allMetrics = allMetrics;
+        this.parallelism = parallelism;
+        this.evaluationLevels = new MetricDependencyGraph(allMetrics).getEvaluationLevels(overallMetric);
+        for (final IMetric[] level : evaluationLevels) {
+            for (final IMetric metric : level) {
+                // register all slots up front so that relations never grow while metrics run in parallel
+                metric.getMID().getSlot();
+            }
+        }
+        this.pool = new ForkJoinPool(parallelism);
+        LOG.debug("Initialized fork join pool to compute pairwise relations with parallelism " + parallelism);
+    }
+
+    /**
+     * Compute both directed relations for all given pairs and add them to the relation store. The relations
+     * of each chunk are added by the calling thread as soon as the chunk is completed, so the store does not
+     * need to be thread-safe.
+     * @param work The pairs of component candidates to compute
+     * @param relationStore The store to which the computed relations are added, two for each pair
+     * @param progressMonitor Monitor used to check for cancellation. Chunks not yet started are skipped
+     * 		if the monitor is cancelled
+     * @return The number of relations added to the store
+     * @throws OperationCanceledException Thrown if the progress monitor got cancelled during the computation
+     */
+    public int computeRelations(
+            final Collection<NodePair> work,
+            final IClusteringRelationStore relationStore,
+            final IProgressMonitor progressMonitor) {
+        if (pool.isShutdown()) {
+            throw new IllegalStateException("Scheduler has already been shut down");
+        }
+
+        final NodePair[] orderedWork = orderBySourceComponent(work);
+        final BlockingQueue<List<ClusteringRelation>> completedChunks =
+                new ArrayBlockingQueue<List<ClusteringRelation>>(BUFFERED_CHUNKS_PER_THREAD * parallelism);
+        int relationCount = 0;
+        try {
+            final boolean forkLevels = orderedWork.length < parallelism;
+            final ForkJoinTask<Void> computation = pool.submit(new ChunkTask(
+                    orderedWork, 0, orderedWork.length, forkLevels, completedChunks, progressMonitor));
+            // the computation is done only after all its chunks have been put into the queue
+            while (!computation.isDone() || !completedChunks.isEmpty()) {
+                final List<ClusteringRelation> chunk =
+                        completedChunks.poll(CHUNK_POLL_MILLISECONDS, TimeUnit.MILLISECONDS);
+                if (chunk != null) {
+                    for (final ClusteringRelation relation : chunk) {
+                        relationStore.addRelation(relation);
+                    }
+                    relationCount += chunk.size();
+                }
+            }
+            computation.join();
+        } catch (final InterruptedException e) {
+            shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new OperationCanceledException("Computation of pairwise relations interrupted");
+        } catch (final OperationCanceledException e) {
+            shutdownNow();
+            throw e;
+        } catch (final RuntimeException e) {
+            shutdownNow();
+            throw new RuntimeException("Parallel execution failed unexpectedly", e);
+        } catch (final Error e) {
+            shutdownNow();
+            throw e;
+        }
+
+        if (progressMonitor.isCanceled()) {
+            shutdownNow();
+            throw new OperationCanceledException("Computation of pairwise relations cancelled");
+        }
+        return relationCount;
+    }
+
+    /**
+     * Orderly shuts down the pool and waits for running chunks to finish.
+     */
+    public void shutdown() {
+        pool.shutdown();
+        try {
+            if (!pool.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                shutdownNow();
+            }
+        } catch (final InterruptedException e) {
+            shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void shutdownNow() {
+        LOG.debug("Shutting down pairwise relation computation pool");
+        pool.shutdownNow();
+    }
+
+    /**
+     * Group the pairs by their first component candidate. Grouping keeps pairs sharing a source component
+     * next to each other so that they are processed by the same chunk and work on the same cached class sets.
+     * @param work The pairs to order
+     * @return The ordered pairs
+     */
+    private NodePair[] orderBySourceComponent(final Collection<NodePair> work) {
+        final Map<ComponentImplementingClassesLink, List<NodePair>> groups =
+                new LinkedHashMap<ComponentImplementingClassesLink, List<NodePair>>();
+        for (final NodePair pair : work) {
+            List<NodePair> group = groups.get(pair.getFirst());
+            if (group == null) {
+                group = new ArrayList<NodePair>();
+                groups.put(pair.getFirst(), group);
+            }
+            group.add(pair);
+        }
+
+        final NodePair[] result = new NodePair[work.size()];
+        int i = 0;
+        for (final List<NodePair> group : groups.values()) {
+            for (final NodePair pair : group) {
+                result[i++] = pair;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Fork join task computing a contiguous range of pairs. Ranges larger than {@link #CHUNK_SIZE} are split.
+     * The relations of a chunk are put into the queue of completed chunks, waiting while the queue is full.
+     */
+    private final class ChunkTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final NodePair[] work;
+        private final int from;
+        private final int to;
+        private final boolean forkLevels;
+        private final BlockingQueue<List<ClusteringRelation>> completedChunks;
+        private final IProgressMonitor progressMonitor;
+
+        private ChunkTask(
+                final NodePair[] work,
+                final int from,
+                final int to,
+                final boolean forkLevels,
+                final BlockingQueue<List<ClusteringRelation>> completedChunks,
+                final IProgressMonitor progressMonitor) {
+            super();
+            this.work = work;
+            this.from = from;
+            this.to = to;
+            this.forkLevels = forkLevels;
+            this.completedChunks = completedChunks;
+            this.progressMonitor = progressMonitor;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= CHUNK_SIZE) {
+                final List<ClusteringRelation> buffer = computeChunk();
+                if (!buffer.isEmpty()) {
+                    try {
+                        ForkJoinPool.managedBlock(new ChunkHandOff(completedChunks, buffer));
+                    } catch (final InterruptedException e) {
+                        // the pool is shut down, the caller does not take further chunks
+                        Thread.currentThread().interrupt();
+                        throw new OperationCanceledException("Computation of pairwise relations interrupted");
+                    }
+                }
+                return;
+            }
+
+            final int middle = (from + to) >>> 1;
+            invokeAll(
+                    new ChunkTask(work, from, middle, forkLevels, completedChunks, progressMonitor),
+                    new ChunkTask(work, middle, to, forkLevels, completedChunks, progressMonitor));
+        }
+
+        private List<ClusteringRelation> computeChunk() {
+            final List<ClusteringRelation> buffer = new ArrayList<ClusteringRelation>(2 * (to - from));
+            if (progressMonitor.isCanceled()) {
+                return buffer;
+            }
+            queueDepth.record(pool.getQueuedTaskCount() + pool.getQueuedSubmissionCount());
+            final FlightRecorderEvent chunkEvent = CHUNK_EVENT.begin();
+            for (int i = from; i < to; i++) {
+                final NodePair pair = work[i];
+                final ClusteringRelation firstRelation = new ClusteringRelation(pair.getFirst(), pair.getSecond());
+                final ClusteringRelation secondRelation = new ClusteringRelation(
+                        pair.getSecond(), pair.getFirst(), firstRelation.getIntermediateResults());
+                computeRelation(firstRelation);
+                PairwiseRelationComputationTask.copyCommutativeResults(firstRelation, secondRelation, allMetrics);
+                computeRelation(secondRelation);
+                // the class sets of the pair are not needed once both directions are computed
+                firstRelation.releaseIntermediateResults();
+                secondRelation.releaseIntermediateResults();
+                buffer.add(firstRelation);
+                buffer.add(secondRelation);
+            }
+            chunkEvent.set(0, to - from).set(1, forkLevels).commit();
+            return buffer;
+        }
+
+        private void computeRelation(final ClusteringRelation relationToCompute) {
+            if (!forkLevels) {
+                MetricDependencyGraph.computeDirected(evaluationLevels, relationToCompute);
+                return;
+            }
+            for (final IMetric[] level : evaluationLevels) {
+                final List<MetricTask> metricTasks = new ArrayList<MetricTask>(level.length);
+                for (final IMetric metric : level) {
+                    if (!relationToCompute.hasResultMetric(metric.getMID())) {
+                        metricTasks.add(new MetricTask(metric, relationToCompute));
+                    }
+                }
+                ForkJoinTask.invokeAll(metricTasks);
+            }
+        }
+    }
+
+    /**
+     * Puts a completed chunk into the queue of completed chunks. Used as a managed blocker, so that the pool
+     * knows that a worker waits for the caller.
+     */
+    private static final class ChunkHandOff implements ForkJoinPool.ManagedBlocker {
+
+        private final BlockingQueue<List<ClusteringRelation>> completedChunks;
+        private final List<ClusteringRelation> chunk;
+        private boolean handedOff = false;
+
+        private ChunkHandOff(
+                final BlockingQueue<List<ClusteringRelation>> completedChunks,
+                final List<ClusteringRelation> chunk) {
+            super();
+            this.completedChunks = completedChunks;
+            this.chunk = chunk;
+        }
+
+        @Override
+        public boolean block() throws InterruptedException {
+            if (!handedOff) {
+                completedChunks.put(chunk);
+                handedOff = true;
+            }
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            if (!handedOff) {
+                handedOff = completedChunks.offer(chunk);
+            }
+            return handedOff;
+        }
+    }
+
+    /**
+     * Fork join task computing a single metric of a relation whose dependencies are already computed.
+     */
+    private static final class MetricTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final IMetric metric;
+        private final ClusteringRelation relationToCompute;
+
+        private MetricTask(final IMetric metric, final ClusteringRelation relationToCompute) {
+            super();
+            this.metric = metric;
+            this.relationToCompute = relationToCompute;
+        }
+
+        @Override
+        protected void compute() {
+            metric.computeDirected(relationToCompute);
+        }
+    }
+}
@@ -4,7 +4,6 @@ import java.util.Map;
 import java.util.concurrent.Callable;
 
 import org.apache.log4j.Logger;
-import org.somox.analyzer.ModelAnalyzerException;
 import org.somox.metrics.ClusteringRelation;
 import org.somox.metrics.IMetric;
 import org.somox.metrics.MetricID;
@@ -35,37 +34,75 @@ Callable<ClusteringRelation[]> {
 
     @Override
     public ClusteringRelation[] call() throws Exception {
+        return computeRelationPair(overallMetric, firstRelation, secondRelation, allMetrics);
+    }
+
+    /**
+     * Compute both directed relations of a pair of component candidates. Commutative metric values computed
+     * for the first relation are reused for the second relation. The intermediate results of the pair are
+     * released afterwards.
+     * @param overallMetric The top level metric which is to be computed (merge or compose)
+     * @param firstRelation The relation from the first to the second component candidate
+     * @param secondRelation The relation from the second to the first component candidate
+     * @param allMetrics All initialized metrics mapped on their IDs
+     * @return An array containing the two computed relations
+     */
+    static ClusteringRelation[] computeRelationPair(
+            final IMetric overallMetric,
+            final ClusteringRelation firstRelation,
+            final ClusteringRelation secondRelation,
+            final Map<MetricID, IMetric> allMetrics) {
         final ClusteringRelation result[] = new ClusteringRelation[2];
         result[0] = computeClusteringRelation(
+                overallMetric,
                 firstRelation,
-                null);
+                null,
+                allMetrics);
         result[1] = computeClusteringRelation(
+                overallMetric,
                 secondRelation,
-                firstRelation);
+                firstRelation,
+                allMetrics);
+        firstRelation.releaseIntermediateResults();
+        secondRelation.releaseIntermediateResults();
         return result;
     }
 
     /**
      * Create a new {@link ClusteringRelation} based on the metrics computed for two given class links.
-     * @param componentCandidates list of all component candidates found so far.
-     * @param metricComputationStrategy metric calculation strategy
-     * @param firstComponentCandidate first component candidate
-     * @param secondComponentCandidate second component candidate
+     * @param overallMetric metric calculation strategy
+     * @param relationToCompute the relation to compute
+     * @param oppositeRelation the already computed relation in the opposite direction or <code>null</code>
+     * @param allMetrics all initialized metrics mapped on their IDs
      * @return Evaluation of a pair of component candidates using the passed
-     * 			<pre>metricComputationStrategy</pre>.
-     * @throws ModelAnalyzerException
+     * 			<pre>overallMetric</pre>.
      */
-    private ClusteringRelation computeClusteringRelation(
+    private static ClusteringRelation computeClusteringRelation(
+            final IMetric overallMetric,
             final ClusteringRelation relationToCompute,
-            final ClusteringRelation oppositeRelation) throws ModelAnalyzerException {
+            final ClusteringRelation oppositeRelation,
+            final Map<MetricID, IMetric> allMetrics) {
         if (oppositeRelation != null) {
-            for (final Map.Entry<MetricID, Double> entry : oppositeRelation.getResult().entrySet()) {
-                if (allMetrics.get(entry.getKey()).isCommutative()) {
-                    relationToCompute.setResultMetric(entry.getKey(), entry.getValue());
-                }
-            }
+            copyCommutativeResults(oppositeRelation, relationToCompute, allMetrics);
         }
         overallMetric.computeDirected(relationToCompute);
         return relationToCompute;
     }
+
+    /**
+     * Copy the values of all commutative metrics from the already computed opposite relation.
+     * @param oppositeRelation the already computed relation in the opposite direction
+     * @param relationToCompute the relation to compute
+     * @param allMetrics all initialized metrics mapped on their IDs
+     */
+    static void copyCommutativeResults(
+            final ClusteringRelation oppositeRelation,
+            final ClusteringRelation relationToCompute,
+            final Map<MetricID, IMetric> allMetrics) {
+        for (final Map.Entry<MetricID, Double> entry : oppositeRelation.getResult().entrySet()) {
+            if (allMetrics.get(entry.getKey()).isCommutative()) {
+                relationToCompute.setResultMetric(entry.getKey(), entry.getValue());
+            }
+        }
+    }
 }
@@ -13,6 +13,7 @@ import org.somox.analyzer.simplemodelanalyzer.detection.GastToPrimitiveComponent
 import org.somox.analyzer.simplemodelanalyzer.detection.IDetectionStrategy;
 import org.somox.analyzer.simplemodelanalyzer.detection.IInitializationStrategy;
 import org.somox.analyzer.simplemodelanalyzer.detection.IPostComponentDetectionStrategy;
+import org.somox.analyzer.simplemodelanalyzer.detection.IncrementalAnalysisBaseline;
 import org.somox.analyzer.simplemodelanalyzer.detection.NoGastClassToPrimitiveComponentInitializationStrategy;
 import org.somox.configuration.SoMoXConfiguration;
 import org.somox.kdmhelper.metamodeladdition.Root;
@@ -29,13 +30,23 @@ public class BasicSoMoXStrategiesFactory implements ISoMoXStrategiesFactory {
 	
 	private Root gastModel = null;
 	private SoMoXConfiguration somoxConfiguration = null;
+	private IncrementalAnalysisBaseline incrementalBaseline = null;
 	
 	
 	public BasicSoMoXStrategiesFactory(Root gastModel,
 			SoMoXConfiguration somoxConfiguration) {
+		this(gastModel, somoxConfiguration, null);
+	}
+
+	/**
+	 * @param incrementalBaseline Result of a previous run passed to the clustering or <code>null</code>
+	 */
+	public BasicSoMoXStrategiesFactory(Root gastModel,
+			SoMoXConfiguration somoxConfiguration, IncrementalAnalysisBaseline incrementalBaseline) {
 		super();
 		this.gastModel = gastModel;
 		this.somoxConfiguration = somoxConfiguration;
+		this.incrementalBaseline = incrementalBaseline;
 	}
 
 	/* (non-Javadoc)
@@ -43,7 +54,7 @@ public class BasicSoMoXStrategiesFactory implements ISoMoXStrategiesFactory {
 	 */
 	public IDetectionStrategy getDetectionStrategy(List<ComponentImplementingClassesLink> components) {
 		logger.info("Use Clustering Detection Strategy");
-		return new ComponentDetectionByClustering(gastModel,components,somoxConfiguration);
+		return new ComponentDetectionByClustering(gastModel,components,somoxConfiguration,incrementalBaseline);
 	}
 
 	/* (non-Javadoc)
@@ -1,6 +1,8 @@
 package org.somox.analyzer.simplemodelanalyzer.jobs;
 
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.util.HashMap;
 
 import org.apache.log4j.Logger;
@@ -16,6 +18,10 @@ import org.palladiosimulator.pcm.qosannotations.QoSAnnotations;
 import org.palladiosimulator.pcm.repository.Repository;
 import org.somox.analyzer.AnalysisResult;
 import org.somox.configuration.SoMoXConfiguration;
+import org.somox.instrumentation.FlightRecorderEvent;
+import org.somox.instrumentation.FlightRecorderEventType;
+import org.somox.instrumentation.PerformanceCounters;
+import org.somox.instrumentation.PerformanceReportWriter;
 import org.somox.sourcecodedecorator.SourceCodeDecoratorRepository;
 
 import de.uka.ipd.sdq.workflow.jobs.CleanupFailedException;
@@ -24,7 +30,8 @@ import de.uka.ipd.sdq.workflow.jobs.JobFailedException;
 import de.uka.ipd.sdq.workflow.jobs.UserCanceledException;
 
 /**
- * Job to save the SoMoX models from the SoMoX Blackboard.
+ * Job to save the SoMoX models from the SoMoX Blackboard. As last job of a SoMoX run, it also
+ * exports the {@link PerformanceCounters} of the run next to the models.
  *
  * @author Oliver Burkhardt
  * @author Benjamin Klatt
@@ -85,6 +92,7 @@ IBlackboardInteractingJob<SoMoXBlackboard> {
                 .getOutputFolder();
 
         // save the new internal architecture model
+        final long start = System.nanoTime();
         try {
             saveRepositoryModel(
                     result.getInternalArchitectureModel(), projectIdentifier,
@@ -100,7 +108,38 @@ IBlackboardInteractingJob<SoMoXBlackboard> {
             logger.error("Model Analyzer failed.", e);
             throw new JobFailedException("Unable to save SoMoX Models", e);
         }
+        PerformanceCounters.getInstance().recordPhase("save_models", start);
 
+        savePerformanceReports(projectIdentifier, outputFolder);
+    }
+
+    /**
+     * Writes the performance counters of the run as JSON report and in the Prometheus text format.
+     * A failure is logged only as the models are already saved.
+     */
+    private void savePerformanceReports(final String projectIdentifier, final String outputFolder) {
+        final PerformanceReportWriter reportWriter = new PerformanceReportWriter(PerformanceCounters.getInstance());
+        final URI folderURI = URI.createURI("platform:/resource/" + projectIdentifier + outputFolder + "/");
+        try {
+            final URI jsonURI = URI.createURI(PerformanceReportWriter.JSON_REPORT_FILE).resolve(folderURI);
+            final Writer jsonWriter = new OutputStreamWriter(
+                    resourceSet.getURIConverter().createOutputStream(jsonURI), "UTF-8");
+            try {
+                reportWriter.writeJSON(jsonWriter);
+            } finally {
+                jsonWriter.close();
+            }
+            final URI prometheusURI = URI.createURI(PerformanceReportWriter.PROMETHEUS_REPORT_FILE).resolve(folderURI);
+            final Writer prometheusWriter = new OutputStreamWriter(
+                    resourceSet.getURIConverter().createOutputStream(prometheusURI), "UTF-8");
+            try {
+                reportWriter.writePrometheus(prometheusWriter);
+            } finally {
+                prometheusWriter.close();
+            }
+        } catch (final IOException e) {
+            logger.warn("Unable to save the performance reports", e);
+        }
     }
 
     private void saveSourceCodeDecoratorRepository(
@@ -147,7 +186,9 @@ IBlackboardInteractingJob<SoMoXBlackboard> {
         saveOptions.put(XMLResource.OPTION_PROCESS_DANGLING_HREF,
                 XMLResource.OPTION_PROCESS_DANGLING_HREF_DISCARD);
 
+        final FlightRecorderEvent saveEvent = FlightRecorderEventType.RESOURCE_IO.begin();
         resource.save(saveOptions);
+        saveEvent.set(0, uri.toString()).set(1, "save").commit();
     }
 
     private ResourceSet getResourceSetForURI() {
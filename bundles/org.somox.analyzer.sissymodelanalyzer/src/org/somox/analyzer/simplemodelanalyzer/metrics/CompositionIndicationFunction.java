@@ -1,10 +1,13 @@
 package org.somox.analyzer.simplemodelanalyzer.metrics;
 
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.log4j.Logger;
 import org.somox.configuration.SoMoXConfiguration;
-import org.somox.metrics.ICompositionFunction;
+import org.somox.metrics.IWeightedCompositionFunction;
 import org.somox.metrics.MetricID;
 import org.somox.metrics.abstractmetrics.AbstractMetric;
 import org.somox.metrics.hierarchy.DirectoryMapping;
@@ -23,18 +26,28 @@ import org.somox.metrics.structure.SubsystemComponent;
  * Related to {@link DefaultCompositionIndicatingMetric}. There required metrics are listed.
  * @author Grischa Liebel, Klaus Krogmann
  */
-public class CompositionIndicationFunction implements ICompositionFunction {
+public class CompositionIndicationFunction implements IWeightedCompositionFunction {
 	
 	private SoMoXConfiguration somoxConfig;
 	private static Logger logger = Logger.getLogger(CompositionIndicationFunction.class);
 	
 	private double packageMappingWeight, directoryMappingWeight, DMSWeight;
 
+	/**
+	 * Metrics which cannot influence the result with the configured weights
+	 */
+	private final Set<MetricID> ineffectiveMetrics;
+
 	public CompositionIndicationFunction(SoMoXConfiguration somoxConfiguration) {
 		super();
 		
 		this.somoxConfig=somoxConfiguration;
 		getWeightsFromConfiguration();
+		this.ineffectiveMetrics = determineIneffectiveMetrics();
+	}
+
+	public Set<MetricID> getIneffectiveMetrics() {
+		return ineffectiveMetrics;
 	}
 
 	public double computeOverallDirectedMetricValue(
@@ -43,14 +56,14 @@ public class CompositionIndicationFunction implements ICompositionFunction {
 		if (metricValues == null || metricValues.size() == 0)
 			throw new IllegalArgumentException("Metric not set");
 
-		double nameResemblance = metricValues.get(NameResemblance.METRIC_ID);
-		double subsystemComponent = metricValues.get(SubsystemComponent.METRIC_ID);
-		double packageMapping = metricValues.get(PackageMapping.METRIC_ID);
-		double directoryMapping = metricValues.get(DirectoryMapping.METRIC_ID);
-		double dms = metricValues.get(DMS.METRIC_ID);
-		double slaq = metricValues.get(SliceLayerArchitectureQuality.METRIC_ID);
-		double coupling = metricValues.get(Coupling.METRIC_ID);
-		double interfaceAdherence = metricValues.get(AdherenceToInterfaceCommunication.METRIC_ID);
+		double nameResemblance = getMetricValue(metricValues, NameResemblance.METRIC_ID);
+		double subsystemComponent = getMetricValue(metricValues, SubsystemComponent.METRIC_ID);
+		double packageMapping = getMetricValue(metricValues, PackageMapping.METRIC_ID);
+		double directoryMapping = getMetricValue(metricValues, DirectoryMapping.METRIC_ID);
+		double dms = getMetricValue(metricValues, DMS.METRIC_ID);
+		double slaq = getMetricValue(metricValues, SliceLayerArchitectureQuality.METRIC_ID);
+		double coupling = getMetricValue(metricValues, Coupling.METRIC_ID);
+		double interfaceAdherence = getMetricValue(metricValues, AdherenceToInterfaceCommunication.METRIC_ID);
 		
 		double nameResemblanceAfterCoupling = getNameResemblance(nameResemblance, coupling);
 		double interfaceAdherenceWeight = getInterfaceAdherenceWeight(coupling, interfaceAdherence);
@@ -130,6 +143,58 @@ public class CompositionIndicationFunction implements ICompositionFunction {
 		}
 	}
 
+	private Set<MetricID> determineIneffectiveMetrics() {
+		Set<MetricID> result = new HashSet<MetricID>();
+		// the irrelevant interface violation weight is not used for composition
+		boolean interfaceAdherenceEffective = somoxConfig.getWeightInterfaceViolationRelevant() != 0.0;
+		if (!interfaceAdherenceEffective) {
+			result.add(AdherenceToInterfaceCommunication.METRIC_ID);
+		}
+		if (isNameResemblanceWeightConstant() && somoxConfig.getWeightLowNameResemblance() == 0.0) {
+			result.add(NameResemblance.METRIC_ID);
+		}
+		// the coupling selects the weights of the name resemblance and the interface adherence
+		if (isNameResemblanceWeightConstant() && !interfaceAdherenceEffective) {
+			result.add(Coupling.METRIC_ID);
+		}
+		if (somoxConfig.getWeightHighSLAQ() == 0.0 && somoxConfig.getWeightLowSLAQ() == 0.0) {
+			result.add(SubsystemComponent.METRIC_ID);
+		}
+		// the SLAQ selects the weight of the subsystem component
+		if (somoxConfig.getWeightHighSLAQ() == somoxConfig.getWeightLowSLAQ()) {
+			result.add(SliceLayerArchitectureQuality.METRIC_ID);
+		}
+		if (packageMappingWeight == 0.0) {
+			result.add(PackageMapping.METRIC_ID);
+		}
+		if (directoryMappingWeight == 0.0) {
+			result.add(DirectoryMapping.METRIC_ID);
+		}
+		if (DMSWeight == 0.0) {
+			result.add(DMS.METRIC_ID);
+		}
+		return Collections.unmodifiableSet(result);
+	}
+
+	/**
+	 * @return The value of the metric; 0 for ineffective metrics, which are not computed
+	 */
+	private double getMetricValue(Map<MetricID, Double> metricValues, MetricID metric) {
+		if (ineffectiveMetrics.contains(metric)) {
+			return 0.0;
+		}
+		return metricValues.get(metric);
+	}
+
+	/**
+	 * @return true if the name resemblance weight selected by the coupling is the same for every coupling value
+	 */
+	private boolean isNameResemblanceWeightConstant() {
+		return somoxConfig.getWeightLowNameResemblance() == somoxConfig.getWeightMidNameResemblance()
+				&& somoxConfig.getWeightMidNameResemblance() == somoxConfig.getWeightHighNameResemblance()
+				&& somoxConfig.getWeightHighNameResemblance() == somoxConfig.getWeightHighestNameResemblance();
+	}
+
 	private void getWeightsFromConfiguration() {
 		packageMappingWeight = somoxConfig.getWeightPackageMapping();
 		directoryMappingWeight = somoxConfig.getWeightDirectoryMapping();
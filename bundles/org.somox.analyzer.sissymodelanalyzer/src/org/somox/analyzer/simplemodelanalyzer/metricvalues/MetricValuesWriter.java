@@ -10,15 +10,13 @@ import java.util.Map.Entry;
 import java.util.Properties;
 import java.util.Set;
 
-import org.eclipse.core.runtime.Status;
+import org.apache.log4j.Logger;
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.emf.ecore.resource.ResourceSet;
 import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
 import org.eclipse.gmt.modisco.java.Type;
-import org.jgrapht.DirectedGraph;
 import org.palladiosimulator.pcm.repository.RepositoryComponent;
-import org.somox.analyzer.simplemodelanalyzer.Activator;
 import org.somox.configuration.SoMoXConfiguration;
 import org.somox.metrics.ClusteringRelation;
 import org.somox.metrics.MetricID;
@@ -33,13 +31,22 @@ import metricvalues.MetricValuesModel;
 import metricvalues.MetricvaluesFactory;
 
 
+/**
+ * Writes the metric values of each clustering iteration to the metric values model in the output folder.
+ * The writer does not need a running Eclipse instance: the location of the model is read from the class
+ * path and the workspace paths are resolved by EMF, so it is also used by headless runs.
+ */
 public class MetricValuesWriter
 {
 
+    private static final Logger LOG = Logger.getLogger(MetricValuesWriter.class);
+
     private static final String CONFIG_METRIC_VALUES_MODEL_PROPERTIES_FILE = "/config/MetricValuesModel.properties";
 
     private static final String CONFIG_METRIC_VALUES_MODEL_PATH = "metricvaluesmodel.path";
 
+    private static final String DEFAULT_METRIC_VALUES_MODEL_PATH = "metricValues2.ecore";
+
     private final SoMoXConfiguration somoxConfiguration;
 
 
@@ -50,7 +57,7 @@ public class MetricValuesWriter
 
 
     public void saveMetricValuesModel(
-            final DirectedGraph<ComponentImplementingClassesLink, ClusteringRelation> metricsGraph,
+            final Iterable<ClusteringRelation> relations,
             final int iteration,
             final double currentThreshold,
             final List<ComponentImplementingClassesLink> componentCandidates, final boolean isMergeIteration)
@@ -76,7 +83,7 @@ public class MetricValuesWriter
             model = (MetricValuesModel) resource.getContents().get(0);
         }
 
-        final Iteration currentIteration = createCurrentIteration(metricsGraph, iteration,
+        final Iteration currentIteration = createCurrentIteration(relations, iteration,
                 currentThreshold, componentCandidates, isMergeIteration);
 
         model.getIterationsList().add(currentIteration);//REALLYCHANGEMF
@@ -89,14 +96,12 @@ public class MetricValuesWriter
         try
         {
             resource.save(Collections.EMPTY_MAP);
-
+            LOG.info("Saved metric values of iteration " + iteration);
         }
         catch (final IOException e)
         {
+            LOG.warn("Unable to save metric values of iteration " + iteration + " to " + normalized, e);
         }
-
-        Activator.getDefault().getLog()
-        .log(new Status(Status.INFO, Activator.PLUGIN_ID, "Saved metric values of iteration " + iteration));
     }
 
 
@@ -141,7 +146,7 @@ public class MetricValuesWriter
 
 
     private Iteration createCurrentIteration(
-            final DirectedGraph<ComponentImplementingClassesLink, ClusteringRelation> metricsGraph,
+            final Iterable<ClusteringRelation> relations,
             final int iteration,
             final double currentThreshold,
             final List<ComponentImplementingClassesLink> componentCandidates,
@@ -156,17 +161,16 @@ public class MetricValuesWriter
         currentIteration.setIsMergeIteration(isMergeIteration);
 
         createComponents(componentCandidates, currentIteration);
-        createComponentCandidates(metricsGraph, currentIteration);
+        createComponentCandidates(relations, currentIteration);
 
         return currentIteration;
     }
 
 
     private void createComponentCandidates(
-            final DirectedGraph<ComponentImplementingClassesLink, ClusteringRelation> metricsGraph, final Iteration currentIteration)
+            final Iterable<ClusteringRelation> relations, final Iteration currentIteration)
     {
-        final Set<ClusteringRelation> edges = metricsGraph.edgeSet();
-        for (final ClusteringRelation clusteringRelation : edges)
+        for (final ClusteringRelation clusteringRelation : relations)
         {
             final ComponentCandidate compCandidate = MetricvaluesFactory.eINSTANCE.createComponentCandidate();
             final RepositoryComponent compA = clusteringRelation.getSourceComponent().getComponent();
@@ -260,20 +264,37 @@ public class MetricValuesWriter
     private URI getMetricValuesPlatformResourceURI()
     {
         final Properties properties = new Properties();
-        try
+        final InputStream inStream = MetricValuesWriter.class.getResourceAsStream(CONFIG_METRIC_VALUES_MODEL_PROPERTIES_FILE);
+        if (inStream == null)
         {
-            final InputStream inStream = Activator.getDefault().getBundle().getEntry(CONFIG_METRIC_VALUES_MODEL_PROPERTIES_FILE)
-                    .openStream();
-            properties.load(inStream);
+            LOG.warn(CONFIG_METRIC_VALUES_MODEL_PROPERTIES_FILE + " not found on the class path, using the default path");
         }
-        catch (final IOException e)
+        else
         {
-            e.printStackTrace();
+            try
+            {
+                properties.load(inStream);
+            }
+            catch (final IOException e)
+            {
+                LOG.warn("Unable to read " + CONFIG_METRIC_VALUES_MODEL_PROPERTIES_FILE, e);
+            }
+            finally
+            {
+                try
+                {
+                    inStream.close();
+                }
+                catch (final IOException e)
+                {
+                    LOG.warn("Unable to close " + CONFIG_METRIC_VALUES_MODEL_PROPERTIES_FILE, e);
+                }
+            }
         }
         final URI fileURI = URI.createPlatformResourceURI(
                 new File(this.somoxConfiguration.getFileLocations().getProjectName() + "/"
                         + this.somoxConfiguration.getFileLocations().getOutputFolder() + "/"
-                        + properties.getProperty(CONFIG_METRIC_VALUES_MODEL_PATH)).getPath(), true);
+                        + properties.getProperty(CONFIG_METRIC_VALUES_MODEL_PATH, DEFAULT_METRIC_VALUES_MODEL_PATH).trim()).getPath(), true);
         return fileURI;
     }
 
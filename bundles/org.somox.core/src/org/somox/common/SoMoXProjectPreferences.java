@@ -39,6 +39,13 @@ public class SoMoXProjectPreferences {
 	public static final String SOMOX_WEIGHT_CLUSTERING_THRESHOLD_MAX_MERGE = "org.somox.clusteringThresholdMax.Merge";
 	public static final String SOMOX_WEIGHT_CLUSTERING_THRESHOLD_MIN_MERGE = "org.somox.clusteringThresholdMin.Merge";
 	public static final String SOMOX_WEIGHT_CLUSTERING_THRESHOLD_DECREMENT_MERGE = "org.somox.clusteringThresholdDecrement.Merge";
+	public static final String SOMOX_CLUSTERING_PARALLELISM = "org.somox.clustering.parallelism";
+	public static final String SOMOX_CLUSTERING_CANDIDATE_PAIR_BLOCKING = "org.somox.clustering.candidatePairBlocking";
+	public static final String SOMOX_CLUSTERING_RELATION_STORAGE = "org.somox.clustering.relationStorage";
+	public static final String SOMOX_ANALYZER_DERIVED_MODEL_CACHE = "org.somox.analyzer.derivedModelCache";
+	public static final String SOMOX_ANALYZER_STUB_BLACKLISTED_TYPES = "org.somox.analyzer.stubBlacklistedTypes";
+	public static final String SOMOX_ANALYZER_PREVIOUS_SOURCE_CODE_DECORATOR = "org.somox.analyzer.previousSourceCodeDecorator";
+	public static final String SOMOX_ANALYZER_PREVIOUS_INPUT_FILE = "org.somox.analyzer.previousInputFile";
 	
 	/**
 	 * Ordered List of all metrics weights and according descriptions.
@@ -2,6 +2,18 @@ package org.somox.configuration;
 
 public class ClusteringConfiguration {
 
+	/**
+	 * Storage of the pairwise clustering relations
+	 */
+	public enum RelationStorage {
+		/** Chosen by the estimated size of all relations compared to the maximum heap size */
+		AUTOMATIC,
+		/** All relations are kept in the heap */
+		HEAP,
+		/** Relations are stored in memory mapped temporary files */
+		MAPPED
+	}
+
 	private double minComposeClusteringThreshold;
 	private double clusteringComposeThresholdDecrement;
 	private double maxComposeClusteringThreshold;
@@ -10,6 +22,22 @@ public class ClusteringConfiguration {
 	private double clusteringMergeThresholdDecrement;
 	private double maxMergeClusteringThreshold; 
 
+	/**
+	 * Number of worker threads used to compute pairwise clustering relations. Values
+	 * smaller than 1 select the default, i.e., the number of available processors plus one.
+	 */
+	private int parallelism = 0;
+
+	/**
+	 * Whether component pairs whose relations cannot pass any clustering threshold are skipped
+	 */
+	private boolean candidatePairBlocking = false;
+
+	/**
+	 * Storage of the pairwise clustering relations
+	 */
+	private RelationStorage relationStorage = RelationStorage.AUTOMATIC;
+
 	// COMPOSE
 	public double getMaxComposeClusteringThreshold() {
 		return maxComposeClusteringThreshold;
@@ -64,6 +92,49 @@ public class ClusteringConfiguration {
 	public void setMaxMergeClusteringThreshold(double maxMergeClusteringThreshold) {
 		this.maxMergeClusteringThreshold = maxMergeClusteringThreshold;
 	}
-	
-	
+
+	// PARALLELISM
+	/**
+	 * @return the number of worker threads used to compute pairwise clustering relations
+	 */
+	public int getParallelism() {
+		if (parallelism < 1) {
+			return Runtime.getRuntime().availableProcessors() + 1;
+		}
+		return parallelism;
+	}
+
+	/**
+	 * @param parallelism the number of worker threads used to compute pairwise clustering relations,
+	 *  values smaller than 1 select the default
+	 */
+	public void setParallelism(int parallelism) {
+		this.parallelism = parallelism;
+	}
+
+	// CANDIDATE PAIR BLOCKING
+	/**
+	 * @return true if pairs of component candidates whose merge and composition indicating metrics
+	 *  cannot exceed the minimum thresholds are skipped, see the candidate pair blocking index of the
+	 *  simple model analyzer
+	 */
+	public boolean isCandidatePairBlocking() {
+		return candidatePairBlocking;
+	}
+
+	public void setCandidatePairBlocking(boolean candidatePairBlocking) {
+		this.candidatePairBlocking = candidatePairBlocking;
+	}
+
+	// RELATION STORAGE
+	/**
+	 * @return the storage of the pairwise clustering relations
+	 */
+	public RelationStorage getRelationStorage() {
+		return relationStorage;
+	}
+
+	public void setRelationStorage(RelationStorage relationStorage) {
+		this.relationStorage = relationStorage;
+	}
 }
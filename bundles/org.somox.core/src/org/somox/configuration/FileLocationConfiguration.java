@@ -4,6 +4,8 @@ public class FileLocationConfiguration {
 	private String analyserInputFile;
 	private String projectName;
 	private String outputFolder;
+	private String previousSourceCodeDecoratorFile;
+	private String previousAnalyserInputFile;
 
 	public FileLocationConfiguration() {
 	}
@@ -43,4 +45,34 @@ public class FileLocationConfiguration {
 	public String getOutputFolder() {
 		return this.outputFolder;
 	}
+
+	/**
+	 * @param previousSourceCodeDecoratorFile Workspace path of the source code decorator model of a previous run
+	 */
+	public void setPreviousSourceCodeDecoratorFile(String previousSourceCodeDecoratorFile) {
+		this.previousSourceCodeDecoratorFile = previousSourceCodeDecoratorFile;
+	}
+
+	/**
+	 * @return Workspace path of the source code decorator model of a previous run used for an incremental
+	 * 		analysis or <code>null</code> if all components are detected from scratch
+	 */
+	public String getPreviousSourceCodeDecoratorFile() {
+		return previousSourceCodeDecoratorFile;
+	}
+
+	/**
+	 * @param previousAnalyserInputFile Workspace path of the copy of the model analysed by the previous run
+	 */
+	public void setPreviousAnalyserInputFile(String previousAnalyserInputFile) {
+		this.previousAnalyserInputFile = previousAnalyserInputFile;
+	}
+
+	/**
+	 * @return Workspace path of the copy of the model analysed by the previous run or <code>null</code> if the
+	 * 		previous source code decorator still refers to an unchanged model
+	 */
+	public String getPreviousAnalyserInputFile() {
+		return previousAnalyserInputFile;
+	}
 }
\ No newline at end of file
@@ -1,5 +1,8 @@
 package org.somox.configuration;
 
+import static org.somox.common.SoMoXProjectPreferences.SOMOX_CLUSTERING_CANDIDATE_PAIR_BLOCKING;
+import static org.somox.common.SoMoXProjectPreferences.SOMOX_CLUSTERING_PARALLELISM;
+import static org.somox.common.SoMoXProjectPreferences.SOMOX_CLUSTERING_RELATION_STORAGE;
 import static org.somox.common.SoMoXProjectPreferences.SOMOX_WEIGHT_CLUSTERING_THRESHOLD_DECREMENT_COMPOSE;
 import static org.somox.common.SoMoXProjectPreferences.SOMOX_WEIGHT_CLUSTERING_THRESHOLD_DECREMENT_MERGE;
 import static org.somox.common.SoMoXProjectPreferences.SOMOX_WEIGHT_CLUSTERING_THRESHOLD_MAX_COMPOSE;
@@ -20,6 +23,7 @@ import static org.somox.common.SoMoXProjectPreferences.SOMOX_WEIGHT_LOW_SLAQ;
 import static org.somox.common.SoMoXProjectPreferences.SOMOX_WEIGHT_MID_NAME_RESEMBLANCE;
 import static org.somox.common.SoMoXProjectPreferences.SOMOX_WEIGHT_PACKAGE_MAPPING;
 
+import java.util.Locale;
 import java.util.Map;
 
 import org.apache.log4j.Logger;
@@ -75,6 +79,28 @@ public class SOMOXConfigurationBuilderByPreferences {
 			somoxConfiguration.setWildcardKey(wildcardkey,additionalWildcardkey);
 		}
 
+		// DERIVED MODEL CACHE (optional, disabled by default)
+		if (attributes.get(SoMoXProjectPreferences.SOMOX_ANALYZER_DERIVED_MODEL_CACHE) != null) {
+			somoxConfiguration.setDerivedModelCacheEnabled(Boolean
+				.parseBoolean(attributes.get(SoMoXProjectPreferences.SOMOX_ANALYZER_DERIVED_MODEL_CACHE).toString()));
+		}
+
+		// BLACKLIST APPLIED WHILE LOADING (optional, disabled by default)
+		if (attributes.get(SoMoXProjectPreferences.SOMOX_ANALYZER_STUB_BLACKLISTED_TYPES) != null) {
+			somoxConfiguration.setBlacklistedTypesStubbed(Boolean
+				.parseBoolean(attributes.get(SoMoXProjectPreferences.SOMOX_ANALYZER_STUB_BLACKLISTED_TYPES).toString()));
+		}
+
+		// INCREMENTAL ANALYSIS (optional, the previous model defaults to the current input file)
+		if (attributes.get(SoMoXProjectPreferences.SOMOX_ANALYZER_PREVIOUS_SOURCE_CODE_DECORATOR) != null) {
+			String previousSourceCodeDecorator = (String)attributes.get(SoMoXProjectPreferences.SOMOX_ANALYZER_PREVIOUS_SOURCE_CODE_DECORATOR);
+			somoxConfiguration.getFileLocations().setPreviousSourceCodeDecoratorFile(previousSourceCodeDecorator);
+		}
+		if (attributes.get(SoMoXProjectPreferences.SOMOX_ANALYZER_PREVIOUS_INPUT_FILE) != null) {
+			String previousInputFile = (String)attributes.get(SoMoXProjectPreferences.SOMOX_ANALYZER_PREVIOUS_INPUT_FILE);
+			somoxConfiguration.getFileLocations().setPreviousAnalyserInputFile(previousInputFile);
+		}
+
 		
 		//NameResemblanceTab
 		if (attributes.get("org.somox.metrics.nameResemblance.excludedPrefixes")!=null) {
@@ -187,5 +213,25 @@ public class SOMOXConfigurationBuilderByPreferences {
 				.parseDouble((String) attributes
 						.get(SOMOX_WEIGHT_CLUSTERING_THRESHOLD_DECREMENT_MERGE)) / 100.0d);
 
+		// PARALLELISM (optional, defaults to the number of available processors)
+		if (attributes.get(SOMOX_CLUSTERING_PARALLELISM) != null) {
+			clusteringConfiguration
+				.setParallelism(Integer
+					.parseInt(attributes.get(SOMOX_CLUSTERING_PARALLELISM).toString()));
+		}
+
+		// CANDIDATE PAIR BLOCKING (optional, disabled by default)
+		if (attributes.get(SOMOX_CLUSTERING_CANDIDATE_PAIR_BLOCKING) != null) {
+			clusteringConfiguration
+				.setCandidatePairBlocking(Boolean
+					.parseBoolean(attributes.get(SOMOX_CLUSTERING_CANDIDATE_PAIR_BLOCKING).toString()));
+		}
+
+		// RELATION STORAGE (optional, automatic, heap or mapped)
+		if (attributes.get(SOMOX_CLUSTERING_RELATION_STORAGE) != null) {
+			clusteringConfiguration
+				.setRelationStorage(ClusteringConfiguration.RelationStorage
+					.valueOf(attributes.get(SOMOX_CLUSTERING_RELATION_STORAGE).toString().trim().toUpperCase(Locale.ENGLISH)));
+		}
 	}
 }
@@ -3,6 +3,7 @@ package org.somox.configuration;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.StringTokenizer;
+import java.util.regex.Pattern;
 
 import org.somox.filter.BlacklistFilter;
 
@@ -36,6 +37,16 @@ public class SoMoXConfiguration extends AbstractComposedJobConfiguration
 	
 	private boolean reverseEngineerInterfacesNotAssignedToComponent;
 
+	/**
+	 * Whether structures derived from the model, e.g. the class access graph, are cached on disk
+	 */
+	private boolean derivedModelCacheEnabled = false;
+
+	/**
+	 * Whether blacklisted types are reduced to stubs when the model is loaded
+	 */
+	private boolean blacklistedTypesStubbed = false;
+
 	private final ClusteringConfiguration clusteringConfig = new ClusteringConfiguration();
 	private final FileLocationConfiguration locations = new FileLocationConfiguration();
 	
@@ -239,4 +250,42 @@ public class SoMoXConfiguration extends AbstractComposedJobConfiguration
 		this.reverseEngineerInterfacesNotAssignedToComponent = reverseEngineerInterfacesNotAssignedToComponent;
 	}
 
+	/**
+	 * Switch for the on-disk cache of structures derived from the model. Speeds
+	 * up re-runs on an unchanged model, e.g. when tuning the weights.
+	 * @return <code>true</code> if the cache is used
+	 */
+	public boolean isDerivedModelCacheEnabled() {
+		return derivedModelCacheEnabled;
+	}
+
+	public void setDerivedModelCacheEnabled(boolean derivedModelCacheEnabled) {
+		this.derivedModelCacheEnabled = derivedModelCacheEnabled;
+	}
+
+	/**
+	 * Switch for applying the blacklist while loading the model. Blacklisted
+	 * types are kept as stubs without method bodies and field initializers,
+	 * which reduces the heap and all later traversals of the model.
+	 * @return <code>true</code> if blacklisted types are stubbed on load
+	 */
+	public boolean isBlacklistedTypesStubbed() {
+		return blacklistedTypesStubbed;
+	}
+
+	public void setBlacklistedTypesStubbed(boolean blacklistedTypesStubbed) {
+		this.blacklistedTypesStubbed = blacklistedTypesStubbed;
+	}
+
+	/**
+	 * @return The pattern of the blacklist if blacklisted types are stubbed
+	 *         on load, else <code>null</code>
+	 */
+	public Pattern getStubbedTypesPattern() {
+		if (!blacklistedTypesStubbed) {
+			return null;
+		}
+		return getBlacklistFilter().getMatchPattern();
+	}
+
 }
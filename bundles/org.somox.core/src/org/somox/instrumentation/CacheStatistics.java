@@ -0,0 +1,52 @@
+package org.somox.instrumentation;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hits and misses of a cache.
+ */
+public final class CacheStatistics extends Instrument {
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    CacheStatistics(final InstrumentKey key) {
+        super(key);
+    }
+
+    public void hit() {
+        if (PerformanceCounters.enabled) {
+            hits.incrementAndGet();
+        }
+    }
+
+    public void miss() {
+        if (PerformanceCounters.enabled) {
+            misses.incrementAndGet();
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return Fraction of the lookups which were hits, 0 if there was no lookup
+     */
+    public double getHitRate() {
+        final long hitCount = hits.get();
+        final long lookups = hitCount + misses.get();
+        return lookups == 0 ? 0.0 : (double) hitCount / lookups;
+    }
+
+    @Override
+    void reset() {
+        hits.set(0);
+        misses.set(0);
+    }
+}
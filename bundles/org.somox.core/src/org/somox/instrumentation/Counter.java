@@ -0,0 +1,37 @@
+package org.somox.instrumentation;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monotonically increasing count of events.
+ */
+public final class Counter extends Instrument {
+
+    private final AtomicLong value = new AtomicLong();
+
+    Counter(final InstrumentKey key) {
+        super(key);
+    }
+
+    public void increment() {
+        add(1);
+    }
+
+    /**
+     * @param delta Number of events to add, has to be positive
+     */
+    public void add(final long delta) {
+        if (PerformanceCounters.enabled) {
+            value.addAndGet(delta);
+        }
+    }
+
+    public long getValue() {
+        return value.get();
+    }
+
+    @Override
+    void reset() {
+        value.set(0);
+    }
+}
@@ -0,0 +1,52 @@
+package org.somox.instrumentation;
+
+/**
+ * A started event of a {@link FlightRecorderEventType}. Events are not thread-safe and have to be committed
+ * by the thread which started them.
+ */
+public final class FlightRecorderEvent {
+
+    /**
+     * Event ignoring all calls, used if the flight recorder is not available or the event type is not recorded
+     */
+    static final FlightRecorderEvent NO_OP = new FlightRecorderEvent(null);
+
+    /**
+     * The <code>jdk.jfr.Event</code> or <code>null</code> for {@link #NO_OP}
+     */
+    private final Object event;
+
+    FlightRecorderEvent(final Object event) {
+        super();
+
+        this.event = event;
+    }
+
+    /**
+     * @return <code>false</code> if all calls are ignored, i.e. computing expensive field values can be skipped
+     */
+    public boolean isRecorded() {
+        return event != null;
+    }
+
+    /**
+     * @param index Index of the field in the field names passed to {@link FlightRecorderEventType#create}
+     * @param value The value of the field, boxed primitive or {@link String}
+     * @return This event
+     */
+    public FlightRecorderEvent set(final int index, final Object value) {
+        if (event != null) {
+            FlightRecorderEventType.set(event, index, value);
+        }
+        return this;
+    }
+
+    /**
+     * Ends the event and passes it to the flight recorder.
+     */
+    public void commit() {
+        if (event != null) {
+            FlightRecorderEventType.commit(event);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package org.somox.instrumentation;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Java Flight Recorder event type defined at run time. SoMoX is compiled for runtimes without the
+ * <code>jdk.jfr</code> API, so the event types are created reflectively by <code>jdk.jfr.EventFactory</code>.
+ * If the API is missing or the performance counters are disabled, {@link #begin()} returns an event ignoring
+ * all calls.
+ * <p>
+ * Typical use:
+ *
+ * <pre>
+ * final FlightRecorderEvent event = EVENT_TYPE.begin();
+ * ...
+ * event.set(0, value).commit();
+ * </pre>
+ *
+ * The duration of the event is the time between {@link #begin()} and {@link FlightRecorderEvent#commit()}.
+ */
+public final class FlightRecorderEventType {
+
+    private static final Logger LOG = Logger.getLogger(FlightRecorderEventType.class);
+
+    private static final String CATEGORY = "SoMoX";
+
+    private static final Method CREATE_FACTORY;
+    private static final Method NEW_EVENT;
+    private static final Method IS_ENABLED;
+    private static final Method BEGIN;
+    private static final Method SET;
+    private static final Method COMMIT;
+    private static final Constructor<?> ANNOTATION_ELEMENT;
+    private static final Constructor<?> VALUE_DESCRIPTOR;
+    private static final Class<?> NAME_ANNOTATION;
+    private static final Class<?> LABEL_ANNOTATION;
+    private static final Class<?> CATEGORY_ANNOTATION;
+
+    static {
+        Method createFactory = null;
+        Method newEvent = null;
+        Method isEnabled = null;
+        Method begin = null;
+        Method set = null;
+        Method commit = null;
+        Constructor<?> annotationElement = null;
+        Constructor<?> valueDescriptor = null;
+        Class<?> nameAnnotation = null;
+        Class<?> labelAnnotation = null;
+        Class<?> categoryAnnotation = null;
+        try {
+            final Class<?> eventFactoryClass = loadJFRClass("EventFactory");
+            final Class<?> eventClass = loadJFRClass("Event");
+            final Class<?> annotationElementClass = loadJFRClass("AnnotationElement");
+            final Class<?> valueDescriptorClass = loadJFRClass("ValueDescriptor");
+            createFactory = eventFactoryClass.getMethod("create", List.class, List.class);
+            newEvent = eventFactoryClass.getMethod("newEvent");
+            isEnabled = eventClass.getMethod("isEnabled");
+            begin = eventClass.getMethod("begin");
+            set = eventClass.getMethod("set", int.class, Object.class);
+            commit = eventClass.getMethod("commit");
+            annotationElement = annotationElementClass.getConstructor(Class.class, Object.class);
+            valueDescriptor = valueDescriptorClass.getConstructor(Class.class, String.class);
+            nameAnnotation = loadJFRClass("Name");
+            labelAnnotation = loadJFRClass("Label");
+            categoryAnnotation = loadJFRClass("Category");
+        } catch (final ClassNotFoundException e) {
+            LOG.debug("Java Flight Recorder API not available, SoMoX events are disabled");
+            createFactory = null;
+        } catch (final NoSuchMethodException e) {
+            LOG.debug("Unsupported Java Flight Recorder API, SoMoX events are disabled");
+            createFactory = null;
+        }
+        CREATE_FACTORY = createFactory;
+        NEW_EVENT = newEvent;
+        IS_ENABLED = isEnabled;
+        BEGIN = begin;
+        SET = set;
+        COMMIT = commit;
+        ANNOTATION_ELEMENT = annotationElement;
+        VALUE_DESCRIPTOR = valueDescriptor;
+        NAME_ANNOTATION = nameAnnotation;
+        LABEL_ANNOTATION = labelAnnotation;
+        CATEGORY_ANNOTATION = categoryAnnotation;
+    }
+
+    /**
+     * Event type of loading or saving an EMF resource. Fields: the URI and the operation, i.e. <code>load</code>
+     * or <code>save</code>
+     */
+    public static final FlightRecorderEventType RESOURCE_IO = create(
+            "org.somox.ResourceIO", "Resource Load or Save",
+            new String[] { "uri", "operation" },
+            new Class<?>[] { String.class, String.class });
+
+    /**
+     * The <code>jdk.jfr.EventFactory</code> of this type or <code>null</code> if events are not supported
+     */
+    private final Object eventFactory;
+
+    private FlightRecorderEventType(final Object eventFactory) {
+        super();
+
+        this.eventFactory = eventFactory;
+    }
+
+    /**
+     * Defines a new event type. The type is registered with the flight recorder as long as it is referenced,
+     * hence types should be kept in static fields.
+     * @param name Name of the event type, e.g. <code>org.somox.ClusteringIteration</code>
+     * @param label Human readable name of the event type
+     * @param fieldNames Names of the fields of the event type
+     * @param fieldTypes Types of the fields, either primitive types or {@link String}
+     * @return The event type, never <code>null</code>
+     */
+    public static FlightRecorderEventType create(final String name, final String label,
+            final String[] fieldNames, final Class<?>[] fieldTypes) {
+        if (fieldNames.length != fieldTypes.length) {
+            throw new IllegalArgumentException("Each field of event type " + name + " needs a type");
+        }
+        if (CREATE_FACTORY == null) {
+            return new FlightRecorderEventType(null);
+        }
+        try {
+            final List<Object> annotations = new ArrayList<Object>();
+            annotations.add(ANNOTATION_ELEMENT.newInstance(NAME_ANNOTATION, name));
+            annotations.add(ANNOTATION_ELEMENT.newInstance(LABEL_ANNOTATION, label));
+            annotations.add(ANNOTATION_ELEMENT.newInstance(CATEGORY_ANNOTATION, new String[] { CATEGORY }));
+            final List<Object> fields = new ArrayList<Object>();
+            for (int i = 0; i < fieldNames.length; i++) {
+                fields.add(VALUE_DESCRIPTOR.newInstance(fieldTypes[i], fieldNames[i]));
+            }
+            return new FlightRecorderEventType(CREATE_FACTORY.invoke(null, annotations, fields));
+        } catch (final Exception e) {
+            LOG.warn("Unable to define flight recorder event " + name + ": " + e);
+            return new FlightRecorderEventType(null);
+        }
+    }
+
+    /**
+     * @return <code>true</code> if events of this type are passed to the flight recorder
+     */
+    public boolean isAvailable() {
+        return eventFactory != null;
+    }
+
+    /**
+     * Starts a new event of this type.
+     * @return The started event, an event ignoring all calls if the event type is not recorded
+     */
+    public FlightRecorderEvent begin() {
+        if (eventFactory == null || !PerformanceCounters.isEnabled()) {
+            return FlightRecorderEvent.NO_OP;
+        }
+        try {
+            final Object event = NEW_EVENT.invoke(eventFactory);
+            if (!((Boolean) IS_ENABLED.invoke(event)).booleanValue()) {
+                return FlightRecorderEvent.NO_OP;
+            }
+            BEGIN.invoke(event);
+            return new FlightRecorderEvent(event);
+        } catch (final Exception e) {
+            LOG.debug("Unable to create flight recorder event: " + e);
+            return FlightRecorderEvent.NO_OP;
+        }
+    }
+
+    /**
+     * The API is loaded by the system class loader as the bundle class loaders do not delegate
+     * <code>jdk.*</code> packages.
+     */
+    private static Class<?> loadJFRClass(final String simpleName) throws ClassNotFoundException {
+        return Class.forName("jdk.jfr." + simpleName, true, ClassLoader.getSystemClassLoader());
+    }
+
+    static void set(final Object event, final int index, final Object value) {
+        try {
+            SET.invoke(event, index, value);
+        } catch (final Exception e) {
+            LOG.debug("Unable to set field " + index + " of flight recorder event: " + e);
+        }
+    }
+
+    static void commit(final Object event) {
+        try {
+            COMMIT.invoke(event);
+        } catch (final Exception e) {
+            LOG.debug("Unable to commit flight recorder event: " + e);
+        }
+    }
+}
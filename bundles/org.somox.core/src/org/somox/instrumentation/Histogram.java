@@ -0,0 +1,90 @@
+package org.somox.instrumentation;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Distribution of non-negative values in buckets with power of two upper bounds, i.e. bucket <code>i</code> counts
+ * the values <code>v</code> with <code>2^(i-1) &lt; v &lt;= 2^i</code> and bucket 0 the values up to 1.
+ */
+public final class Histogram extends Instrument {
+
+    /**
+     * Number of buckets, the last bucket counts all values above <code>2^62</code>
+     */
+    public static final int BUCKET_COUNT = 64;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+
+    private final AtomicLong count = new AtomicLong();
+
+    private final AtomicLong sum = new AtomicLong();
+
+    private final AtomicLong max = new AtomicLong();
+
+    Histogram(final InstrumentKey key) {
+        super(key);
+    }
+
+    /**
+     * @param value The observed value, negative values are counted as 0
+     */
+    public void record(final long value) {
+        if (!PerformanceCounters.enabled) {
+            return;
+        }
+        final long observed = Math.max(value, 0);
+        buckets.incrementAndGet(bucketOf(observed));
+        count.incrementAndGet();
+        sum.addAndGet(observed);
+        long currentMax = max.get();
+        while (observed > currentMax && !max.compareAndSet(currentMax, observed)) {
+            currentMax = max.get();
+        }
+    }
+
+    /**
+     * @param bucket Index of the bucket
+     * @return Inclusive upper bound of the bucket, {@link Long#MAX_VALUE} for the last bucket
+     */
+    public static long getUpperBound(final int bucket) {
+        return bucket >= BUCKET_COUNT - 1 ? Long.MAX_VALUE : 1L << bucket;
+    }
+
+    /**
+     * @param bucket Index of the bucket
+     * @return Number of values in the bucket
+     */
+    public long getBucketCount(final int bucket) {
+        return buckets.get(bucket);
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getSum() {
+        return sum.get();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    @Override
+    void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets.set(i, 0);
+        }
+        count.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+
+    private static int bucketOf(final long value) {
+        if (value <= 1) {
+            return 0;
+        }
+        return Math.min(BUCKET_COUNT - 1, 64 - Long.numberOfLeadingZeros(value - 1));
+    }
+}
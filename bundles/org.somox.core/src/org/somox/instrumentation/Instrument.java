@@ -0,0 +1,48 @@
+package org.somox.instrumentation;
+
+/**
+ * Common base of all instruments of the {@link PerformanceCounters}.
+ */
+public abstract class Instrument implements Comparable<Instrument> {
+
+    private final InstrumentKey key;
+
+    Instrument(final InstrumentKey key) {
+        super();
+
+        this.key = key;
+    }
+
+    public String getName() {
+        return key.getName();
+    }
+
+    /**
+     * @return The label name or <code>null</code> if the instrument has no label
+     */
+    public String getLabelName() {
+        return key.getLabelName();
+    }
+
+    /**
+     * @return The label value or <code>null</code> if the instrument has no label
+     */
+    public String getLabelValue() {
+        return key.getLabelValue();
+    }
+
+    /**
+     * Clears the recorded values.
+     */
+    abstract void reset();
+
+    @Override
+    public int compareTo(final Instrument other) {
+        return key.compareTo(other.key);
+    }
+
+    @Override
+    public String toString() {
+        return key.toString();
+    }
+}
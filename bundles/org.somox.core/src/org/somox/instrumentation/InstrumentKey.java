@@ -0,0 +1,78 @@
+package org.somox.instrumentation;
+
+/**
+ * Name and optional label of an instrument.
+ */
+final class InstrumentKey implements Comparable<InstrumentKey> {
+
+    private final String name;
+
+    private final String labelName;
+
+    private final String labelValue;
+
+    InstrumentKey(final String name, final String labelName, final String labelValue) {
+        if (name == null || !name.matches("[a-zA-Z_:][a-zA-Z0-9_:]*")) {
+            throw new IllegalArgumentException("Invalid instrument name " + name);
+        }
+        if ((labelName == null) != (labelValue == null)) {
+            throw new IllegalArgumentException("Label name and value of " + name + " have to be given both or none");
+        }
+        this.name = name;
+        this.labelName = labelName;
+        this.labelValue = labelValue;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    /**
+     * @return The label name or <code>null</code> if the instrument has no label
+     */
+    String getLabelName() {
+        return labelName;
+    }
+
+    String getLabelValue() {
+        return labelValue;
+    }
+
+    @Override
+    public int compareTo(final InstrumentKey other) {
+        final int result = name.compareTo(other.name);
+        if (result != 0) {
+            return result;
+        }
+        return toString().compareTo(other.toString());
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof InstrumentKey)) {
+            return false;
+        }
+        final InstrumentKey other = (InstrumentKey) obj;
+        return name.equals(other.name) && equal(labelName, other.labelName) && equal(labelValue, other.labelValue);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = name.hashCode();
+        result = 31 * result + (labelName == null ? 0 : labelName.hashCode());
+        result = 31 * result + (labelValue == null ? 0 : labelValue.hashCode());
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return labelName == null ? name : name + "{" + labelName + "=" + labelValue + "}";
+    }
+
+    private static boolean equal(final String first, final String second) {
+        return first == null ? second == null : first.equals(second);
+    }
+}
@@ -0,0 +1,195 @@
+package org.somox.instrumentation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Registry of the performance counters of a SoMoX run. Instruments are created on first access and live as long
+ * as the registry, so callers may keep references to them in fields. {@link #reset()} clears the recorded values
+ * at the beginning of each run but keeps the instruments.
+ * <p>
+ * Instrument names follow the Prometheus naming conventions, e.g. <code>somox_metric_compute_seconds</code>. An
+ * instrument may carry a single label distinguishing e.g. the metric or phase it belongs to. Recording is
+ * thread-safe and lock-free. It can be switched off by the system property {@value #DISABLED_PROPERTY} or by
+ * {@link #setEnabled(boolean)}, in which case all instruments ignore new values.
+ */
+public final class PerformanceCounters {
+
+    /**
+     * System property disabling the recording of performance counters if set to <code>true</code>
+     */
+    public static final String DISABLED_PROPERTY = "org.somox.instrumentation.disabled";
+
+    /**
+     * Name of the timer recording the duration of the phases of a run, labeled by phase
+     */
+    public static final String PHASE_TIMER = "somox_phase_seconds";
+
+    private static final PerformanceCounters INSTANCE = new PerformanceCounters();
+
+    static volatile boolean enabled = !Boolean.getBoolean(DISABLED_PROPERTY);
+
+    private final ConcurrentMap<InstrumentKey, Timer> timers = new ConcurrentHashMap<InstrumentKey, Timer>();
+
+    private final ConcurrentMap<InstrumentKey, Counter> counters = new ConcurrentHashMap<InstrumentKey, Counter>();
+
+    private final ConcurrentMap<InstrumentKey, Histogram> histograms = new ConcurrentHashMap<InstrumentKey, Histogram>();
+
+    private final ConcurrentMap<InstrumentKey, CacheStatistics> caches = new ConcurrentHashMap<InstrumentKey, CacheStatistics>();
+
+    private PerformanceCounters() {
+        super();
+    }
+
+    /**
+     * @return The registry shared by all SoMoX components
+     */
+    public static PerformanceCounters getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return <code>true</code> if the instruments record values
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @param enabled <code>false</code> to make all instruments ignore new values
+     */
+    public static void setEnabled(final boolean enabled) {
+        PerformanceCounters.enabled = enabled;
+    }
+
+    public Timer timer(final String name) {
+        return timer(name, null, null);
+    }
+
+    public Timer timer(final String name, final String labelName, final String labelValue) {
+        final InstrumentKey key = new InstrumentKey(name, labelName, labelValue);
+        Timer result = timers.get(key);
+        if (result == null) {
+            final Timer newTimer = new Timer(key);
+            result = timers.putIfAbsent(key, newTimer);
+            if (result == null) {
+                result = newTimer;
+            }
+        }
+        return result;
+    }
+
+    public Counter counter(final String name) {
+        return counter(name, null, null);
+    }
+
+    public Counter counter(final String name, final String labelName, final String labelValue) {
+        final InstrumentKey key = new InstrumentKey(name, labelName, labelValue);
+        Counter result = counters.get(key);
+        if (result == null) {
+            final Counter newCounter = new Counter(key);
+            result = counters.putIfAbsent(key, newCounter);
+            if (result == null) {
+                result = newCounter;
+            }
+        }
+        return result;
+    }
+
+    public Histogram histogram(final String name) {
+        return histogram(name, null, null);
+    }
+
+    public Histogram histogram(final String name, final String labelName, final String labelValue) {
+        final InstrumentKey key = new InstrumentKey(name, labelName, labelValue);
+        Histogram result = histograms.get(key);
+        if (result == null) {
+            final Histogram newHistogram = new Histogram(key);
+            result = histograms.putIfAbsent(key, newHistogram);
+            if (result == null) {
+                result = newHistogram;
+            }
+        }
+        return result;
+    }
+
+    public CacheStatistics cache(final String name) {
+        final InstrumentKey key = new InstrumentKey(name, null, null);
+        CacheStatistics result = caches.get(key);
+        if (result == null) {
+            final CacheStatistics newCache = new CacheStatistics(key);
+            result = caches.putIfAbsent(key, newCache);
+            if (result == null) {
+                result = newCache;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Records the duration of a phase of the run, e.g. model loading or clustering.
+     * @param phase Name of the phase
+     * @param start Start of the phase as given by {@link System#nanoTime()}
+     */
+    public void recordPhase(final String phase, final long start) {
+        timer(PHASE_TIMER, "phase", phase).record(System.nanoTime() - start);
+    }
+
+    /**
+     * Clears the values of all instruments. Instruments obtained before stay valid.
+     */
+    public void reset() {
+        for (final Timer timer : timers.values()) {
+            timer.reset();
+        }
+        for (final Counter counter : counters.values()) {
+            counter.reset();
+        }
+        for (final Histogram histogram : histograms.values()) {
+            histogram.reset();
+        }
+        for (final CacheStatistics cache : caches.values()) {
+            cache.reset();
+        }
+    }
+
+    /**
+     * @return All timers sorted by name and label
+     */
+    public List<Timer> getTimers() {
+        return sorted(timers.values());
+    }
+
+    /**
+     * @return All counters sorted by name and label
+     */
+    public List<Counter> getCounters() {
+        return sorted(counters.values());
+    }
+
+    /**
+     * @return All histograms sorted by name and label
+     */
+    public List<Histogram> getHistograms() {
+        return sorted(histograms.values());
+    }
+
+    /**
+     * @return All cache statistics sorted by name
+     */
+    public List<CacheStatistics> getCaches() {
+        return sorted(caches.values());
+    }
+
+    private static <T extends Instrument> List<T> sorted(final Iterable<T> instruments) {
+        final List<T> result = new ArrayList<T>();
+        for (final T instrument : instruments) {
+            result.add(instrument);
+        }
+        Collections.sort(result);
+        return result;
+    }
+}
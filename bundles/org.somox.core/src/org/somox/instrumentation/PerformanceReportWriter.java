@@ -0,0 +1,214 @@
+package org.somox.instrumentation;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Exports the instruments of the {@link PerformanceCounters} as JSON report and in the Prometheus text format.
+ * Durations are exported in seconds.
+ */
+public final class PerformanceReportWriter {
+
+    /**
+     * File name of the JSON report written at the end of a run
+     */
+    public static final String JSON_REPORT_FILE = "somox-performance.json";
+
+    /**
+     * File name of the Prometheus text format report written at the end of a run
+     */
+    public static final String PROMETHEUS_REPORT_FILE = "somox-performance.prom";
+
+    private static final double NANOS_PER_SECOND = 1.0e9;
+
+    private final PerformanceCounters counters;
+
+    public PerformanceReportWriter(final PerformanceCounters counters) {
+        super();
+
+        this.counters = counters;
+    }
+
+    /**
+     * Writes all instruments as one JSON object containing an array per instrument type.
+     * @param out The writer to write to, not closed by this method
+     * @throws IOException if writing fails
+     */
+    public void writeJSON(final Writer out) throws IOException {
+        out.write("{\n  \"timers\": [");
+        String separator = "\n";
+        for (final Timer timer : counters.getTimers()) {
+            out.write(separator);
+            writeJSONHeader(out, timer);
+            out.write(", \"count\": " + timer.getCount()
+                    + ", \"totalSeconds\": " + seconds(timer.getTotalNanos())
+                    + ", \"maxSeconds\": " + seconds(timer.getMaxNanos()) + "}");
+            separator = ",\n";
+        }
+        out.write("\n  ],\n  \"counters\": [");
+        separator = "\n";
+        for (final Counter counter : counters.getCounters()) {
+            out.write(separator);
+            writeJSONHeader(out, counter);
+            out.write(", \"value\": " + counter.getValue() + "}");
+            separator = ",\n";
+        }
+        out.write("\n  ],\n  \"histograms\": [");
+        separator = "\n";
+        for (final Histogram histogram : counters.getHistograms()) {
+            out.write(separator);
+            writeJSONHeader(out, histogram);
+            out.write(", \"count\": " + histogram.getCount()
+                    + ", \"sum\": " + histogram.getSum()
+                    + ", \"max\": " + histogram.getMax() + ", \"buckets\": {");
+            String bucketSeparator = "";
+            for (int i = 0; i < Histogram.BUCKET_COUNT; i++) {
+                if (histogram.getBucketCount(i) > 0) {
+                    out.write(bucketSeparator + "\"" + upperBound(i) + "\": " + histogram.getBucketCount(i));
+                    bucketSeparator = ", ";
+                }
+            }
+            out.write("}}");
+            separator = ",\n";
+        }
+        out.write("\n  ],\n  \"caches\": [");
+        separator = "\n";
+        for (final CacheStatistics cache : counters.getCaches()) {
+            out.write(separator);
+            writeJSONHeader(out, cache);
+            out.write(", \"hits\": " + cache.getHits()
+                    + ", \"misses\": " + cache.getMisses()
+                    + ", \"hitRate\": " + format(cache.getHitRate()) + "}");
+            separator = ",\n";
+        }
+        out.write("\n  ]\n}\n");
+        out.flush();
+    }
+
+    /**
+     * Writes all instruments in the Prometheus text exposition format. Timers are exported as summaries without
+     * quantiles plus a <code>_max</code> gauge, caches as hit and miss counters plus a hit ratio gauge.
+     * @param out The writer to write to, not closed by this method
+     * @throws IOException if writing fails
+     */
+    public void writePrometheus(final Writer out) throws IOException {
+        final List<Timer> timers = counters.getTimers();
+        String family = null;
+        for (final Timer timer : timers) {
+            if (!timer.getName().equals(family)) {
+                family = timer.getName();
+                out.write("# TYPE " + family + " summary\n");
+            }
+            writeSample(out, timer, "_count", null, Long.toString(timer.getCount()));
+            writeSample(out, timer, "_sum", null, seconds(timer.getTotalNanos()));
+        }
+        family = null;
+        for (final Timer timer : timers) {
+            if (!timer.getName().equals(family)) {
+                family = timer.getName();
+                out.write("# TYPE " + family + "_max gauge\n");
+            }
+            writeSample(out, timer, "_max", null, seconds(timer.getMaxNanos()));
+        }
+        family = null;
+        for (final Counter counter : counters.getCounters()) {
+            if (!counter.getName().equals(family)) {
+                family = counter.getName();
+                out.write("# TYPE " + family + " counter\n");
+            }
+            writeSample(out, counter, "", null, Long.toString(counter.getValue()));
+        }
+        family = null;
+        for (final Histogram histogram : counters.getHistograms()) {
+            if (!histogram.getName().equals(family)) {
+                family = histogram.getName();
+                out.write("# TYPE " + family + " histogram\n");
+            }
+            int lastBucket = -1;
+            for (int i = 0; i < Histogram.BUCKET_COUNT - 1; i++) {
+                if (histogram.getBucketCount(i) > 0) {
+                    lastBucket = i;
+                }
+            }
+            long cumulativeCount = 0;
+            for (int i = 0; i <= lastBucket; i++) {
+                cumulativeCount += histogram.getBucketCount(i);
+                writeSample(out, histogram, "_bucket", upperBound(i), Long.toString(cumulativeCount));
+            }
+            writeSample(out, histogram, "_bucket", "+Inf", Long.toString(histogram.getCount()));
+            writeSample(out, histogram, "_count", null, Long.toString(histogram.getCount()));
+            writeSample(out, histogram, "_sum", null, Long.toString(histogram.getSum()));
+        }
+        for (final CacheStatistics cache : counters.getCaches()) {
+            out.write("# TYPE " + cache.getName() + "_hits_total counter\n");
+            writeSample(out, cache, "_hits_total", null, Long.toString(cache.getHits()));
+            out.write("# TYPE " + cache.getName() + "_misses_total counter\n");
+            writeSample(out, cache, "_misses_total", null, Long.toString(cache.getMisses()));
+            out.write("# TYPE " + cache.getName() + "_hit_ratio gauge\n");
+            writeSample(out, cache, "_hit_ratio", null, format(cache.getHitRate()));
+        }
+        out.flush();
+    }
+
+    private static void writeJSONHeader(final Writer out, final Instrument instrument) throws IOException {
+        out.write("    {\"name\": \"" + escapeJSON(instrument.getName()) + "\"");
+        if (instrument.getLabelName() != null) {
+            out.write(", \"labels\": {\"" + escapeJSON(instrument.getLabelName()) + "\": \""
+                    + escapeJSON(instrument.getLabelValue()) + "\"}");
+        }
+    }
+
+    private static void writeSample(final Writer out, final Instrument instrument, final String suffix,
+            final String le, final String value) throws IOException {
+        final StringBuilder sample = new StringBuilder(instrument.getName()).append(suffix);
+        if (instrument.getLabelName() != null || le != null) {
+            sample.append('{');
+            if (instrument.getLabelName() != null) {
+                sample.append(instrument.getLabelName()).append("=\"")
+                .append(escapeLabelValue(instrument.getLabelValue())).append('"');
+                if (le != null) {
+                    sample.append(',');
+                }
+            }
+            if (le != null) {
+                sample.append("le=\"").append(le).append('"');
+            }
+            sample.append('}');
+        }
+        sample.append(' ').append(value).append('\n');
+        out.write(sample.toString());
+    }
+
+    private static String upperBound(final int bucket) {
+        return Long.toString(Histogram.getUpperBound(bucket));
+    }
+
+    private static String seconds(final long nanos) {
+        return format(nanos / NANOS_PER_SECOND);
+    }
+
+    private static String format(final double value) {
+        return String.format(Locale.ENGLISH, "%.9f", value);
+    }
+
+    private static String escapeLabelValue(final String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String escapeJSON(final String value) {
+        final StringBuilder result = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                result.append('\\').append(c);
+            } else if (c < 0x20) {
+                result.append(String.format("\\u%04x", (int) c));
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,59 @@
+package org.somox.instrumentation;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Accumulates the number, total and maximum duration of timed calls. Typical use:
+ *
+ * <pre>
+ * final long start = System.nanoTime();
+ * ...
+ * timer.record(System.nanoTime() - start);
+ * </pre>
+ */
+public final class Timer extends Instrument {
+
+    private final AtomicLong count = new AtomicLong();
+
+    private final AtomicLong totalNanos = new AtomicLong();
+
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    Timer(final InstrumentKey key) {
+        super(key);
+    }
+
+    /**
+     * @param nanos Duration of one call in nanoseconds
+     */
+    public void record(final long nanos) {
+        if (!PerformanceCounters.enabled) {
+            return;
+        }
+        count.incrementAndGet();
+        totalNanos.addAndGet(nanos);
+        long max = maxNanos.get();
+        while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+            max = maxNanos.get();
+        }
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.get();
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    @Override
+    void reset() {
+        count.set(0);
+        totalNanos.set(0);
+        maxNanos.set(0);
+    }
+}
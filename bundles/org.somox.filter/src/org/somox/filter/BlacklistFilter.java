@@ -22,6 +22,20 @@ public class BlacklistFilter extends BaseFilter<Type> {
         this.matchPattern = deriveMatchPattern(blacklist);
     }
 
+    /**
+     * @return The regular expression matching the fully qualified names of blacklisted classes
+     */
+    public String getPattern() {
+        return matchPattern.pattern();
+    }
+
+    /**
+     * @return The case insensitive pattern matching the fully qualified names of blacklisted classes
+     */
+    public Pattern getMatchPattern() {
+        return matchPattern;
+    }
+
     @Override
     public boolean passes(final Type object) {
         return !classMatchesBlacklist(object);
@@ -9,8 +9,6 @@ import java.util.Iterator;
 import java.util.Map;
 
 import org.apache.log4j.Logger;
-import org.eclipse.core.resources.IWorkspace;
-import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.SubProgressMonitor;
 import org.eclipse.emf.common.util.EList;
@@ -35,11 +33,16 @@ import org.palladiosimulator.pcm.seff.ServiceEffectSpecification;
 import org.palladiosimulator.pcm.seff.StartAction;
 import org.palladiosimulator.pcm.seff.StopAction;
 import org.somox.analyzer.AnalysisResult;
+import org.somox.analyzer.simplemodelanalyzer.builder.util.BulkConstructionMode;
 import org.somox.analyzer.simplemodelanalyzer.jobs.SoMoXBlackboard;
 import org.somox.configuration.SoMoXConfiguration;
 import org.somox.gast2seff.visitors.BasicFunctionClassificationStrategy;
 import org.somox.gast2seff.visitors.FunctionCallClassificationVisitor;
 import org.somox.gast2seff.visitors.GastStatementVisitor;
+import org.somox.instrumentation.FlightRecorderEvent;
+import org.somox.instrumentation.FlightRecorderEventType;
+import org.somox.instrumentation.PerformanceCounters;
+import org.somox.instrumentation.Timer;
 import org.somox.sourcecodedecorator.Seff2MethodLink;
 import org.somox.sourcecodedecorator.SourceCodeDecoratorRepository;
 
@@ -74,6 +77,14 @@ public class GAST2SEFFJob  implements IBlackboardInteractingJob<SoMoXBlackboard>
 
     private final Logger logger = Logger.getLogger(GAST2SEFFJob.class);
 
+    /**
+     * Flight recorder event of building one SEFF
+     */
+    private static final FlightRecorderEventType SEFF_EVENT = FlightRecorderEventType.create(
+            "org.somox.SEFFGeneration", "SEFF Generation",
+            new String[] { "seffId", "service", "stepCount" },
+            new Class<?>[] { String.class, String.class, int.class });
+
     /** The SoMoX blackboard to interact with. */
     private SoMoXBlackboard blackboard = null;
 
@@ -136,8 +147,6 @@ public class GAST2SEFFJob  implements IBlackboardInteractingJob<SoMoXBlackboard>
         //
         //TODO adapt to MoDisco Java
         //FIXME
-        final IWorkspace workspace = ResourcesPlugin.getWorkspace();
-        final String basePath = workspace.getRoot().getRawLocation().toOSString();
         /** Changed by Falko Hansch*/
         // final String gastModelPath = somoxConfiguration.getFileLocations().getAnalyserInputFile();
 
@@ -162,6 +171,7 @@ public class GAST2SEFFJob  implements IBlackboardInteractingJob<SoMoXBlackboard>
         //		this.sourceCodeDecorator = loadResource(sourceCodeDecoratorURI, false);
 
 
+        final long start = System.nanoTime();
         final AnalysisResult result = blackboard.getAnalysisResult();
         final org.palladiosimulator.pcm.system.System samm = result.getSystemModel();
         this.sammQosAnnotationsModel = result.getQosAnnotationModel();
@@ -176,35 +186,51 @@ public class GAST2SEFFJob  implements IBlackboardInteractingJob<SoMoXBlackboard>
         subMonitor.setTaskName("Creating SEFF behaviour");
         // TreeIterator<EObject> iterator = sammInstance.getAllContents();
         //		TreeIterator<EObject> iterator = samm.eAllContents();
-        final Iterator<Seff2MethodLink> iterator = this.sourceCodeDecoratorModel.getSeff2MethodLink().iterator();
-        while (iterator.hasNext()) {
-            final Seff2MethodLink astBehaviour = iterator.next();
-            final ResourceDemandingSEFF seff = (ResourceDemandingSEFF) astBehaviour.getSeff();
-            //TODO SAMM2PCM????
-            final String name = seff.getId();
-            logger.info("Found AST behaviour, generating SEFF behaviour for it: " + name);
-
-            generateSEFFForGASTBehaviour(seff);
-            //			seffRepository.g .getResourceDemandingSeff().add(resourceDemandingSEFF);
-            monitor.worked(1);
-
-            //			EObject eObject = iterator.next();
-            //			if (eObject instanceof GastBehaviourStub) {
-            //				String name = ((GastBehaviourStub) eObject).getName();
-            //				logger.info("Found GAST behaviour, generating SEFF behaviour for it: " + name);
-            //
-            //				ResourceDemandingSEFF resourceDemandingSEFF = generateSEFFForGASTBehaviour((GastBehaviourStub) eObject);
-            //				seffRepository.getResourceDemandingSeff().add(resourceDemandingSEFF);
-            //				monitor.worked(1);
-            //			}
-        }
+        final Timer seffTimer = PerformanceCounters.getInstance().timer("somox_seff_generation_seconds");
+        final BulkConstructionMode bulkConstructionMode = BulkConstructionMode.begin(result);
+        try {
+            final Iterator<Seff2MethodLink> iterator = this.sourceCodeDecoratorModel.getSeff2MethodLink().iterator();
+            while (iterator.hasNext()) {
+                final Seff2MethodLink astBehaviour = iterator.next();
+                final ResourceDemandingSEFF seff = (ResourceDemandingSEFF) astBehaviour.getSeff();
+                //TODO SAMM2PCM????
+                final String name = seff.getId();
+                logger.info("Found AST behaviour, generating SEFF behaviour for it: " + name);
+
+                final long seffStart = System.nanoTime();
+                final FlightRecorderEvent seffEvent = SEFF_EVENT.begin();
+                generateSEFFForGASTBehaviour(seff);
+                seffTimer.record(System.nanoTime() - seffStart);
+                if (seffEvent.isRecorded()) {
+                    seffEvent.set(0, name)
+                    .set(1, seff.getDescribedService__SEFF() == null ? null : seff.getDescribedService__SEFF().getEntityName())
+                    .set(2, seff.getSteps_Behaviour().size())
+                    .commit();
+                }
+                //			seffRepository.g .getResourceDemandingSeff().add(resourceDemandingSEFF);
+                monitor.worked(1);
+
+                //			EObject eObject = iterator.next();
+                //			if (eObject instanceof GastBehaviourStub) {
+                //				String name = ((GastBehaviourStub) eObject).getName();
+                //				logger.info("Found GAST behaviour, generating SEFF behaviour for it: " + name);
+                //
+                //				ResourceDemandingSEFF resourceDemandingSEFF = generateSEFFForGASTBehaviour((GastBehaviourStub) eObject);
+                //				seffRepository.getResourceDemandingSeff().add(resourceDemandingSEFF);
+                //				monitor.worked(1);
+                //			}
+            }
 
-        // Create default annotations
-        final DefaultQosAnnotationsBuilder qosAnnotationBuilder = new DefaultQosAnnotationsBuilder(
-                this.sammQosAnnotationsModel);
-        qosAnnotationBuilder.buildDefaultQosAnnotations(this.sourceCodeDecoratorModel.getSeff2MethodLink());
+            // Create default annotations
+            final DefaultQosAnnotationsBuilder qosAnnotationBuilder = new DefaultQosAnnotationsBuilder(
+                    this.sammQosAnnotationsModel);
+            qosAnnotationBuilder.buildDefaultQosAnnotations(this.sourceCodeDecoratorModel.getSeff2MethodLink());
+        } finally {
+            bulkConstructionMode.end();
+        }
 
         subMonitor.done();
+        PerformanceCounters.getInstance().recordPhase("gast2seff", start);
 
         monitor.subTask("saving models");
 
@@ -45,7 +45,7 @@ implements
 				
 		ComponentImplementingClassesLink compLink = queryComponentLink(this.primitiveComponent);
 		for(InterfaceSourceCodeLink ifLink : compLink.getRequiredInterfaces()) {
-			if(KDMHelper.getMethods(ifLink.getGastClass()).contains(functionAccess.getMethod())) {//GAST2SEFFCHANGE//GAST2SEFFCHANGE
+			if(KDMHelper.isMethodOf(ifLink.getGastClass(), functionAccess.getMethod())) {//GAST2SEFFCHANGE//GAST2SEFFCHANGE
 				logger.debug("Classified call as external call: "+functionAccess.getMethod().getName() +//GAST2SEFFCHANGE//GAST2SEFFCHANGE 
 						" for component " + primitiveComponent.getEntityName());				
 				return true;
@@ -77,7 +77,7 @@ implements
 		}
 		logger.debug("Classified call as library call: "+functionAccess.getMethod().getName() +//GAST2SEFFCHANGE//GAST2SEFFCHANGE 
 				" for component " + primitiveComponent.getEntityName());	
-		return (KDMHelper.getJavaNodeSourceRegion(targetClass) == null || KDMHelper.getSourceFile(KDMHelper.getJavaNodeSourceRegion(targetClass)) == null);//GAST2SEFFCHANGE//GAST2SEFFCHANGE
+		return KDMHelper.getSourceFile(targetClass) == null;//GAST2SEFFCHANGE//GAST2SEFFCHANGE
 	}
 
 }
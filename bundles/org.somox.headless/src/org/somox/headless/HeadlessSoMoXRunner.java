@@ -0,0 +1,220 @@
+package org.somox.headless;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.log4j.BasicConfigurator;
+import org.apache.log4j.Logger;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.URIConverter;
+import org.somox.analyzer.AnalysisResult;
+import org.somox.analyzer.ModelAnalyzerException;
+import org.somox.analyzer.simplemodelanalyzer.SimpleModelAnalyzer;
+import org.somox.analyzer.simplemodelanalyzer.jobs.SaveSoMoXModelsJob;
+import org.somox.analyzer.simplemodelanalyzer.jobs.SoMoXBlackboard;
+import org.somox.common.SoMoXProjectPreferences;
+import org.somox.configuration.SOMOXConfigurationBuilderByPreferences;
+import org.somox.configuration.SoMoXConfiguration;
+import org.somox.gast2seff.jobs.GAST2SEFFJob;
+import org.somox.instrumentation.FlightRecorderEvent;
+import org.somox.instrumentation.FlightRecorderEventType;
+import org.somox.instrumentation.PerformanceCounters;
+import org.somox.kdmhelper.KDMReader;
+import org.somox.kdmhelper.metamodeladdition.Root;
+import org.somox.metrics.registry.MetricsRegistry;
+
+import de.uka.ipd.sdq.workflow.jobs.JobFailedException;
+import de.uka.ipd.sdq.workflow.jobs.UserCanceledException;
+
+/**
+ * Runs the SoMoX pipeline without Eclipse: the model is loaded by the {@link KDMReader}, analysed by the
+ * {@link SimpleModelAnalyzer}, the SEFFs are created by the {@link GAST2SEFFJob} and the results are saved by
+ * the {@link SaveSoMoXModelsJob}. The class path has to contain the SoMoX bundles and their dependencies, the
+ * EMF packages and metrics are registered from the <code>plugin.xml</code> files on the class path.
+ * <p>
+ * The run is configured by a properties file using the keys of {@link SoMoXProjectPreferences}. Weights and
+ * thresholds not given default to the values of the simple analyzer's <code>SimpleAnalyzer.properties</code>.
+ * Workspace paths, i.e. the input file <code>/project/model_java2kdm.xmi</code> and the output folder of the
+ * project, are resolved relative to the directory given by {@value #WORKSPACE_DIRECTORY}, which defaults to
+ * the current directory. The metric values model of the clustering iterations is written to the output folder
+ * as in Eclipse. The graph dumps of the clustering trace output need a running Eclipse workspace and are not
+ * supported. The performance counters of the run are written to the output folder by the
+ * {@link SaveSoMoXModelsJob}.
+ */
+public class HeadlessSoMoXRunner {
+
+    /**
+     * Directory of the workspace the <code>platform:/resource/</code> paths of the configuration refer to
+     */
+    public static final String WORKSPACE_DIRECTORY = "org.somox.headless.workspace";
+
+    private static final String DEFAULT_PROPERTIES = "/config/SimpleAnalyzer.properties";
+
+    private static final String DEFAULT_WILDCARDS = "java.*" + SoMoXConfiguration.SOMOX_WILDCARD_DELIMITER + "javax.*";
+
+    private static final Logger LOG = Logger.getLogger(HeadlessSoMoXRunner.class);
+
+    private final Properties properties;
+
+    /**
+     * Duration of each finished phase in nanoseconds, in execution order
+     */
+    private final Map<String, Long> phaseTimings = new LinkedHashMap<String, Long>();
+
+    /**
+     * @param properties The configuration of the run, see the class comment
+     */
+    public HeadlessSoMoXRunner(final Properties properties) {
+        super();
+
+        this.properties = properties;
+    }
+
+    /**
+     * Command line entry point. The only argument is the properties file configuring the run.
+     * @param args The command line arguments
+     * @throws Exception if the run fails
+     */
+    public static void main(final String[] args) throws Exception {
+        if (args.length != 1) {
+            System.err.println("Usage: HeadlessSoMoXRunner <configuration properties file>");
+            System.exit(1);
+        }
+        if (!Logger.getRootLogger().getAllAppenders().hasMoreElements()) {
+            BasicConfigurator.configure();
+            Logger.getRootLogger().setLevel(org.apache.log4j.Level.INFO);
+        }
+
+        final Properties properties = new Properties();
+        final InputStream input = new FileInputStream(args[0]);
+        try {
+            properties.load(input);
+        } finally {
+            input.close();
+        }
+
+        final HeadlessSoMoXRunner runner = new HeadlessSoMoXRunner(properties);
+        runner.run();
+        runner.printPhaseTimings(System.out);
+    }
+
+    /**
+     * Runs all phases of the pipeline.
+     * @return The result of the analysis, the SEFFs are already contained
+     * @throws IOException if loading the model or the registrations fail
+     * @throws ModelAnalyzerException if the analysis fails
+     * @throws JobFailedException if creating the SEFFs or saving the models fails
+     * @throws UserCanceledException never thrown in headless runs
+     */
+    public AnalysisResult run() throws IOException, ModelAnalyzerException, JobFailedException, UserCanceledException {
+        final IProgressMonitor monitor = new NullProgressMonitor();
+
+        PerformanceCounters.getInstance().reset();
+        long start = System.nanoTime();
+        StandaloneEMFRegistration.registerClassPathContributions();
+        final File workspace = new File(properties.getProperty(WORKSPACE_DIRECTORY, ".")).getAbsoluteFile();
+        URIConverter.URI_MAP.put(URI.createURI("platform:/resource/"),
+                URI.createFileURI(workspace.getPath() + File.separator));
+        final SoMoXConfiguration configuration = createConfiguration();
+        LOG.info(MetricsRegistry.getRegisteredMetrics().size() + " metrics registered");
+        finishPhase("setup", start);
+        PerformanceCounters.getInstance().recordPhase("setup", start);
+
+        start = System.nanoTime();
+        final String inputFile = configuration.getFileLocations().getAnalyserInputFile();
+        if (inputFile == null) {
+            throw new IllegalArgumentException("No input file configured, set " + SoMoXProjectPreferences.SOMOX_ANALYZER_INPUT_FILE);
+        }
+        final URI inputURI = URI.createPlatformResourceURI(inputFile, true);
+        final FlightRecorderEvent loadEvent = FlightRecorderEventType.RESOURCE_IO.begin();
+        final Root root = KDMReader.loadFile(inputURI, configuration.getClusteringConfig().getParallelism(),
+                configuration.getStubbedTypesPattern());
+        loadEvent.set(0, inputURI.toString()).set(1, "load").commit();
+        finishPhase("load model", start);
+        PerformanceCounters.getInstance().recordPhase("load_model", start);
+
+        start = System.nanoTime();
+        final AnalysisResult result = new SimpleModelAnalyzer().analyze(root, configuration, monitor);
+        finishPhase("analyze", start);
+
+        final SoMoXBlackboard blackboard = new SoMoXBlackboard();
+        blackboard.setAnalysisResult(result);
+
+        start = System.nanoTime();
+        final GAST2SEFFJob gast2SeffJob = new GAST2SEFFJob(configuration);
+        gast2SeffJob.setBlackboard(blackboard);
+        gast2SeffJob.execute(monitor);
+        finishPhase("gast2seff", start);
+
+        start = System.nanoTime();
+        final SaveSoMoXModelsJob saveJob = new SaveSoMoXModelsJob(configuration);
+        saveJob.setBlackboard(blackboard);
+        saveJob.execute(monitor);
+        finishPhase("save models", start);
+
+        return result;
+    }
+
+    /**
+     * @return Duration of each finished phase in nanoseconds, in execution order
+     */
+    public Map<String, Long> getPhaseTimings() {
+        return Collections.unmodifiableMap(phaseTimings);
+    }
+
+    /**
+     * Prints the duration of each finished phase and the total duration in milliseconds.
+     * @param out The stream to print to
+     */
+    public void printPhaseTimings(final PrintStream out) {
+        long total = 0;
+        for (final Map.Entry<String, Long> phase : phaseTimings.entrySet()) {
+            out.println(String.format("%-12s %10d ms", phase.getKey(), phase.getValue() / 1000000));
+            total += phase.getValue();
+        }
+        out.println(String.format("%-12s %10d ms", "total", total / 1000000));
+    }
+
+    private SoMoXConfiguration createConfiguration() throws IOException {
+        final Map<Object, Object> attributes = new HashMap<Object, Object>();
+        final InputStream defaults = SimpleModelAnalyzer.class.getResourceAsStream(DEFAULT_PROPERTIES);
+        if (defaults != null) {
+            final Properties defaultProperties = new Properties();
+            try {
+                defaultProperties.load(defaults);
+            } finally {
+                defaults.close();
+            }
+            attributes.putAll(defaultProperties);
+        } else {
+            LOG.warn("Default weights " + DEFAULT_PROPERTIES + " not found on the class path");
+        }
+        attributes.putAll(properties);
+        if (!attributes.containsKey(SoMoXProjectPreferences.SOMOX_ANALYSER_WILDCARD_KEY)) {
+            attributes.put(SoMoXProjectPreferences.SOMOX_ANALYSER_WILDCARD_KEY, DEFAULT_WILDCARDS);
+        }
+        final Object reverseEngineerInterfaces = attributes.get(
+                SoMoXProjectPreferences.SOMOX_ANALYZER_REVERSE_ENGINEER_INTERFACES_NOT_ASSIGNED_TO_INTERFACES);
+        if (reverseEngineerInterfaces != null) {
+            attributes.put(SoMoXProjectPreferences.SOMOX_ANALYZER_REVERSE_ENGINEER_INTERFACES_NOT_ASSIGNED_TO_INTERFACES,
+                    Boolean.valueOf(reverseEngineerInterfaces.toString().trim()));
+        }
+        return new SOMOXConfigurationBuilderByPreferences().createSOMOXConfiguration(attributes);
+    }
+
+    private void finishPhase(final String phase, final long start) {
+        final long duration = System.nanoTime() - start;
+        phaseTimings.put(phase, duration);
+        LOG.info("Phase " + phase + " finished in " + duration / 1000000 + " ms");
+    }
+}
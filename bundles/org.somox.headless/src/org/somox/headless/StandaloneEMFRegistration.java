@@ -0,0 +1,161 @@
+package org.somox.headless;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.apache.log4j.Logger;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EFactory;
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.URIConverter;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+/**
+ * Performs the EMF registrations which are done by the Eclipse extension registry in a running Eclipse
+ * instance. The <code>plugin.xml</code> files on the class path are scanned for generated packages, resource
+ * factories and URI mappings, e.g. the <code>pathmap://PCM_MODELS/</code> mapping of the PCM default models.
+ * URI mappings to <code>platform:/plugin/</code> locations are resolved relative to the <code>plugin.xml</code>
+ * declaring them.
+ */
+public final class StandaloneEMFRegistration {
+
+    private static final Logger LOG = Logger.getLogger(StandaloneEMFRegistration.class);
+
+    private static final String PLUGIN_XML = "plugin.xml";
+    private static final String PLATFORM_PLUGIN_PREFIX = "platform:/plugin/";
+
+    private static final String GENERATED_PACKAGE_EXTENSION_ID = "org.eclipse.emf.ecore.generated_package";
+    private static final String EXTENSION_PARSER_EXTENSION_ID = "org.eclipse.emf.ecore.extension_parser";
+    private static final String URI_MAPPING_EXTENSION_ID = "org.eclipse.emf.ecore.uri_mapping";
+
+    private static boolean registered = false;
+
+    private StandaloneEMFRegistration() {
+        super();
+    }
+
+    /**
+     * Registers the EMF contributions of all <code>plugin.xml</code> files on the class path. Subsequent calls
+     * have no effect.
+     * @throws IOException if reading a <code>plugin.xml</code> fails
+     */
+    public static synchronized void registerClassPathContributions() throws IOException {
+        if (registered) {
+            return;
+        }
+        final DocumentBuilder documentBuilder;
+        try {
+            documentBuilder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
+        } catch (final ParserConfigurationException e) {
+            throw new IOException("Unable to create plugin.xml parser", e);
+        }
+        final Enumeration<URL> pluginXMLs = StandaloneEMFRegistration.class.getClassLoader().getResources(PLUGIN_XML);
+        while (pluginXMLs.hasMoreElements()) {
+            final URL pluginXML = pluginXMLs.nextElement();
+            final Document document;
+            final InputStream input = pluginXML.openStream();
+            try {
+                document = documentBuilder.parse(input);
+            } catch (final SAXException e) {
+                throw new IOException("Unable to parse " + pluginXML, e);
+            } finally {
+                input.close();
+            }
+            final NodeList extensions = document.getElementsByTagName("extension");
+            for (int i = 0; i < extensions.getLength(); i++) {
+                final Element extension = (Element) extensions.item(i);
+                final String point = extension.getAttribute("point");
+                if (GENERATED_PACKAGE_EXTENSION_ID.equals(point)) {
+                    for (final Element element : getChildElements(extension, "package")) {
+                        registerPackage(element.getAttribute("uri"), element.getAttribute("class"));
+                    }
+                } else if (EXTENSION_PARSER_EXTENSION_ID.equals(point)) {
+                    for (final Element element : getChildElements(extension, "parser")) {
+                        registerResourceFactory(element.getAttribute("type"), element.getAttribute("class"));
+                    }
+                } else if (URI_MAPPING_EXTENSION_ID.equals(point)) {
+                    for (final Element element : getChildElements(extension, "mapping")) {
+                        registerURIMapping(pluginXML, element.getAttribute("source"), element.getAttribute("target"));
+                    }
+                }
+            }
+        }
+        registered = true;
+    }
+
+    private static void registerPackage(final String nsURI, final String packageClass) {
+        if (EPackage.Registry.INSTANCE.containsKey(nsURI)) {
+            return;
+        }
+        EPackage.Registry.INSTANCE.put(nsURI, new EPackage.Descriptor() {
+
+            @Override
+            public EPackage getEPackage() {
+                try {
+                    return (EPackage) Class.forName(packageClass).getField("eINSTANCE").get(null);
+                } catch (final Exception e) {
+                    throw new IllegalStateException("Unable to load EMF package " + packageClass, e);
+                }
+            }
+
+            @Override
+            public EFactory getEFactory() {
+                return getEPackage().getEFactoryInstance();
+            }
+        });
+        LOG.debug("Registered EMF package " + nsURI);
+    }
+
+    private static void registerResourceFactory(final String fileExtension, final String factoryClass) {
+        if (factoryClass.indexOf(':') >= 0
+                || Resource.Factory.Registry.INSTANCE.getExtensionToFactoryMap().containsKey(fileExtension)) {
+            // injected factories (e.g. Xtext languages) need their own standalone setup
+            return;
+        }
+        try {
+            Resource.Factory.Registry.INSTANCE.getExtensionToFactoryMap().put(fileExtension,
+                    Class.forName(factoryClass).newInstance());
+            LOG.debug("Registered resource factory for *." + fileExtension);
+        } catch (final Exception e) {
+            LOG.warn("Unable to register resource factory " + factoryClass + ": " + e.getMessage());
+        }
+    }
+
+    private static void registerURIMapping(final URL pluginXML, final String source, final String target)
+            throws IOException {
+        String relativeTarget = target;
+        if (relativeTarget.startsWith(PLATFORM_PLUGIN_PREFIX)) {
+            final int bundleEnd = relativeTarget.indexOf('/', PLATFORM_PLUGIN_PREFIX.length());
+            relativeTarget = bundleEnd < 0 ? "" : relativeTarget.substring(bundleEnd + 1);
+        } else if (URI.createURI(relativeTarget).scheme() != null) {
+            URIConverter.URI_MAP.put(URI.createURI(source), URI.createURI(relativeTarget));
+            return;
+        }
+        final URL targetURL = new URL(pluginXML, relativeTarget);
+        URIConverter.URI_MAP.put(URI.createURI(source), URI.createURI(targetURL.toString()));
+        LOG.debug("Mapped " + source + " to " + targetURL);
+    }
+
+    private static List<Element> getChildElements(final Element parent, final String tagName) {
+        final List<Element> result = new ArrayList<Element>();
+        final NodeList children = parent.getChildNodes();
+        for (int i = 0; i < children.getLength(); i++) {
+            if (children.item(i) instanceof Element && ((Element) children.item(i)).getTagName().equals(tagName)) {
+                result.add((Element) children.item(i));
+            }
+        }
+        return result;
+    }
+}
@@ -8,6 +8,7 @@ import java.util.Set;
 
 import org.eclipse.emf.common.util.TreeIterator;
 import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EStructuralFeature;
 import org.eclipse.gmt.modisco.infra.query.core.exception.ModelQueryExecutionException;
 import org.eclipse.gmt.modisco.java.ASTNode;
 import org.eclipse.gmt.modisco.java.AbstractMethodDeclaration;
@@ -20,6 +21,7 @@ import org.eclipse.gmt.modisco.java.ClassInstanceCreation;
 import org.eclipse.gmt.modisco.java.FieldAccess;
 import org.eclipse.gmt.modisco.java.InheritanceKind;
 import org.eclipse.gmt.modisco.java.InterfaceDeclaration;
+import org.eclipse.gmt.modisco.java.JavaPackage;
 import org.eclipse.gmt.modisco.java.MethodDeclaration;
 import org.eclipse.gmt.modisco.java.Modifier;
 import org.eclipse.gmt.modisco.java.NamedElement;
@@ -311,13 +313,19 @@ public class KDMHelper {
     }
 
     /**
-     * For an ASTNode computes the {@link JavaNodeSourceRegion} object.
+     * For an ASTNode computes the {@link JavaNodeSourceRegion} object. Uses
+     * the {@link SourceRegionIndex} of the model; the MoDisco query is only
+     * evaluated for nodes which are not contained in a resource.
      *
      * @param node
      *            the ASTNode object
      * @return the {@link JavaNodeSourceRegion}
      */
     public static JavaNodeSourceRegion getJavaNodeSourceRegion(final ASTNode node) {
+        final SourceRegionIndex index = SourceRegionIndex.getSourceRegionIndex(node);
+        if (index != null) {
+            return index.getSourceRegion(node);
+        }
         final GetASTNodeSourceRegion query = new GetASTNodeSourceRegion();
         try {
             return query.evaluate(node, null);
@@ -353,6 +361,21 @@ public class KDMHelper {
         return result;
     }
 
+    /**
+     * Checks if a method is one of the real methods of a type, see
+     * {@link #getMethods(Type)}, without listing the methods.
+     *
+     * @param type
+     *            the type
+     * @param method
+     *            the method
+     * @return true if the method is a method declaration of the type
+     */
+    public static boolean isMethodOf(final Type type, final AbstractMethodDeclaration method) {
+        return type != null && method instanceof MethodDeclaration
+                && method.getAbstractTypeDeclaration() == type;
+    }
+
     // TODO burkha 16.05.2013 test and fix, there is a bug in it
     // the MoDisco method getRedefinedMethodDeclaration only works for classes, not for interfaces
     /**
@@ -363,26 +386,7 @@ public class KDMHelper {
      * @return the overridden method
      */
     public static MethodDeclaration getOverriddenMember(final MethodDeclaration methDecInput) {
-
-        final MethodDeclaration redefinedMethodDeclaration = methDecInput.getRedefinedMethodDeclaration();
-
-        if(redefinedMethodDeclaration != null){
-            return redefinedMethodDeclaration;
-        }
-
-        final Type typeOfMethod = methDecInput.getAbstractTypeDeclaration();
-        final List<Type> superTypes = getSuperTypes(typeOfMethod);
-
-        for (final Type type : superTypes) {
-            final List<MethodDeclaration> method = KDMHelper.getMethods(type);
-            for (final MethodDeclaration methodDeclaration : method) {
-                if(EqualityChecker.areFunctionsEqual(methDecInput, methodDeclaration)){
-                    return methodDeclaration;
-                }
-            }
-        }
-
-        return null;
+        return TypeHierarchy.getTypeHierarchy(methDecInput).getOverriddenMember(methDecInput);
     }
 
     // TODO implement
@@ -417,6 +421,22 @@ public class KDMHelper {
         return result;
     }
 
+    /**
+     * Queries the {@link SourceFile} object containing an {@link ASTNode}.
+     *
+     * @param node
+     *            the input object
+     * @return the {@link SourceFile} object; null if the node has no source
+     *         region or the region belongs to no file
+     */
+    public static SourceFile getSourceFile(final ASTNode node) {
+        final SourceRegionIndex index = SourceRegionIndex.getSourceRegionIndex(node);
+        if (index != null) {
+            return index.getSourceFile(node);
+        }
+        return getSourceFile(getJavaNodeSourceRegion(node));
+    }
+
     /**
      * Returns all super types of a type.
      *
@@ -426,18 +446,11 @@ public class KDMHelper {
      */
     public static List<Type> getSuperTypes(final Type type) {
 
-        final List<Type> result = new ArrayList<Type>();
-
         if (type == null) {
-            return result;
+            return new ArrayList<Type>();
         }
 
-        for (final TypeAccess typeAccess : getInheritanceTypeAccesses(type)) {
-            if (typeAccess != null) {
-                result.add(typeAccess.getType());
-            }
-        }
-        return result;
+        return new ArrayList<Type>(TypeHierarchy.getTypeHierarchy(type).getSuperTypes(type));
     }
 
     /**
@@ -526,15 +539,16 @@ public class KDMHelper {
      * @return true or false.
      */
     public static boolean isInheritanceTypeAccess(final TypeAccess inputTypeAccess) {
-        if (inputTypeAccess.eContainer() instanceof AbstractTypeDeclaration) {
-
-            final AbstractTypeDeclaration atd = (AbstractTypeDeclaration) inputTypeAccess
-                    .eContainer();
-            for (final TypeAccess ta : getInheritanceTypeAccesses(atd)) {
-                if (ta == inputTypeAccess) {
-                    return true;
-                }
-            }
+        // inheritance type accesses are contained in the super class or super interfaces feature,
+        // see getInheritanceTypeAccesses
+        final EObject container = inputTypeAccess.eContainer();
+        final EStructuralFeature containingFeature = inputTypeAccess.eContainingFeature();
+        if (container instanceof ClassDeclaration) {
+            return containingFeature == JavaPackage.Literals.ABSTRACT_TYPE_DECLARATION__SUPER_INTERFACES
+                    || containingFeature == JavaPackage.Literals.CLASS_DECLARATION__SUPER_CLASS;
+        }
+        if (container instanceof InterfaceDeclaration) {
+            return containingFeature == JavaPackage.Literals.ABSTRACT_TYPE_DECLARATION__SUPER_INTERFACES;
         }
         return false;
     }
@@ -3,7 +3,11 @@ package org.somox.kdmhelper;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
 
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.EObject;
@@ -31,6 +35,79 @@ public final class KDMReader {
 
     }
 
+    /**
+     * Loads a java2kdm model and all model fragments it references. With a parallelism greater than one, the
+     * fragments are parsed concurrently and their proxies are resolved in one pass afterwards.
+     * @param file The java2kdm model
+     * @param parallelism The number of fragments parsed concurrently
+     * @return The root of the Java models referenced by the java2kdm model
+     * @throws IOException Thrown if the model cannot be loaded
+     */
+    public static final Root loadFile(final URI file, final int parallelism) throws IOException {
+        return loadFile(file, parallelism, null);
+    }
+
+    /**
+     * Loads a java2kdm model and all model fragments it references. Types whose fully qualified name matches the
+     * given pattern, e.g. the SoMoX blacklist, are reduced to stubs without method bodies and field initializers
+     * before the model is returned. The types are stubbed after the model has been parsed completely, so the heap
+     * retained by the returned model is reduced but not the peak heap while loading.
+     * @param file The java2kdm model
+     * @param parallelism The number of fragments parsed concurrently
+     * @param stubbedTypes Pattern matching the fully qualified names of the types to stub; null to keep all types
+     * @return The root of the Java models referenced by the java2kdm model
+     * @throws IOException Thrown if the model cannot be loaded
+     */
+    public static final Root loadFile(final URI file, final int parallelism, final Pattern stubbedTypes)
+            throws IOException {
+        if (parallelism <= 1) {
+            return createRoot(getModelsFromResource(loadModel(file)), stubbedTypes);
+        }
+        return loadFiles(Collections.singletonList(file), parallelism, stubbedTypes);
+    }
+
+    /**
+     * Loads several java2kdm models, e.g. one per project, concurrently including all model fragments they reference.
+     * @param files The java2kdm models
+     * @param parallelism The number of fragments parsed concurrently
+     * @return The root of the Java models referenced by the java2kdm models
+     * @throws IOException Thrown if one of the models cannot be loaded
+     */
+    public static final Root loadFiles(final List<URI> files, final int parallelism) throws IOException {
+        return loadFiles(files, parallelism, null);
+    }
+
+    /**
+     * Loads several java2kdm models concurrently and reduces the types matching the given pattern to stubs.
+     * @param files The java2kdm models
+     * @param parallelism The number of fragments parsed concurrently
+     * @param stubbedTypes Pattern matching the fully qualified names of the types to stub; null to keep all types
+     * @return The root of the Java models referenced by the java2kdm models
+     * @throws IOException Thrown if one of the models cannot be loaded
+     * @see #loadFile(URI, int, Pattern)
+     */
+    public static final Root loadFiles(final List<URI> files, final int parallelism, final Pattern stubbedTypes)
+            throws IOException {
+        final ResourceSet resourceSet = new ParallelModelLoader(Math.max(1, parallelism)).load(files);
+        final Set<Model> models = new LinkedHashSet<Model>();
+        for (final URI file : files) {
+            final Resource resource = resourceSet.getResource(file, false);
+            if (resource != null) {
+                models.addAll(getModelsFromResource(resource));
+            }
+        }
+        return createRoot(models, stubbedTypes);
+    }
+
+    private static Root createRoot(final Collection<Model> models, final Pattern stubbedTypes) {
+        if (stubbedTypes != null) {
+            new TypeStubber(stubbedTypes).stub(models);
+        }
+        final Root root = new Root();
+        root.addModels(models);
+        return root;
+    }
+
     private static Collection<Model> getModelsFromResource(final Resource resource) {
         final List<Model> modelList = new ArrayList<Model>();
         for (final EObject obj : resource.getContents()) {
@@ -47,6 +124,18 @@ public final class KDMReader {
     }
 
     private static Resource loadModel(final URI modelURI) throws IOException {
+        final ResourceSet resourceSet = createResourceSet(modelURI);
+        final Resource result = resourceSet.createResource(modelURI);
+        if (result != null) {
+            result.load(null);
+        }
+        return result;
+    }
+
+    /**
+     * @return A new resource set with the resource factory for the file extension of the model registered
+     */
+    static ResourceSet createResourceSet(final URI modelURI) {
         final ResourceSet resourceSet = new ResourceSetImpl();
         String fileExtension = modelURI.fileExtension();
         if (fileExtension == null || fileExtension.length() == 0) {
@@ -62,11 +151,6 @@ public final class KDMReader {
             resourceSet.getResourceFactoryRegistry().getExtensionToFactoryMap()
             .put(fileExtension, new XMIResourceFactoryImpl());
         }
-
-        final Resource result = resourceSet.createResource(modelURI);
-        if (result != null) {
-            result.load(null);
-        }
-        return result;
+        return resourceSet;
     }
-}
\ No newline at end of file
+}
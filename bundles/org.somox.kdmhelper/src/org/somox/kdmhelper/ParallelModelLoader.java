@@ -0,0 +1,228 @@
+package org.somox.kdmhelper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.log4j.Logger;
+import org.eclipse.emf.common.util.TreeIterator;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.InternalEObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.emf.ecore.util.InternalEList;
+import org.eclipse.emf.ecore.xmi.XMLResource;
+import org.eclipse.emf.ecore.xmi.impl.XMLParserPoolImpl;
+import org.eclipse.gmt.modisco.java.emf.JavaPackage;
+import org.eclipse.gmt.modisco.omg.kdm.kdm.KdmPackage;
+import org.eclipse.gmt.modisco.omg.kdm.source.SourcePackage;
+import org.eclipse.modisco.java.composition.javaapplication.JavaapplicationPackage;
+
+/**
+ * Loads a java2kdm model split into fragments, e.g. one file per project, with several threads. The given files
+ * are parsed first. Every resource is parsed in a private resource set, and the resources referenced by the
+ * proxies of a parsed resource are parsed in the next round, until no unknown resource is referenced. Afterwards,
+ * all resources are moved into a single resource set and all proxies are resolved in one pass.
+ */
+final class ParallelModelLoader {
+
+    private static final Logger logger = Logger.getLogger(ParallelModelLoader.class);
+
+    private final int parallelism;
+
+    private final XMLParserPoolImpl parserPool = new XMLParserPoolImpl(true);
+
+    /**
+     * @param parallelism Number of resources parsed concurrently
+     */
+    ParallelModelLoader(final int parallelism) {
+        super();
+
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Loads the files and all resources they reference.
+     * @param files The files to load
+     * @return The resource set containing all loaded resources with resolved proxies
+     * @throws IOException Thrown if one of the given files cannot be loaded
+     */
+    ResourceSet load(final Collection<URI> files) throws IOException {
+        initializePackages();
+        final ResourceSetImpl result = new ResourceSetImpl();
+        result.setURIResourceMap(new HashMap<URI, Resource>());
+
+        final ExecutorService executor = Executors.newFixedThreadPool(parallelism, new LoaderThreadFactory());
+        try {
+            final Map<URI, Resource> loadedResources = new LinkedHashMap<URI, Resource>();
+            Set<URI> nextRound = new LinkedHashSet<URI>(files);
+            boolean requested = true;
+            while (!nextRound.isEmpty()) {
+                final List<Future<LoadedResource>> round = new ArrayList<Future<LoadedResource>>(nextRound.size());
+                for (final URI uri : nextRound) {
+                    loadedResources.put(uri, null);
+                    round.add(executor.submit(new LoadTask(uri)));
+                }
+                nextRound = new LinkedHashSet<URI>();
+                for (final Future<LoadedResource> future : round) {
+                    final LoadedResource loaded = get(future, requested);
+                    if (loaded == null) {
+                        continue;
+                    }
+                    loadedResources.put(loaded.resource.getURI(), loaded.resource);
+                    for (final URI referencedURI : loaded.referencedResources) {
+                        if (!loadedResources.containsKey(referencedURI)) {
+                            nextRound.add(referencedURI);
+                        }
+                    }
+                }
+                requested = false;
+            }
+
+            for (final Resource resource : loadedResources.values()) {
+                if (resource != null) {
+                    // moves the resource out of its private resource set
+                    result.getResources().add(resource);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        EcoreUtil.resolveAll(result);
+        return result;
+    }
+
+    /**
+     * Initializes the packages of the loaded models on the calling thread. The registry initially only contains
+     * descriptors of the packages, and the generated package initialization is not thread-safe, so the first
+     * concurrent lookup by two loader threads could leave a package partially initialized.
+     */
+    private static void initializePackages() {
+        JavaPackage.eINSTANCE.eClass();
+        JavaapplicationPackage.eINSTANCE.eClass();
+        KdmPackage.eINSTANCE.eClass();
+        SourcePackage.eINSTANCE.eClass();
+    }
+
+    /**
+     * @param requested true if the resource has been requested by the caller; false if it is only referenced
+     * @return The loaded resource; null if a referenced resource could not be loaded
+     */
+    private LoadedResource get(final Future<LoadedResource> future, final boolean requested) throws IOException {
+        try {
+            return future.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading model fragments");
+        } catch (final ExecutionException e) {
+            if (requested) {
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                final IOException ioException = new IOException("Failed to load model fragment");
+                ioException.initCause(e.getCause());
+                throw ioException;
+            }
+            // the proxies stay unresolved as if the model had been loaded lazily
+            logger.warn("Failed to load referenced model fragment", e.getCause());
+            return null;
+        }
+    }
+
+    /**
+     * @return The URIs of all resources referenced by proxies of the resource, without resolving them
+     */
+    private static Set<URI> collectReferencedResources(final Resource resource) {
+        final Set<URI> result = new LinkedHashSet<URI>();
+        for (final TreeIterator<EObject> iterator = EcoreUtil.getAllContents(resource, false); iterator.hasNext();) {
+            final EObject eObject = iterator.next();
+            if (eObject.eIsProxy()) {
+                // contained in another resource
+                result.add(((InternalEObject) eObject).eProxyURI().trimFragment());
+                iterator.prune();
+                continue;
+            }
+            @SuppressWarnings("unchecked")
+            final InternalEList<EObject> crossReferences = (InternalEList<EObject>) eObject.eCrossReferences();
+            for (final Iterator<EObject> references = crossReferences.basicIterator(); references.hasNext();) {
+                final EObject reference = references.next();
+                if (reference != null && reference.eIsProxy()) {
+                    result.add(((InternalEObject) reference).eProxyURI().trimFragment());
+                }
+            }
+        }
+        result.remove(resource.getURI());
+        return result;
+    }
+
+    private static final class LoadedResource {
+
+        private final Resource resource;
+
+        private final Set<URI> referencedResources;
+
+        private LoadedResource(final Resource resource, final Set<URI> referencedResources) {
+            this.resource = resource;
+            this.referencedResources = referencedResources;
+        }
+    }
+
+    /**
+     * Parses one resource in a private resource set
+     */
+    private final class LoadTask implements Callable<LoadedResource> {
+
+        private final URI uri;
+
+        private LoadTask(final URI uri) {
+            this.uri = uri;
+        }
+
+        @Override
+        public LoadedResource call() throws IOException {
+            final ResourceSet resourceSet = KDMReader.createResourceSet(uri);
+            final Resource resource = resourceSet.createResource(uri);
+            if (resource == null) {
+                throw new IOException("No resource factory registered for " + uri);
+            }
+
+            final Map<Object, Object> options = new HashMap<Object, Object>();
+            options.put(XMLResource.OPTION_USE_PARSER_POOL, parserPool);
+            options.put(XMLResource.OPTION_USE_XML_NAME_TO_FEATURE_MAP, new HashMap<Object, Object>());
+            options.put(XMLResource.OPTION_DEFER_IDREF_RESOLUTION, Boolean.TRUE);
+            resource.load(options);
+
+            return new LoadedResource(resource, collectReferencedResources(resource));
+        }
+    }
+
+    private static final class LoaderThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadNumber = new AtomicInteger();
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final Thread result = new Thread(runnable, "somox-model-loader-" + threadNumber.incrementAndGet());
+            result.setDaemon(true);
+            return result;
+        }
+    }
+}
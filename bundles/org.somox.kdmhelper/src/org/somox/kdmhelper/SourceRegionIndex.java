@@ -0,0 +1,155 @@
+package org.somox.kdmhelper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.emf.common.notify.Adapter;
+import org.eclipse.emf.common.notify.Notifier;
+import org.eclipse.emf.common.notify.impl.AdapterImpl;
+import org.eclipse.emf.common.util.TreeIterator;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.gmt.modisco.java.ASTNode;
+import org.eclipse.gmt.modisco.java.CompilationUnit;
+import org.eclipse.gmt.modisco.java.Model;
+import org.eclipse.gmt.modisco.java.Type;
+import org.eclipse.gmt.modisco.omg.kdm.source.SourceFile;
+import org.eclipse.modisco.java.composition.javaapplication.Java2File;
+import org.eclipse.modisco.java.composition.javaapplication.JavaNodeSourceRegion;
+
+/**
+ * Index from the AST nodes of a MoDisco Java model to their source regions, compilation units and source files.
+ * It replaces the evaluation of the MoDisco query {@link org.eclipse.modisco.java.composition.javaapplication.queries.GetASTNodeSourceRegion}
+ * for every node. The index is built in a single pass over the Java application models of the resource set of a
+ * node and attached as adapter to the resource set. Types without a source file, e.g. library types, are
+ * recorded in the same pass. The models must not be modified after the index has been built. The index may be
+ * queried concurrently.
+ */
+public class SourceRegionIndex extends AdapterImpl {
+
+    private final Map<ASTNode, JavaNodeSourceRegion> regions = new HashMap<ASTNode, JavaNodeSourceRegion>();
+
+    /**
+     * Nodes whose source region belongs to a source file
+     */
+    private final Set<ASTNode> nodesWithSourceFile = new HashSet<ASTNode>();
+
+    private SourceRegionIndex(final List<Resource> resources) {
+        super();
+
+        for (final Resource resource : resources) {
+            for (final EObject content : resource.getContents()) {
+                if (content instanceof Model) {
+                    continue; // the Java model itself contains no source regions
+                }
+                final TreeIterator<EObject> iterator = content.eAllContents();
+                while (iterator.hasNext()) {
+                    final EObject element = iterator.next();
+                    if (element instanceof JavaNodeSourceRegion) {
+                        addRegion((JavaNodeSourceRegion) element);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @param node A node of a MoDisco Java model
+     * @return The index of the resource set containing the node; null if the node is not contained in a resource
+     */
+    public static SourceRegionIndex getSourceRegionIndex(final ASTNode node) {
+        final Resource resource = node.eResource();
+        if (resource == null) {
+            return null;
+        }
+        final ResourceSet resourceSet = resource.getResourceSet();
+        final Notifier target = resourceSet == null ? resource : resourceSet;
+        synchronized (target) {
+            for (final Adapter adapter : target.eAdapters()) {
+                if (adapter instanceof SourceRegionIndex) {
+                    return (SourceRegionIndex) adapter;
+                }
+            }
+            final List<Resource> resources = resourceSet == null
+                    ? Collections.singletonList(resource)
+                    : new ArrayList<Resource>(resourceSet.getResources());
+            final SourceRegionIndex result = new SourceRegionIndex(resources);
+            target.eAdapters().add(result);
+            return result;
+        }
+    }
+
+    /**
+     * Removes the index from a resource set or resource after its models have been modified.
+     * @param target The resource set or resource the index is attached to
+     */
+    static void discard(final Notifier target) {
+        synchronized (target) {
+            final Iterator<Adapter> adapters = target.eAdapters().iterator();
+            while (adapters.hasNext()) {
+                if (adapters.next() instanceof SourceRegionIndex) {
+                    adapters.remove();
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean isAdapterForType(final Object type) {
+        return type == SourceRegionIndex.class;
+    }
+
+    /**
+     * @param node The AST node
+     * @return The source region of the node; null if there is none
+     */
+    public JavaNodeSourceRegion getSourceRegion(final ASTNode node) {
+        return regions.get(node);
+    }
+
+    /**
+     * @param node The AST node
+     * @return The file containing the node; null if the node has no source region or the region belongs to no file
+     */
+    public SourceFile getSourceFile(final ASTNode node) {
+        return nodesWithSourceFile.contains(node) ? KDMHelper.getSourceFile(regions.get(node)) : null;
+    }
+
+    /**
+     * @param node The AST node
+     * @return The compilation unit of the file containing the node; null if the node has no source region
+     */
+    public CompilationUnit getCompilationUnit(final ASTNode node) {
+        final JavaNodeSourceRegion region = regions.get(node);
+        if (region != null && region.eContainer() instanceof Java2File) {
+            return ((Java2File) region.eContainer()).getJavaUnit();
+        }
+        return null;
+    }
+
+    /**
+     * @param type The type
+     * @return true if no source file is known for the type, e.g. for types of libraries
+     */
+    public boolean isLibraryType(final Type type) {
+        return !nodesWithSourceFile.contains(type);
+    }
+
+    private void addRegion(final JavaNodeSourceRegion region) {
+        final ASTNode node = region.getJavaNode();
+        if (node == null || regions.containsKey(node)) {
+            return;
+        }
+        regions.put(node, region);
+        if (KDMHelper.getSourceFile(region) != null) {
+            nodesWithSourceFile.add(node);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package org.somox.kdmhelper;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.eclipse.gmt.modisco.java.ASTNode;
+import org.eclipse.gmt.modisco.java.AbstractTypeDeclaration;
+import org.eclipse.gmt.modisco.java.BodyDeclaration;
+import org.eclipse.gmt.modisco.java.Model;
+import org.eclipse.gmt.modisco.java.Package;
+import org.eclipse.gmt.modisco.java.Type;
+import org.eclipse.gmt.modisco.java.TypeAccess;
+import org.eclipse.gmt.modisco.omg.kdm.source.Directory;
+import org.eclipse.gmt.modisco.omg.kdm.source.SourceFile;
+
+/**
+ * Immutable type level view of MoDisco Java models as needed by the clustering and its metrics: the fully qualified
+ * names of types and packages, the surrounding package and source directory of each type and whether a type is an
+ * interface, abstract or an inner class. The snapshot is extracted in a single pass over the packages and type
+ * declarations of the models; method bodies are not visited. Queries for types not contained in the snapshot, e.g.
+ * types created after the extraction, are answered by {@link KDMHelper}. The snapshot may be queried concurrently.
+ * <p>
+ * The snapshot also holds the accesses of each type aggregated by accessed type, see {@link #getAccessCounts(Type)}.
+ * They are aggregated on first request, so the body of a type is traversed once for all consumers of the counts.
+ * The snapshot is a lookup structure for the clustering; it does not replace the models. Method bodies stay loaded,
+ * as the builders, the source code decorator and GAST2SEFF reference the AST nodes of the models.
+ */
+public class StructuralSnapshot {
+
+    private final Map<Type, TypeInfo> types = new HashMap<Type, TypeInfo>();
+
+    private final Map<Package, String> packageNames = new HashMap<Package, String>();
+
+    private final ConcurrentMap<Type, Map<Type, Integer>> accessCounts = new ConcurrentHashMap<Type, Map<Type, Integer>>();
+
+    /**
+     * Extracts the snapshot of the given models.
+     * @param models The Java models
+     */
+    public StructuralSnapshot(final Collection<Model> models) {
+        super();
+
+        for (final Model model : models) {
+            for (final Package pack : model.getOwnedElements()) {
+                addPackage(pack);
+            }
+        }
+    }
+
+    /**
+     * @param type The type
+     * @return The fully qualified name of the type as computed by {@link KDMHelper#computeFullQualifiedName(org.eclipse.gmt.modisco.java.ASTNode)}
+     */
+    public String getQualifiedName(final Type type) {
+        final TypeInfo info = types.get(type);
+        return info == null ? KDMHelper.computeFullQualifiedName(type) : info.qualifiedName;
+    }
+
+    /**
+     * @param pack The package
+     * @return The fully qualified name of the package as computed by {@link KDMHelper#computeFullQualifiedName(org.eclipse.gmt.modisco.java.ASTNode)}
+     */
+    public String getQualifiedName(final Package pack) {
+        final String result = packageNames.get(pack);
+        return result == null ? KDMHelper.computeFullQualifiedName(pack) : result;
+    }
+
+    /**
+     * @param type The type
+     * @return The package directly containing the type, see {@link KDMHelper#getSurroundingPackage(Type)}
+     */
+    public Package getPackage(final Type type) {
+        final TypeInfo info = types.get(type);
+        return info == null ? KDMHelper.getSurroundingPackage(type) : info.pack;
+    }
+
+    /**
+     * @param type The type
+     * @return The directory containing the source file of the type; null if the type has no source file
+     */
+    public Directory getDirectory(final Type type) {
+        final TypeInfo info = types.get(type);
+        return info == null ? getSourceDirectory(type) : info.directory;
+    }
+
+    /**
+     * @param type The type
+     * @return true if the type is an interface, see {@link KDMHelper#isInterface(org.eclipse.gmt.modisco.java.ASTNode)}
+     */
+    public boolean isInterface(final Type type) {
+        final TypeInfo info = types.get(type);
+        return info == null ? KDMHelper.isInterface(type) : info.isInterface;
+    }
+
+    /**
+     * @param type The type
+     * @return true if the type is declared abstract, see {@link KDMHelper#isAbstract(Type)}
+     */
+    public boolean isAbstract(final Type type) {
+        final TypeInfo info = types.get(type);
+        return info == null ? KDMHelper.isAbstract(type) : info.isAbstract;
+    }
+
+    /**
+     * @param type The type
+     * @return true if the type is a class nested in a class, see {@link KDMHelper#isInnerClass(Type)}
+     */
+    public boolean isInnerClass(final Type type) {
+        final TypeInfo info = types.get(type);
+        return info == null ? KDMHelper.isInnerClass(type) : info.isInnerClass;
+    }
+
+    /**
+     * @param type The type
+     * @return The types accessed by the type mapped on the number of accesses, see {@link #countAccesses(Type)}.
+     * 		The counts are aggregated on the first request for the type
+     */
+    public Map<Type, Integer> getAccessCounts(final Type type) {
+        final Map<Type, Integer> result = accessCounts.get(type);
+        if (result != null) {
+            return result;
+        }
+        final Map<Type, Integer> counts = countAccesses(type);
+        final Map<Type, Integer> concurrentCounts = accessCounts.putIfAbsent(type, counts);
+        return concurrentCounts == null ? counts : concurrentCounts;
+    }
+
+    /**
+     * Aggregates the accesses inside a type by the accessed type, see {@link KDMHelper#getAllAccesses(ASTNode)}.
+     * Inheritance type accesses, accesses of the type itself and accesses without an accessed type are not counted.
+     * @param type The type
+     * @return The accessed types mapped on the number of accesses in the order of their first access
+     */
+    public static Map<Type, Integer> countAccesses(final Type type) {
+        final Map<Type, Integer> result = new LinkedHashMap<Type, Integer>();
+        for (final ASTNode access : KDMHelper.getAllAccesses(type)) {
+            if (access instanceof TypeAccess && KDMHelper.isInheritanceTypeAccess((TypeAccess) access)) {
+                continue;
+            }
+            final Type accessedType = GetAccessedType.getAccessedType(access);
+            if (accessedType == null || accessedType == type) {
+                continue;
+            }
+            final Integer count = result.get(accessedType);
+            result.put(accessedType, count == null ? 1 : count + 1);
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    private void addPackage(final Package pack) {
+        packageNames.put(pack, KDMHelper.computeFullQualifiedName(pack));
+        for (final AbstractTypeDeclaration type : pack.getOwnedElements()) {
+            addType(type);
+        }
+        for (final Package subPackage : pack.getOwnedPackages()) {
+            addPackage(subPackage);
+        }
+    }
+
+    private void addType(final AbstractTypeDeclaration type) {
+        types.put(type, new TypeInfo(type));
+        for (final BodyDeclaration bodyDeclaration : type.getBodyDeclarations()) {
+            if (bodyDeclaration instanceof AbstractTypeDeclaration) {
+                addType((AbstractTypeDeclaration) bodyDeclaration);
+            }
+        }
+    }
+
+    private static Directory getSourceDirectory(final Type type) {
+        final SourceFile sourceFile = KDMHelper.getSourceFile(type);
+        if (sourceFile != null && sourceFile.eContainer() instanceof Directory) {
+            return (Directory) sourceFile.eContainer();
+        }
+        return null;
+    }
+
+    private static final class TypeInfo {
+
+        private final String qualifiedName;
+
+        private final Package pack;
+
+        private final Directory directory;
+
+        private final boolean isInterface;
+
+        private final boolean isAbstract;
+
+        private final boolean isInnerClass;
+
+        private TypeInfo(final Type type) {
+            this.qualifiedName = KDMHelper.computeFullQualifiedName(type);
+            this.pack = KDMHelper.getSurroundingPackage(type);
+            this.directory = getSourceDirectory(type);
+            this.isInterface = KDMHelper.isInterface(type);
+            this.isAbstract = KDMHelper.isAbstract(type);
+            this.isInnerClass = KDMHelper.isInnerClass(type);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package org.somox.kdmhelper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.eclipse.emf.common.notify.impl.AdapterImpl;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.gmt.modisco.java.AbstractMethodDeclaration;
+import org.eclipse.gmt.modisco.java.MethodDeclaration;
+import org.eclipse.gmt.modisco.java.SingleVariableDeclaration;
+import org.eclipse.gmt.modisco.java.Type;
+import org.eclipse.gmt.modisco.java.TypeAccess;
+
+/**
+ * Type hierarchy of a MoDisco Java model. The hierarchy is attached as adapter to the root of the model and
+ * obtained by {@link #getTypeHierarchy(EObject)}. All structures are computed on first use of a type and kept
+ * for the lifetime of the model, which must not be modified afterwards:
+ * <ul>
+ * <li>the direct super types of each type,</li>
+ * <li>the methods declared by each type, hashed by their normalised signature.</li>
+ * </ul>
+ * Hence, override and implementation lookups are hash probes. The hierarchy may be queried concurrently.
+ */
+public class TypeHierarchy extends AdapterImpl {
+
+    private final ConcurrentMap<Type, List<Type>> superTypes = new ConcurrentHashMap<Type, List<Type>>();
+
+    private final ConcurrentMap<Type, Map<MethodSignature, MethodDeclaration>> declaredMethods =
+            new ConcurrentHashMap<Type, Map<MethodSignature, MethodDeclaration>>();
+
+    private TypeHierarchy() {
+        super();
+    }
+
+    /**
+     * @param node Any element of a MoDisco Java model
+     * @return The type hierarchy of the model containing the element
+     */
+    public static TypeHierarchy getTypeHierarchy(final EObject node) {
+        final EObject root = EcoreUtil.getRootContainer(node);
+        // the hierarchy is added once per model, usually when the model is loaded, so lookups do not lock
+        final TypeHierarchy result = (TypeHierarchy) EcoreUtil.getExistingAdapter(root, TypeHierarchy.class);
+        if (result != null) {
+            return result;
+        }
+        synchronized (root) {
+            final TypeHierarchy existingHierarchy =
+                    (TypeHierarchy) EcoreUtil.getExistingAdapter(root, TypeHierarchy.class);
+            if (existingHierarchy != null) {
+                return existingHierarchy;
+            }
+            final TypeHierarchy newHierarchy = new TypeHierarchy();
+            root.eAdapters().add(newHierarchy);
+            return newHierarchy;
+        }
+    }
+
+    @Override
+    public boolean isAdapterForType(final Object type) {
+        return type == TypeHierarchy.class;
+    }
+
+    /**
+     * @param type The type
+     * @return The direct super classes and super interfaces of the type as listed by
+     * 		{@link KDMHelper#getInheritanceTypeAccesses(Type)}
+     */
+    public List<Type> getSuperTypes(final Type type) {
+        List<Type> result = superTypes.get(type);
+        if (result == null) {
+            final List<Type> directSuperTypes = new ArrayList<Type>();
+            for (final TypeAccess typeAccess : KDMHelper.getInheritanceTypeAccesses(type)) {
+                if (typeAccess != null) {
+                    directSuperTypes.add(typeAccess.getType());
+                }
+            }
+            result = Collections.unmodifiableList(directSuperTypes);
+            superTypes.putIfAbsent(type, result);
+        }
+        return result;
+    }
+
+    /**
+     * @param type The type to search
+     * @param method A method whose signature is searched
+     * @return The first method declared by type which has the same name, return type and parameter types
+     * 		as method according to {@link EqualityChecker#areFunctionsEqual(AbstractMethodDeclaration, AbstractMethodDeclaration)};
+     * 		null if there is none
+     */
+    public MethodDeclaration getDeclaredMethod(final Type type, final AbstractMethodDeclaration method) {
+        final MethodSignature signature = MethodSignature.of(method);
+        if (type == null || signature == null) {
+            return null;
+        }
+        return getDeclaredMethods(type).get(signature);
+    }
+
+    /**
+     * @param method The method
+     * @return The method redefined by the given method as known to MoDisco, else the first method with the
+     * 		same signature declared by a direct super type; null if there is none
+     * @see KDMHelper#getOverriddenMember(MethodDeclaration)
+     */
+    public MethodDeclaration getOverriddenMember(final MethodDeclaration method) {
+        final MethodDeclaration redefinedMethodDeclaration = method.getRedefinedMethodDeclaration();
+        if (redefinedMethodDeclaration != null) {
+            return redefinedMethodDeclaration;
+        }
+
+        final MethodSignature signature = MethodSignature.of(method);
+        final Type typeOfMethod = method.getAbstractTypeDeclaration();
+        if (signature == null || typeOfMethod == null) {
+            return null;
+        }
+        for (final Type superType : getSuperTypes(typeOfMethod)) {
+            if (superType != null) {
+                final MethodDeclaration result = getDeclaredMethods(superType).get(signature);
+                if (result != null) {
+                    return result;
+                }
+            }
+        }
+        return null;
+    }
+
+    private Map<MethodSignature, MethodDeclaration> getDeclaredMethods(final Type type) {
+        Map<MethodSignature, MethodDeclaration> result = declaredMethods.get(type);
+        if (result == null) {
+            final Map<MethodSignature, MethodDeclaration> methods = new LinkedHashMap<MethodSignature, MethodDeclaration>();
+            for (final MethodDeclaration method : KDMHelper.getMethods(type)) {
+                final MethodSignature signature = MethodSignature.of(method);
+                if (signature != null && !methods.containsKey(signature)) {
+                    methods.put(signature, method);
+                }
+            }
+            result = Collections.unmodifiableMap(methods);
+            declaredMethods.putIfAbsent(type, result);
+        }
+        return result;
+    }
+
+    /**
+     * Normalised method signature: name, return type and parameter types compared by identity.
+     */
+    private static final class MethodSignature {
+
+        private final String name;
+
+        private final Type returnType;
+
+        private final Type[] parameterTypes;
+
+        private final int hash;
+
+        private MethodSignature(final String name, final Type returnType, final Type[] parameterTypes) {
+            this.name = name;
+            this.returnType = returnType;
+            this.parameterTypes = parameterTypes;
+            this.hash = 31 * (31 * name.hashCode() + System.identityHashCode(returnType))
+                    + Arrays.hashCode(parameterTypes);
+        }
+
+        /**
+         * @return The signature of the method; null if it cannot be compared, e.g. for constructors
+         */
+        static MethodSignature of(final AbstractMethodDeclaration method) {
+            if (!(method instanceof MethodDeclaration) || method.getName() == null) {
+                return null;
+            }
+            final TypeAccess returnTypeAccess = ((MethodDeclaration) method).getReturnType();
+            if (returnTypeAccess == null) {
+                return null;
+            }
+            final Type[] parameterTypes = new Type[method.getParameters().size()];
+            for (int i = 0; i < parameterTypes.length; i++) {
+                final SingleVariableDeclaration parameter = method.getParameters().get(i);
+                parameterTypes[i] = parameter.getType() == null ? null : parameter.getType().getType();
+            }
+            return new MethodSignature(method.getName(), returnTypeAccess.getType(), parameterTypes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof MethodSignature)) {
+                return false;
+            }
+            final MethodSignature other = (MethodSignature) obj;
+            if (hash != other.hash || returnType != other.returnType || !name.equals(other.name)
+                    || parameterTypes.length != other.parameterTypes.length) {
+                return false;
+            }
+            for (int i = 0; i < parameterTypes.length; i++) {
+                if (parameterTypes[i] != other.parameterTypes[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package org.somox.kdmhelper;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.apache.log4j.Logger;
+import org.eclipse.emf.common.notify.Notifier;
+import org.eclipse.emf.common.util.TreeIterator;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.gmt.modisco.java.AbstractMethodDeclaration;
+import org.eclipse.gmt.modisco.java.AbstractTypeDeclaration;
+import org.eclipse.gmt.modisco.java.BodyDeclaration;
+import org.eclipse.gmt.modisco.java.EnumConstantDeclaration;
+import org.eclipse.gmt.modisco.java.EnumDeclaration;
+import org.eclipse.gmt.modisco.java.FieldDeclaration;
+import org.eclipse.gmt.modisco.java.Initializer;
+import org.eclipse.gmt.modisco.java.Model;
+import org.eclipse.gmt.modisco.java.Package;
+import org.eclipse.gmt.modisco.java.VariableDeclarationFragment;
+import org.eclipse.modisco.java.composition.javaapplication.JavaNodeSourceRegion;
+
+/**
+ * Reduces the types of a loaded Java model whose fully qualified name matches a pattern, e.g. the SoMoX blacklist,
+ * to stubs. The bodies of their methods and initializers, the initializers of their fields and the anonymous
+ * classes of their enum constants are removed. The declarations themselves are kept, as the remaining model
+ * references them, e.g. as targets of method invocations or as super types. References from the removed
+ * elements which have an opposite are unset, so the kept elements do not list removed elements as their usages.
+ * The source regions of the removed elements are deleted from the Java application models, as they reference
+ * the removed elements and would keep them reachable.
+ * <p>
+ * The models are stubbed after they have been parsed completely. Stubbing reduces the heap retained during the
+ * analysis, the peak heap while loading the models is not reduced.
+ */
+final class TypeStubber {
+
+    private static final Logger logger = Logger.getLogger(TypeStubber.class);
+
+    private final Pattern stubbedTypes;
+
+    private int stubbedTypeCount = 0;
+
+    private int removedElementCount = 0;
+
+    /**
+     * Elements to remove, collected before the first element is removed
+     */
+    private final List<EObject> removals = new ArrayList<EObject>();
+
+    /**
+     * @param stubbedTypes Pattern matching the fully qualified names of the types to stub
+     */
+    TypeStubber(final Pattern stubbedTypes) {
+        super();
+
+        this.stubbedTypes = stubbedTypes;
+    }
+
+    /**
+     * Stubs all matching types of the models.
+     * @param models The Java models
+     */
+    void stub(final Collection<Model> models) {
+        for (final Model model : models) {
+            for (final Package pack : model.getOwnedElements()) {
+                stubPackage(pack);
+            }
+        }
+        if (removals.isEmpty()) {
+            return;
+        }
+
+        final Set<EObject> removedElements = Collections.newSetFromMap(new IdentityHashMap<EObject, Boolean>());
+        for (final EObject element : removals) {
+            removedElements.add(element);
+            for (final TreeIterator<EObject> iterator = element.eAllContents(); iterator.hasNext();) {
+                removedElements.add(iterator.next());
+            }
+        }
+        // regions are deleted before the elements are removed, as references to removed elements cannot be resolved
+        final int removedRegionCount = removeSourceRegions(models, removedElements);
+        for (final EObject removedElement : removedElements) {
+            unsetBidirectionalReferences(removedElement);
+        }
+        for (final EObject element : removals) {
+            EcoreUtil.remove(element);
+        }
+        removedElementCount = removedElements.size();
+        logger.info("Stubbed " + stubbedTypeCount + " blacklisted types, removed " + removedElementCount
+                + " model elements and " + removedRegionCount + " source regions");
+    }
+
+    private void stubPackage(final Package pack) {
+        for (final AbstractTypeDeclaration type : pack.getOwnedElements()) {
+            if (stubbedTypes.matcher(KDMHelper.computeFullQualifiedName(type)).matches()) {
+                stubType(type);
+            }
+        }
+        for (final Package subPackage : pack.getOwnedPackages()) {
+            stubPackage(subPackage);
+        }
+    }
+
+    private void stubType(final AbstractTypeDeclaration type) {
+        stubbedTypeCount++;
+        for (final BodyDeclaration bodyDeclaration : type.getBodyDeclarations()) {
+            if (bodyDeclaration instanceof AbstractMethodDeclaration) {
+                remove(((AbstractMethodDeclaration) bodyDeclaration).getBody());
+            } else if (bodyDeclaration instanceof Initializer) {
+                remove(((Initializer) bodyDeclaration).getBody());
+            } else if (bodyDeclaration instanceof FieldDeclaration) {
+                for (final VariableDeclarationFragment fragment : ((FieldDeclaration) bodyDeclaration).getFragments()) {
+                    remove(fragment.getInitializer());
+                }
+            } else if (bodyDeclaration instanceof AbstractTypeDeclaration) {
+                stubType((AbstractTypeDeclaration) bodyDeclaration);
+            }
+        }
+        if (type instanceof EnumDeclaration) {
+            for (final EnumConstantDeclaration constant : ((EnumDeclaration) type).getEnumConstants()) {
+                remove(constant.getAnonymousClassDeclaration());
+            }
+        }
+    }
+
+    /**
+     * Marks the element and its contents for removal from the model.
+     */
+    private void remove(final EObject element) {
+        if (element != null) {
+            removals.add(element);
+        }
+    }
+
+    /**
+     * Deletes the source regions of the removed elements from the resources of the models which are no Java models,
+     * i.e., from the Java application models. A source region index built before is discarded.
+     * @return The number of deleted source regions
+     */
+    private static int removeSourceRegions(final Collection<Model> models, final Set<EObject> removedElements) {
+        final Set<Resource> resources = new LinkedHashSet<Resource>();
+        final Set<Notifier> indexTargets = new LinkedHashSet<Notifier>();
+        for (final Model model : models) {
+            final Resource resource = model.eResource();
+            if (resource == null) {
+                continue;
+            }
+            if (resource.getResourceSet() == null) {
+                resources.add(resource);
+                indexTargets.add(resource);
+            } else {
+                resources.addAll(resource.getResourceSet().getResources());
+                indexTargets.add(resource.getResourceSet());
+            }
+        }
+
+        final List<JavaNodeSourceRegion> removedRegions = new ArrayList<JavaNodeSourceRegion>();
+        for (final Resource resource : resources) {
+            for (final EObject content : resource.getContents()) {
+                if (content instanceof Model) {
+                    continue; // the Java model itself contains no source regions
+                }
+                for (final TreeIterator<EObject> iterator = content.eAllContents(); iterator.hasNext();) {
+                    final EObject element = iterator.next();
+                    if (element instanceof JavaNodeSourceRegion
+                            && removedElements.contains(((JavaNodeSourceRegion) element).getJavaNode())) {
+                        removedRegions.add((JavaNodeSourceRegion) element);
+                        // nested regions belong to the contents of the removed node
+                        iterator.prune();
+                    }
+                }
+            }
+        }
+        for (final JavaNodeSourceRegion region : removedRegions) {
+            EcoreUtil.remove(region);
+        }
+        for (final Notifier target : indexTargets) {
+            SourceRegionIndex.discard(target);
+        }
+        return removedRegions.size();
+    }
+
+    private static void unsetBidirectionalReferences(final EObject element) {
+        for (final EReference reference : element.eClass().getEAllReferences()) {
+            if (reference.getEOpposite() != null && !reference.isContainment() && !reference.isContainer()
+                    && reference.isChangeable() && !reference.isDerived() && element.eIsSet(reference)) {
+                element.eUnset(reference);
+            }
+        }
+    }
+}
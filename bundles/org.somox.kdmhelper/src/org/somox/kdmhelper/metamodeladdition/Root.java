@@ -16,11 +16,15 @@ import org.eclipse.gmt.modisco.java.Package;
 import org.eclipse.gmt.modisco.java.PrimitiveType;
 import org.eclipse.gmt.modisco.java.Type;
 import org.somox.kdmhelper.KDMHelper;
+import org.somox.kdmhelper.StructuralSnapshot;
+import org.somox.kdmhelper.TypeHierarchy;
 
 public class Root {
 
 	private List<Model> models = new ArrayList<Model>();
 
+	private StructuralSnapshot structuralSnapshot = null;
+
 	public List<Model> getModels() {
 		return models;
 	}
@@ -28,6 +32,23 @@ public class Root {
 	public void addModels(Collection<Model> modelsFromResource) {
 		models.addAll(modelsFromResource);
 		addPackagesToIDMapping(modelsFromResource);
+		for (Model model : modelsFromResource) {
+			// attached before the model is analysed concurrently
+			TypeHierarchy.getTypeHierarchy(model);
+		}
+		synchronized (this) {
+			structuralSnapshot = null;
+		}
+	}
+
+	/**
+	 * @return The type level snapshot of the models, extracted on first use
+	 */
+	public synchronized StructuralSnapshot getStructuralSnapshot() {
+		if (structuralSnapshot == null) {
+			structuralSnapshot = new StructuralSnapshot(models);
+		}
+		return structuralSnapshot;
 	}
 
 	private static HashMap<ASTNode, String> nodeToIDMap = new HashMap<ASTNode, String>();
@@ -1,16 +1,24 @@
 package org.somox.metrics;
 
 import java.text.DecimalFormat;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
 import org.somox.sourcecodedecorator.ComponentImplementingClassesLink;
 
 /**
  * This class stores the computed metric of the relationship between a source and a target component.
+ * The metric results are stored in a primitive array indexed by the slots of the {@link MetricID}s together
+ * with a bit mask of the computed slots. {@link #getResult()} provides a read only map view on the results.
+ * Results may be set concurrently by independent metrics. Results read by a metric have to be set before
+ * the metric is started.
  * 
  * @author  Klaus Krogmann, Steffen Becker
  */
@@ -20,19 +28,59 @@ public class ClusteringRelation {
 
     private final ComponentImplementingClassesLink targetComponent;
 
-    private final Map<MetricID, Double> result = new HashMap<MetricID, Double>();
+    private static final double[] NO_VALUES = new double[0];
 
-    private final Map<MetricID, Double> unmodifiableResult = Collections.unmodifiableMap(result);
+    private static final long[] NO_MASK = new long[0];
+
+    /**
+     * Metric values indexed by the slots of their metric IDs
+     */
+    private double[] values = NO_VALUES;
+
+    /**
+     * Bit mask of the slots for which a value has been computed
+     */
+    private long[] computed = NO_MASK;
+
+    /**
+     * Intermediate quantities shared with the relation in the opposite direction while the pair is computed.
+     * Null until requested and after {@link #releaseIntermediateResults()}
+     */
+    private PairIntermediateResults intermediateResults;
+
+    private int resultCount = 0;
+
+    private final Map<MetricID, Double> unmodifiableResult = new ResultView();
 
     private static DecimalFormat format = new DecimalFormat(".00");
 
     public ClusteringRelation (final ComponentImplementingClassesLink sourceComponent, final ComponentImplementingClassesLink targetComponent) {
-        if (sourceComponent == null || targetComponent == null || sourceComponent == targetComponent) {
-            throw new IllegalArgumentException("Components must not be null or the same in a clustering relation");
+        checkComponents(sourceComponent, targetComponent);
+
+        this.sourceComponent = sourceComponent;
+        this.targetComponent = targetComponent;
+        this.intermediateResults = null;
+        ensureCapacity(MetricSlotTable.getSlotCount() - 1);
+    }
+
+    /**
+     * Create a relation sharing its intermediate quantities with other relations of the same component pair,
+     * usually the relation in the opposite direction.
+     * @param sourceComponent The source component of the relation
+     * @param targetComponent The target component of the relation
+     * @param intermediateResults The intermediate quantities of the component pair
+     */
+    public ClusteringRelation (final ComponentImplementingClassesLink sourceComponent, final ComponentImplementingClassesLink targetComponent,
+            final PairIntermediateResults intermediateResults) {
+        checkComponents(sourceComponent, targetComponent);
+        if (intermediateResults == null || !intermediateResults.isPartOfPair(sourceComponent) || !intermediateResults.isPartOfPair(targetComponent)) {
+            throw new IllegalArgumentException("Intermediate results must belong to the components of the clustering relation");
         }
 
         this.sourceComponent = sourceComponent;
         this.targetComponent = targetComponent;
+        this.intermediateResults = intermediateResults;
+        ensureCapacity(MetricSlotTable.getSlotCount() - 1);
     }
 
     // TODO: Move to somewhere else
@@ -52,20 +100,86 @@ public class ClusteringRelation {
         return Collections.unmodifiableList(Arrays.asList(sourceComponent,targetComponent));
     }
 
-    public void setResultMetric(final MetricID metric, final double value) {
-        if (result.containsKey(metric)) {
+    public synchronized void setResultMetric(final MetricID metric, final double value) {
+        final int slot = metric.getSlot();
+        if (isComputed(slot)) {
             throw new IllegalArgumentException("Metric added to clustering relation is already set");
         }
         if (Double.isNaN(value) || Double.isInfinite(value)) {
             throw new IllegalArgumentException("Metric value is not a valid number. Some computations went wrong");
         }
-        result.put(metric,value);
+        ensureCapacity(slot);
+        values[slot] = value;
+        computed[slot >>> 6] |= 1L << slot;
+        resultCount++;
+    }
+
+    /**
+     * @param metric The metric to check
+     * @return true if a value of the given metric has been stored in this relation
+     */
+    public boolean hasResultMetric(final MetricID metric) {
+        return isComputed(metric.getSlot());
+    }
+
+    /**
+     * Primitive access to a single metric result without boxing.
+     * @param metric The metric whose value is requested
+     * @return The value of the metric
+     * @throws IllegalArgumentException Thrown if the metric has not been computed for this relation
+     */
+    public double getResultMetric(final MetricID metric) {
+        final int slot = metric.getSlot();
+        if (!isComputed(slot)) {
+            throw new IllegalArgumentException("Metric " + metric + " has not been computed for this clustering relation");
+        }
+        return values[slot];
+    }
+
+    /**
+     * @return the intermediate quantities of the component pair of this relation. They are created if
+     * 		they have not been requested yet or have been released
+     */
+    public synchronized PairIntermediateResults getIntermediateResults() {
+        if (intermediateResults == null) {
+            intermediateResults = new PairIntermediateResults(sourceComponent, targetComponent);
+        }
+        return intermediateResults;
+    }
+
+    /**
+     * Drops the intermediate quantities once the metrics of the pair are computed, so that stored relations
+     * do not keep the class sets of their components alive.
+     */
+    public synchronized void releaseIntermediateResults() {
+        intermediateResults = null;
+    }
+
+    private static void checkComponents(
+            final ComponentImplementingClassesLink sourceComponent,
+            final ComponentImplementingClassesLink targetComponent) {
+        if (sourceComponent == null || targetComponent == null || sourceComponent == targetComponent) {
+            throw new IllegalArgumentException("Components must not be null or the same in a clustering relation");
+        }
+    }
+
+    private boolean isComputed(final int slot) {
+        final int word = slot >>> 6;
+        return word < computed.length && (computed[word] & (1L << slot)) != 0;
+    }
+
+    private void ensureCapacity(final int slot) {
+        if (slot >= values.length) {
+            final int newLength = Math.max(slot + 1, MetricSlotTable.getSlotCount());
+            values = Arrays.copyOf(values, newLength);
+            computed = Arrays.copyOf(computed, (newLength + 63) >>> 6);
+        }
     }
 
     @Override
     public String toString() {
         final StringBuilder stringBuilder = new StringBuilder();
-        for (final Map.Entry<MetricID, Double> metricResult : result.entrySet()) {
+        for (final Map.Entry<MetricID, Double> metricResult : unmodifiableResult.entrySet()) {
             final String metricFullName = metricResult.getKey().getMetricID();
             stringBuilder.append(metricFullName.substring(metricFullName.lastIndexOf(".")+1));
             stringBuilder.append(" = ");
@@ -78,4 +192,83 @@ public class ClusteringRelation {
     public Map<MetricID, Double> getResult() {
         return unmodifiableResult;
     }
+
+    /**
+     * Read only map view on the slot indexed results
+     */
+    private final class ResultView extends AbstractMap<MetricID, Double> {
+
+        @Override
+        public int size() {
+            return resultCount;
+        }
+
+        @Override
+        public boolean containsKey(final Object key) {
+            return key instanceof MetricID && hasResultMetric((MetricID) key);
+        }
+
+        @Override
+        public Double get(final Object key) {
+            if (!(key instanceof MetricID)) {
+                return null;
+            }
+            final int slot = ((MetricID) key).getSlot();
+            return isComputed(slot) ? Double.valueOf(values[slot]) : null;
+        }
+
+        @Override
+        public Set<Map.Entry<MetricID, Double>> entrySet() {
+            return new AbstractSet<Map.Entry<MetricID, Double>>() {
+
+                @Override
+                public int size() {
+                    return resultCount;
+                }
+
+                @Override
+                public Iterator<Map.Entry<MetricID, Double>> iterator() {
+                    return new ResultIterator();
+                }
+            };
+        }
+    }
+
+    /**
+     * Iterates the computed slots in slot order
+     */
+    private final class ResultIterator implements Iterator<Map.Entry<MetricID, Double>> {
+
+        private int nextSlot = findComputedSlot(0);
+
+        @Override
+        public boolean hasNext() {
+            return nextSlot >= 0;
+        }
+
+        @Override
+        public Map.Entry<MetricID, Double> next() {
+            if (nextSlot < 0) {
+                throw new NoSuchElementException();
+            }
+            final int slot = nextSlot;
+            nextSlot = findComputedSlot(slot + 1);
+            return new AbstractMap.SimpleImmutableEntry<MetricID, Double>(
+                    MetricSlotTable.getMetricID(slot), values[slot]);
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("Clustering relation results are read only");
+        }
+
+        private int findComputedSlot(final int fromSlot) {
+            for (int slot = fromSlot; slot < values.length; slot++) {
+                if (isComputed(slot)) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+    }
 }
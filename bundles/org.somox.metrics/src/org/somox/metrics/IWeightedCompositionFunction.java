@@ -0,0 +1,17 @@
+package org.somox.metrics;
+
+import java.util.Set;
+
+/**
+ * Composition function whose weights are fixed when the function is created. Child metrics whose values cannot
+ * influence the result with these weights, e.g. as their weight is zero, are not computed by the composed metric.
+ * The function has to compute its result without the values of these metrics.
+ */
+public interface IWeightedCompositionFunction extends ICompositionFunction {
+
+	/**
+	 * @return The IDs of the child metrics whose values cannot influence the result of this function
+	 */
+	public Set<MetricID> getIneffectiveMetrics();
+
+}
@@ -8,6 +8,11 @@ public class MetricID {
 
     private final String metricID;
 
+    /**
+     * Dense slot of this ID in the {@link MetricSlotTable}, resolved on first use
+     */
+    private volatile int slot = -1;
+
     public MetricID(final String id) {
         super();
 
@@ -22,6 +27,18 @@ public class MetricID {
         return metricID;
     }
 
+    /**
+     * @return The dense slot number of this metric ID. Equal metric IDs share the same slot
+     */
+    public int getSlot() {
+        int result = slot;
+        if (result < 0) {
+            result = MetricSlotTable.getSlot(this);
+            slot = result;
+        }
+        return result;
+    }
+
     @Override
     public String toString() {
         return metricID;
@@ -0,0 +1,55 @@
+package org.somox.metrics;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Assigns dense slot numbers to {@link MetricID}s. Each distinct metric ID is registered once and keeps its slot
+ * for the lifetime of the VM. {@link ClusteringRelation}s use the slots to store their results in primitive arrays.
+ */
+final class MetricSlotTable {
+
+    private static final Map<MetricID, Integer> slots = new HashMap<MetricID, Integer>();
+
+    /**
+     * Metric IDs indexed by their slot. Replaced on every registration so that readers need no lock
+     */
+    private static volatile MetricID[] metricIDs = new MetricID[0];
+
+    private MetricSlotTable() {
+        super();
+    }
+
+    /**
+     * @param metricID The metric ID to look up
+     * @return The slot of the metric ID, a new slot is assigned if the ID has not been registered before
+     */
+    static synchronized int getSlot(final MetricID metricID) {
+        final Integer slot = slots.get(metricID);
+        if (slot != null) {
+            return slot;
+        }
+        final int newSlot = metricIDs.length;
+        final MetricID[] newMetricIDs = new MetricID[newSlot + 1];
+        System.arraycopy(metricIDs, 0, newMetricIDs, 0, newSlot);
+        newMetricIDs[newSlot] = metricID;
+        metricIDs = newMetricIDs;
+        slots.put(metricID, newSlot);
+        return newSlot;
+    }
+
+    /**
+     * @param slot A slot previously returned by {@link #getSlot(MetricID)}
+     * @return The metric ID registered for the slot
+     */
+    static MetricID getMetricID(final int slot) {
+        return metricIDs[slot];
+    }
+
+    /**
+     * @return The number of slots assigned so far
+     */
+    static int getSlotCount() {
+        return metricIDs.length;
+    }
+}
@@ -0,0 +1,78 @@
+package org.somox.metrics;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.eclipse.gmt.modisco.java.Type;
+import org.somox.metrics.helper.ComponentToImplementingClassesHelper;
+import org.somox.sourcecodedecorator.ComponentImplementingClassesLink;
+
+/**
+ * Intermediate quantities of a pair of component candidates which are needed by several metrics. The
+ * quantities are computed once on first request and shared by both directed {@link ClusteringRelation}s
+ * of the pair. The returned sets must not be modified by the metrics.
+ */
+public class PairIntermediateResults {
+
+    private final ComponentImplementingClassesLink firstComponent;
+
+    private final ComponentImplementingClassesLink secondComponent;
+
+    private Set<Type> firstComponentClasses = null;
+
+    private Set<Type> secondComponentClasses = null;
+
+    private Set<Type> unionOfImplementingClasses = null;
+
+    public PairIntermediateResults(final ComponentImplementingClassesLink firstComponent, final ComponentImplementingClassesLink secondComponent) {
+        super();
+
+        this.firstComponent = firstComponent;
+        this.secondComponent = secondComponent;
+    }
+
+    /**
+     * @param component The component to check
+     * @return true if the given component is one of the components of this pair
+     */
+    public boolean isPartOfPair(final ComponentImplementingClassesLink component) {
+        return component == firstComponent || component == secondComponent;
+    }
+
+    /**
+     * @param component One of the two components of this pair
+     * @param componentToClassHelper Helper used to derive the implementing classes on first request
+     * @return The classes implementing the given component
+     */
+    public synchronized Set<Type> getImplementingClasses(
+            final ComponentImplementingClassesLink component,
+            final ComponentToImplementingClassesHelper componentToClassHelper) {
+        if (component == firstComponent) {
+            if (firstComponentClasses == null) {
+                firstComponentClasses = componentToClassHelper.deriveImplementingClasses(firstComponent);
+            }
+            return firstComponentClasses;
+        }
+        if (component == secondComponent) {
+            if (secondComponentClasses == null) {
+                secondComponentClasses = componentToClassHelper.deriveImplementingClasses(secondComponent);
+            }
+            return secondComponentClasses;
+        }
+        throw new IllegalArgumentException("Component is not part of this component pair");
+    }
+
+    /**
+     * @param componentToClassHelper Helper used to derive the implementing classes on first request
+     * @return Union of all classes implementing the two components of this pair
+     */
+    public synchronized Set<Type> getUnionOfImplementingClasses(final ComponentToImplementingClassesHelper componentToClassHelper) {
+        if (unionOfImplementingClasses == null) {
+            final Set<Type> union = new HashSet<Type>(getImplementingClasses(firstComponent, componentToClassHelper));
+            union.addAll(getImplementingClasses(secondComponent, componentToClassHelper));
+            unionOfImplementingClasses = Collections.unmodifiableSet(union);
+        }
+        return unionOfImplementingClasses;
+    }
+}
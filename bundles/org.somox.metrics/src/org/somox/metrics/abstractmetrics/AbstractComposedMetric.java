@@ -1,6 +1,10 @@
 package org.somox.metrics.abstractmetrics;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.log4j.Logger;
 import org.eclipse.gmt.modisco.java.Type;
@@ -10,7 +14,9 @@ import org.somox.kdmhelper.metamodeladdition.Root;
 import org.somox.metrics.ClusteringRelation;
 import org.somox.metrics.ICompositionFunction;
 import org.somox.metrics.IMetric;
+import org.somox.metrics.IWeightedCompositionFunction;
 import org.somox.metrics.MetricID;
+import org.somox.metrics.dslvisitor.MetricEvaluationPlan;
 import org.somox.metrics.helper.ClassAccessGraphEdge;
 import org.somox.metrics.helper.ComponentToImplementingClassesHelper;
 
@@ -32,11 +38,22 @@ public abstract class AbstractComposedMetric extends AbstractMetric {
      */
     private IMetric[] allChildMetrics;
 
+    /**
+     * IDs of the child metrics not computed as they cannot influence the value of this metric
+     */
+    private List<MetricID> skippedChildMetrics = Collections.emptyList();
+
     /**
      * Strategy pattern. Contains the strategy how to compose the overall metric based on the single metrics available
      */
     private ICompositionFunction compositionFunction = null;
 
+    /**
+     * Compiled evaluation plan of this metric. If set, the plan replaces the evaluation of the child metrics
+     * and the composition function
+     */
+    private MetricEvaluationPlan evaluationPlan = null;
+
     /* (non-Javadoc)
      * @see org.somox.metrics.Metric#initialize(de.fzi.gast.core.Root, org.somox.configuration.SoMoXConfiguration, java.util.Map, org.jgrapht.DirectedGraph, org.somox.metrics.helper.ComponentToImplementingClassesHelper)
      */
@@ -50,7 +67,35 @@ public abstract class AbstractComposedMetric extends AbstractMetric {
         super.initialize(gastModel, somoxConfiguration, allMetrics, accessGraph, componentToImplementingClassesHelper);
 
         this.compositionFunction = getCompositionFunction(somoxConfiguration);
-        this.allChildMetrics = getChildMetrics(allMetrics);
+        this.allChildMetrics = getEffectiveChildMetrics(getChildMetrics(allMetrics));
+    }
+
+    /**
+     * Removes the child metrics which cannot influence the result of a {@link IWeightedCompositionFunction}
+     * @param childMetrics All child metrics of this metric
+     * @return The child metrics to compute
+     */
+    private IMetric[] getEffectiveChildMetrics(final IMetric[] childMetrics) {
+        if (!(this.compositionFunction instanceof IWeightedCompositionFunction)) {
+            this.skippedChildMetrics = Collections.emptyList();
+            return childMetrics;
+        }
+        final Set<MetricID> ineffectiveMetrics =
+                ((IWeightedCompositionFunction) this.compositionFunction).getIneffectiveMetrics();
+        final List<IMetric> result = new ArrayList<IMetric>(childMetrics.length);
+        final List<MetricID> skipped = new ArrayList<MetricID>();
+        for (final IMetric childMetric : childMetrics) {
+            if (childMetric != null && ineffectiveMetrics.contains(childMetric.getMID())) {
+                skipped.add(childMetric.getMID());
+            } else {
+                result.add(childMetric);
+            }
+        }
+        if (!skipped.isEmpty()) {
+            logger.info("Metric " + getMID() + " skips child metrics without influence on its value: " + skipped);
+        }
+        this.skippedChildMetrics = Collections.unmodifiableList(skipped);
+        return result.toArray(new IMetric[result.size()]);
     }
 
     /* (non-Javadoc)
@@ -59,8 +104,12 @@ public abstract class AbstractComposedMetric extends AbstractMetric {
     @Override
     protected void internalComputeDirected(final ClusteringRelation relationToCompute) {
 
+        if (this.evaluationPlan != null) {
+            this.evaluationPlan.evaluate(relationToCompute);
+            return;
+        }
         for (final IMetric m : this.allChildMetrics) {
-            if (!relationToCompute.getResult().containsKey(m.getMID())) {
+            if (!relationToCompute.hasResultMetric(m.getMID())) {
                 m.computeDirected(relationToCompute);
             }
         }
@@ -102,6 +151,14 @@ public abstract class AbstractComposedMetric extends AbstractMetric {
     protected abstract ICompositionFunction getCompositionFunction(
             SoMoXConfiguration somoxConfiguration);
 
+    /* (non-Javadoc)
+     * @see org.somox.metrics.abstractmetrics.AbstractMetric#getRequiredMetrics()
+     */
+    @Override
+    public IMetric[] getRequiredMetrics() {
+        return allChildMetrics;
+    }
+
     /**
      * @return the allChildMetrics
      */
@@ -109,6 +166,27 @@ public abstract class AbstractComposedMetric extends AbstractMetric {
         return allChildMetrics;
     }
 
+    /**
+     * @return the IDs of the child metrics which are not computed as they cannot influence the value of this metric
+     */
+    public List<MetricID> getSkippedChildMetrics() {
+        return skippedChildMetrics;
+    }
+
+    /**
+     * @return the compiled evaluation plan of this metric or null if the metric is evaluated via its composition function
+     */
+    public MetricEvaluationPlan getEvaluationPlan() {
+        return evaluationPlan;
+    }
+
+    /**
+     * @param evaluationPlan the compiled evaluation plan replacing the composition function of this metric
+     */
+    public void setEvaluationPlan(final MetricEvaluationPlan evaluationPlan) {
+        this.evaluationPlan = evaluationPlan;
+    }
+
     /**
      * @param metrics
      * @param allMetrics
@@ -1,13 +1,18 @@
 package org.somox.metrics.abstractmetrics;
 
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
 import org.apache.log4j.Logger;
+import org.eclipse.gmt.modisco.java.Model;
 import org.eclipse.gmt.modisco.java.Type;
 import org.jgrapht.DirectedGraph;
 import org.somox.configuration.SoMoXConfiguration;
+import org.somox.instrumentation.PerformanceCounters;
+import org.somox.instrumentation.Timer;
+import org.somox.kdmhelper.StructuralSnapshot;
 import org.somox.kdmhelper.metamodeladdition.Root;
 import org.somox.metrics.ClusteringRelation;
 import org.somox.metrics.IMetric;
@@ -46,13 +51,30 @@ public abstract class AbstractMetric implements IMetric {
      */
     private AccessCacheGraph accessGraphCache;
 
+    /**
+     * Type level view of the model used instead of navigating the AST
+     */
+    private StructuralSnapshot structuralSnapshot;
+
+    /**
+     * Compute time and call count of this metric. The time of child metrics
+     * computed on demand is included.
+     */
+    private Timer computeTimer;
+
     /* (non-Javadoc)
      * @see org.somox.metrics.IMetric#computeDirected(eu.qimpress.sourcecodedecorator.ComponentImplementingClassesLink, eu.qimpress.sourcecodedecorator.ComponentImplementingClassesLink, java.util.List)
      */
     @Override
     public void computeDirected (final ClusteringRelation relationToCompute) {
         assert checkMetricPreCondition(relationToCompute);
-        internalComputeDirected(relationToCompute);
+        if (computeTimer == null) {
+            internalComputeDirected(relationToCompute);
+        } else {
+            final long start = System.nanoTime();
+            internalComputeDirected(relationToCompute);
+            computeTimer.record(System.nanoTime() - start);
+        }
         assert checkMetricPostCondition(relationToCompute);
     }
 
@@ -94,6 +116,11 @@ public abstract class AbstractMetric implements IMetric {
         }
         this.accessGraphCache = new AccessCacheGraph(accessGraph);
         this.componentToClassHelper = componentToClassHelper;
+        this.structuralSnapshot = gastModel == null
+                ? new StructuralSnapshot(Collections.<Model>emptyList())
+                : gastModel.getStructuralSnapshot();
+        this.computeTimer = PerformanceCounters.getInstance().timer(
+                "somox_metric_compute_seconds", "metric", getMID().getMetricID());
     }
 
     /**
@@ -112,7 +139,7 @@ public abstract class AbstractMetric implements IMetric {
      */
     protected boolean checkMetricPostCondition(
             final ClusteringRelation relationToCompute) {
-        return relationToCompute.getResult().containsKey(getMID());
+        return relationToCompute.hasResultMetric(getMID());
     }
 
     /**
@@ -122,7 +149,7 @@ public abstract class AbstractMetric implements IMetric {
      * @return true if the precondition holds
      */
     protected boolean checkMetricPreCondition(final ClusteringRelation relationToCompute) {
-        return !relationToCompute.getResult().containsKey(getMID());
+        return !relationToCompute.hasResultMetric(getMID());
     }
 
     /**
@@ -132,6 +159,13 @@ public abstract class AbstractMetric implements IMetric {
         return accessGraphCache;
     }
 
+    /**
+     * @return The type level snapshot of the analysed model
+     */
+    protected StructuralSnapshot getStructuralSnapshot() {
+        return structuralSnapshot;
+    }
+
     /** Helper method used to securely retrieve a metric
      * from a map of metrics
      * @param allMetrics Map of metrics and their IDs
@@ -174,6 +208,45 @@ public abstract class AbstractMetric implements IMetric {
                 this.getComponentToClassHelper().deriveImplementingClasses(component2));
     }
 
+    /**
+     * Helper method which returns the union of the classes implementing the components
+     * of the given relation. The union is computed once per component pair and shared
+     * by all metrics, it must not be modified
+     * @param relationToCompute The relation whose components are considered
+     * @return Union of all classes implementing the source and the target component
+     */
+    protected Set<Type> calculateUnion(final ClusteringRelation relationToCompute) {
+        return relationToCompute.getIntermediateResults().getUnionOfImplementingClasses(this.getComponentToClassHelper());
+    }
+
+    /**
+     * @param relationToCompute The relation whose source component is considered
+     * @return The classes implementing the source component of the relation
+     */
+    protected Set<Type> getSourceClasses(final ClusteringRelation relationToCompute) {
+        return relationToCompute.getIntermediateResults().getImplementingClasses(
+                relationToCompute.getSourceComponent(), this.getComponentToClassHelper());
+    }
+
+    /**
+     * @param relationToCompute The relation whose target component is considered
+     * @return The classes implementing the target component of the relation
+     */
+    protected Set<Type> getTargetClasses(final ClusteringRelation relationToCompute) {
+        return relationToCompute.getIntermediateResults().getImplementingClasses(
+                relationToCompute.getTargetComponent(), this.getComponentToClassHelper());
+    }
+
+    /**
+     * Metrics whose values are read by this metric during its computation. Override if the
+     * metric depends on other metrics. The dependencies are used to schedule the computation
+     * of the metrics of a relation, see {@link org.somox.metrics.registry.MetricDependencyGraph}
+     * @return The metrics this metric depends on, never null
+     */
+    public IMetric[] getRequiredMetrics() {
+        return new IMetric[0];
+    }
+
     /**
      * @return the componentToClassHelper
      */
@@ -6,7 +6,11 @@ import org.somox.configuration.SoMoXConfiguration;
 import org.somox.metrics.ICompositionFunction;
 import org.somox.metrics.MetricID;
 
-
+/**
+ * A metric which weights the value of a single inner metric by the weight of the first step whose upper
+ * bound exceeds the value. The steps are read when the metric is computed, as subclasses usually set them
+ * in their constructors.
+ */
 public abstract class AbstractStepwiseMetric extends AbstractComposedMetric {
 
 	public class BoundAndWeightStruct {
@@ -34,7 +38,6 @@ public abstract class AbstractStepwiseMetric extends AbstractComposedMetric {
 		}
 	}
 	
-	protected BoundAndWeightStruct[] boundsAndWeights = getBoundsAndWeights();
 	private final ICompositionFunction function = new ICompositionFunction() {
 		
 		@Override
@@ -42,7 +45,7 @@ public abstract class AbstractStepwiseMetric extends AbstractComposedMetric {
 				Map<MetricID, Double> metricValues) {
 			assert AbstractStepwiseMetric.this.getAllChildMetrics().length == 1;
 			double innerMetricValue = metricValues.get(AbstractStepwiseMetric.this.getAllChildMetrics()[0].getMID());
-			for (BoundAndWeightStruct range : AbstractStepwiseMetric.this.boundsAndWeights) {
+			for (BoundAndWeightStruct range : AbstractStepwiseMetric.this.getBoundsAndWeights()) {
 				if (innerMetricValue < range.getUpperBound()) {
 					return innerMetricValue * range.getWeight();
 				}
@@ -63,5 +66,8 @@ public abstract class AbstractStepwiseMetric extends AbstractComposedMetric {
 		return true;
 	}
 
+	/**
+	 * @return The steps of this metric, ordered by ascending upper bound
+	 */
 	protected abstract BoundAndWeightStruct[] getBoundsAndWeights();
 }
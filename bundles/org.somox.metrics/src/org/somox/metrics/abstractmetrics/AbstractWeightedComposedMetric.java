@@ -4,22 +4,27 @@ import java.util.Map;
 
 import org.somox.configuration.SoMoXConfiguration;
 import org.somox.metrics.ICompositionFunction;
+import org.somox.metrics.IMetric;
 import org.somox.metrics.MetricID;
 
+/**
+ * A metric which computes itself as the weighted average of its child metrics. The weights are
+ * read when the metric is computed, as subclasses usually set them in their constructors.
+ */
 public abstract class AbstractWeightedComposedMetric extends AbstractComposedMetric {
 
-	private final double[] weights = getWeigths();
-	
 	private final ICompositionFunction function = new ICompositionFunction() {
 		
 		@Override
 		public double computeOverallDirectedMetricValue(
 				Map<MetricID, Double> metricValues) {
+			final double[] weights = AbstractWeightedComposedMetric.this.getWeigths();
+			final IMetric[] childMetrics = AbstractWeightedComposedMetric.this.getAllChildMetrics();
 			double weightSum = 0.0;
 			double weightedSum = 0.0;
-			for (int i = 0; i < AbstractWeightedComposedMetric.this.weights.length; i++) {
-				double metricValue = metricValues.get(AbstractWeightedComposedMetric.this.getAllChildMetrics()[i]);
-				double weight = AbstractWeightedComposedMetric.this.weights[i];
+			for (int i = 0; i < weights.length; i++) {
+				double metricValue = metricValues.get(childMetrics[i].getMID());
+				double weight = weights[i];
 				weightSum += weight;
 				weightedSum += metricValue * weight;
 			}
@@ -33,6 +38,9 @@ public abstract class AbstractWeightedComposedMetric extends AbstractComposedMet
 		return function;
 	}
 
+	/**
+	 * @return The weights of the child metrics, in the order of the child metrics
+	 */
 	protected abstract double[] getWeigths();
 
 	@Override
@@ -3,9 +3,7 @@ package org.somox.metrics.basic;
 import java.util.Set;
 
 import org.eclipse.gmt.modisco.java.Type;
-import org.somox.filter.BaseFilter;
-import org.somox.filter.FilteredCollectionsFactory;
-import org.somox.kdmhelper.KDMHelper;
+import org.somox.kdmhelper.StructuralSnapshot;
 import org.somox.metrics.ClusteringRelation;
 import org.somox.metrics.MetricID;
 import org.somox.metrics.abstractmetrics.AbstractCountingMetric;
@@ -14,21 +12,20 @@ public class AbstractTypesCount extends AbstractCountingMetric {
 
     public static final MetricID METRIC_ID = new MetricID("org.somox.metric.basic.AbstractTypesCount");
 
-    // filter used in this metric, gets abstract classes and interfaces
-    private static final BaseFilter<Type> abstractClassesFilter = new BaseFilter<Type>() {
-
-        @Override
-        public boolean passes(final Type object) {
-            return KDMHelper.isAbstract(object) || KDMHelper.isInterface(object);
-        }
-    };
-
     @Override
     protected void internalComputeDirected (
             final ClusteringRelation relationToCompute) {
 
-        final Set<Type> allClasses = calculateUnion(relationToCompute.getSourceComponent(), relationToCompute.getTargetComponent());
-        relationToCompute.setResultMetric(getMID(), FilteredCollectionsFactory.getFilteredHashSet(abstractClassesFilter, allClasses).size());
+        final Set<Type> allClasses = calculateUnion(relationToCompute);
+        final StructuralSnapshot snapshot = getStructuralSnapshot();
+        // counts abstract classes and interfaces
+        int abstractTypes = 0;
+        for (final Type clazz : allClasses) {
+            if (snapshot.isAbstract(clazz) || snapshot.isInterface(clazz)) {
+                abstractTypes++;
+            }
+        }
+        relationToCompute.setResultMetric(getMID(), abstractTypes);
     }
 
     @Override
@@ -24,7 +24,7 @@ public class AfferentCoupling extends AbstractCountingMetric {
     @Override
     protected void internalComputeDirected(
             final ClusteringRelation relationToCompute) {
-        final Set<Type> internalClasses = calculateUnion(relationToCompute.getSourceComponent(), relationToCompute.getTargetComponent());
+        final Set<Type> internalClasses = calculateUnion(relationToCompute);
         relationToCompute.setResultMetric(METRIC_ID, getAccessGraphCache().calculateNumberOfIncommingAccesses(internalClasses));
     }
 
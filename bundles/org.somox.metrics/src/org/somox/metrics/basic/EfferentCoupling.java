@@ -25,7 +25,7 @@ public class EfferentCoupling extends AbstractCountingMetric {
     protected void internalComputeDirected(
             final ClusteringRelation relationToCompute) {
 
-        final Set<Type> internalClasses = calculateUnion(relationToCompute.getSourceComponent(), relationToCompute.getTargetComponent());
+        final Set<Type> internalClasses = calculateUnion(relationToCompute);
 
         relationToCompute.setResultMetric(METRIC_ID, getAccessGraphCache().calculateNumberOfExternalAccesses(internalClasses));
     }
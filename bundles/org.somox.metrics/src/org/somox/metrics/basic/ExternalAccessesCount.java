@@ -28,7 +28,7 @@ public class ExternalAccessesCount extends AbstractCountingMetric {
             final ClusteringRelation relationToCompute) {
         relationToCompute.setResultMetric(getMID(),
                 getAccessGraphCache().calculateNumberOfExternalAccesses(
-                        this.getComponentToClassHelper().deriveImplementingClasses(relationToCompute.getSourceComponent())));
+                        this.getSourceClasses(relationToCompute)));
     }
 
     @Override
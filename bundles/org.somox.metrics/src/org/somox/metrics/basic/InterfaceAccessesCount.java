@@ -1,12 +1,11 @@
 package org.somox.metrics.basic;
 
+import java.util.HashSet;
 import java.util.Set;
 
 import org.apache.log4j.Logger;
 import org.eclipse.gmt.modisco.java.Type;
-import org.somox.filter.BaseFilter;
-import org.somox.filter.FilteredCollectionsFactory;
-import org.somox.kdmhelper.KDMHelper;
+import org.somox.kdmhelper.StructuralSnapshot;
 import org.somox.metrics.ClusteringRelation;
 import org.somox.metrics.MetricID;
 import org.somox.metrics.abstractmetrics.AbstractCountingMetric;
@@ -17,25 +16,22 @@ public class InterfaceAccessesCount extends AbstractCountingMetric {
 
     public static final MetricID METRIC_ID = new MetricID("org.somox.metrics.basic.InterfaceAccessesCount");
 
-    private final static BaseFilter<Type> interfaceClassesFilter = new BaseFilter<Type>() {
-
-        @Override
-        public boolean passes(final Type clazz) {
-            return KDMHelper.isInterface(clazz);
-        }
-    };
-
     @Override
     protected void internalComputeDirected (
             final ClusteringRelation relationToCompute) {
 
-        final Set<Type> classes1 = this.getComponentToClassHelper().deriveImplementingClasses(relationToCompute.getSourceComponent());
-        final Set<Type> classes2 = this.getComponentToClassHelper().deriveImplementingClasses(relationToCompute.getTargetComponent());
+        final Set<Type> classes1 = this.getSourceClasses(relationToCompute);
+        final Set<Type> classes2 = this.getTargetClasses(relationToCompute);
 
+        final StructuralSnapshot snapshot = getStructuralSnapshot();
+        final Set<Type> interfaces2 = new HashSet<Type>();
+        for (final Type clazz : classes2) {
+            if (snapshot.isInterface(clazz)) {
+                interfaces2.add(clazz);
+            }
+        }
         final long accessesToInterfaces =
-                getAccessGraphCache().calculateNumberOfAccessesToClassesInSet(
-                        classes1,
-                        FilteredCollectionsFactory.getFilteredHashSet(interfaceClassesFilter, classes2));
+                getAccessGraphCache().calculateNumberOfAccessesToClassesInSet(classes1, interfaces2);
         if(logger.isTraceEnabled()) {
             logger.trace(relationToCompute.getSourceComponent() + " --> "+relationToCompute.getTargetComponent() + " Interface Accesses = "+accessesToInterfaces);
         }
@@ -14,8 +14,8 @@ public class InternalAccessesCount extends AbstractCountingMetric {
     @Override
     protected void internalComputeDirected (
             final ClusteringRelation relationToCompute) {
-        final Set<Type> classes1 = this.getComponentToClassHelper().deriveImplementingClasses(relationToCompute.getSourceComponent());
-        final Set<Type> classes2 = this.getComponentToClassHelper().deriveImplementingClasses(relationToCompute.getTargetComponent());
+        final Set<Type> classes1 = this.getSourceClasses(relationToCompute);
+        final Set<Type> classes2 = this.getTargetClasses(relationToCompute);
 
         relationToCompute.setResultMetric(getMID(),
                 getAccessGraphCache().calculateNumberOfAccessesToClassesInSet(
@@ -14,7 +14,7 @@ public class TotalTypesCount extends AbstractCountingMetric {
     @Override
     protected void internalComputeDirected (
             final ClusteringRelation relationToCompute) {
-        final Set<Type> allClasses = calculateUnion(relationToCompute.getSourceComponent(), relationToCompute.getTargetComponent());
+        final Set<Type> allClasses = calculateUnion(relationToCompute);
         relationToCompute.setResultMetric(getMID(), allClasses.size());
     }
 
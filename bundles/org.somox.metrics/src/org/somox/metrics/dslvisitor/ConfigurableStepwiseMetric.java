@@ -34,6 +34,13 @@ public class ConfigurableStepwiseMetric extends AbstractStepwiseMetric {
         return boundsAndWeights;
     }
 
+    /**
+     * @return The ID of the metric to which the steps are applied
+     */
+    MetricID getInnerMetricID() {
+        return innerMetric;
+    }
+
     @Override
     protected IMetric[] getChildMetrics(final Map<MetricID, IMetric> allMetrics) {
         return metricIDToIMetric(new MetricID[]{innerMetric}, allMetrics);
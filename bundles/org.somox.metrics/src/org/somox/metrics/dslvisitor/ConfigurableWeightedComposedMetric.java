@@ -32,6 +32,13 @@ AbstractWeightedComposedMetric {
         return weights;
     }
 
+    /**
+     * @return The IDs of the weighted metrics, in the order of their weights
+     */
+    MetricID[] getChildMetricIDs() {
+        return metrics;
+    }
+
     @Override
     protected IMetric[] getChildMetrics(final Map<MetricID, IMetric> allMetrics) {
         return metricIDToIMetric(metrics,allMetrics);
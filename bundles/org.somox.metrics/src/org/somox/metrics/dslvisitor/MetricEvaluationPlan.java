@@ -0,0 +1,258 @@
+package org.somox.metrics.dslvisitor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.somox.metrics.ClusteringRelation;
+import org.somox.metrics.IMetric;
+import org.somox.metrics.MetricID;
+import org.somox.metrics.abstractmetrics.AbstractStepwiseMetric.BoundAndWeightStruct;
+
+/**
+ * Flat evaluation plan of a metric defined in the metric DSL. The plan is compiled once from the
+ * {@link ConfigurableRatioMetric}s, {@link ConfigurableStepwiseMetric}s and {@link ConfigurableWeightedComposedMetric}s
+ * the metric depends on. It consists of a topologically ordered array of metric slots with precomputed weights and step
+ * tables. Slots of metrics not defined in the DSL (extension point metrics) are computed by their {@link IMetric}
+ * implementation and read once. All other slots are evaluated in a straight-line pass over a <code>double[]</code>
+ * without any map lookups.
+ */
+public final class MetricEvaluationPlan {
+
+    private static final int EXTERNAL = 0;
+    private static final int RATIO = 1;
+    private static final int STEPWISE = 2;
+    private static final int WEIGHTED = 3;
+
+    /**
+     * IDs of the metrics in each slot, in topological order. The last slot is the root metric of the plan.
+     */
+    private final MetricID[] slotMetricIDs;
+
+    /**
+     * Metric implementation of each external slot, null for compiled slots
+     */
+    private final IMetric[] externalMetrics;
+
+    /**
+     * Operation of each slot
+     */
+    private final int[] operations;
+
+    /**
+     * Slot indexes of the operands of each slot
+     */
+    private final int[][] operands;
+
+    /**
+     * Weights of weighted slots or step weights of stepwise slots
+     */
+    private final double[][] weights;
+
+    /**
+     * Upper bounds of stepwise slots
+     */
+    private final double[][] upperBounds;
+
+    /**
+     * Sum of weights of weighted slots
+     */
+    private final double[] weightSums;
+
+    private MetricEvaluationPlan(final List<Slot> slots) {
+        super();
+
+        final int size = slots.size();
+        this.slotMetricIDs = new MetricID[size];
+        this.externalMetrics = new IMetric[size];
+        this.operations = new int[size];
+        this.operands = new int[size][];
+        this.weights = new double[size][];
+        this.upperBounds = new double[size][];
+        this.weightSums = new double[size];
+
+        for (int i = 0; i < size; i++) {
+            final Slot slot = slots.get(i);
+            this.slotMetricIDs[i] = slot.metricID;
+            this.externalMetrics[i] = slot.externalMetric;
+            this.operations[i] = slot.operation;
+            this.operands[i] = slot.operands;
+            this.weights[i] = slot.weights;
+            this.upperBounds[i] = slot.upperBounds;
+            if (slot.operation == WEIGHTED) {
+                double weightSum = 0.0;
+                for (final double weight : slot.weights) {
+                    weightSum += weight;
+                }
+                this.weightSums[i] = weightSum;
+            }
+        }
+    }
+
+    /**
+     * Compile the evaluation plan of the given DSL metric.
+     * @param rootMetric The metric defined in the metric DSL for which to compile the plan
+     * @param allMetrics All registered metrics mapped on their IDs
+     * @return The compiled plan
+     * @throws IllegalArgumentException Thrown if a referenced metric is not registered or the definitions are cyclic
+     */
+    public static MetricEvaluationPlan compile(final IMetric rootMetric, final Map<MetricID, IMetric> allMetrics) {
+        final List<Slot> slots = new ArrayList<Slot>();
+        final Map<MetricID, Integer> slotIndexes = new HashMap<MetricID, Integer>();
+        addSlot(rootMetric, allMetrics, slots, slotIndexes, new HashSet<MetricID>());
+        return new MetricEvaluationPlan(slots);
+    }
+
+    /**
+     * @param metric The metric to check
+     * @return true if the metric is defined in the metric DSL and can be compiled into an evaluation plan
+     */
+    public static boolean isCompilable(final IMetric metric) {
+        return metric instanceof ConfigurableRatioMetric
+                || metric instanceof ConfigurableStepwiseMetric
+                || metric instanceof ConfigurableWeightedComposedMetric;
+    }
+
+    /**
+     * @return The number of slots of this plan
+     */
+    public int getSlotCount() {
+        return slotMetricIDs.length;
+    }
+
+    /**
+     * Evaluate the plan for the given relation. Values of external metrics already stored in the relation are reused,
+     * missing ones are computed. The values of all compiled slots are stored in the relation unless already present.
+     * @param relationToCompute The relation to evaluate
+     */
+    public void evaluate(final ClusteringRelation relationToCompute) {
+        final double[] values = new double[slotMetricIDs.length];
+
+        for (int i = 0; i < values.length; i++) {
+            final int[] slotOperands = operands[i];
+            switch (operations[i]) {
+            case EXTERNAL:
+                if (!relationToCompute.hasResultMetric(slotMetricIDs[i])) {
+                    externalMetrics[i].computeDirected(relationToCompute);
+                }
+                values[i] = relationToCompute.getResultMetric(slotMetricIDs[i]);
+                break;
+            case RATIO:
+                final double denominator = values[slotOperands[1]];
+                values[i] = denominator == 0.0 ? 0.0 : values[slotOperands[0]] / denominator;
+                break;
+            case STEPWISE:
+                final double innerValue = values[slotOperands[0]];
+                final double[] bounds = upperBounds[i];
+                double stepValue = innerValue;
+                for (int step = 0; step < bounds.length; step++) {
+                    if (innerValue < bounds[step]) {
+                        stepValue = innerValue * weights[i][step];
+                        break;
+                    }
+                }
+                values[i] = stepValue;
+                break;
+            case WEIGHTED:
+                final double[] slotWeights = weights[i];
+                double weightedSum = 0.0;
+                for (int child = 0; child < slotOperands.length; child++) {
+                    weightedSum += values[slotOperands[child]] * slotWeights[child];
+                }
+                values[i] = weightedSum / weightSums[i];
+                break;
+            default:
+                throw new IllegalStateException("Unknown operation in metric evaluation plan");
+            }
+        }
+
+        for (int i = 0; i < values.length; i++) {
+            if (operations[i] != EXTERNAL && !relationToCompute.hasResultMetric(slotMetricIDs[i])) {
+                relationToCompute.setResultMetric(slotMetricIDs[i], values[i]);
+            }
+        }
+    }
+
+    private static int addSlot(
+            final IMetric metric,
+            final Map<MetricID, IMetric> allMetrics,
+            final List<Slot> slots,
+            final Map<MetricID, Integer> slotIndexes,
+            final Set<MetricID> metricsInProgress) {
+        final MetricID metricID = metric.getMID();
+        final Integer existingSlot = slotIndexes.get(metricID);
+        if (existingSlot != null) {
+            return existingSlot;
+        }
+        if (!metricsInProgress.add(metricID)) {
+            throw new IllegalArgumentException("Cyclic metric definition detected for metric " + metricID);
+        }
+
+        final Slot slot = new Slot(metricID);
+        if (metric instanceof ConfigurableRatioMetric) {
+            final ConfigurableRatioMetric ratioMetric = (ConfigurableRatioMetric) metric;
+            slot.operation = RATIO;
+            slot.operands = new int[] {
+                    addSlot(getMetric(allMetrics, ratioMetric.getNumeratorMetricID()), allMetrics, slots, slotIndexes, metricsInProgress),
+                    addSlot(getMetric(allMetrics, ratioMetric.getDenominatorMetricID()), allMetrics, slots, slotIndexes, metricsInProgress)
+            };
+        } else if (metric instanceof ConfigurableStepwiseMetric) {
+            final ConfigurableStepwiseMetric stepwiseMetric = (ConfigurableStepwiseMetric) metric;
+            final BoundAndWeightStruct[] steps = stepwiseMetric.getBoundsAndWeights();
+            slot.operation = STEPWISE;
+            slot.operands = new int[] {
+                    addSlot(getMetric(allMetrics, stepwiseMetric.getInnerMetricID()), allMetrics, slots, slotIndexes, metricsInProgress)
+            };
+            slot.upperBounds = new double[steps.length];
+            slot.weights = new double[steps.length];
+            for (int i = 0; i < steps.length; i++) {
+                slot.upperBounds[i] = steps[i].getUpperBound();
+                slot.weights[i] = steps[i].getWeight();
+            }
+        } else if (metric instanceof ConfigurableWeightedComposedMetric) {
+            final ConfigurableWeightedComposedMetric weightedMetric = (ConfigurableWeightedComposedMetric) metric;
+            final MetricID[] children = weightedMetric.getChildMetricIDs();
+            slot.operation = WEIGHTED;
+            slot.operands = new int[children.length];
+            for (int i = 0; i < children.length; i++) {
+                slot.operands[i] = addSlot(getMetric(allMetrics, children[i]), allMetrics, slots, slotIndexes, metricsInProgress);
+            }
+            slot.weights = weightedMetric.getWeigths().clone();
+        } else {
+            slot.operation = EXTERNAL;
+            slot.externalMetric = metric;
+        }
+
+        metricsInProgress.remove(metricID);
+        slots.add(slot);
+        slotIndexes.put(metricID, slots.size() - 1);
+        return slots.size() - 1;
+    }
+
+    private static IMetric getMetric(final Map<MetricID, IMetric> allMetrics, final MetricID metricID) {
+        final IMetric result = allMetrics.get(metricID);
+        if (result == null) {
+            throw new IllegalArgumentException("Configuration error, Metric " + metricID + " needed but not available");
+        }
+        return result;
+    }
+
+    /**
+     * Mutable slot description used while compiling the plan
+     */
+    private static final class Slot {
+        private final MetricID metricID;
+        private IMetric externalMetric = null;
+        private int operation;
+        private int[] operands = new int[0];
+        private double[] weights = null;
+        private double[] upperBounds = null;
+
+        private Slot(final MetricID metricID) {
+            this.metricID = metricID;
+        }
+    }
+}
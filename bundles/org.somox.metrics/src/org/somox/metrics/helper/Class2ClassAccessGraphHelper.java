@@ -1,22 +1,25 @@
 package org.somox.metrics.helper;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.log4j.Logger;
-import org.eclipse.emf.ecore.EObject;
-import org.eclipse.gmt.modisco.java.ASTNode;
 import org.eclipse.gmt.modisco.java.Type;
-import org.eclipse.gmt.modisco.java.TypeAccess;
 import org.jgrapht.DirectedGraph;
 import org.jgrapht.EdgeFactory;
 import org.jgrapht.Graph;
 import org.jgrapht.graph.SimpleDirectedGraph;
 import org.somox.configuration.SoMoXConfiguration;
-import org.somox.filter.AccessedTargetBlacklistFilter;
 import org.somox.filter.BaseFilter;
-import org.somox.filter.EClassBasedFilter;
-import org.somox.kdmhelper.GetAccessedType;
+import org.somox.filter.BlacklistFilter;
+import org.somox.instrumentation.PerformanceCounters;
 import org.somox.kdmhelper.KDMHelper;
+import org.somox.kdmhelper.StructuralSnapshot;
+import org.somox.metrics.util.DerivedModelCache;
 import org.somox.metrics.util.GraphPrinter;
 
 //import de.fzi.gast.accesses.Access;
@@ -31,6 +34,11 @@ import org.somox.metrics.util.GraphPrinter;
 public class Class2ClassAccessGraphHelper {
 	
 	private static final Logger logger = Logger.getLogger(Class2ClassAccessGraphHelper.class);
+
+	/**
+	 * Section of the {@link DerivedModelCache} containing the access graph
+	 */
+	private static final String CACHE_SECTION = "accessgraph";
 	
 	private static final BaseFilter<Type> primitiveTypeFilter = new BaseFilter<Type>() {
 		
@@ -58,7 +66,58 @@ public class Class2ClassAccessGraphHelper {
 	public static DirectedGraph<Type,ClassAccessGraphEdge> computeFilteredClass2ClassAccessGraph(
 			SoMoXConfiguration somoxConfiguration, 
 			Set<Type> componentsImplementingClasses) {
+		return computeFilteredClass2ClassAccessGraph(somoxConfiguration, componentsImplementingClasses, null);
+	}
+
+	/**
+	 * Computes the access graph like {@link #computeFilteredClass2ClassAccessGraph(SoMoXConfiguration, Set)} from the
+	 * access counts aggregated in the structural snapshot of the analysed model.
+	 * @param snapshot The snapshot of the model containing the classes; <code>null</code> to count the accesses
+	 * 		without keeping them
+	 */
+	public static DirectedGraph<Type,ClassAccessGraphEdge> computeFilteredClass2ClassAccessGraph(
+			SoMoXConfiguration somoxConfiguration, 
+			Set<Type> componentsImplementingClasses,
+			StructuralSnapshot snapshot) {
 		
+		final long start = System.nanoTime();
+		final DerivedModelCache cache = DerivedModelCache.open(somoxConfiguration, CACHE_SECTION,
+				componentsImplementingClasses, somoxConfiguration.getBlacklistFilter().getPattern());
+		DirectedGraph<Type,ClassAccessGraphEdge> accessGraph = cache == null ? null : readAccessGraph(cache, componentsImplementingClasses);
+		if (accessGraph == null) {
+			accessGraph = buildAccessGraph(somoxConfiguration, componentsImplementingClasses, snapshot);
+			if (cache != null) {
+				writeAccessGraph(cache, accessGraph);
+			}
+		}
+		PerformanceCounters.getInstance().timer("somox_access_graph_build_seconds").record(System.nanoTime() - start);
+		
+		if (logger.isDebugEnabled()) {
+			GraphPrinter.dumpGraph(
+					new ComponentToImplementingClassesHelper(), 
+					accessGraph, 
+					somoxConfiguration.getFileLocations().getAnalyserInputFile(), 0, 0);
+		}
+		return accessGraph;
+	}
+
+	/**
+	 * Computes the access graph like {@link #computeFilteredClass2ClassAccessGraph(SoMoXConfiguration, Set)} without
+	 * reading or writing the {@link DerivedModelCache}. Used for classes other than the ones of the current analysis,
+	 * e.g. the classes of a previous run, whose graph would replace the cached graph of the current analysis.
+	 * @param componentsImplementingClasses The classes to compute the graph for
+	 * @return A "graph" giving the connections of GAST classes and their number of accesses
+	 */
+	public static DirectedGraph<Type,ClassAccessGraphEdge> computeUncachedFilteredClass2ClassAccessGraph(
+			SoMoXConfiguration somoxConfiguration, 
+			Set<Type> componentsImplementingClasses) {
+		return buildAccessGraph(somoxConfiguration, componentsImplementingClasses, null);
+	}
+
+	private static DirectedGraph<Type,ClassAccessGraphEdge> buildAccessGraph(
+			SoMoXConfiguration somoxConfiguration, 
+			Set<Type> componentsImplementingClasses,
+			StructuralSnapshot snapshot) {
 		DirectedGraph<Type,ClassAccessGraphEdge> accessGraph = new SimpleDirectedGraph<Type, ClassAccessGraphEdge>(edgeFactory);
 		for (Type clazz : primitiveTypeFilter.filter(componentsImplementingClasses)) {
 			accessGraph.addVertex(clazz);
@@ -66,23 +125,75 @@ public class Class2ClassAccessGraphHelper {
 
 		assert noPrimitiveTypesAsVertexes(accessGraph);
 		
-		AccessedTargetBlacklistFilter filter = new AccessedTargetBlacklistFilter(somoxConfiguration.getBlacklistFilter());
+		BlacklistFilter filter = somoxConfiguration.getBlacklistFilter();
+		if (filter == null) {
+			throw new IllegalArgumentException("Blacklistfilter must not be null");
+		}
 		
 		for (Type clazz : componentsImplementingClasses) {
-			addAccessesToGraph(accessGraph, filter, clazz);
+			addAccessesToGraph(accessGraph, filter, clazz, 
+					snapshot == null ? StructuralSnapshot.countAccesses(clazz) : snapshot.getAccessCounts(clazz));
 		}
 		
 		assert noPrimitiveTypesAsVertexes(accessGraph);
-		
-		if (logger.isDebugEnabled()) {
-			GraphPrinter.dumpGraph(
-					new ComponentToImplementingClassesHelper(), 
-					accessGraph, 
-					somoxConfiguration.getFileLocations().getAnalyserInputFile(), 0, 0);
-		}
 		return accessGraph;
 	}
 
+	/**
+	 * Restores the access graph from the cache. Vertices are added in the same order as by
+	 * {@link #buildAccessGraph(SoMoXConfiguration, Set)}, edges in the order they have been written.
+	 * @return The cached graph or <code>null</code> on a cache miss
+	 */
+	private static DirectedGraph<Type,ClassAccessGraphEdge> readAccessGraph(
+			DerivedModelCache cache,
+			Set<Type> componentsImplementingClasses) {
+		DataInputStream input = cache.read();
+		if (input == null) {
+			return null;
+		}
+		try {
+			List<Type> classes = cache.getOrderedClasses();
+			DirectedGraph<Type,ClassAccessGraphEdge> accessGraph = new SimpleDirectedGraph<Type, ClassAccessGraphEdge>(edgeFactory);
+			for (Type clazz : primitiveTypeFilter.filter(componentsImplementingClasses)) {
+				accessGraph.addVertex(clazz);
+			}
+			int edgeCount = input.readInt();
+			for (int i = 0; i < edgeCount; i++) {
+				Type source = classes.get(input.readInt());
+				Type target = classes.get(input.readInt());
+				accessGraph.addEdge(source, target, new ClassAccessGraphEdge(source, target, input.readInt()));
+			}
+			return accessGraph;
+		} catch (IOException e) {
+			logger.warn("Unable to read cached access graph, recomputing it: " + e.getMessage());
+			return null;
+		} finally {
+			cache.close(input);
+		}
+	}
+
+	private static void writeAccessGraph(
+			DerivedModelCache cache,
+			DirectedGraph<Type,ClassAccessGraphEdge> accessGraph) {
+		Map<Type, Integer> classIndex = cache.getClassIndex();
+		DataOutputStream output = null;
+		try {
+			output = cache.write();
+			output.writeInt(accessGraph.edgeSet().size());
+			for (ClassAccessGraphEdge edge : accessGraph.edgeSet()) {
+				output.writeInt(classIndex.get(edge.getSourceClazz()));
+				output.writeInt(classIndex.get(edge.getTargetClazz()));
+				output.writeInt(edge.getCount());
+			}
+			output.close();
+			output = null;
+		} catch (IOException e) {
+			logger.warn("Unable to cache the access graph: " + e.getMessage());
+			cache.close(output);
+			cache.invalidate();
+		}
+	}
+
 	private static boolean noPrimitiveTypesAsVertexes(
 			DirectedGraph<Type, ClassAccessGraphEdge> accessGraph) {
 		boolean result = true;
@@ -92,54 +203,28 @@ public class Class2ClassAccessGraphHelper {
 		return result;
 	}
 
-	private static final EClassBasedFilter<ASTNode> accessFilter = new EClassBasedFilter<ASTNode>(){
-			//new EClass[]{/**accessesPackage.eINSTANCE.getInheritanceTypeAccess()**/});//SOMOXTODOCHANGE
-		@Override//REALLYADDED
-		public boolean passes(EObject object) {//REALLYADDED
-			if(object != null && object instanceof TypeAccess){//REALLYADDED
-				if(KDMHelper.isInheritanceTypeAccess((TypeAccess) object)){//REALLYADDED
-					return false;//REALLYADDED
-				}//REALLYADDED
-			}//REALLYADDED
-			return true;//REALLYADDED
-		}//REALLYADDED
-	};
 	/**
 	 * Compute the outgoing links for the node containing class "clazz". Links pointing to classes which match the blacklist pattern are not created
 	 * @param filter Blacklist match pattern. Used to remove potential targets
 	 * @param clazz The class for which to compute the outgoing links
-	 * @return A set of target classes and their link weights. Weights model the number of accesses between clazz and its respective target
+	 * @param accessCounts The classes accessed by clazz mapped on the number of accesses, see {@link StructuralSnapshot#countAccesses(Type)}
 	 */
 	private static void addAccessesToGraph(
 			Graph<Type,ClassAccessGraphEdge> graph,
-			AccessedTargetBlacklistFilter filter,
-			Type clazz) {
+			BlacklistFilter filter,
+			Type clazz,
+			Map<Type, Integer> accessCounts) {
 				
-		for (ASTNode singleAccess : accessFilter.filter(filter.filter(KDMHelper.getAllAccesses(clazz)))) {
-			
-//			if(singleAccess != null & singleAccess instanceof TypeAccess){ //SOMOXTODOCHANGE was added here because removed in accessFilter creation
-//				if(GASTClassHelper.isInheritanceTypeAccess((TypeAccess) singleAccess)){
-//					System.out.println("was ita");
-//					continue;
-//				}
-//			}
-			
-			Type accessedClass = GetAccessedType.getAccessedType(singleAccess);
-			
-			// Relations between the class itself are not interesting...
-			if (clazz == accessedClass)
+		for (Map.Entry<Type, Integer> accessCount : accessCounts.entrySet()) {
+			Type accessedClass = accessCount.getKey();
+			if (!filter.passes(accessedClass)) {
 				continue;
-			
-			ClassAccessGraphEdge edge = graph.getEdge(clazz, accessedClass);
-			if (edge == null) {
-				if (graph.containsVertex(clazz) && graph.containsVertex(accessedClass)) {
-					edge = graph.addEdge(clazz, accessedClass);
-				} else {
-					logger.trace("Do not add edge between "+clazz+" and "+accessedClass);
-				}
 			}
-			if (edge != null) {
-				edge.incrementCount();
+			
+			if (graph.containsVertex(clazz) && graph.containsVertex(accessedClass)) {
+				graph.addEdge(clazz, accessedClass, new ClassAccessGraphEdge(clazz, accessedClass, accessCount.getValue()));
+			} else {
+				logger.trace("Do not add edge between "+clazz+" and "+accessedClass);
 			}
 		}
 	}
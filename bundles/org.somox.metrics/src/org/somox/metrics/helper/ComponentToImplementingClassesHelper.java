@@ -8,6 +8,8 @@ import java.util.Set;
 
 import org.eclipse.gmt.modisco.java.Type;
 //import de.fzi.gast.types.GASTClass;
+import org.somox.instrumentation.CacheStatistics;
+import org.somox.instrumentation.PerformanceCounters;
 import org.somox.sourcecodedecorator.ComponentImplementingClassesLink;
 import org.somox.sourcecodedecorator.InterfaceSourceCodeLink;
 
@@ -23,6 +25,11 @@ public class ComponentToImplementingClassesHelper {
 	 */
 	private Map<ComponentImplementingClassesLink, Set<Type>> mapOfImplementingClasses;
 
+	/**
+	 * Hits and misses of {@link #mapOfImplementingClasses}
+	 */
+	private final CacheStatistics cacheStatistics = PerformanceCounters.getInstance().cache("somox_implementing_classes_cache");
+
 	/**
 	 * Constructs a new helper 
 	 */
@@ -38,6 +45,7 @@ public class ComponentToImplementingClassesHelper {
 	 */
 	public synchronized Set<Type> deriveImplementingClasses(ComponentImplementingClassesLink componentCandidate) {
 		if(!mapOfImplementingClasses.containsKey(componentCandidate)) {
+			cacheStatistics.miss();
 			
 			//removelater
 //			if(componentCandidate.getImplementingClasses().get(0).getName().equals("ProductStockItemTableModel")){
@@ -62,6 +70,8 @@ public class ComponentToImplementingClassesHelper {
 				 throw new RuntimeException("Component must have associated classes");
 			 }
 			 mapOfImplementingClasses.put(componentCandidate, classSet);
+		} else {
+			cacheStatistics.hit();
 		}
 		Set<Type> result = mapOfImplementingClasses.get(componentCandidate);
 		if (result == null) {
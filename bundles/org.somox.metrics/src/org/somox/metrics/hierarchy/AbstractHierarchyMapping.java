@@ -109,8 +109,8 @@ public abstract class AbstractHierarchyMapping<T extends Object> extends Abstrac
         //			}
         //		}
 
-        final Set<Type> classes1 = this.getComponentToClassHelper().deriveImplementingClasses(relationToCompute.getSourceComponent());
-        final Set<Type> classes2 = this.getComponentToClassHelper().deriveImplementingClasses(relationToCompute.getTargetComponent());
+        final Set<Type> classes1 = this.getSourceClasses(relationToCompute);
+        final Set<Type> classes2 = this.getTargetClasses(relationToCompute);
 
         final TreeNode<T> element1RootPackagesPath = collectPaths(classes1);
         final TreeNode<T> element2RootPackagesPath = collectPaths(classes2);
@@ -128,13 +128,8 @@ public abstract class AbstractHierarchyMapping<T extends Object> extends Abstrac
             assert maxCommonPackageDirectoryHeigthOfElements <= maxHeight;
             //normalize:
             //removelater
-            double rawMeasure;
-            if(this instanceof DirectoryMapping){
-                rawMeasure = (double)(maxCommonPackageDirectoryHeigthOfElements + 3)  / (double)(maxHeight + 3);
-            }
-            else{
-                rawMeasure = (double)(maxCommonPackageDirectoryHeigthOfElements)  / (double)(maxHeight);
-            }
+            final int levelOffset = getLevelOffset();
+            final double rawMeasure = (double)(maxCommonPackageDirectoryHeigthOfElements + levelOffset)  / (double)(maxHeight + levelOffset);
             relationToCompute.setResultMetric(getMID(), convertToNonLinearWeight(rawMeasure));
         }
     }
@@ -155,6 +150,13 @@ public abstract class AbstractHierarchyMapping<T extends Object> extends Abstrac
      */
     protected abstract T getPath(T element);
 
+    /**
+     * @return The number of levels added to the common and the maximum height before normalising them
+     */
+    protected int getLevelOffset() {
+        return 0;
+    }
+
     /**
      * Realizes non-linear weight
      * @param rawMeasure
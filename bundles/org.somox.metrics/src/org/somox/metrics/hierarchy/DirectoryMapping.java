@@ -2,7 +2,6 @@ package org.somox.metrics.hierarchy;
 
 import org.eclipse.gmt.modisco.java.Type;
 import org.eclipse.gmt.modisco.omg.kdm.source.Directory;
-import org.somox.kdmhelper.KDMHelper;
 import org.somox.metrics.MetricID;
 
 //import de.fzi.gast.core.Directory;
@@ -15,6 +14,12 @@ import org.somox.metrics.MetricID;
 public class DirectoryMapping extends AbstractHierarchyMapping<Directory> { 
 	public static final MetricID METRIC_ID = new MetricID("org.somox.metrics.DirectoryMapping");
 
+	/**
+	 * Number of levels added to the common and the maximum directory height, weakens the
+	 * influence of deviating directories
+	 */
+	public static final int LEVEL_OFFSET = 3;
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -24,9 +29,12 @@ public class DirectoryMapping extends AbstractHierarchyMapping<Directory> {
 
 	@Override
 	protected Directory getPath(Type clazz) {
-		if (KDMHelper.getJavaNodeSourceRegion(clazz) == null || KDMHelper.getSourceFile(KDMHelper.getJavaNodeSourceRegion(clazz)) == null)
-			return null;
-		return (Directory) KDMHelper.getSourceFile(KDMHelper.getJavaNodeSourceRegion(clazz)).eContainer();
+		return getStructuralSnapshot().getDirectory(clazz);
+	}
+
+	@Override
+	protected int getLevelOffset() {
+		return LEVEL_OFFSET;
 	}
 
 	@Override
@@ -1,7 +1,6 @@
 package org.somox.metrics.hierarchy;
 
 import org.eclipse.gmt.modisco.java.Type;
-import org.somox.kdmhelper.KDMHelper;
 import org.somox.metrics.MetricID;
 
 //import de.fzi.gast.core.Package;
@@ -25,7 +24,7 @@ public class PackageMapping extends AbstractHierarchyMapping<org.eclipse.gmt.mod
 	@Override
 	protected org.eclipse.gmt.modisco.java.Package getPath(Type clazz) {
 
-		return KDMHelper.getSurroundingPackage(clazz);
+		return getStructuralSnapshot().getPackage(clazz);
 	}
 
 	@Override
@@ -1,8 +1,12 @@
 package org.somox.metrics.naming;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.StringTokenizer;
@@ -20,6 +24,7 @@ import org.somox.metrics.helper.ClassAccessGraphEdge;
 import org.somox.metrics.helper.ComponentToImplementingClassesHelper;
 import org.somox.metrics.tabs.MetricTab;
 import org.somox.metrics.tabs.NameResemblanceTab;
+import org.somox.metrics.util.DerivedModelCache;
 
 import com.wcohen.ss.JaroWinkler;
 import com.wcohen.ss.api.StringDistance;
@@ -83,6 +88,11 @@ public class NameResemblance extends AbstractMetric {
 
     private static final StringDistance resemblanceMetric = new JaroWinkler();
 
+    /**
+     * Section of the {@link DerivedModelCache} containing the pairwise name resemblances
+     */
+    private static final String CACHE_SECTION = "nameresemblance";
+
     /**
      * Cache the pairwise computed name resemblances for a given pair of strings
      */
@@ -112,6 +122,13 @@ public class NameResemblance extends AbstractMetric {
         this.excludedPrefixes = tokenizeString(somoxConfiguration.getExcludedPrefixesForNameResemblance());
         this.excludedSuffixes = tokenizeString(somoxConfiguration.getExcludedSuffixesForNameResemblance());
 
+        final DerivedModelCache cache = DerivedModelCache.open(somoxConfiguration, CACHE_SECTION, accessGraph.vertexSet(),
+                somoxConfiguration.getExcludedPrefixesForNameResemblance(),
+                somoxConfiguration.getExcludedSuffixesForNameResemblance());
+        if (cache != null && readResemblances(cache)) {
+            nameResemblanceMap = Collections.unmodifiableMap(nameResemblanceMap);
+            return;
+        }
 
         for (final Type class1 : accessGraph.vertexSet()) {
             for (final Type class2 : accessGraph.vertexSet()) {
@@ -124,9 +141,58 @@ public class NameResemblance extends AbstractMetric {
             }
         }
         
+        if (cache != null) {
+            writeResemblances(cache);
+        }
         nameResemblanceMap = Collections.unmodifiableMap(nameResemblanceMap);
     }
 
+    /**
+     * Fills the resemblance map from the cache. The resemblances are stored for each pair (i,j), i &lt;= j, of
+     * the ordered classes of the cache.
+     * @return <code>false</code> on a cache miss
+     */
+    private boolean readResemblances(final DerivedModelCache cache) {
+        final DataInputStream input = cache.read();
+        if (input == null) {
+            return false;
+        }
+        try {
+            final List<Type> classes = cache.getOrderedClasses();
+            for (int i = 0; i < classes.size(); i++) {
+                for (int j = i; j < classes.size(); j++) {
+                    nameResemblanceMap.put(new NamePair(classes.get(i), classes.get(j)), input.readDouble());
+                }
+            }
+            return true;
+        } catch (final IOException e) {
+            logger.warn("Unable to read cached name resemblances, recomputing them: " + e.getMessage());
+            nameResemblanceMap.clear();
+            return false;
+        } finally {
+            cache.close(input);
+        }
+    }
+
+    private void writeResemblances(final DerivedModelCache cache) {
+        DataOutputStream output = null;
+        try {
+            output = cache.write();
+            final List<Type> classes = cache.getOrderedClasses();
+            for (int i = 0; i < classes.size(); i++) {
+                for (int j = i; j < classes.size(); j++) {
+                    output.writeDouble(nameResemblanceMap.get(new NamePair(classes.get(i), classes.get(j))));
+                }
+            }
+            output.close();
+            output = null;
+        } catch (final IOException e) {
+            logger.warn("Unable to cache the name resemblances: " + e.getMessage());
+            cache.close(output);
+            cache.invalidate();
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -140,8 +206,8 @@ public class NameResemblance extends AbstractMetric {
         // if (componentCandidate1.isCompositeComponent() || componentCandidate2.isCompositeComponent())
         //	return 0.0;
 
-        final Set<Type> classes1 = this.getComponentToClassHelper().deriveImplementingClasses(relationToCompute.getSourceComponent());
-        final Set<Type> classes2 = this.getComponentToClassHelper().deriveImplementingClasses(relationToCompute.getTargetComponent());
+        final Set<Type> classes1 = this.getSourceClasses(relationToCompute);
+        final Set<Type> classes2 = this.getTargetClasses(relationToCompute);
 
         final int totalCompares = classes1.size() * classes2.size();
 
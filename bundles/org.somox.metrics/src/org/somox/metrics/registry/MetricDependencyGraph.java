@@ -0,0 +1,149 @@
+package org.somox.metrics.registry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.log4j.Logger;
+import org.somox.metrics.ClusteringRelation;
+import org.somox.metrics.IMetric;
+import org.somox.metrics.MetricID;
+import org.somox.metrics.abstractmetrics.AbstractMetric;
+
+/**
+ * Explicit dependency graph of the registered metrics. The dependencies are the metrics a metric reads
+ * during its computation, see {@link AbstractMetric#getRequiredMetrics()}. The graph assigns each metric
+ * a level: metrics without dependencies are on level 0, all other metrics are one level above their
+ * highest dependency. Metrics on the same level are independent of each other and can be computed in
+ * parallel once all lower levels are computed. Shared dependencies are computed only once per relation.
+ * The graph has to be built after all metrics have been initialized.
+ */
+public class MetricDependencyGraph {
+
+    private static final Logger LOG = Logger.getLogger(MetricDependencyGraph.class);
+
+    /**
+     * Level of each metric of the graph
+     */
+    private final Map<MetricID, Integer> levels = new HashMap<MetricID, Integer>();
+
+    /**
+     * @param initializedMetrics All registered metrics, see {@link MetricsRegistry#getRegisteredMetrics()}.
+     * 		The metrics must already be initialized. Metrics with missing or cyclic dependencies are not
+     * 		added to the graph
+     */
+    public MetricDependencyGraph(final Map<MetricID, IMetric> initializedMetrics) {
+        super();
+
+        for (final IMetric metric : initializedMetrics.values()) {
+            try {
+                computeLevel(metric, new HashSet<MetricID>());
+            } catch (final IllegalArgumentException e) {
+                LOG.warn("Metric " + metric.getMID() + " excluded from the metric dependency graph: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @param metric The metric whose dependencies are requested
+     * @return The metrics the given metric directly depends on
+     */
+    public static IMetric[] getRequiredMetrics(final IMetric metric) {
+        if (metric instanceof AbstractMetric) {
+            final IMetric[] result = ((AbstractMetric) metric).getRequiredMetrics();
+            if (result != null) {
+                return result;
+            }
+        }
+        return new IMetric[0];
+    }
+
+    /**
+     * Computes the evaluation levels of the given metric and all its transitive dependencies.
+     * @param rootMetric The metric to compute, it forms the last level
+     * @return The levels in evaluation order, each level contains metrics independent of each other
+     */
+    public List<IMetric[]> getEvaluationLevels(final IMetric rootMetric) {
+        final Set<IMetric> closure = new LinkedHashSet<IMetric>();
+        collectDependencies(rootMetric, closure);
+
+        final int rootLevel = getLevel(rootMetric);
+        final List<List<IMetric>> metricsPerLevel = new ArrayList<List<IMetric>>(rootLevel + 1);
+        for (int i = 0; i <= rootLevel; i++) {
+            metricsPerLevel.add(new ArrayList<IMetric>());
+        }
+        for (final IMetric metric : closure) {
+            metricsPerLevel.get(getLevel(metric)).add(metric);
+        }
+
+        final List<IMetric[]> result = new ArrayList<IMetric[]>(rootLevel + 1);
+        for (final List<IMetric> level : metricsPerLevel) {
+            if (!level.isEmpty()) {
+                result.add(level.toArray(new IMetric[level.size()]));
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * @param metric A metric of this graph
+     * @return The level of the metric
+     */
+    public int getLevel(final IMetric metric) {
+        final Integer result = levels.get(metric.getMID());
+        if (result == null) {
+            throw new IllegalArgumentException("Metric " + metric.getMID() + " is not part of the dependency graph");
+        }
+        return result;
+    }
+
+    /**
+     * Sequentially computes all metrics of the given levels which are not yet contained in the relation.
+     * @param evaluationLevels Levels as returned by {@link #getEvaluationLevels(IMetric)}
+     * @param relationToCompute The relation to compute
+     */
+    public static void computeDirected(final List<IMetric[]> evaluationLevels, final ClusteringRelation relationToCompute) {
+        for (final IMetric[] level : evaluationLevels) {
+            for (final IMetric metric : level) {
+                if (!relationToCompute.hasResultMetric(metric.getMID())) {
+                    metric.computeDirected(relationToCompute);
+                }
+            }
+        }
+    }
+
+    private int computeLevel(final IMetric metric, final Set<MetricID> metricsInProgress) {
+        final Integer knownLevel = levels.get(metric.getMID());
+        if (knownLevel != null) {
+            return knownLevel;
+        }
+        if (!metricsInProgress.add(metric.getMID())) {
+            throw new IllegalArgumentException("Cyclic metric dependency detected for metric " + metric.getMID());
+        }
+
+        int level = 0;
+        for (final IMetric requiredMetric : getRequiredMetrics(metric)) {
+            if (requiredMetric == null) {
+                throw new IllegalArgumentException("Configuration error, a metric needed by " + metric.getMID() + " is not available");
+            }
+            level = Math.max(level, computeLevel(requiredMetric, metricsInProgress) + 1);
+        }
+
+        metricsInProgress.remove(metric.getMID());
+        levels.put(metric.getMID(), level);
+        return level;
+    }
+
+    private void collectDependencies(final IMetric metric, final Set<IMetric> closure) {
+        if (closure.add(metric)) {
+            for (final IMetric requiredMetric : getRequiredMetrics(metric)) {
+                collectDependencies(requiredMetric, closure);
+            }
+        }
+    }
+}
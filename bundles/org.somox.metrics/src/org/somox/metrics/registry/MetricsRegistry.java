@@ -1,10 +1,19 @@
 package org.somox.metrics.registry;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
 import org.apache.log4j.Logger;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IConfigurationElement;
@@ -18,13 +27,21 @@ import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
 import org.somox.metrics.Activator;
 import org.somox.metrics.IMetric;
 import org.somox.metrics.MetricID;
+import org.somox.metrics.abstractmetrics.AbstractComposedMetric;
+import org.somox.metrics.dsl.MetricDSLStandaloneSetup;
 import org.somox.metrics.dsl.metricDSL.Metric;
 import org.somox.metrics.dsl.metricDSL.MetricModel;
 import org.somox.metrics.dslvisitor.DSLConfigurationVisitor;
+import org.somox.metrics.dslvisitor.MetricEvaluationPlan;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
 
 /**
  * A registry storing all registered metrics in the running Eclipse instance. Note that this assumes
- * a reboot of Eclipse on configuration changes.
+ * a reboot of Eclipse on configuration changes. Outside of a running Eclipse instance, e.g. in standalone
+ * runs, the metric extensions are read from the <code>plugin.xml</code> files found on the class path.
  * 
  * @author Steffen Becker
  */
@@ -35,15 +52,23 @@ public class MetricsRegistry {
     private static final String METRIC_FORMULA_ATTRIBUTE_NAME = "metricformula";
     private static final String METRIC_DEFINITION_ATTRIBUTE_NAME = "metric_definition";
     private static final String ORG_SOMOX_CORE_METRIC_EXTENSION_ID = "org.somox.core.metric";
+    private static final String PLUGIN_XML = "plugin.xml";
+    private static final String EXTENSION_ELEMENT_NAME = "extension";
+    private static final String EXTENSION_POINT_ATTRIBUTE = "point";
     private static final Logger LOG = Logger.getLogger(MetricsRegistry.class);
     private static final Map<MetricID, IMetric> registeredMetrics;
 
     static {
-        registeredMetrics = Collections.unmodifiableMap(internalGetRegisteredMetrics());
+        if (Platform.isRunning()) {
+            registeredMetrics = Collections.unmodifiableMap(internalGetRegisteredMetrics());
+        } else {
+            registeredMetrics = Collections.unmodifiableMap(internalGetClassPathMetrics());
+        }
+        compileMetricDefinitions(registeredMetrics);
     }
 
     /**
-     * @return All registered metrics in the running Eclipse instance
+     * @return All registered metrics in the running Eclipse instance or on the class path
      */
     public final static Map<MetricID, IMetric> getRegisteredMetrics() {
         return registeredMetrics;
@@ -66,6 +91,101 @@ public class MetricsRegistry {
         return allMetrics;
     }
 
+    /**
+     * Reads the metric extensions of all <code>plugin.xml</code> files on the class path. Used if no Eclipse
+     * extension registry is available. Metric classes are instantiated by the class loader of this class,
+     * metric definitions are loaded relative to the <code>plugin.xml</code> declaring them.
+     * @return All metrics declared on the class path
+     */
+    private static Map<MetricID, IMetric> internalGetClassPathMetrics() {
+        final Map<MetricID, IMetric> allMetrics = new HashMap<MetricID, IMetric>();
+        final List<URL> metricDefinitionURLs = new ArrayList<URL>();
+        try {
+            final Enumeration<URL> pluginXMLs = MetricsRegistry.class.getClassLoader().getResources(PLUGIN_XML);
+            final DocumentBuilder documentBuilder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
+            while (pluginXMLs.hasMoreElements()) {
+                final URL pluginXML = pluginXMLs.nextElement();
+                final Document document;
+                final InputStream input = pluginXML.openStream();
+                try {
+                    document = documentBuilder.parse(input);
+                } finally {
+                    input.close();
+                }
+                final NodeList extensions = document.getElementsByTagName(EXTENSION_ELEMENT_NAME);
+                for (int i = 0; i < extensions.getLength(); i++) {
+                    final Element extension = (Element) extensions.item(i);
+                    if (ORG_SOMOX_CORE_METRIC_EXTENSION_ID.equals(extension.getAttribute(EXTENSION_POINT_ATTRIBUTE))) {
+                        parseClassPathExtension(allMetrics, metricDefinitionURLs, pluginXML, extension);
+                    }
+                }
+            }
+        } catch (final IOException e) {
+            throw new RuntimeException("Failed to read the metric extensions from the class path", e);
+        } catch (final ParserConfigurationException e) {
+            throw new RuntimeException("Failed to read the metric extensions from the class path", e);
+        } catch (final SAXException e) {
+            throw new RuntimeException("Failed to read the metric extensions from the class path", e);
+        }
+
+        if (!metricDefinitionURLs.isEmpty()) {
+            MetricDSLStandaloneSetup.doSetup();
+        }
+        for (final URL metricDefinitionURL : metricDefinitionURLs) {
+            final MetricModel metricDefinitions = loadResource(URI.createURI(metricDefinitionURL.toString()));
+            addMetricDefinitions(allMetrics, metricDefinitions);
+        }
+        LOG.info("Read " + allMetrics.size() + " metrics from the class path");
+        return allMetrics;
+    }
+
+    private static void parseClassPathExtension(final Map<MetricID, IMetric> allMetrics,
+            final List<URL> metricDefinitionURLs, final URL pluginXML, final Element extension)
+                    throws IOException {
+        final NodeList contributions = extension.getChildNodes();
+        for (int i = 0; i < contributions.getLength(); i++) {
+            if (!(contributions.item(i) instanceof Element)) {
+                continue;
+            }
+            final Element contribution = (Element) contributions.item(i);
+            if (contribution.getTagName().equals(METRIC_ATTRIBUTE_NAME)) {
+                final String metricClass = contribution.getAttribute(METRIC_CLASS_ATTRIBUTE);
+                final Object o;
+                try {
+                    o = Class.forName(metricClass).newInstance();
+                } catch (final Exception e) {
+                    throw new RuntimeException("Could not instanciate metric " + metricClass, e);
+                }
+                if (!(o instanceof IMetric)) {
+                    throw new RuntimeException("Specified analyzer metric " + metricClass + " is not a metric");
+                }
+                allMetrics.put(((IMetric) o).getMID(), (IMetric) o);
+            } else if (contribution.getTagName().equals(METRIC_FORMULA_ATTRIBUTE_NAME)) {
+                metricDefinitionURLs.add(new URL(pluginXML, contribution.getAttribute(METRIC_DEFINITION_ATTRIBUTE_NAME)));
+            }
+        }
+    }
+
+    /**
+     * Compile all metrics defined in the metric DSL into flat evaluation plans. Metrics whose plan cannot
+     * be compiled keep being evaluated by their composition functions.
+     * @param allMetrics All registered metrics
+     */
+    private static void compileMetricDefinitions(final Map<MetricID, IMetric> allMetrics) {
+        for (final IMetric metric : allMetrics.values()) {
+            if (MetricEvaluationPlan.isCompilable(metric)) {
+                try {
+                    final MetricEvaluationPlan plan = MetricEvaluationPlan.compile(metric, allMetrics);
+                    ((AbstractComposedMetric) metric).setEvaluationPlan(plan);
+                    LOG.info("Compiled metric definition " + metric.getMID() + " into evaluation plan with "
+                            + plan.getSlotCount() + " slots");
+                } catch (final IllegalArgumentException e) {
+                    LOG.warn("Unable to compile metric definition " + metric.getMID() + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
     /**
      * @param allMetrics
      * @param metricExtension
@@ -73,8 +193,13 @@ public class MetricsRegistry {
     private static void parseMetricDefinitionModel(final Map<MetricID, IMetric> allMetrics,
             final IConfigurationElement metricExtension) {
         final String resourcePath = metricExtension.getAttribute(METRIC_DEFINITION_ATTRIBUTE_NAME);
-        final MetricModel metricDefinitions = loadResource(metricExtension.getContributor().getName() + "/"
-                + resourcePath);
+        final MetricModel metricDefinitions = loadResource(URI.createPlatformPluginURI(
+                metricExtension.getContributor().getName() + "/" + resourcePath, true));
+        addMetricDefinitions(allMetrics, metricDefinitions);
+    }
+
+    private static void addMetricDefinitions(final Map<MetricID, IMetric> allMetrics,
+            final MetricModel metricDefinitions) {
         if (metricDefinitions != null) {
             for (final Metric metricDefinition : metricDefinitions.getMetrics()) {
                 final IMetric newMetric = parseMetricDefintion(allMetrics,metricDefinition);
@@ -83,20 +208,12 @@ public class MetricsRegistry {
                         allMetrics.put(newMetric.getMID(), newMetric);
                     }
                 } else {
-                    Activator
-                    .getPlugin()
-                    .getLog()
-                    .log(new Status(IStatus.ERROR, Activator.PLUGIN_ID,
-                            "Unable to parse metric from metric defintion, ID was "+metricDefinition.getName()));
+                    logError("Unable to parse metric from metric defintion, ID was "+metricDefinition.getName(), null);
                 }
             }
         } else {
-            Activator
-            .getPlugin()
-            .getLog()
-            .log(new Status(IStatus.ERROR, Activator.PLUGIN_ID,
-                    "Failed to load a metric definition from a metric DSL file. Some metrics might"
-                            + "be unavailable and further errors may occur during SoMoX runs"));
+            logError("Failed to load a metric definition from a metric DSL file. Some metrics might"
+                    + "be unavailable and further errors may occur during SoMoX runs", null);
         }
     }
 
@@ -133,19 +250,29 @@ public class MetricsRegistry {
         return new DSLConfigurationVisitor(allMetrics).doSwitch(metric);
     }
 
-    private static MetricModel loadResource(final String resourcePath) {
+    private static MetricModel loadResource(final URI resourceURI) {
         final ResourceSet rs = new ResourceSetImpl();
-        final Resource r = rs.createResource(URI.createPlatformPluginURI(resourcePath, true));
+        final Resource r = rs.createResource(resourceURI);
         try {
             r.load(new HashMap<Object, Object>());
         } catch (final IOException e) {
+            logError("Failed to load metrics from stored DSL", e);
+            throw new RuntimeException(e);
+        }
+        return (MetricModel) r.getContents().get(0);
+    }
+
+    /**
+     * Logs to the Eclipse error log if available, to the logger otherwise
+     */
+    private static void logError(final String message, final Throwable throwable) {
+        if (Platform.isRunning()) {
             Activator
             .getPlugin()
             .getLog()
-            .log(new Status(IStatus.ERROR, Activator.PLUGIN_ID, Status.OK,
-                    "Failed to load metrics from stored DSL", e));
-            throw new RuntimeException(e);
+            .log(new Status(IStatus.ERROR, Activator.PLUGIN_ID, Status.OK, message, throwable));
+        } else {
+            LOG.error(message, throwable);
         }
-        return (MetricModel) r.getContents().get(0);
     }
 }
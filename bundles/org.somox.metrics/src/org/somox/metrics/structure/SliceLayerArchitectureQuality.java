@@ -4,7 +4,7 @@ import java.util.Set;
 
 import org.eclipse.emf.common.util.EList;
 import org.eclipse.gmt.modisco.java.Type;
-import org.somox.kdmhelper.KDMHelper;
+import org.somox.kdmhelper.StructuralSnapshot;
 import org.somox.metrics.ClusteringRelation;
 import org.somox.metrics.MetricID;
 import org.somox.metrics.abstractmetrics.AbstractMetric;
@@ -39,8 +39,8 @@ public class SliceLayerArchitectureQuality extends AbstractMetric {
         //			}
         //		}
 
-        final Set<Type> classes1 = this.getComponentToClassHelper().deriveImplementingClasses(relationToCompute.getSourceComponent());
-        final Set<Type> classes2 = this.getComponentToClassHelper().deriveImplementingClasses(relationToCompute.getTargetComponent());
+        final Set<Type> classes1 = this.getSourceClasses(relationToCompute);
+        final Set<Type> classes2 = this.getTargetClasses(relationToCompute);
 
         //compute overall prefix
         final org.eclipse.gmt.modisco.java.Package prefixPackage = computePrefix(classes1, classes2);
@@ -113,21 +113,22 @@ public class SliceLayerArchitectureQuality extends AbstractMetric {
      * @return the last package in the package-hierarchy in which all elements are included
      */
     private org.eclipse.gmt.modisco.java.Package computePrefix(final Set<Type> elements1, final Set<Type> elements2) {
+        final StructuralSnapshot snapshot = getStructuralSnapshot();
         String prefix = "";
         boolean prefixFound = false;
         org.eclipse.gmt.modisco.java.Package currentPackage = null;
 
         for (final Type current : elements1) {
-            if (KDMHelper.getSurroundingPackage(current) != null) {
-                currentPackage = KDMHelper.getSurroundingPackage(current);
+            if (snapshot.getPackage(current) != null) {
+                currentPackage = snapshot.getPackage(current);
                 break;
             }
         }
 
         if (currentPackage == null) {
             for (final Type current : elements2) {
-                if (KDMHelper.getSurroundingPackage(current) != null) {
-                    currentPackage = KDMHelper.getSurroundingPackage(current);
+                if (snapshot.getPackage(current) != null) {
+                    currentPackage = snapshot.getPackage(current);
                     break;
                 }
             }
@@ -137,15 +138,15 @@ public class SliceLayerArchitectureQuality extends AbstractMetric {
             return null;
         }
 
-        prefix = KDMHelper.computeFullQualifiedName(currentPackage);
+        prefix = snapshot.getQualifiedName(currentPackage);
 
         while(!prefixFound) {
             prefixFound = true;
 
             for (final Type current : elements1) {
-                if (! KDMHelper.isInnerClass(current)) {
-                    if (KDMHelper.getSurroundingPackage(current) != null) {
-                        if (!KDMHelper.computeFullQualifiedName(KDMHelper.getSurroundingPackage(current)).contains(prefix)) {
+                if (! snapshot.isInnerClass(current)) {
+                    if (snapshot.getPackage(current) != null) {
+                        if (!snapshot.getQualifiedName(snapshot.getPackage(current)).contains(prefix)) {
                             prefixFound = false;
                             break;
                         }
@@ -158,7 +159,7 @@ public class SliceLayerArchitectureQuality extends AbstractMetric {
                 if (currentPackage == null) {
                     return null;
                 } else {
-                    prefix = KDMHelper.computeFullQualifiedName(currentPackage);
+                    prefix = snapshot.getQualifiedName(currentPackage);
                 }
             }
         }
@@ -168,9 +169,9 @@ public class SliceLayerArchitectureQuality extends AbstractMetric {
             prefixFound = true;
 
             for (final Type current : elements2) {
-                if (! KDMHelper.isInnerClass(current)) {
-                    if (KDMHelper.getSurroundingPackage(current)!= null) {
-                        if (!KDMHelper.computeFullQualifiedName(KDMHelper.getSurroundingPackage(current)).contains(prefix)) {
+                if (! snapshot.isInnerClass(current)) {
+                    if (snapshot.getPackage(current)!= null) {
+                        if (!snapshot.getQualifiedName(snapshot.getPackage(current)).contains(prefix)) {
                             prefixFound = false;
                             break;
                         }
@@ -183,7 +184,7 @@ public class SliceLayerArchitectureQuality extends AbstractMetric {
                 if (currentPackage == null) {
                     return null;
                 } else {
-                    prefix = KDMHelper.computeFullQualifiedName(currentPackage);
+                    prefix = snapshot.getQualifiedName(currentPackage);
                 }
             }
         }
@@ -8,7 +8,7 @@ import org.eclipse.emf.common.util.EList;
 import org.eclipse.gmt.modisco.java.Type;
 import org.jgrapht.DirectedGraph;
 import org.somox.configuration.SoMoXConfiguration;
-import org.somox.kdmhelper.KDMHelper;
+import org.somox.kdmhelper.StructuralSnapshot;
 import org.somox.kdmhelper.metamodeladdition.Root;
 import org.somox.metrics.ClusteringRelation;
 import org.somox.metrics.IMetric;
@@ -66,8 +66,9 @@ public class SubsystemComponent extends AbstractMetric{
         //		}
 
         //TODO: Refactor me!!!!
-        final Set<Type> classes1 = this.getComponentToClassHelper().deriveImplementingClasses(relationToCompute.getSourceComponent());
-        final Set<Type> classes2 = this.getComponentToClassHelper().deriveImplementingClasses(relationToCompute.getTargetComponent());
+        final StructuralSnapshot snapshot = getStructuralSnapshot();
+        final Set<Type> classes1 = this.getSourceClasses(relationToCompute);
+        final Set<Type> classes2 = this.getTargetClasses(relationToCompute);
 
         //compute overall prefix
         final org.eclipse.gmt.modisco.java.Package prefixPackage = computePrefix(classes1, classes2);
@@ -98,15 +99,15 @@ public class SubsystemComponent extends AbstractMetric{
         }
         org.eclipse.gmt.modisco.java.Package currentPackage = null;
         for (final Type currentElement : classes1) {
-            currentPackage = KDMHelper.getSurroundingPackage(currentElement);
+            currentPackage = snapshot.getPackage(currentElement);
 
             if (currentPackage != null) {
                 if (subLayer == null) {
                     for (final org.eclipse.gmt.modisco.java.Package slicePackage : slices) {
-                        if (KDMHelper.computeFullQualifiedName(currentPackage).startsWith(KDMHelper.computeFullQualifiedName(slicePackage))) {
+                        if (snapshot.getQualifiedName(currentPackage).startsWith(snapshot.getQualifiedName(slicePackage))) {
                             for (final org.eclipse.gmt.modisco.java.Package layerPackage : layers) {
-                                if (KDMHelper.computeFullQualifiedName(currentPackage).startsWith(KDMHelper.computeFullQualifiedName(slicePackage) + "." + layerPackage.getName())) {
-                                    subLayer = KDMHelper.computeFullQualifiedName(slicePackage) + "." + layerPackage.getName();
+                                if (snapshot.getQualifiedName(currentPackage).startsWith(snapshot.getQualifiedName(slicePackage) + "." + layerPackage.getName())) {
+                                    subLayer = snapshot.getQualifiedName(slicePackage) + "." + layerPackage.getName();
                                     break;
                                 }
                             }
@@ -114,7 +115,7 @@ public class SubsystemComponent extends AbstractMetric{
                         }
                     }
                 } else {
-                    if (! KDMHelper.computeFullQualifiedName(currentPackage).startsWith(subLayer)) {
+                    if (! snapshot.getQualifiedName(currentPackage).startsWith(subLayer)) {
                         relationToCompute.setResultMetric(getMID(), 0.0);
                         return;
                     }
@@ -123,14 +124,14 @@ public class SubsystemComponent extends AbstractMetric{
         }
 
         for (final Type currentElement : classes2) {
-            currentPackage = KDMHelper.getSurroundingPackage(currentElement);
+            currentPackage = snapshot.getPackage(currentElement);
             if (currentPackage != null) {
                 if (subLayer == null) {
                     for (final org.eclipse.gmt.modisco.java.Package slicePackage : slices) {
-                        if (KDMHelper.computeFullQualifiedName(currentPackage).startsWith(KDMHelper.computeFullQualifiedName(slicePackage))) {
+                        if (snapshot.getQualifiedName(currentPackage).startsWith(snapshot.getQualifiedName(slicePackage))) {
                             for (final org.eclipse.gmt.modisco.java.Package layerPackage : layers) {
-                                if (KDMHelper.computeFullQualifiedName(currentPackage).startsWith(KDMHelper.computeFullQualifiedName(slicePackage) + "." + layerPackage.getName())) {
-                                    subLayer = KDMHelper.computeFullQualifiedName(slicePackage) + "." + layerPackage.getName();
+                                if (snapshot.getQualifiedName(currentPackage).startsWith(snapshot.getQualifiedName(slicePackage) + "." + layerPackage.getName())) {
+                                    subLayer = snapshot.getQualifiedName(slicePackage) + "." + layerPackage.getName();
                                     break;
                                 }
                             }
@@ -138,7 +139,7 @@ public class SubsystemComponent extends AbstractMetric{
                         }
                     }
                 } else {
-                    if (! KDMHelper.computeFullQualifiedName(currentPackage).startsWith(subLayer)) {
+                    if (! snapshot.getQualifiedName(currentPackage).startsWith(subLayer)) {
                         relationToCompute.setResultMetric(getMID(), 0.0);
                         return;
                     }
@@ -146,12 +147,21 @@ public class SubsystemComponent extends AbstractMetric{
             }
 
         }
-        sliceArchitectureMetric.computeDirected(relationToCompute);
-        assert relationToCompute.getResult().containsKey(sliceArchitectureMetric.getMID());
-        final double slaq = relationToCompute.getResult().get(sliceArchitectureMetric.getMID());
+        if (!relationToCompute.hasResultMetric(sliceArchitectureMetric.getMID())) {
+            sliceArchitectureMetric.computeDirected(relationToCompute);
+        }
+        final double slaq = relationToCompute.getResultMetric(sliceArchitectureMetric.getMID());
         relationToCompute.setResultMetric(getMID(), slaq);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IMetric[] getRequiredMetrics() {
+        return new IMetric[] { sliceArchitectureMetric };
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -175,6 +185,7 @@ public class SubsystemComponent extends AbstractMetric{
      * @return the last package in the package-hierarchy in which all non-blacklisted elements are included
      */
     private org.eclipse.gmt.modisco.java.Package computePrefix (final Set<Type> elements1, final Set<Type> elements2) {
+        final StructuralSnapshot snapshot = getStructuralSnapshot();
 
         org.eclipse.gmt.modisco.java.Package prefix = null;
 
@@ -187,11 +198,11 @@ public class SubsystemComponent extends AbstractMetric{
 
         while (iterator.hasNext()) {
             final Type current = iterator.next();
-            if (prefix == null && KDMHelper.getSurroundingPackage(current) != null) {
-                prefix = KDMHelper.getSurroundingPackage(current);
+            if (prefix == null && snapshot.getPackage(current) != null) {
+                prefix = snapshot.getPackage(current);
             }
 
-            if (prefix != null && KDMHelper.getSurroundingPackage(current) != null && !KDMHelper.computeFullQualifiedName(current).startsWith(KDMHelper.computeFullQualifiedName(prefix))) {
+            if (prefix != null && snapshot.getPackage(current) != null && !snapshot.getQualifiedName(current).startsWith(snapshot.getQualifiedName(prefix))) {
                 prefix = prefix.getPackage();
                 if (prefix == null) {
                     return null;
@@ -0,0 +1,250 @@
+package org.somox.metrics.util;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.log4j.Logger;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.URIConverter;
+import org.eclipse.gmt.modisco.java.Type;
+import org.somox.configuration.SoMoXConfiguration;
+import org.somox.instrumentation.CacheStatistics;
+import org.somox.instrumentation.PerformanceCounters;
+import org.somox.kdmhelper.KDMHelper;
+
+/**
+ * On-disk cache of structures derived from the model which are expensive to compute but do not depend on the
+ * clustering weights, e.g. the class access graph. Each structure is stored in its own section file in the
+ * folder {@value #CACHE_FOLDER} of the output folder. A section is valid as long as its fingerprint matches.
+ * The fingerprint covers the files of the model containing the classes (URI, length and time stamp), the
+ * fully qualified names of the classes and the configuration values the structure depends on.
+ * <p>
+ * The classes are stored by their index in the list of classes ordered by their fully qualified names, see
+ * {@link #getOrderedClasses()}. The cache is only used if enabled in the {@link SoMoXConfiguration} and if
+ * the fully qualified names of the classes are unique.
+ */
+public class DerivedModelCache {
+
+    /**
+     * Folder in the output folder containing the cache sections
+     */
+    public static final String CACHE_FOLDER = ".somox-cache";
+
+    private static final Logger LOG = Logger.getLogger(DerivedModelCache.class);
+
+    private static final int MAGIC = 0x534d5843;
+
+    private static final int FORMAT_VERSION = 1;
+
+    private final CacheStatistics cacheStatistics = PerformanceCounters.getInstance().cache("somox_derived_model_cache");
+
+    private final URI sectionURI;
+
+    private final String fingerprint;
+
+    private final List<Type> orderedClasses;
+
+    /**
+     * @param sectionURI URI of the section file
+     * @param fingerprint Fingerprint the section file has to match
+     * @param orderedClasses The classes ordered by their fully qualified names
+     */
+    private DerivedModelCache(final URI sectionURI, final String fingerprint, final List<Type> orderedClasses) {
+        super();
+
+        this.sectionURI = sectionURI;
+        this.fingerprint = fingerprint;
+        this.orderedClasses = orderedClasses;
+    }
+
+    /**
+     * Opens a section of the cache for the given classes.
+     * @param somoxConfiguration The configuration of the run, the cache has to be enabled in it
+     * @param section Name of the section, e.g. <code>accessgraph</code>
+     * @param classes The classes the cached structure is derived from
+     * @param configurationValues The configuration values the cached structure depends on
+     * @return The section or <code>null</code> if the cache cannot be used
+     */
+    public static DerivedModelCache open(
+            final SoMoXConfiguration somoxConfiguration,
+            final String section,
+            final Collection<Type> classes,
+            final String... configurationValues) {
+        if (!somoxConfiguration.isDerivedModelCacheEnabled()
+                || somoxConfiguration.getFileLocations().getProjectName() == null) {
+            return null;
+        }
+        final Map<Type, String> names = new HashMap<Type, String>(classes.size() * 2);
+        for (final Type clazz : classes) {
+            names.put(clazz, KDMHelper.computeFullQualifiedName(clazz));
+        }
+        final List<Type> orderedClasses = new ArrayList<Type>(classes);
+        Collections.sort(orderedClasses, new Comparator<Type>() {
+            @Override
+            public int compare(final Type type1, final Type type2) {
+                return names.get(type1).compareTo(names.get(type2));
+            }
+        });
+
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+            update(digest, section + FORMAT_VERSION);
+            final Set<Resource> modelResources = new LinkedHashSet<Resource>();
+            String previousName = null;
+            for (final Type clazz : orderedClasses) {
+                final String name = names.get(clazz);
+                if (name.equals(previousName)) {
+                    LOG.info("Derived model cache disabled as the class name " + name + " is not unique");
+                    return null;
+                }
+                update(digest, name);
+                previousName = name;
+                if (clazz.eResource() != null) {
+                    modelResources.add(clazz.eResource());
+                }
+            }
+            for (final Resource resource : modelResources) {
+                final Map<String, ?> attributes = resource.getResourceSet() == null
+                        ? URIConverter.INSTANCE.getAttributes(resource.getURI(), null)
+                        : resource.getResourceSet().getURIConverter().getAttributes(resource.getURI(), null);
+                final Object timeStamp = attributes.get(URIConverter.ATTRIBUTE_TIME_STAMP);
+                if (timeStamp == null) {
+                    LOG.info("Derived model cache disabled as the time stamp of " + resource.getURI() + " is unknown");
+                    return null;
+                }
+                update(digest, resource.getURI().toString());
+                update(digest, String.valueOf(attributes.get(URIConverter.ATTRIBUTE_LENGTH)));
+                update(digest, timeStamp.toString());
+            }
+            for (final String value : configurationValues) {
+                update(digest, String.valueOf(value));
+            }
+        } catch (final NoSuchAlgorithmException e) {
+            LOG.warn("Derived model cache disabled: " + e.getMessage());
+            return null;
+        }
+
+        final StringBuilder hexFingerprint = new StringBuilder();
+        for (final byte b : digest.digest()) {
+            hexFingerprint.append(String.format("%02x", b & 0xff));
+        }
+        String outputFolder = somoxConfiguration.getFileLocations().getOutputFolder();
+        outputFolder = outputFolder == null ? "" : outputFolder.replaceAll("^/+|/+$", "");
+        final URI sectionURI = URI.createPlatformResourceURI(
+                somoxConfiguration.getFileLocations().getProjectName() + "/"
+                        + (outputFolder.length() == 0 ? "" : outputFolder + "/")
+                        + CACHE_FOLDER + "/" + section + ".cache", true);
+        return new DerivedModelCache(sectionURI, hexFingerprint.toString(), orderedClasses);
+    }
+
+    /**
+     * @return The classes of this section ordered by their fully qualified names. Cached structures refer to
+     * 		classes by their index in this list
+     */
+    public List<Type> getOrderedClasses() {
+        return Collections.unmodifiableList(orderedClasses);
+    }
+
+    /**
+     * @return A map of the classes of this section on their index in {@link #getOrderedClasses()}
+     */
+    public Map<Type, Integer> getClassIndex() {
+        final Map<Type, Integer> result = new HashMap<Type, Integer>(orderedClasses.size() * 2);
+        for (int i = 0; i < orderedClasses.size(); i++) {
+            result.put(orderedClasses.get(i), i);
+        }
+        return result;
+    }
+
+    /**
+     * Opens the section file for reading if it exists and matches the fingerprint.
+     * @return A stream positioned at the start of the cached structure or <code>null</code> on a cache miss.
+     * 		The caller has to close the stream
+     */
+    public DataInputStream read() {
+        try {
+            if (!URIConverter.INSTANCE.exists(sectionURI, null)) {
+                cacheStatistics.miss();
+                return null;
+            }
+            final DataInputStream input = new DataInputStream(
+                    new GZIPInputStream(URIConverter.INSTANCE.createInputStream(sectionURI)));
+            if (input.readInt() == MAGIC && fingerprint.equals(input.readUTF())) {
+                cacheStatistics.hit();
+                LOG.info("Using cached " + sectionURI.lastSegment());
+                return input;
+            }
+            input.close();
+        } catch (final IOException e) {
+            LOG.warn("Unable to read derived model cache " + sectionURI + ": " + e.getMessage());
+        }
+        cacheStatistics.miss();
+        return null;
+    }
+
+    /**
+     * Opens the section file for writing and writes the fingerprint.
+     * @return A stream to write the structure to, the caller has to close the stream
+     * @throws IOException if the section file cannot be created
+     */
+    public DataOutputStream write() throws IOException {
+        final DataOutputStream output = new DataOutputStream(
+                new GZIPOutputStream(URIConverter.INSTANCE.createOutputStream(sectionURI)));
+        output.writeInt(MAGIC);
+        output.writeUTF(fingerprint);
+        return output;
+    }
+
+    /**
+     * Closes a stream obtained by {@link #read()} or {@link #write()} and logs failures.
+     * @param stream The stream to close or <code>null</code>
+     */
+    public void close(final Closeable stream) {
+        if (stream == null) {
+            return;
+        }
+        try {
+            stream.close();
+        } catch (final IOException e) {
+            LOG.warn("Unable to close derived model cache " + sectionURI + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Deletes the section file after reading or writing failed.
+     */
+    public void invalidate() {
+        try {
+            URIConverter.INSTANCE.delete(sectionURI, null);
+        } catch (final IOException e) {
+            LOG.warn("Unable to delete derived model cache " + sectionURI + ": " + e.getMessage());
+        }
+    }
+
+    private static void update(final MessageDigest digest, final String value) {
+        try {
+            digest.update(value.getBytes("UTF-8"));
+            digest.update((byte) 0);
+        } catch (final UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -1,10 +1,26 @@
 package org.somox.metrics.util;
 
+import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
+import java.util.zip.GZIPOutputStream;
 
 import org.apache.log4j.Logger;
 import org.eclipse.core.resources.IContainer;
@@ -13,7 +29,11 @@ import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.gmt.modisco.java.Type;
 import org.jgrapht.Graph;
+import org.somox.instrumentation.PerformanceCounters;
 import org.somox.kdmhelper.KDMHelper;
+import org.somox.metrics.ClusteringRelation;
+import org.somox.metrics.MetricID;
+import org.somox.metrics.helper.ClassAccessGraphEdge;
 import org.somox.metrics.helper.ComponentToImplementingClassesHelper;
 //import de.fzi.gast.types.GASTClass;
 import org.somox.sourcecodedecorator.ComponentImplementingClassesLink;
@@ -21,7 +41,21 @@ import org.somox.sourcecodedecorator.ComponentImplementingClassesLink;
 /**
  * Helper class used in SoMoX to dump internal graphs in GraphML and DOT file format for debugging
  * and metric calibration
- * 
+ * <p>
+ * Dumps are written by a background thread. The caller only copies the vertices and edges of the graph, the
+ * files are written with buffered streams. If {@link #QUEUE_CAPACITY} dumps are pending, the caller writes the
+ * dump itself, which bounds the memory held by pending dumps. Dumps are enabled in trace mode or by the system
+ * property {@value #ENABLED_PROPERTY}. The following system properties configure the dumps:
+ * <ul>
+ * <li>{@value #COMPRESS_PROPERTY}: <code>true</code> to write gzip compressed files</li>
+ * <li>{@value #MIN_WEIGHT_PROPERTY}: edges with a lower weight are omitted</li>
+ * <li>{@value #TOP_K_PROPERTY}: only the given number of edges with the highest weights are kept per source
+ * vertex</li>
+ * <li>{@value #WEIGHT_METRIC_PROPERTY}: ID of the metric used as weight of clustering relations, by default the
+ * highest metric value of a relation is used</li>
+ * </ul>
+ * The weight of an access graph edge is its access count. Other edges are never omitted.
+ *
  * @author Steffen Becker
  */
 public class GraphPrinter {
@@ -31,17 +65,44 @@ public class GraphPrinter {
 
     public static final String graphFolderSegment = "/dotClusterTrace";
 
+    public static final String ENABLED_PROPERTY = "org.somox.graphdump.enabled";
+    public static final String COMPRESS_PROPERTY = "org.somox.graphdump.compress";
+    public static final String MIN_WEIGHT_PROPERTY = "org.somox.graphdump.minWeight";
+    public static final String TOP_K_PROPERTY = "org.somox.graphdump.topK";
+    public static final String WEIGHT_METRIC_PROPERTY = "org.somox.graphdump.weightMetric";
+
+    /**
+     * Maximum number of dumps waiting for the background writer
+     */
+    private static final int QUEUE_CAPACITY = 4;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
     /**
      * Logger of this helper class
      */
     private static Logger logger = Logger.getLogger(GraphPrinter.class);
 
+    /**
+     * Background writer, created on first use
+     */
+    private static ThreadPoolExecutor writer = null;
+
+    /**
+     * @return <code>true</code> if graphs should be dumped, i.e., in trace mode or if enabled by
+     * 		{@value #ENABLED_PROPERTY}
+     */
+    public static boolean isEnabled() {
+        return logger.isTraceEnabled() || Boolean.getBoolean(ENABLED_PROPERTY);
+    }
+
     /**
      * Clean the given folder recursively to allow dumping of new graphs
      * @param outputFolder The folder to delete
      */
     public static void cleanOutputFolder(final String outputFolder) {
-        if (logger.isTraceEnabled()) { // only run in trace mode
+        if (isEnabled()) { // only run in trace mode
+            awaitPendingDumps();
             final String fileURIString = getFileURI(outputFolder);
             if (fileURIString != null) {
                 final File baseDirectory = new File(fileURIString+graphFolderSegment);
@@ -86,12 +147,54 @@ public class GraphPrinter {
                 filename += ".full";
             }
 
-            dumpGraphToDot(componentToClassesHelper, relationshipGraph, filename+".dot");
-            dumpGraphToGML(componentToClassesHelper, relationshipGraph, filename+".gml");
+            final GraphDump<V, T> dump = new GraphDump<V, T>(componentToClassesHelper, relationshipGraph, filename);
+            getWriter().execute(dump);
         }
 
     }
 
+    /**
+     * Blocks until all pending dumps have been written.
+     */
+    public static void awaitPendingDumps() {
+        final ThreadPoolExecutor currentWriter;
+        synchronized (GraphPrinter.class) {
+            currentWriter = writer;
+        }
+        if (currentWriter == null) {
+            return;
+        }
+        try {
+            // the writer has a single thread, so all dumps submitted before the marker are written when it completes
+            currentWriter.submit(new Runnable() {
+                @Override
+                public void run() {
+                }
+            }).get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (final ExecutionException e) {
+            logger.warn("Waiting for graph dumps failed", e);
+        }
+    }
+
+    private static synchronized ThreadPoolExecutor getWriter() {
+        if (writer == null) {
+            writer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<Runnable>(QUEUE_CAPACITY),
+                    new ThreadFactory() {
+                @Override
+                public Thread newThread(final Runnable runnable) {
+                    final Thread thread = new Thread(runnable, "SoMoX graph dump writer");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            },
+            new ThreadPoolExecutor.CallerRunsPolicy());
+        }
+        return writer;
+    }
+
     /**
      * Retrieve for the given relative outputFolder an absolute folder name
      * @param outputFolder The workspace relative path of the output folder
@@ -121,54 +224,163 @@ public class GraphPrinter {
         return null;
     }
 
-    private static <V, T> void dumpGraphToDot(
-            final ComponentToImplementingClassesHelper componentToClassesHelper,
-            final Graph<V, T> relationshipGraph,
-            final String filename) {
-        try {
-            final File f = new File(filename);
-            final FileWriter fw = new FileWriter(f);
-            fw.write("digraph G {\n");
-            for (final V link : relationshipGraph.vertexSet()) {
-                fw.write(getNodeId(componentToClassesHelper,link,false)+";\n");
-            }
+    /**
+     * Copy of a graph taken when the dump is requested, written by the background writer
+     */
+    private static final class GraphDump<V, T> implements Runnable {
+
+        private final ComponentToImplementingClassesHelper componentToClassesHelper;
+        private final List<V> vertices;
+        private final List<T> edges;
+        private final Map<T, V> edgeSources;
+        private final Map<T, V> edgeTargets;
+        private final String filename;
+
+        private GraphDump(
+                final ComponentToImplementingClassesHelper componentToClassesHelper,
+                final Graph<V, T> relationshipGraph,
+                final String filename) {
+            this.componentToClassesHelper = componentToClassesHelper;
+            this.vertices = new ArrayList<V>(relationshipGraph.vertexSet());
+            this.edges = new ArrayList<T>(relationshipGraph.edgeSet().size());
+            this.edgeSources = new LinkedHashMap<T, V>(relationshipGraph.edgeSet().size() * 2);
+            this.edgeTargets = new LinkedHashMap<T, V>(relationshipGraph.edgeSet().size() * 2);
             for (final T edge : relationshipGraph.edgeSet()) {
-                fw.write(getNodeId(componentToClassesHelper,relationshipGraph.getEdgeSource(edge),false));
-                fw.write(" -> ");
-                fw.write(getNodeId(componentToClassesHelper,relationshipGraph.getEdgeTarget(edge),false));
-                fw.write(" [label=\""+edge.toString().replaceAll("\n", Matcher.quoteReplacement("\\n"))+"\"];\n");
+                edges.add(edge);
+                edgeSources.put(edge, relationshipGraph.getEdgeSource(edge));
+                edgeTargets.put(edge, relationshipGraph.getEdgeTarget(edge));
             }
-            fw.write("}\n");
-            fw.close();
-        } catch (final Exception e) {
-            logger.warn("Producing DOT trace failed",e);
+            this.filename = filename;
         }
-    }
 
-    private static <V, T> void dumpGraphToGML(
-            final ComponentToImplementingClassesHelper componentToClassesHelper,
-            final Graph<V, T> relationshipGraph,
-            final String filename) {
-        try {
-            final File f = new File(filename);
-            FileWriter fw;
-            fw = new FileWriter(f);
-            fw.write("graph [\ndirected 1\n");
-            for (final V link : relationshipGraph.vertexSet()) {
-                fw.write("node [\nname "+getNodeId(componentToClassesHelper,link,true)+"\nlabel "+getNodeId(componentToClassesHelper,link,true)+"\n" +
-                        "graphics\n[hasFill 0\n]\n]\n");
+        @Override
+        public void run() {
+            final long start = System.nanoTime();
+            final List<T> dumpedEdges = filterEdges();
+            dumpGraphToDot(dumpedEdges);
+            dumpGraphToGML(dumpedEdges);
+            PerformanceCounters.getInstance().timer("somox_graph_dump_seconds").record(System.nanoTime() - start);
+        }
+
+        /**
+         * @return The edges passing the configured minimum weight and top k filters
+         */
+        private List<T> filterEdges() {
+            final String minWeightProperty = System.getProperty(MIN_WEIGHT_PROPERTY);
+            final double minWeight = minWeightProperty == null ? Double.NEGATIVE_INFINITY : Double.parseDouble(minWeightProperty);
+            final int topK = Integer.getInteger(TOP_K_PROPERTY, Integer.MAX_VALUE);
+            final String weightMetric = System.getProperty(WEIGHT_METRIC_PROPERTY);
+
+            final Map<T, Double> weights = new LinkedHashMap<T, Double>(edges.size() * 2);
+            final Map<V, List<T>> edgesBySource = new LinkedHashMap<V, List<T>>();
+            for (final T edge : edges) {
+                final double weight = getWeight(edge, weightMetric);
+                if (weight >= minWeight) {
+                    weights.put(edge, weight);
+                    List<T> sourceEdges = edgesBySource.get(edgeSources.get(edge));
+                    if (sourceEdges == null) {
+                        sourceEdges = new ArrayList<T>();
+                        edgesBySource.put(edgeSources.get(edge), sourceEdges);
+                    }
+                    sourceEdges.add(edge);
+                }
             }
-            for (final T edge : relationshipGraph.edgeSet()) {
-                fw.write("edge [\nsource "+getNodeId(componentToClassesHelper,relationshipGraph.getEdgeSource(edge),true)+"\n");
-                fw.write("target "+getNodeId(componentToClassesHelper,relationshipGraph.getEdgeTarget(edge),true)+"\n");
-                fw.write("label \""+edge.toString()+"\"\n" +
-                        "graphics\n[\ntargetArrow \"standard\"\n]\n]\n");
+            if (topK == Integer.MAX_VALUE) {
+                return new ArrayList<T>(weights.keySet());
+            }
+
+            final List<T> result = new ArrayList<T>();
+            for (final List<T> sourceEdges : edgesBySource.values()) {
+                Collections.sort(sourceEdges, new Comparator<T>() {
+                    @Override
+                    public int compare(final T edge1, final T edge2) {
+                        return Double.compare(weights.get(edge2), weights.get(edge1));
+                    }
+                });
+                result.addAll(sourceEdges.subList(0, Math.min(topK, sourceEdges.size())));
+            }
+            return result;
+        }
+
+        private Writer openWriter(final String fileName) throws IOException {
+            final boolean compress = Boolean.getBoolean(COMPRESS_PROPERTY);
+            OutputStream out = new FileOutputStream(new File(compress ? fileName + ".gz" : fileName));
+            if (compress) {
+                out = new GZIPOutputStream(out, BUFFER_SIZE);
+            }
+            return new BufferedWriter(new OutputStreamWriter(out, "UTF-8"), BUFFER_SIZE);
+        }
+
+        private void dumpGraphToDot(final List<T> dumpedEdges) {
+            try {
+                final Writer fw = openWriter(filename+".dot");
+                try {
+                    fw.write("digraph G {\n");
+                    for (final V link : vertices) {
+                        fw.write(getNodeId(componentToClassesHelper,link,false)+";\n");
+                    }
+                    for (final T edge : dumpedEdges) {
+                        fw.write(getNodeId(componentToClassesHelper,edgeSources.get(edge),false));
+                        fw.write(" -> ");
+                        fw.write(getNodeId(componentToClassesHelper,edgeTargets.get(edge),false));
+                        fw.write(" [label=\""+edge.toString().replaceAll("\n", Matcher.quoteReplacement("\\n"))+"\"];\n");
+                    }
+                    fw.write("}\n");
+                } finally {
+                    fw.close();
+                }
+            } catch (final Exception e) {
+                logger.warn("Producing DOT trace failed",e);
+            }
+        }
+
+        private void dumpGraphToGML(final List<T> dumpedEdges) {
+            try {
+                final Writer fw = openWriter(filename+".gml");
+                try {
+                    fw.write("graph [\ndirected 1\n");
+                    for (final V link : vertices) {
+                        fw.write("node [\nname "+getNodeId(componentToClassesHelper,link,true)+"\nlabel "+getNodeId(componentToClassesHelper,link,true)+"\n" +
+                                "graphics\n[hasFill 0\n]\n]\n");
+                    }
+                    for (final T edge : dumpedEdges) {
+                        fw.write("edge [\nsource "+getNodeId(componentToClassesHelper,edgeSources.get(edge),true)+"\n");
+                        fw.write("target "+getNodeId(componentToClassesHelper,edgeTargets.get(edge),true)+"\n");
+                        fw.write("label \""+edge.toString()+"\"\n" +
+                                "graphics\n[\ntargetArrow \"standard\"\n]\n]\n");
+                    }
+                    fw.write("]\n");
+                } finally {
+                    fw.close();
+                }
+            } catch (final IOException e) {
+                logger.warn("Producing GML trace failed",e);
+            }
+        }
+    }
+
+    /**
+     * @param edge The edge to weigh
+     * @param weightMetric ID of the metric used as weight of clustering relations or <code>null</code> for the
+     * 		highest metric value
+     * @return The weight of the edge, positive infinity for edges which are never omitted
+     */
+    private static double getWeight(final Object edge, final String weightMetric) {
+        if (edge instanceof ClassAccessGraphEdge) {
+            return ((ClassAccessGraphEdge) edge).getCount();
+        }
+        if (edge instanceof ClusteringRelation) {
+            double result = weightMetric == null ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+            for (final Map.Entry<MetricID, Double> value : ((ClusteringRelation) edge).getResult().entrySet()) {
+                if (weightMetric == null) {
+                    result = Math.max(result, value.getValue());
+                } else if (weightMetric.equals(value.getKey().getMetricID())) {
+                    return value.getValue();
+                }
             }
-            fw.write("]\n");
-            fw.close();
-        } catch (final IOException e) {
-            logger.warn("Producing GML trace failed",e);
+            return result;
         }
+        return Double.POSITIVE_INFINITY;
     }
 
     private static String getNodeId(
@@ -0,0 +1,259 @@
+package org.somox.analyzer.simplemodelanalyzer.detection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.URIConverter;
+import org.eclipse.gmt.modisco.java.Type;
+import org.jgrapht.DirectedGraph;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.somox.analyzer.AnalysisResult;
+import org.somox.analyzer.simplemodelanalyzer.SimpleModelAnalyzer;
+import org.somox.analyzer.simplemodelanalyzer.metrics.DefaultCompositionIndicatingMetric;
+import org.somox.analyzer.simplemodelanalyzer.metrics.DefaultMergeIndicatingMetric;
+import org.somox.common.SoMoXProjectPreferences;
+import org.somox.configuration.SOMOXConfigurationBuilderByPreferences;
+import org.somox.configuration.SoMoXConfiguration;
+import org.somox.instrumentation.PerformanceCounters;
+import org.somox.kdmhelper.KDMHelper;
+import org.somox.kdmhelper.KDMReader;
+import org.somox.kdmhelper.metamodeladdition.Root;
+import org.somox.metrics.ClusteringRelation;
+import org.somox.metrics.IMetric;
+import org.somox.metrics.MetricID;
+import org.somox.metrics.helper.Class2ClassAccessGraphHelper;
+import org.somox.metrics.helper.ClassAccessGraphEdge;
+import org.somox.metrics.helper.ComponentToImplementingClassesHelper;
+import org.somox.metrics.registry.MetricDependencyGraph;
+import org.somox.metrics.registry.MetricsRegistry;
+import org.somox.sourcecodedecorator.ComponentImplementingClassesLink;
+import org.somox.sourcecodedecorator.SourceCodeDecoratorFactory;
+
+/**
+ * Checks that the candidate pair blocking does not change the components detected in the SoMoXCCTest model and
+ * that the merge and composition indicating metrics of every skipped pair stay below the minimum thresholds.
+ */
+public class CandidatePairBlockingTest {
+
+    private static final String MODEL_FILE = "../org.somox.tests.SoMoXCCTest/org.somox.tests.SoMoXCCTest_java2kdm.xmi";
+
+    private static final String PROJECT_NAME = "SoMoXCCTest";
+
+    private static final URI PLATFORM_RESOURCE = URI.createURI("platform:/resource/");
+
+    @Rule
+    public TemporaryFolder workspace = new TemporaryFolder();
+
+    @Before
+    public void mapWorkspace() {
+        URIConverter.URI_MAP.put(PLATFORM_RESOURCE, URI.createFileURI(workspace.getRoot().getPath() + File.separator));
+    }
+
+    @After
+    public void unmapWorkspace() {
+        URIConverter.URI_MAP.remove(PLATFORM_RESOURCE);
+    }
+
+    @Test
+    public void blockingDetectsTheSameComponentsWithDefaultWeights() throws Exception {
+        final Map<Object, Object> attributes = createAttributes();
+
+        final List<String> components = detectComponents(attributes, false);
+        assertFalse(components.isEmpty());
+        assertEquals(components, detectComponents(attributes, true));
+    }
+
+    @Test
+    public void blockingSkipsPairsAndDetectsTheSameComponentsWithoutHierarchyWeights() throws Exception {
+        final Map<Object, Object> attributes = createAttributesWithoutHierarchyWeights();
+
+        final List<String> components = detectComponents(attributes, false);
+        assertEquals(components, detectComponents(attributes, true));
+        assertTrue(PerformanceCounters.getInstance().counter("somox_clustering_skipped_pairs_total").getValue() > 0);
+    }
+
+    @Test
+    public void blockingDetectsTheSameComponentsWithDirectoryMappingOnly() throws Exception {
+        final Map<Object, Object> attributes = createAttributesWithDirectoryMappingOnly();
+
+        final List<String> components = detectComponents(attributes, false);
+        assertEquals(components, detectComponents(attributes, true));
+    }
+
+    @Test
+    public void skippedPairsCannotPassAThresholdWithDefaultWeights() throws Exception {
+        assertSkippedPairsCannotPassAThreshold(createAttributes());
+    }
+
+    @Test
+    public void skippedPairsCannotPassAThresholdWithoutHierarchyWeights() throws Exception {
+        assertTrue(assertSkippedPairsCannotPassAThreshold(createAttributesWithoutHierarchyWeights()) > 0);
+    }
+
+    @Test
+    public void skippedPairsCannotPassAThresholdWithDirectoryMappingOnly() throws Exception {
+        assertSkippedPairsCannotPassAThreshold(createAttributesWithDirectoryMappingOnly());
+    }
+
+    /**
+     * Creates a primitive component for each class of the model and computes the merge and composition indicating
+     * metrics of all pairs skipped by the blocking index in both directions.
+     * @return The number of skipped pairs
+     */
+    private int assertSkippedPairsCannotPassAThreshold(final Map<Object, Object> attributes) throws Exception {
+        final Map<Object, Object> runAttributes = new HashMap<Object, Object>(attributes);
+        runAttributes.put(SoMoXProjectPreferences.SOMOX_CLUSTERING_CANDIDATE_PAIR_BLOCKING, "true");
+        final SoMoXConfiguration configuration =
+                new SOMOXConfigurationBuilderByPreferences().createSOMOXConfiguration(runAttributes);
+        final Root model = KDMReader.loadFile(URI.createFileURI(new File(MODEL_FILE).getAbsolutePath()), 1);
+
+        final List<ComponentImplementingClassesLink> components = new ArrayList<ComponentImplementingClassesLink>();
+        for (final Type clazz : configuration.getBlacklistFilter().filter(model.getNormalClasses())) {
+            final ComponentImplementingClassesLink component =
+                    SourceCodeDecoratorFactory.eINSTANCE.createComponentImplementingClassesLink();
+            component.getImplementingClasses().add(clazz);
+            component.setIsInitialComponent(true);
+            components.add(component);
+        }
+        final ComponentToImplementingClassesHelper helper = new ComponentToImplementingClassesHelper();
+        final DirectedGraph<Type, ClassAccessGraphEdge> accessGraph =
+                Class2ClassAccessGraphHelper.computeFilteredClass2ClassAccessGraph(
+                        configuration, helper.collectAllClasses(components), model.getStructuralSnapshot());
+        initializeMetrics(model, configuration, accessGraph, helper);
+        final IMetric mergeMetric = MetricsRegistry.getRegisteredMetrics().get(DefaultMergeIndicatingMetric.METRIC_ID);
+        final CandidatePairBlockingIndex index = new CandidatePairBlockingIndex(
+                components, helper, accessGraph, model.getStructuralSnapshot(), configuration);
+
+        int skippedPairs = 0;
+        for (int i = 0; i < components.size(); i++) {
+            for (int j = i + 1; j < components.size(); j++) {
+                if (!index.isCandidatePair(new NodePair(components.get(i), components.get(j)))) {
+                    skippedPairs++;
+                    assertBelowThresholds(mergeMetric, configuration, components.get(i), components.get(j));
+                    assertBelowThresholds(mergeMetric, configuration, components.get(j), components.get(i));
+                }
+            }
+        }
+        return skippedPairs;
+    }
+
+    private static void assertBelowThresholds(final IMetric mergeMetric, final SoMoXConfiguration configuration,
+            final ComponentImplementingClassesLink source, final ComponentImplementingClassesLink target) {
+        final ClusteringRelation relation = new ClusteringRelation(source, target);
+        // the merge indicating metric computes the composition indicating metric as child metric
+        mergeMetric.computeDirected(relation);
+        final String pair = getClassName(source) + " -> " + getClassName(target);
+        assertTrue("Skipped pair " + pair + " passes the merge threshold",
+                relation.getResultMetric(DefaultMergeIndicatingMetric.METRIC_ID)
+                <= configuration.getClusteringConfig().getMinMergeClusteringThreshold());
+        assertTrue("Skipped pair " + pair + " passes the compose threshold",
+                relation.getResultMetric(DefaultCompositionIndicatingMetric.METRIC_ID)
+                <= configuration.getClusteringConfig().getMinComposeClusteringThreshold());
+    }
+
+    private static String getClassName(final ComponentImplementingClassesLink component) {
+        return KDMHelper.computeFullQualifiedName(component.getImplementingClasses().get(0));
+    }
+
+    /**
+     * Initializes the merge and composition indicating metrics and all metrics they require, as the clustering does
+     */
+    private static void initializeMetrics(final Root model, final SoMoXConfiguration configuration,
+            final DirectedGraph<Type, ClassAccessGraphEdge> accessGraph, final ComponentToImplementingClassesHelper helper) {
+        final Map<MetricID, IMetric> registeredMetrics = MetricsRegistry.getRegisteredMetrics();
+        final Set<MetricID> initializedMetrics = new HashSet<MetricID>();
+        final LinkedList<IMetric> pendingMetrics = new LinkedList<IMetric>();
+        pendingMetrics.add(registeredMetrics.get(DefaultMergeIndicatingMetric.METRIC_ID));
+        pendingMetrics.add(registeredMetrics.get(DefaultCompositionIndicatingMetric.METRIC_ID));
+        while (!pendingMetrics.isEmpty()) {
+            final IMetric metric = pendingMetrics.removeFirst();
+            if (initializedMetrics.add(metric.getMID())) {
+                metric.initialize(model, configuration, registeredMetrics, accessGraph, helper);
+                Collections.addAll(pendingMetrics, MetricDependencyGraph.getRequiredMetrics(metric));
+            }
+        }
+    }
+
+    private List<String> detectComponents(final Map<Object, Object> attributes, final boolean candidatePairBlocking)
+            throws Exception {
+        final Map<Object, Object> runAttributes = new HashMap<Object, Object>(attributes);
+        runAttributes.put(SoMoXProjectPreferences.SOMOX_CLUSTERING_CANDIDATE_PAIR_BLOCKING,
+                String.valueOf(candidatePairBlocking));
+        final SoMoXConfiguration configuration =
+                new SOMOXConfigurationBuilderByPreferences().createSOMOXConfiguration(runAttributes);
+
+        PerformanceCounters.getInstance().reset();
+        final AnalysisResult result = new SimpleModelAnalyzer().analyze(
+                KDMReader.loadFile(URI.createFileURI(new File(MODEL_FILE).getAbsolutePath()), 1),
+                configuration, new NullProgressMonitor());
+        assertEquals(AnalysisResult.ResultStatus.SUCCESS, result.getResultStatus());
+
+        final ComponentToImplementingClassesHelper helper = new ComponentToImplementingClassesHelper();
+        final List<String> components = new ArrayList<String>();
+        for (final ComponentImplementingClassesLink component
+                : result.getSourceCodeDecoratorRepository().getComponentImplementingClassesLink()) {
+            final List<String> classes = new ArrayList<String>();
+            for (final Type clazz : helper.deriveImplementingClasses(component)) {
+                classes.add(KDMHelper.computeFullQualifiedName(clazz));
+            }
+            Collections.sort(classes);
+            components.add((component.isInitialComponent() ? "primitive " : "composite ") + classes);
+        }
+        Collections.sort(components);
+        return components;
+    }
+
+    private Map<Object, Object> createAttributesWithoutHierarchyWeights() throws IOException {
+        final Map<Object, Object> attributes = createAttributes();
+        // without package and directory mapping and name resemblance at low coupling, pairs without accesses cannot pass
+        attributes.put(SoMoXProjectPreferences.SOMOX_WEIGHT_PACKAGE_MAPPING, "0");
+        attributes.put(SoMoXProjectPreferences.SOMOX_WEIGHT_DIRECTORY_MAPPING, "0");
+        attributes.put(SoMoXProjectPreferences.SOMOX_WEIGHT_LOW_NAME_RESEMBLANCE, "0");
+        return attributes;
+    }
+
+    private Map<Object, Object> createAttributesWithDirectoryMappingOnly() throws IOException {
+        final Map<Object, Object> attributes = createAttributesWithoutHierarchyWeights();
+        // the directory mapping offsets the common and the total directory levels
+        attributes.put(SoMoXProjectPreferences.SOMOX_WEIGHT_DIRECTORY_MAPPING, "5");
+        return attributes;
+    }
+
+    private Map<Object, Object> createAttributes() throws IOException {
+        final Map<Object, Object> attributes = new HashMap<Object, Object>();
+        final Properties defaults = new Properties();
+        final InputStream input = SimpleModelAnalyzer.class.getResourceAsStream("/config/SimpleAnalyzer.properties");
+        try {
+            defaults.load(input);
+        } finally {
+            input.close();
+        }
+        attributes.putAll(defaults);
+        attributes.put(SoMoXProjectPreferences.SOMOX_PROJECT_NAME, PROJECT_NAME);
+        attributes.put(SoMoXProjectPreferences.SOMOX_ANALYZER_INPUT_FILE,
+                "/" + PROJECT_NAME + "/" + new File(MODEL_FILE).getName());
+        attributes.put(SoMoXProjectPreferences.SOMOX_ANALYSER_WILDCARD_KEY,
+                "java.*" + SoMoXConfiguration.SOMOX_WILDCARD_DELIMITER + "javax.*");
+        return attributes;
+    }
+}
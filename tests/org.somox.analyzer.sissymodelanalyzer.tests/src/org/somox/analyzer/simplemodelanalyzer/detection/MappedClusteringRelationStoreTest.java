@@ -0,0 +1,203 @@
+package org.somox.analyzer.simplemodelanalyzer.detection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jgrapht.DirectedGraph;
+import org.junit.After;
+import org.junit.Test;
+import org.somox.filter.BaseFilter;
+import org.somox.metrics.ClusteringRelation;
+import org.somox.metrics.MetricID;
+import org.somox.sourcecodedecorator.ComponentImplementingClassesLink;
+import org.somox.sourcecodedecorator.SourceCodeDecoratorFactory;
+
+public class MappedClusteringRelationStoreTest {
+
+    /**
+     * Size of a record with two metrics: the header word and two blocks of one mask word and two values
+     */
+    private static final int RECORD_BYTES = 8 + 2 * 8 * (1 + 2);
+
+    private static final MetricID FIRST_METRIC = new MetricID("org.somox.tests.MappedStoreFirst");
+
+    private static final MetricID SECOND_METRIC = new MetricID("org.somox.tests.MappedStoreSecond");
+
+    private MappedClusteringRelationStore store;
+
+    @After
+    public void closeStore() {
+        if (store != null) {
+            store.close();
+        }
+    }
+
+    @Test
+    public void recordIndexEnumeratesAllPairsWithoutGaps() {
+        long expected = 0;
+        for (int high = 1; high < 100; high++) {
+            for (int low = 0; low < high; low++) {
+                assertEquals(expected, MappedClusteringRelationStore.getRecordIndex(low, high));
+                assertEquals(expected, MappedClusteringRelationStore.getRecordIndex(high, low));
+                expected++;
+            }
+        }
+    }
+
+    @Test
+    public void recordIndexDoesNotOverflowForLargeOrdinals() {
+        final int high = 100000;
+
+        assertEquals(4999950000L + 99999L, MappedClusteringRelationStore.getRecordIndex(high - 1, high));
+        assertEquals(4999950000L, MappedClusteringRelationStore.getRecordIndex(0, high));
+    }
+
+    @Test
+    public void relationsAreStoredAcrossSegmentBoundaries() throws IOException {
+        // three records per segment, the remaining bytes of a segment are never used
+        store = new MappedClusteringRelationStore(metrics(FIRST_METRIC, SECOND_METRIC), 3 * RECORD_BYTES + 5);
+        final List<ComponentImplementingClassesLink> components = addComponents(8);
+        for (int source = 0; source < components.size(); source++) {
+            for (int target = 0; target < components.size(); target++) {
+                if (source != target) {
+                    store.addRelation(relation(components.get(source), components.get(target),
+                            FIRST_METRIC, source, SECOND_METRIC, target));
+                }
+            }
+        }
+
+        final Map<String, ClusteringRelation> relations = readRelations(store.getRelations(), components);
+        assertEquals(8 * 7, relations.size());
+        for (int source = 0; source < components.size(); source++) {
+            for (int target = 0; target < components.size(); target++) {
+                if (source != target) {
+                    final ClusteringRelation relation = relations.get(source + "->" + target);
+                    assertEquals(source, relation.getResultMetric(FIRST_METRIC), 0.0);
+                    assertEquals(target, relation.getResultMetric(SECOND_METRIC), 0.0);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void onlyStoredDirectionsAndMetricsAreRead() throws IOException {
+        store = new MappedClusteringRelationStore(metrics(FIRST_METRIC, SECOND_METRIC), RECORD_BYTES);
+        final List<ComponentImplementingClassesLink> components = addComponents(4);
+        store.addRelation(relation(components.get(3), components.get(1), SECOND_METRIC, 0.5));
+
+        final Map<String, ClusteringRelation> relations = readRelations(store.getRelations(), components);
+        assertEquals(Collections.singleton("3->1"), relations.keySet());
+        final ClusteringRelation relation = relations.get("3->1");
+        assertFalse(relation.hasResultMetric(FIRST_METRIC));
+        assertEquals(0.5, relation.getResultMetric(SECOND_METRIC), 0.0);
+    }
+
+    @Test
+    public void masksSpanSeveralWordsForManyMetrics() throws IOException {
+        final List<MetricID> metrics = new ArrayList<MetricID>();
+        for (int i = 0; i < 130; i++) {
+            metrics.add(new MetricID("org.somox.tests.MappedStoreMetric" + i));
+        }
+        store = new MappedClusteringRelationStore(metrics, 1L << 20);
+        final List<ComponentImplementingClassesLink> components = addComponents(2);
+        store.addRelation(relation(components.get(0), components.get(1),
+                metrics.get(0), 1.0, metrics.get(64), 64.0, metrics.get(129), 129.0));
+
+        final ClusteringRelation relation = readRelations(store.getRelations(), components).get("0->1");
+        assertEquals(3, relation.getResult().size());
+        assertEquals(64.0, relation.getResultMetric(metrics.get(64)), 0.0);
+        assertEquals(129.0, relation.getResultMetric(metrics.get(129)), 0.0);
+    }
+
+    @Test
+    public void removedComponentsAreNotReadAndOrdinalsAreNotReused() throws IOException {
+        store = new MappedClusteringRelationStore(metrics(FIRST_METRIC, SECOND_METRIC), 2 * RECORD_BYTES);
+        final List<ComponentImplementingClassesLink> components = addComponents(3);
+        store.addRelation(relation(components.get(0), components.get(1), FIRST_METRIC, 1.0));
+        store.addRelation(relation(components.get(1), components.get(2), FIRST_METRIC, 2.0));
+
+        store.removeComponents(Collections.singleton(components.get(1)));
+        final ComponentImplementingClassesLink added = SourceCodeDecoratorFactory.eINSTANCE.createComponentImplementingClassesLink();
+        store.addComponent(added);
+
+        assertEquals(3, store.getComponents().size());
+        assertFalse(store.getComponents().contains(components.get(1)));
+        assertFalse(store.getRelations().iterator().hasNext());
+    }
+
+    @Test
+    public void projectedGraphContainsAllComponentsAndPassingRelations() throws IOException {
+        store = new MappedClusteringRelationStore(metrics(FIRST_METRIC, SECOND_METRIC), RECORD_BYTES);
+        final List<ComponentImplementingClassesLink> components = addComponents(3);
+        store.addRelation(relation(components.get(0), components.get(1), FIRST_METRIC, 0.9));
+        store.addRelation(relation(components.get(1), components.get(0), FIRST_METRIC, 0.1));
+        store.addRelation(relation(components.get(2), components.get(0), FIRST_METRIC, 0.8));
+
+        final DirectedGraph<ComponentImplementingClassesLink, ClusteringRelation> graph =
+                store.createProjectedGraph(new BaseFilter<ClusteringRelation>() {
+                    @Override
+                    public boolean passes(final ClusteringRelation relation) {
+                        return relation.getResultMetric(FIRST_METRIC) > 0.5;
+                    }
+                });
+
+        assertEquals(3, graph.vertexSet().size());
+        assertEquals(2, graph.edgeSet().size());
+        assertTrue(graph.containsEdge(components.get(0), components.get(1)));
+        assertTrue(graph.containsEdge(components.get(2), components.get(0)));
+    }
+
+    private List<ComponentImplementingClassesLink> addComponents(final int count) {
+        final List<ComponentImplementingClassesLink> result = new ArrayList<ComponentImplementingClassesLink>();
+        for (int i = 0; i < count; i++) {
+            final ComponentImplementingClassesLink component =
+                    SourceCodeDecoratorFactory.eINSTANCE.createComponentImplementingClassesLink();
+            store.addComponent(component);
+            result.add(component);
+        }
+        return result;
+    }
+
+    private static List<MetricID> metrics(final MetricID... metrics) {
+        final List<MetricID> result = new ArrayList<MetricID>();
+        Collections.addAll(result, metrics);
+        return result;
+    }
+
+    /**
+     * @param metricsAndValues Alternating metric IDs and their values
+     */
+    private static ClusteringRelation relation(
+            final ComponentImplementingClassesLink source,
+            final ComponentImplementingClassesLink target,
+            final Object... metricsAndValues) {
+        final ClusteringRelation result = new ClusteringRelation(source, target);
+        for (int i = 0; i < metricsAndValues.length; i += 2) {
+            result.setResultMetric((MetricID) metricsAndValues[i], ((Number) metricsAndValues[i + 1]).doubleValue());
+        }
+        return result;
+    }
+
+    /**
+     * @return The relations keyed by the indices of their source and target components, e.g. <code>0-&gt;1</code>
+     */
+    private static Map<String, ClusteringRelation> readRelations(
+            final Iterable<ClusteringRelation> relations,
+            final List<ComponentImplementingClassesLink> components) {
+        final Map<String, ClusteringRelation> result = new HashMap<String, ClusteringRelation>();
+        for (final ClusteringRelation relation : relations) {
+            final String key = components.indexOf(relation.getSourceComponent()) + "->"
+                    + components.indexOf(relation.getTargetComponent());
+            assertEquals(null, result.put(key, relation));
+        }
+        return result;
+    }
+}
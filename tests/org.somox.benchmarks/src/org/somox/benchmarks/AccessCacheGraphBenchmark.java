@@ -0,0 +1,67 @@
+package org.somox.benchmarks;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.gmt.modisco.java.Type;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.somox.metrics.util.AccessCacheGraph;
+import org.somox.sourcecodedecorator.ComponentImplementingClassesLink;
+
+/**
+ * Measures the access count queries of the {@link AccessCacheGraph}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AccessCacheGraphBenchmark {
+
+    private AccessCacheGraph accessCacheGraph;
+
+    private int nextPair = 0;
+
+    @Setup(Level.Trial)
+    public void setUp(final ModelState state) {
+        this.accessCacheGraph = new AccessCacheGraph(state.accessGraph);
+    }
+
+    @Benchmark
+    public long accessesToClassesInSet(final ModelState state) {
+        final ComponentImplementingClassesLink[] pair = nextPair(state);
+        return accessCacheGraph.calculateNumberOfAccessesToClassesInSet(
+                state.componentToClassHelper.deriveImplementingClasses(pair[0]),
+                state.componentToClassHelper.deriveImplementingClasses(pair[1]));
+    }
+
+    @Benchmark
+    public long incomingAccesses(final ModelState state) {
+        return accessCacheGraph.calculateNumberOfIncommingAccesses(classesOf(nextPair(state)[0], state));
+    }
+
+    @Benchmark
+    public long externalAccesses(final ModelState state) {
+        return accessCacheGraph.calculateNumberOfExternalAccesses(classesOf(nextPair(state)[0], state));
+    }
+
+    @Benchmark
+    public long internalAccesses(final ModelState state) {
+        return accessCacheGraph.calculateNumberOfInternalAccesses(classesOf(nextPair(state)[0], state));
+    }
+
+    private Set<Type> classesOf(final ComponentImplementingClassesLink component, final ModelState state) {
+        return state.componentToClassHelper.deriveImplementingClasses(component);
+    }
+
+    private ComponentImplementingClassesLink[] nextPair(final ModelState state) {
+        final ComponentImplementingClassesLink[] result = state.componentPairs[nextPair];
+        nextPair = (nextPair + 1) % state.componentPairs.length;
+        return result;
+    }
+}
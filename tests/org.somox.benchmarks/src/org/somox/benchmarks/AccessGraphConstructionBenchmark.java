@@ -0,0 +1,27 @@
+package org.somox.benchmarks;
+
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.gmt.modisco.java.Type;
+import org.jgrapht.DirectedGraph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.somox.metrics.helper.Class2ClassAccessGraphHelper;
+import org.somox.metrics.helper.ClassAccessGraphEdge;
+
+/**
+ * Measures the construction of the filtered class access graph by the {@link Class2ClassAccessGraphHelper}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class AccessGraphConstructionBenchmark {
+
+    @Benchmark
+    public DirectedGraph<Type, ClassAccessGraphEdge> computeFilteredClass2ClassAccessGraph(final ModelState state) {
+        return Class2ClassAccessGraphHelper.computeFilteredClass2ClassAccessGraph(
+                state.configuration, new HashSet<Type>(state.types));
+    }
+}
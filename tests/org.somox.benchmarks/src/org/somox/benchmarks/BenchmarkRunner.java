@@ -0,0 +1,69 @@
+package org.somox.benchmarks;
+
+import java.io.File;
+import java.util.Collection;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the SoMoX benchmarks with JMH. All JMH command line options are supported, e.g.
+ * <code>-p classCount=1000</code> to restrict the model sizes or a benchmark name pattern. Results are
+ * written as JSON to <code>somox-benchmarks-&lt;revision&gt;.json</code>, the revision label is taken from
+ * the system property <code>somox.revision</code>, so that the results of two revisions can be compared.
+ * The file is written to the directory given by the system property
+ * <code>somox.benchmarks.resultDirectory</code>, the working directory by default.
+ * Defaults of this runner only apply if the corresponding option is not given.
+ * <p>
+ * The benchmarks need the class path of the OSGi test runtime, hence they are only run by the Maven build
+ * with the <code>benchmarks</code> profile, see {@link BenchmarkSuiteTest} and the pom.xml of this plug-in
+ * for the command.
+ */
+public class BenchmarkRunner {
+
+    private static final String REVISION_PROPERTY = "somox.revision";
+
+    private static final String RESULT_DIRECTORY_PROPERTY = "somox.benchmarks.resultDirectory";
+
+    /**
+     * Runs the benchmarks in this JVM unless a number of forks is given in the options.
+     * @param args JMH command line options
+     * @return The results of the benchmarks
+     */
+    public static Collection<RunResult> run(final String[] args)
+            throws RunnerException, CommandLineOptionException {
+        final CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        final String resultFile = "somox-benchmarks-" + System.getProperty(REVISION_PROPERTY, "current") + ".json";
+        final String resultDirectory = System.getProperty(RESULT_DIRECTORY_PROPERTY);
+
+        final OptionsBuilder builder = new OptionsBuilder();
+        builder.parent(commandLineOptions);
+        if (commandLineOptions.getIncludes().isEmpty()) {
+            builder.include(BenchmarkRunner.class.getPackage().getName() + ".*");
+        }
+        if (!commandLineOptions.getForkCount().hasValue()) {
+            builder.forks(0);
+        }
+        if (!commandLineOptions.getWarmupIterations().hasValue()) {
+            builder.warmupIterations(3);
+        }
+        if (!commandLineOptions.getMeasurementIterations().hasValue()) {
+            builder.measurementIterations(5);
+        }
+        if (!commandLineOptions.getResultFormat().hasValue()) {
+            builder.resultFormat(ResultFormatType.JSON);
+        }
+        if (!commandLineOptions.getResult().hasValue()) {
+            builder.result(new File(resultDirectory, resultFile).getAbsolutePath());
+        }
+        final Options options = builder.build();
+
+        return new Runner(options).run();
+    }
+}
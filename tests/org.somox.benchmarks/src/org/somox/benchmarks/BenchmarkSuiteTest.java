@@ -0,0 +1,24 @@
+package org.somox.benchmarks;
+
+import static org.junit.Assert.assertFalse;
+
+import org.junit.Test;
+
+/**
+ * Runs the benchmarks inside the OSGi test runtime of the Maven build, which is only done with the
+ * <code>benchmarks</code> profile. JMH cannot fork JVMs with the class path of the bundles, so the
+ * benchmarks are run in the JVM of the test runtime. JMH options are taken from the system property
+ * <code>somox.benchmarks.args</code>, see {@link BenchmarkRunner}.
+ */
+public class BenchmarkSuiteTest {
+
+    private static final String ARGUMENTS_PROPERTY = "somox.benchmarks.args";
+
+    @Test
+    public void runBenchmarks() throws Exception {
+        final String arguments = System.getProperty(ARGUMENTS_PROPERTY, "").trim();
+        final String[] args = arguments.length() == 0 ? new String[0] : arguments.split("\\s+");
+
+        assertFalse("No benchmark has been run", BenchmarkRunner.run(args).isEmpty());
+    }
+}
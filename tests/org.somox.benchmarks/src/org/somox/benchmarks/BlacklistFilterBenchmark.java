@@ -0,0 +1,30 @@
+package org.somox.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.gmt.modisco.java.Type;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.somox.filter.BlacklistFilter;
+
+/**
+ * Measures matching all classes of the model against the configured {@link BlacklistFilter}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BlacklistFilterBenchmark {
+
+    @Benchmark
+    public int passesAllClasses(final ModelState state) {
+        final BlacklistFilter filter = state.configuration.getBlacklistFilter();
+        int result = 0;
+        for (final Type clazz : state.types) {
+            if (filter.passes(clazz)) {
+                result++;
+            }
+        }
+        return result;
+    }
+}
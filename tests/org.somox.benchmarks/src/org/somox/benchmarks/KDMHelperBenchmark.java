@@ -0,0 +1,34 @@
+package org.somox.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.gmt.modisco.java.Type;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.infra.Blackhole;
+import org.somox.kdmhelper.KDMHelper;
+
+/**
+ * Measures {@link KDMHelper#computeFullQualifiedName(org.eclipse.gmt.modisco.java.ASTNode)} and
+ * {@link KDMHelper#getAllAccesses(org.eclipse.gmt.modisco.java.ASTNode)} for all classes of the model.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class KDMHelperBenchmark {
+
+    @Benchmark
+    public void computeFullQualifiedName(final ModelState state, final Blackhole blackhole) {
+        for (final Type clazz : state.types) {
+            blackhole.consume(KDMHelper.computeFullQualifiedName(clazz));
+        }
+    }
+
+    @Benchmark
+    public void getAllAccesses(final ModelState state, final Blackhole blackhole) {
+        for (final Type clazz : state.types) {
+            blackhole.consume(KDMHelper.getAllAccesses(clazz));
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package org.somox.benchmarks;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.somox.metrics.ClusteringRelation;
+import org.somox.metrics.IMetric;
+import org.somox.metrics.MetricID;
+import org.somox.sourcecodedecorator.ComponentImplementingClassesLink;
+
+/**
+ * Measures {@link IMetric#computeDirected(ClusteringRelation)} of each metric on a fresh relation.
+ * Composed metrics include the computation of their child metrics. The relation is created before
+ * each invocation, outside of the measured time.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MetricBenchmark {
+
+    @Param({
+        "org.somox.metrics.basic.AbstractTypesCount",
+        "org.somox.metrics.basic.AfferentCoupling",
+        "org.somox.metrics.basic.EfferentCoupling",
+        "org.somox.metrics.basic.ExternalAccessesCount",
+        "org.somox.metrics.basic.InterfaceAccessesCount",
+        "org.somox.metrics.basic.InternalAccessesCount",
+        "org.somox.metrics.basic.TotalTypesCount",
+        "org.somox.metrics.hierarchy.DirectoryMapping",
+        "org.somox.metrics.hierarchy.PackageMapping",
+        "org.somox.metrics.naming.NameResemblance",
+        "org.somox.metrics.ratio.Abstractness",
+        "org.somox.metrics.ratio.AdherenceToInterfaceCommunication",
+        "org.somox.metrics.ratio.Coupling",
+        "org.somox.metrics.ratio.DMS",
+        "org.somox.metrics.ratio.Instability",
+        "org.somox.metrics.structure.SliceLayerArchitectureQuality",
+        "org.somox.metrics.structure.SubsystemComponent"
+    })
+    public String metricClass;
+
+    private IMetric metric;
+
+    @Setup(Level.Trial)
+    public void setUp(final ModelState state) {
+        final Map<MetricID, IMetric> metrics = state.createInitializedMetrics();
+        this.metric = metrics.get(ModelState.createMetric(metricClass).getMID());
+    }
+
+    @Benchmark
+    public ClusteringRelation computeDirected(final RelationState relationState) {
+        metric.computeDirected(relationState.relation);
+        return relationState.relation;
+    }
+
+    /**
+     * Relation without metric values between the next pair of components
+     */
+    @State(Scope.Thread)
+    public static class RelationState {
+
+        private int nextPair = 0;
+
+        private ClusteringRelation relation;
+
+        @Setup(Level.Invocation)
+        public void createRelation(final ModelState state) {
+            final ComponentImplementingClassesLink[] pair = state.componentPairs[nextPair];
+            nextPair = (nextPair + 1) % state.componentPairs.length;
+            relation = new ClusteringRelation(pair[0], pair[1]);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package org.somox.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.apache.log4j.Logger;
+import org.eclipse.gmt.modisco.java.Model;
+import org.eclipse.gmt.modisco.java.Type;
+import org.jgrapht.DirectedGraph;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.somox.configuration.SoMoXConfiguration;
+import org.somox.kdmhelper.metamodeladdition.Root;
+import org.somox.kdmhelper.tests.generator.SyntheticJavaModelGenerator;
+import org.somox.kdmhelper.tests.generator.SyntheticModelParameters;
+import org.somox.metrics.IMetric;
+import org.somox.metrics.MetricID;
+import org.somox.metrics.helper.Class2ClassAccessGraphHelper;
+import org.somox.metrics.helper.ClassAccessGraphEdge;
+import org.somox.metrics.helper.ComponentToImplementingClassesHelper;
+import org.somox.sourcecodedecorator.ComponentImplementingClassesLink;
+import org.somox.sourcecodedecorator.SourceCodeDecoratorFactory;
+
+/**
+ * Shared benchmark state: a synthetic model of the given size, the SoMoX configuration, the
+ * class access graph, one initial component per class and random pairs of these components. The
+ * metrics are instantiated directly instead of using the extension registry so that the benchmarks
+ * run without an Eclipse workbench.
+ */
+@State(Scope.Benchmark)
+public class ModelState {
+
+    /**
+     * All metrics registered by the org.somox.metrics plug-in
+     */
+    static final String[] METRIC_CLASSES = new String[] {
+        "org.somox.metrics.basic.AbstractTypesCount",
+        "org.somox.metrics.basic.AfferentCoupling",
+        "org.somox.metrics.basic.EfferentCoupling",
+        "org.somox.metrics.basic.ExternalAccessesCount",
+        "org.somox.metrics.basic.InterfaceAccessesCount",
+        "org.somox.metrics.basic.InternalAccessesCount",
+        "org.somox.metrics.basic.TotalTypesCount",
+        "org.somox.metrics.hierarchy.DirectoryMapping",
+        "org.somox.metrics.hierarchy.PackageMapping",
+        "org.somox.metrics.naming.NameResemblance",
+        "org.somox.metrics.ratio.Abstractness",
+        "org.somox.metrics.ratio.AdherenceToInterfaceCommunication",
+        "org.somox.metrics.ratio.Coupling",
+        "org.somox.metrics.ratio.DMS",
+        "org.somox.metrics.ratio.Instability",
+        "org.somox.metrics.structure.SliceLayerArchitectureQuality",
+        "org.somox.metrics.structure.SubsystemComponent"
+    };
+
+    private static final long SEED = 4711;
+
+    private static final int PAIR_COUNT = 1024;
+
+    @Param({ "100", "1000", "5000" })
+    public int classCount;
+
+    public Model model;
+
+    public List<Type> types;
+
+    public Root root;
+
+    public SoMoXConfiguration configuration;
+
+    public DirectedGraph<Type, ClassAccessGraphEdge> accessGraph;
+
+    public ComponentToImplementingClassesHelper componentToClassHelper;
+
+    public List<ComponentImplementingClassesLink> components;
+
+    public ComponentImplementingClassesLink[][] componentPairs;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // no debug output (e.g. graph dumps) while measuring
+        Logger.getRootLogger().setLevel(org.apache.log4j.Level.WARN);
+
+        final SyntheticModelParameters parameters = new SyntheticModelParameters();
+        parameters.setSeed(SEED);
+        parameters.setClassCount(classCount);
+        final SyntheticJavaModelGenerator generator = new SyntheticJavaModelGenerator(parameters);
+        this.model = generator.generate("benchmark");
+        this.types = generator.getGeneratedTypes();
+        this.root = new Root();
+        this.root.addModels(Collections.singletonList(model));
+        this.configuration = createConfiguration();
+        this.accessGraph = Class2ClassAccessGraphHelper.computeFilteredClass2ClassAccessGraph(
+                configuration, new HashSet<Type>(types));
+        this.componentToClassHelper = new ComponentToImplementingClassesHelper();
+
+        this.components = new ArrayList<ComponentImplementingClassesLink>(classCount);
+        for (final Type clazz : types) {
+            final ComponentImplementingClassesLink component =
+                    SourceCodeDecoratorFactory.eINSTANCE.createComponentImplementingClassesLink();
+            component.getImplementingClasses().add(clazz);
+            components.add(component);
+        }
+
+        final Random random = new Random(SEED);
+        this.componentPairs = new ComponentImplementingClassesLink[PAIR_COUNT][];
+        for (int i = 0; i < PAIR_COUNT; i++) {
+            final int first = random.nextInt(components.size());
+            int second = random.nextInt(components.size() - 1);
+            if (second >= first) {
+                second++;
+            }
+            componentPairs[i] = new ComponentImplementingClassesLink[] { components.get(first), components.get(second) };
+        }
+    }
+
+    /**
+     * Instantiate and initialize all metrics of the org.somox.metrics plug-in.
+     * @return The initialized metrics mapped on their IDs
+     */
+    public Map<MetricID, IMetric> createInitializedMetrics() {
+        final Map<MetricID, IMetric> result = new HashMap<MetricID, IMetric>();
+        for (final String metricClass : METRIC_CLASSES) {
+            final IMetric metric = createMetric(metricClass);
+            result.put(metric.getMID(), metric);
+        }
+        for (final IMetric metric : result.values()) {
+            metric.initialize(root, configuration, result, accessGraph, componentToClassHelper);
+        }
+        return result;
+    }
+
+    /**
+     * @param metricClass Fully qualified name of a metric implementation
+     * @return A new, not yet initialized instance of the metric
+     */
+    public static IMetric createMetric(final String metricClass) {
+        try {
+            return (IMetric) Class.forName(metricClass).newInstance();
+        } catch (final ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Unable to instantiate metric " + metricClass, e);
+        }
+    }
+
+    private SoMoXConfiguration createConfiguration() {
+        final SoMoXConfiguration result = new SoMoXConfiguration();
+        result.setWildcardKey("java.*" + SoMoXConfiguration.SOMOX_WILDCARD_DELIMITER + "javax.*", "");
+        result.setExcludedPrefixesForNameResemblance("I");
+        result.setExcludedSuffixesForNameResemblance("Impl");
+        result.setWeightPackageMapping(70);
+        result.setWeightDirectoryMapping(70);
+        result.setWeightDMS(5);
+        result.setWeightLowCoupling(5);
+        result.setWeightHighCoupling(100);
+        result.setWeightLowNameResemblance(5);
+        result.setWeightMidNameResemblance(15);
+        result.setWeightHighNameResemblance(30);
+        result.setWeightHighestNameResemblance(45);
+        result.setWeightInterfaceViolationRelevant(0);
+        result.setWeightInterfaceViolationIrrelevant(0);
+        result.setWeightHighSLAQ(0);
+        result.setWeightLowSLAQ(0);
+        return result;
+    }
+}
@@ -0,0 +1,26 @@
+package org.somox.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.somox.metrics.IMetric;
+import org.somox.metrics.naming.NameResemblance;
+
+/**
+ * Measures the initialisation of the {@link NameResemblance} metric which precomputes the name
+ * resemblance of all pairs of classes in the access graph.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class NameResemblanceBenchmark {
+
+    @Benchmark
+    public IMetric initialize(final ModelState state) {
+        final IMetric metric = new NameResemblance();
+        metric.initialize(state.root, state.configuration, null, state.accessGraph, state.componentToClassHelper);
+        return metric;
+    }
+}
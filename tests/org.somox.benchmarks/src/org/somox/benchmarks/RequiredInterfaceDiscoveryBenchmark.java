@@ -0,0 +1,61 @@
+package org.somox.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.palladiosimulator.pcm.repository.RepositoryFactory;
+import org.somox.analyzer.simplemodelanalyzer.SimpleAnalysisResult;
+import org.somox.analyzer.simplemodelanalyzer.builder.InterfaceBuilder;
+import org.somox.analyzer.simplemodelanalyzer.builder.RequiredInterfacePlan;
+import org.somox.sourcecodedecorator.SourceCodeDecoratorFactory;
+
+/**
+ * Measures the parallel discovery of the required interfaces of one initial component per class by
+ * {@link InterfaceBuilder#planRequiredInterfaces(List, int)}. Comparing the parallelism levels shows
+ * how the discovery scales. Plans are not applied, so every invocation works on the same models. The
+ * setup checks that the plans of the measured parallelism equal the plans of a sequential discovery.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RequiredInterfaceDiscoveryBenchmark {
+
+    @Param({ "1", "2", "4", "8" })
+    public int parallelism;
+
+    private InterfaceBuilder interfaceBuilder;
+
+    @Setup(Level.Trial)
+    public void setUp(final ModelState state) {
+        final SimpleAnalysisResult analysisResult = new SimpleAnalysisResult(null);
+        analysisResult.setInternalArchitectureModel(RepositoryFactory.eINSTANCE.createRepository());
+        analysisResult.setSourceCodeDecoratorRepository(
+                SourceCodeDecoratorFactory.eINSTANCE.createSourceCodeDecoratorRepository());
+        this.interfaceBuilder = new InterfaceBuilder(state.root, state.configuration, analysisResult);
+
+        final List<RequiredInterfacePlan> sequentialPlans = interfaceBuilder.planRequiredInterfaces(state.components, 1);
+        final List<RequiredInterfacePlan> parallelPlans =
+                interfaceBuilder.planRequiredInterfaces(state.components, parallelism);
+        for (int i = 0; i < sequentialPlans.size(); i++) {
+            if (sequentialPlans.get(i).getComponent() != parallelPlans.get(i).getComponent()
+                    || !sequentialPlans.get(i).getInterfaceClasses().equals(parallelPlans.get(i).getInterfaceClasses())) {
+                throw new IllegalStateException("Required interfaces discovered with parallelism " + parallelism
+                        + " differ from the sequential discovery for component " + i);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<RequiredInterfacePlan> planRequiredInterfaces(final ModelState state) {
+        return interfaceBuilder.planRequiredInterfaces(state.components, parallelism);
+    }
+}
@@ -0,0 +1,94 @@
+package org.somox.headless;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Properties;
+
+import org.eclipse.core.runtime.Platform;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.osgi.framework.Bundle;
+import org.somox.analyzer.AnalysisResult;
+import org.somox.analyzer.simplemodelanalyzer.Activator;
+import org.somox.common.SoMoXProjectPreferences;
+import org.somox.instrumentation.PerformanceCounters;
+
+/**
+ * Runs the headless runner on the SoMoXCCTest model. The analyzer bundle is stopped during the run, so its
+ * activator is not available as in a plain Java run without OSGi.
+ */
+public class HeadlessSoMoXRunnerTest {
+
+    private static final String MODEL_DIRECTORY = "../org.somox.tests.SoMoXCCTest";
+
+    private static final String MODEL_FILE = "org.somox.tests.SoMoXCCTest_java2kdm.xmi";
+
+    private static final String[] MODEL_FILES = {
+        MODEL_FILE,
+        "org.somox.tests.SoMoXCCTest_java.xmi",
+        "org.somox.tests.SoMoXCCTest_kdm.xmi" };
+
+    private static final String FRAGMENT_DIRECTORY = "java2kdmFragments";
+
+    private static final String PROJECT_NAME = "SoMoXCCTest";
+
+    private static final String ANALYZER_BUNDLE = "org.somox.analyzer.sissymodelanalyzer";
+
+    @Rule
+    public TemporaryFolder workspace = new TemporaryFolder();
+
+    private Bundle analyzerBundle;
+
+    @Before
+    public void stopAnalyzerBundle() throws Exception {
+        analyzerBundle = Platform.getBundle(ANALYZER_BUNDLE);
+        analyzerBundle.stop(Bundle.STOP_TRANSIENT);
+    }
+
+    @After
+    public void startAnalyzerBundle() throws Exception {
+        analyzerBundle.start(Bundle.START_TRANSIENT);
+    }
+
+    @Test
+    public void runnerClustersAndSavesTheModelsWithoutTheAnalyzerActivator() throws Exception {
+        final File project = copyModel();
+        final Properties properties = new Properties();
+        properties.setProperty(HeadlessSoMoXRunner.WORKSPACE_DIRECTORY, workspace.getRoot().getPath());
+        properties.setProperty(SoMoXProjectPreferences.SOMOX_PROJECT_NAME, PROJECT_NAME);
+        properties.setProperty(SoMoXProjectPreferences.SOMOX_ANALYZER_INPUT_FILE, "/" + PROJECT_NAME + "/" + MODEL_FILE);
+
+        final HeadlessSoMoXRunner runner = new HeadlessSoMoXRunner(properties);
+        final AnalysisResult result = runner.run();
+
+        assertNull(Activator.getDefault());
+        assertEquals(AnalysisResult.ResultStatus.SUCCESS, result.getResultStatus());
+        assertTrue(result.getSourceCodeDecoratorRepository().getComponentImplementingClassesLink().size() > 0);
+        final PerformanceCounters counters = PerformanceCounters.getInstance();
+        assertTrue(counters.timer("somox_clustering_iteration_seconds", "mode", "compose").getCount()
+                + counters.timer("somox_clustering_iteration_seconds", "mode", "merge").getCount() > 0);
+        assertTrue(new File(project, "model/metricValues2.ecore").length() > 0);
+        assertTrue(runner.getPhaseTimings().containsKey("save models"));
+    }
+
+    private File copyModel() throws IOException {
+        final File project = workspace.newFolder(PROJECT_NAME);
+        for (final String file : MODEL_FILES) {
+            Files.copy(new File(MODEL_DIRECTORY, file).toPath(), new File(project, file).toPath());
+        }
+        final File fragments = new File(project, FRAGMENT_DIRECTORY);
+        assertTrue(fragments.mkdir());
+        for (final File fragment : new File(MODEL_DIRECTORY, FRAGMENT_DIRECTORY).listFiles()) {
+            Files.copy(fragment.toPath(), new File(fragments, fragment.getName()).toPath());
+        }
+        return project;
+    }
+}
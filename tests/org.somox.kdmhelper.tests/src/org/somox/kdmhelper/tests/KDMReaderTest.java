@@ -0,0 +1,116 @@
+package org.somox.kdmhelper.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.gmt.modisco.java.Model;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.somox.kdmhelper.KDMReader;
+import org.somox.kdmhelper.metamodeladdition.Root;
+import org.somox.kdmhelper.tests.generator.SyntheticJavaModelGenerator;
+import org.somox.kdmhelper.tests.generator.SyntheticModelParameters;
+
+/**
+ * Checks that loading a model with several threads yields the same models as the sequential loading.
+ */
+public class KDMReaderTest {
+
+    /**
+     * java2kdm model whose source regions are split into fragments referencing each other
+     */
+    private static final String FRAGMENTED_MODEL_FILE =
+            "../org.somox.tests.SoMoXCCTest/org.somox.tests.SoMoXCCTest_java2kdm.xmi";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void parallelLoadingOfFragmentsEqualsSequentialLoading() throws IOException {
+        final URI file = URI.createFileURI(new File(FRAGMENTED_MODEL_FILE).getCanonicalPath());
+
+        final Root sequential = KDMReader.loadFile(file, 1);
+        final Root parallel = KDMReader.loadFile(file, 4);
+
+        assertModelsEqual(sequential.getModels(), parallel.getModels());
+    }
+
+    @Test
+    public void parallelLoadingParsesAllReferencedFragments() throws IOException {
+        final URI file = URI.createFileURI(new File(FRAGMENTED_MODEL_FILE).getCanonicalPath());
+
+        final ResourceSet sequential = getResourceSet(KDMReader.loadFile(file, 1));
+        EcoreUtil.resolveAll(sequential);
+        final Set<String> parallel = getLoadedResources(getResourceSet(KDMReader.loadFile(file, 4)));
+
+        assertTrue(parallel.size() > 2);
+        assertEquals(getLoadedResources(sequential), parallel);
+    }
+
+    @Test
+    public void parallelLoadingOfSeveralFilesEqualsSequentialLoading() throws IOException {
+        final URI file = URI.createFileURI(new File(FRAGMENTED_MODEL_FILE).getCanonicalPath());
+        final URI syntheticFile = SyntheticJavaModelGenerator.save(generate(), folder.getRoot());
+
+        final Root parallel = KDMReader.loadFiles(Arrays.asList(file, syntheticFile), 4);
+
+        assertEquals(2, parallel.getModels().size());
+        assertModelsEqual(KDMReader.loadFile(file, 1).getModels(), parallel.getModels().subList(0, 1));
+        assertModelsEqual(KDMReader.loadFile(syntheticFile, 1).getModels(), parallel.getModels().subList(1, 2));
+    }
+
+    @Test
+    public void parallelLoadingOfGeneratedModelEqualsSequentialLoading() throws IOException {
+        final URI file = SyntheticJavaModelGenerator.save(generate(), folder.getRoot());
+
+        final List<Model> sequential = KDMReader.loadFile(file, 1).getModels();
+        final List<Model> parallel = KDMReader.loadFile(file, 4).getModels();
+
+        assertModelsEqual(sequential, parallel);
+        assertTrue(EcoreUtil.equals(generate(), parallel.get(0)));
+    }
+
+    private static Model generate() {
+        final SyntheticModelParameters parameters = new SyntheticModelParameters();
+        parameters.setSeed(42);
+        parameters.setClassCount(200);
+        parameters.setClassesPerPackage(10);
+        return new SyntheticJavaModelGenerator(parameters).generate("synthetic");
+    }
+
+    private static void assertModelsEqual(final List<Model> expected, final List<Model> actual) {
+        assertFalse(expected.isEmpty());
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertTrue("Model " + expected.get(i).getName() + " differs",
+                    EcoreUtil.equals(expected.get(i), actual.get(i)));
+        }
+    }
+
+    private static ResourceSet getResourceSet(final Root root) {
+        return root.getModels().get(0).eResource().getResourceSet();
+    }
+
+    private static Set<String> getLoadedResources(final ResourceSet resourceSet) {
+        final Set<String> result = new TreeSet<String>();
+        for (final Resource resource : resourceSet.getResources()) {
+            if (resource.isLoaded()) {
+                result.add(resource.getURI().toString());
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,421 @@
+package org.somox.kdmhelper.tests.generator;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+
+import org.apache.log4j.Logger;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.eclipse.emf.ecore.xmi.XMLResource;
+import org.eclipse.emf.ecore.xmi.impl.XMIResourceFactoryImpl;
+import org.eclipse.gmt.modisco.java.AbstractMethodDeclaration;
+import org.eclipse.gmt.modisco.java.AbstractTypeDeclaration;
+import org.eclipse.gmt.modisco.java.ClassDeclaration;
+import org.eclipse.gmt.modisco.java.CompilationUnit;
+import org.eclipse.gmt.modisco.java.ExpressionStatement;
+import org.eclipse.gmt.modisco.java.FieldDeclaration;
+import org.eclipse.gmt.modisco.java.InterfaceDeclaration;
+import org.eclipse.gmt.modisco.java.MethodDeclaration;
+import org.eclipse.gmt.modisco.java.MethodInvocation;
+import org.eclipse.gmt.modisco.java.Model;
+import org.eclipse.gmt.modisco.java.Modifier;
+import org.eclipse.gmt.modisco.java.Package;
+import org.eclipse.gmt.modisco.java.PrimitiveTypeVoid;
+import org.eclipse.gmt.modisco.java.SingleVariableAccess;
+import org.eclipse.gmt.modisco.java.Type;
+import org.eclipse.gmt.modisco.java.TypeAccess;
+import org.eclipse.gmt.modisco.java.VariableDeclarationFragment;
+import org.eclipse.gmt.modisco.java.VisibilityKind;
+import org.eclipse.gmt.modisco.java.emf.JavaFactory;
+import org.eclipse.gmt.modisco.java.emf.JavaPackage;
+import org.eclipse.modisco.java.composition.javaapplication.JavaApplication;
+import org.eclipse.modisco.java.composition.javaapplication.JavaapplicationFactory;
+import org.eclipse.modisco.java.composition.javaapplication.JavaapplicationPackage;
+
+/**
+ * Generates synthetic MoDisco Java models for scale tests of the analysis. The model consists of a tree of
+ * packages of configurable depth whose leaf packages contain the types. A configurable fraction of the types
+ * are interfaces, the classes of a package implement the last interface declared before them in the same
+ * package and override its methods. Each class holds one field per accessed type and invokes methods of the
+ * accessed types through these fields. The number of invocations, the share of invocations inside a package
+ * and the similarity of the type names inside a package are controlled by the {@link SyntheticModelParameters}.
+ * All random decisions are drawn from a single seeded generator, so the generated model is reproducible.
+ * <p>
+ * {@link #save(Model, File)} writes the model in the layout produced by java2kdm, i.e. a
+ * <code>&lt;name&gt;_java.xmi</code> containing the Java model and a <code>&lt;name&gt;_java2kdm.xmi</code>
+ * containing the {@link JavaApplication} referencing it, which can be loaded by the KDMReader. Source regions
+ * and the KDM deployment model are not generated.
+ */
+public class SyntheticJavaModelGenerator {
+
+    private static final Logger LOG = Logger.getLogger(SyntheticJavaModelGenerator.class);
+
+    private static final String[] NAME_TOKENS = new String[] {
+        "Order", "Product", "Stock", "Store", "Cash", "Desk", "Report", "Item",
+        "Sale", "Customer", "Account", "Payment", "Inventory", "Supplier", "Delivery", "Invoice",
+        "Price", "Catalog", "Shipment", "Cart", "Session", "Ledger", "Budget", "Contract",
+        "Employee", "Branch", "Warehouse", "Discount", "Coupon", "Receipt", "Tax", "Audit"
+    };
+
+    private static final String[] PACKAGE_LEVEL_NAMES = new String[] { "subsystem", "component", "layer", "unit" };
+
+    /**
+     * Number of name tokens of the vocabulary of a leaf package
+     */
+    private static final int PACKAGE_VOCABULARY_SIZE = 3;
+
+    private static final String SOURCE_ROOT = "/synthetic/src";
+
+    private final JavaFactory factory = JavaFactory.eINSTANCE;
+
+    private final SyntheticModelParameters parameters;
+
+    private final Random random;
+
+    private Model model;
+
+    private PrimitiveTypeVoid voidType;
+
+    private final Map<String, Package> packages = new HashMap<String, Package>();
+
+    private final List<AbstractTypeDeclaration> types = new ArrayList<AbstractTypeDeclaration>();
+
+    private final List<List<MethodDeclaration>> methodsPerType = new ArrayList<List<MethodDeclaration>>();
+
+    /**
+     * Leaf packages with the indices of their types in {@link #types}
+     */
+    private final List<List<Integer>> typesPerLeafPackage = new ArrayList<List<Integer>>();
+
+    private final List<Integer> leafPackageOfType = new ArrayList<Integer>();
+
+    /**
+     * @param parameters The parameters of the model to generate
+     */
+    public SyntheticJavaModelGenerator(final SyntheticModelParameters parameters) {
+        super();
+
+        this.parameters = parameters;
+        this.random = new Random(parameters.getSeed());
+    }
+
+    /**
+     * Generates the model. Can only be called once per generator.
+     * @param name Name of the generated model
+     * @return The generated Java model
+     */
+    public Model generate(final String name) {
+        if (model != null) {
+            throw new IllegalStateException("The model of this generator has already been generated");
+        }
+        model = factory.createModel();
+        model.setName(name);
+        voidType = factory.createPrimitiveTypeVoid();
+        voidType.setName("void");
+        model.getOrphanTypes().add(voidType);
+
+        final Package rootPackage = createPackage(null, "org");
+        final Package syntheticPackage = createPackage(rootPackage, "synthetic");
+        packages.put("", syntheticPackage);
+
+        final int leafPackageCount = (parameters.getClassCount() + parameters.getClassesPerPackage() - 1)
+                / parameters.getClassesPerPackage();
+        final int branching = Math.max(2,
+                (int) Math.ceil(Math.pow(leafPackageCount, 1.0 / parameters.getPackageDepth()) - 1e-9));
+
+        for (int leaf = 0; leaf < leafPackageCount; leaf++) {
+            createLeafPackageTypes(leaf, getLeafPackage(leaf, branching));
+        }
+        for (int i = 0; i < types.size(); i++) {
+            if (types.get(i) instanceof ClassDeclaration) {
+                createInvocations(i);
+            }
+        }
+        return model;
+    }
+
+    /**
+     * @return All generated types in creation order
+     */
+    public List<Type> getGeneratedTypes() {
+        return Collections.<Type> unmodifiableList(types);
+    }
+
+    /**
+     * Saves the model in the file layout of java2kdm.
+     * @param javaModel The model to save
+     * @param directory The target directory, created if missing
+     * @return The URI of the saved <code>_java2kdm.xmi</code> file which has to be passed to the KDMReader
+     * @throws IOException if saving fails
+     */
+    public static URI save(final Model javaModel, final File directory) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Unable to create directory " + directory);
+        }
+        JavaPackage.eINSTANCE.eClass();
+        JavaapplicationPackage.eINSTANCE.eClass();
+
+        final ResourceSet resourceSet = new ResourceSetImpl();
+        resourceSet.getResourceFactoryRegistry().getExtensionToFactoryMap().put("xmi", new XMIResourceFactoryImpl());
+
+        final URI javaURI = URI.createFileURI(new File(directory, javaModel.getName() + "_java.xmi").getAbsolutePath());
+        final URI java2kdmURI = URI.createFileURI(new File(directory, javaModel.getName() + "_java2kdm.xmi").getAbsolutePath());
+        final Resource javaResource = resourceSet.createResource(javaURI);
+        final Resource java2kdmResource = resourceSet.createResource(java2kdmURI);
+        javaResource.getContents().add(javaModel);
+        final JavaApplication application = JavaapplicationFactory.eINSTANCE.createJavaApplication();
+        application.setJavaModel(javaModel);
+        java2kdmResource.getContents().add(application);
+
+        final Map<Object, Object> saveOptions = new HashMap<Object, Object>();
+        saveOptions.put(XMLResource.OPTION_ENCODING, "UTF-8");
+        saveOptions.put(XMLResource.OPTION_USE_FILE_BUFFER, Boolean.TRUE);
+        saveOptions.put(XMLResource.OPTION_SCHEMA_LOCATION, Boolean.TRUE);
+        javaResource.save(saveOptions);
+        java2kdmResource.save(saveOptions);
+        return java2kdmURI;
+    }
+
+    /**
+     * Command line entry point. Arguments: the output directory, optionally followed by a properties file
+     * and/or <code>key=value</code> pairs overriding single parameters, see {@link SyntheticModelParameters}
+     * for the keys. The model is named <code>synthetic&lt;classCount&gt;</code>.
+     * @param args The command line arguments
+     * @throws IOException if reading the parameters or saving the model fails
+     */
+    public static void main(final String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: SyntheticJavaModelGenerator <output directory> [<parameters file>] [<key>=<value> ...]");
+            System.exit(1);
+        }
+        final Properties properties = new Properties();
+        for (int i = 1; i < args.length; i++) {
+            final int separator = args[i].indexOf('=');
+            if (separator > 0) {
+                properties.setProperty(args[i].substring(0, separator).trim(), args[i].substring(separator + 1).trim());
+            } else {
+                final Properties fileProperties = new Properties();
+                final InputStream input = new FileInputStream(args[i]);
+                try {
+                    fileProperties.load(input);
+                } finally {
+                    input.close();
+                }
+                for (final String key : fileProperties.stringPropertyNames()) {
+                    if (!properties.containsKey(key)) {
+                        properties.setProperty(key, fileProperties.getProperty(key));
+                    }
+                }
+            }
+        }
+        final SyntheticModelParameters parameters = SyntheticModelParameters.fromProperties(properties);
+
+        final long start = System.nanoTime();
+        final Model javaModel = new SyntheticJavaModelGenerator(parameters).generate("synthetic" + parameters.getClassCount());
+        final URI result = save(javaModel, new File(args[0]));
+        LOG.info("Generated model " + result + " with " + parameters + " in "
+                + (System.nanoTime() - start) / 1000000 + " ms");
+    }
+
+    private Package getLeafPackage(final int leaf, final int branching) {
+        final StringBuilder path = new StringBuilder();
+        Package parent = packages.get("");
+        int divisor = 1;
+        for (int level = 1; level < parameters.getPackageDepth(); level++) {
+            divisor *= branching;
+        }
+        for (int level = 0; level < parameters.getPackageDepth(); level++) {
+            final int digit = (leaf / divisor) % branching;
+            divisor = Math.max(1, divisor / branching);
+            path.append('/').append(digit);
+            Package current = packages.get(path.toString());
+            if (current == null) {
+                final String levelName = PACKAGE_LEVEL_NAMES[Math.min(level, PACKAGE_LEVEL_NAMES.length - 1)];
+                current = createPackage(parent, levelName + digit);
+                packages.put(path.toString(), current);
+            }
+            parent = current;
+        }
+        return parent;
+    }
+
+    private void createLeafPackageTypes(final int leaf, final Package leafPackage) {
+        final String[] vocabulary = new String[PACKAGE_VOCABULARY_SIZE];
+        for (int i = 0; i < vocabulary.length; i++) {
+            vocabulary[i] = NAME_TOKENS[random.nextInt(NAME_TOKENS.length)];
+        }
+        final List<Integer> leafTypes = new ArrayList<Integer>();
+        typesPerLeafPackage.add(leafTypes);
+
+        final int firstType = leaf * parameters.getClassesPerPackage();
+        final int lastType = Math.min(parameters.getClassCount(), firstType + parameters.getClassesPerPackage());
+        InterfaceDeclaration packageInterface = null;
+        List<MethodDeclaration> packageInterfaceMethods = null;
+        for (int i = firstType; i < lastType; i++) {
+            final String name = createName(vocabulary) + createName(vocabulary) + i;
+            final List<MethodDeclaration> methods = new ArrayList<MethodDeclaration>(parameters.getMethodsPerType());
+
+            final AbstractTypeDeclaration type;
+            if (random.nextDouble() < parameters.getInterfaceRatio()) {
+                packageInterface = factory.createInterfaceDeclaration();
+                type = packageInterface;
+                type.setName("I" + name);
+            } else {
+                final ClassDeclaration clazz = factory.createClassDeclaration();
+                clazz.setName(name + "Impl");
+                if (packageInterface != null) {
+                    clazz.getSuperInterfaces().add(createTypeAccess(packageInterface));
+                }
+                type = clazz;
+            }
+            type.setModifier(createModifier(VisibilityKind.PUBLIC));
+            leafPackage.getOwnedElements().add(type);
+            final CompilationUnit compilationUnit = createCompilationUnit(type, leafPackage);
+
+            for (int j = 0; j < parameters.getMethodsPerType(); j++) {
+                final MethodDeclaration method = factory.createMethodDeclaration();
+                if (type instanceof ClassDeclaration && packageInterface != null) {
+                    // override the methods of the implemented interface
+                    method.setName(packageInterfaceMethods.get(j).getName());
+                    method.setBody(factory.createBlock());
+                } else {
+                    method.setName("run" + i + "_" + j);
+                    if (type instanceof ClassDeclaration) {
+                        method.setBody(factory.createBlock());
+                    }
+                }
+                method.setModifier(createModifier(VisibilityKind.PUBLIC));
+                method.setReturnType(createTypeAccess(voidType));
+                method.setOriginalCompilationUnit(compilationUnit);
+                type.getBodyDeclarations().add(method);
+                methods.add(method);
+            }
+
+            if (type == packageInterface) {
+                packageInterfaceMethods = methods;
+            }
+            leafTypes.add(types.size());
+            leafPackageOfType.add(leaf);
+            types.add(type);
+            methodsPerType.add(methods);
+        }
+    }
+
+    private void createInvocations(final int typeIndex) {
+        if (types.size() < 2) {
+            return;
+        }
+        final AbstractTypeDeclaration type = types.get(typeIndex);
+        final List<MethodDeclaration> methods = methodsPerType.get(typeIndex);
+        final Map<Integer, VariableDeclarationFragment> fields = new HashMap<Integer, VariableDeclarationFragment>();
+
+        final double density = parameters.getCouplingDensity();
+        int invocationCount = (int) density;
+        if (random.nextDouble() < density - invocationCount) {
+            invocationCount++;
+        }
+        for (int i = 0; i < invocationCount; i++) {
+            final int target = chooseTarget(typeIndex);
+            if (target == typeIndex) {
+                continue;
+            }
+            VariableDeclarationFragment field = fields.get(target);
+            if (field == null) {
+                field = createField(type, target);
+                fields.put(target, field);
+            }
+            final List<MethodDeclaration> targetMethods = methodsPerType.get(target);
+
+            final SingleVariableAccess fieldAccess = factory.createSingleVariableAccess();
+            fieldAccess.setVariable(field);
+            final MethodInvocation invocation = factory.createMethodInvocation();
+            invocation.setExpression(fieldAccess);
+            invocation.setMethod(targetMethods.get(random.nextInt(targetMethods.size())));
+            final ExpressionStatement statement = factory.createExpressionStatement();
+            statement.setExpression(invocation);
+            final AbstractMethodDeclaration caller = methods.get(random.nextInt(methods.size()));
+            caller.getBody().getStatements().add(statement);
+        }
+    }
+
+    private int chooseTarget(final int typeIndex) {
+        if (random.nextDouble() < parameters.getCouplingLocality()) {
+            final List<Integer> leafTypes = typesPerLeafPackage.get(leafPackageOfType.get(typeIndex));
+            if (leafTypes.size() > 1) {
+                return leafTypes.get(random.nextInt(leafTypes.size()));
+            }
+        }
+        return random.nextInt(types.size());
+    }
+
+    private VariableDeclarationFragment createField(final AbstractTypeDeclaration type, final int target) {
+        final FieldDeclaration field = factory.createFieldDeclaration();
+        field.setType(createTypeAccess(types.get(target)));
+        field.setModifier(createModifier(VisibilityKind.PRIVATE));
+        field.setOriginalCompilationUnit(type.getOriginalCompilationUnit());
+        final VariableDeclarationFragment fragment = factory.createVariableDeclarationFragment();
+        fragment.setName("field" + target);
+        field.getFragments().add(fragment);
+        type.getBodyDeclarations().add(field);
+        return fragment;
+    }
+
+    private String createName(final String[] vocabulary) {
+        if (random.nextDouble() < parameters.getNameSimilarity()) {
+            return vocabulary[random.nextInt(vocabulary.length)];
+        }
+        return NAME_TOKENS[random.nextInt(NAME_TOKENS.length)];
+    }
+
+    private CompilationUnit createCompilationUnit(final AbstractTypeDeclaration type, final Package typePackage) {
+        final CompilationUnit result = factory.createCompilationUnit();
+        result.setName(type.getName() + ".java");
+        result.setOriginalFilePath(SOURCE_ROOT + "/" + getQualifiedName(typePackage).replace('.', '/') + "/" + result.getName());
+        result.setPackage(typePackage);
+        result.getTypes().add(type);
+        type.setOriginalCompilationUnit(result);
+        model.getCompilationUnits().add(result);
+        return result;
+    }
+
+    private static String getQualifiedName(final Package javaPackage) {
+        if (javaPackage.getPackage() == null) {
+            return javaPackage.getName();
+        }
+        return getQualifiedName(javaPackage.getPackage()) + "." + javaPackage.getName();
+    }
+
+    private Package createPackage(final Package parent, final String name) {
+        final Package result = factory.createPackage();
+        result.setName(name);
+        if (parent == null) {
+            model.getOwnedElements().add(result);
+        } else {
+            parent.getOwnedPackages().add(result);
+        }
+        return result;
+    }
+
+    private Modifier createModifier(final VisibilityKind visibility) {
+        final Modifier result = factory.createModifier();
+        result.setVisibility(visibility);
+        return result;
+    }
+
+    private TypeAccess createTypeAccess(final Type type) {
+        final TypeAccess result = factory.createTypeAccess();
+        result.setType(type);
+        return result;
+    }
+}
@@ -0,0 +1,77 @@
+package org.somox.kdmhelper.tests.generator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.gmt.modisco.java.Model;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.somox.kdmhelper.KDMReader;
+import org.somox.kdmhelper.metamodeladdition.Root;
+
+public class SyntheticJavaModelGeneratorTest {
+
+    private static final String MODEL_NAME = "synthetic";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void generatesEqualModelsFromOneSeed() throws IOException {
+        final Model first = generate(42);
+        final Model second = generate(42);
+
+        assertTrue(EcoreUtil.equals(first, second));
+
+        final URI firstFile = SyntheticJavaModelGenerator.save(first, folder.newFolder("first"));
+        final URI secondFile = SyntheticJavaModelGenerator.save(second, folder.newFolder("second"));
+        assertArrayEquals(read(javaModelFile(firstFile)), read(javaModelFile(secondFile)));
+    }
+
+    @Test
+    public void generatesDifferentModelsFromDifferentSeeds() {
+        assertFalse(EcoreUtil.equals(generate(42), generate(43)));
+    }
+
+    @Test
+    public void generatedModelIsLoadedByKDMReader() throws IOException {
+        final URI file = SyntheticJavaModelGenerator.save(generate(42), folder.getRoot());
+
+        final Root root = KDMReader.loadFile(file, 1);
+
+        assertEquals(1, root.getModels().size());
+        assertTrue(EcoreUtil.equals(generate(42), root.getModels().get(0)));
+    }
+
+    private static Model generate(final long seed) {
+        final SyntheticModelParameters parameters = new SyntheticModelParameters();
+        parameters.setSeed(seed);
+        parameters.setClassCount(120);
+        parameters.setClassesPerPackage(10);
+        return new SyntheticJavaModelGenerator(parameters).generate(MODEL_NAME);
+    }
+
+    private static File javaModelFile(final URI java2kdmFile) {
+        return new File(java2kdmFile.trimSegments(1).toFileString(), MODEL_NAME + "_java.xmi");
+    }
+
+    private static byte[] read(final File file) throws IOException {
+        final RandomAccessFile input = new RandomAccessFile(file, "r");
+        try {
+            final byte[] result = new byte[(int) input.length()];
+            input.readFully(result);
+            return result;
+        } finally {
+            input.close();
+        }
+    }
+}
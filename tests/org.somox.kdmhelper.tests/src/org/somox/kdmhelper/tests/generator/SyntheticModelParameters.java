@@ -0,0 +1,198 @@
+package org.somox.kdmhelper.tests.generator;
+
+import java.util.Properties;
+
+/**
+ * Parameters of the {@link SyntheticJavaModelGenerator}. Two generator runs with equal parameters produce
+ * identical models.
+ */
+public class SyntheticModelParameters {
+
+    public static final String SEED = "seed";
+    public static final String CLASS_COUNT = "classCount";
+    public static final String CLASSES_PER_PACKAGE = "classesPerPackage";
+    public static final String PACKAGE_DEPTH = "packageDepth";
+    public static final String METHODS_PER_TYPE = "methodsPerType";
+    public static final String COUPLING_DENSITY = "couplingDensity";
+    public static final String COUPLING_LOCALITY = "couplingLocality";
+    public static final String INTERFACE_RATIO = "interfaceRatio";
+    public static final String NAME_SIMILARITY = "nameSimilarity";
+
+    private long seed = 4711;
+
+    private int classCount = 1000;
+
+    private int classesPerPackage = 20;
+
+    private int packageDepth = 3;
+
+    private int methodsPerType = 3;
+
+    private double couplingDensity = 4.0;
+
+    private double couplingLocality = 0.5;
+
+    private double interfaceRatio = 0.25;
+
+    private double nameSimilarity = 0.5;
+
+    public SyntheticModelParameters() {
+        super();
+    }
+
+    /**
+     * Reads the parameters from the given properties. Parameters missing in the properties keep their
+     * default value.
+     * @param properties Properties using the keys defined by this class
+     * @return The parameters
+     * @throws IllegalArgumentException if a property is malformed or out of range
+     */
+    public static SyntheticModelParameters fromProperties(final Properties properties) {
+        final SyntheticModelParameters result = new SyntheticModelParameters();
+        try {
+            result.setSeed(Long.parseLong(properties.getProperty(SEED, Long.toString(result.seed))));
+            result.setClassCount(Integer.parseInt(properties.getProperty(CLASS_COUNT, Integer.toString(result.classCount))));
+            result.setClassesPerPackage(Integer.parseInt(properties.getProperty(CLASSES_PER_PACKAGE, Integer.toString(result.classesPerPackage))));
+            result.setPackageDepth(Integer.parseInt(properties.getProperty(PACKAGE_DEPTH, Integer.toString(result.packageDepth))));
+            result.setMethodsPerType(Integer.parseInt(properties.getProperty(METHODS_PER_TYPE, Integer.toString(result.methodsPerType))));
+            result.setCouplingDensity(Double.parseDouble(properties.getProperty(COUPLING_DENSITY, Double.toString(result.couplingDensity))));
+            result.setCouplingLocality(Double.parseDouble(properties.getProperty(COUPLING_LOCALITY, Double.toString(result.couplingLocality))));
+            result.setInterfaceRatio(Double.parseDouble(properties.getProperty(INTERFACE_RATIO, Double.toString(result.interfaceRatio))));
+            result.setNameSimilarity(Double.parseDouble(properties.getProperty(NAME_SIMILARITY, Double.toString(result.nameSimilarity))));
+        } catch (final NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed model generator parameter: " + e.getMessage(), e);
+        }
+        return result;
+    }
+
+    /**
+     * @return Seed of all random decisions of the generator
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(final long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * @return Number of types (classes and interfaces) to generate
+     */
+    public int getClassCount() {
+        return classCount;
+    }
+
+    public void setClassCount(final int classCount) {
+        checkMinimum(CLASS_COUNT, classCount, 1);
+        this.classCount = classCount;
+    }
+
+    /**
+     * @return Number of types placed in each leaf package
+     */
+    public int getClassesPerPackage() {
+        return classesPerPackage;
+    }
+
+    public void setClassesPerPackage(final int classesPerPackage) {
+        checkMinimum(CLASSES_PER_PACKAGE, classesPerPackage, 1);
+        this.classesPerPackage = classesPerPackage;
+    }
+
+    /**
+     * @return Number of package levels below the root package of the model
+     */
+    public int getPackageDepth() {
+        return packageDepth;
+    }
+
+    public void setPackageDepth(final int packageDepth) {
+        checkMinimum(PACKAGE_DEPTH, packageDepth, 1);
+        this.packageDepth = packageDepth;
+    }
+
+    /**
+     * @return Number of methods declared by each type
+     */
+    public int getMethodsPerType() {
+        return methodsPerType;
+    }
+
+    public void setMethodsPerType(final int methodsPerType) {
+        checkMinimum(METHODS_PER_TYPE, methodsPerType, 1);
+        this.methodsPerType = methodsPerType;
+    }
+
+    /**
+     * @return Mean number of method invocations on other types per class
+     */
+    public double getCouplingDensity() {
+        return couplingDensity;
+    }
+
+    public void setCouplingDensity(final double couplingDensity) {
+        if (couplingDensity < 0.0) {
+            throw new IllegalArgumentException(COUPLING_DENSITY + " must not be negative");
+        }
+        this.couplingDensity = couplingDensity;
+    }
+
+    /**
+     * @return Probability in [0,1] that an invocation targets a type of the same package
+     */
+    public double getCouplingLocality() {
+        return couplingLocality;
+    }
+
+    public void setCouplingLocality(final double couplingLocality) {
+        checkProbability(COUPLING_LOCALITY, couplingLocality);
+        this.couplingLocality = couplingLocality;
+    }
+
+    /**
+     * @return Fraction in [0,1] of the types which are interfaces
+     */
+    public double getInterfaceRatio() {
+        return interfaceRatio;
+    }
+
+    public void setInterfaceRatio(final double interfaceRatio) {
+        checkProbability(INTERFACE_RATIO, interfaceRatio);
+        this.interfaceRatio = interfaceRatio;
+    }
+
+    /**
+     * @return Probability in [0,1] that a type name is built from the small vocabulary of its package
+     * 		instead of the global vocabulary. Higher values yield more similar names inside packages
+     */
+    public double getNameSimilarity() {
+        return nameSimilarity;
+    }
+
+    public void setNameSimilarity(final double nameSimilarity) {
+        checkProbability(NAME_SIMILARITY, nameSimilarity);
+        this.nameSimilarity = nameSimilarity;
+    }
+
+    @Override
+    public String toString() {
+        return SEED + "=" + seed + ", " + CLASS_COUNT + "=" + classCount + ", " + CLASSES_PER_PACKAGE + "="
+                + classesPerPackage + ", " + PACKAGE_DEPTH + "=" + packageDepth + ", " + METHODS_PER_TYPE + "="
+                + methodsPerType + ", " + COUPLING_DENSITY + "=" + couplingDensity + ", " + COUPLING_LOCALITY + "="
+                + couplingLocality + ", " + INTERFACE_RATIO + "=" + interfaceRatio + ", " + NAME_SIMILARITY + "="
+                + nameSimilarity;
+    }
+
+    private static void checkMinimum(final String name, final int value, final int minimum) {
+        if (value < minimum) {
+            throw new IllegalArgumentException(name + " must be at least " + minimum);
+        }
+    }
+
+    private static void checkProbability(final String name, final double value) {
+        if (value < 0.0 || value > 1.0) {
+            throw new IllegalArgumentException(name + " must be in [0,1]");
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package org.somox.metrics.dslvisitor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.eclipse.gmt.modisco.java.Type;
+import org.jgrapht.graph.SimpleDirectedGraph;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.somox.configuration.SoMoXConfiguration;
+import org.somox.metrics.ClusteringRelation;
+import org.somox.metrics.IMetric;
+import org.somox.metrics.MetricID;
+import org.somox.metrics.abstractmetrics.AbstractComposedMetric;
+import org.somox.metrics.basic.ExternalAccessesCount;
+import org.somox.metrics.basic.InternalAccessesCount;
+import org.somox.metrics.dsl.MetricDSLStandaloneSetup;
+import org.somox.metrics.dsl.metricDSL.InternalMetric;
+import org.somox.metrics.dsl.metricDSL.Metric;
+import org.somox.metrics.dsl.metricDSL.MetricModel;
+import org.somox.metrics.helper.ClassAccessGraphEdge;
+import org.somox.sourcecodedecorator.ComponentImplementingClassesLink;
+import org.somox.sourcecodedecorator.SourceCodeDecoratorFactory;
+
+/**
+ * Evaluates metrics defined in the metric DSL by their composition functions and by their compiled
+ * {@link MetricEvaluationPlan}s and checks that both yield the same values.
+ */
+public class MetricEvaluationPlanTest {
+
+    private static final String METRIC_DEFINITIONS =
+            "extern org.somox.metrics.basic.InternalAccessesCount;\n"
+            + "extern org.somox.metrics.basic.ExternalAccessesCount;\n"
+            + "\n"
+            + "Metrics {\n"
+            + "\n"
+            + "\tMetric org.somox.metrics.testing.Coupling (\"Coupling\",\"Internal per external accesses\") {\n"
+            + "\t\tRatio { org.somox.metrics.basic.InternalAccessesCount / org.somox.metrics.basic.ExternalAccessesCount }\n"
+            + "\t};\n"
+            + "\n"
+            + "\tMetric org.somox.metrics.testing.WeightedAccesses (\"WeightedAccesses\",\"Weighted accesses\") {\n"
+            + "\t\tparameters {\n"
+            + "\t\t\tParameter internalWeight ( \"InternalWeight\", \"Weight of the internal accesses\", 0.2 );\n"
+            + "\t\t\tParameter externalWeight ( \"ExternalWeight\", \"Weight of the external accesses\", 0.3 );\n"
+            + "\t\t\tConst couplingWeight = 1.5;\n"
+            + "\t\t}\n"
+            + "\t\tWeigthedSum {\n"
+            + "\t\t\t<org.somox.metrics.basic.InternalAccessesCount,internalWeight>\n"
+            + "\t\t\t<org.somox.metrics.basic.ExternalAccessesCount,externalWeight>\n"
+            + "\t\t\t<org.somox.metrics.testing.Coupling,couplingWeight>\n"
+            + "\t\t}\n"
+            + "\t};\n"
+            + "\n"
+            + "\tMetric org.somox.metrics.testing.SteppedAccesses (\"SteppedAccesses\",\"Stepped weighted accesses\") {\n"
+            + "\t\tparameters {\n"
+            + "\t\t\tConst lowBound = 1.0;\n"
+            + "\t\t\tConst lowWeight = 0.5;\n"
+            + "\t\t\tConst highBound = 4.0;\n"
+            + "\t\t\tConst highWeight = 0.8;\n"
+            + "\t\t}\n"
+            + "\t\tStepwise [ org.somox.metrics.testing.WeightedAccesses ] {\n"
+            + "\t\t\t<lowBound,lowWeight>\n"
+            + "\t\t\t<highBound,highWeight>\n"
+            + "\t\t}\n"
+            + "\t};\n"
+            + "}\n";
+
+    /**
+     * Internal and external access counts of the evaluated relations. They cover a zero denominator
+     * and every step of the stepwise metric.
+     */
+    private static final int[][] ACCESSES = { { 0, 0 }, { 3, 0 }, { 0, 4 }, { 2, 5 }, { 4, 2 }, { 12, 1 } };
+
+    private static final MetricID COUPLING = new MetricID("org.somox.metrics.testing.Coupling");
+
+    private static final MetricID WEIGHTED_ACCESSES = new MetricID("org.somox.metrics.testing.WeightedAccesses");
+
+    private static final MetricID STEPPED_ACCESSES = new MetricID("org.somox.metrics.testing.SteppedAccesses");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final IMetric internalAccesses = new InternalAccessesCount();
+
+    private final IMetric externalAccesses = new ExternalAccessesCount();
+
+    private final ComponentImplementingClassesLink source =
+            SourceCodeDecoratorFactory.eINSTANCE.createComponentImplementingClassesLink();
+
+    private final ComponentImplementingClassesLink target =
+            SourceCodeDecoratorFactory.eINSTANCE.createComponentImplementingClassesLink();
+
+    private Map<MetricID, IMetric> allMetrics;
+
+    private List<IMetric> definedMetrics;
+
+    @Before
+    public void setUp() throws IOException {
+        allMetrics = new HashMap<MetricID, IMetric>();
+        allMetrics.put(internalAccesses.getMID(), internalAccesses);
+        allMetrics.put(externalAccesses.getMID(), externalAccesses);
+
+        definedMetrics = new ArrayList<IMetric>();
+        for (final Metric metricDefinition : loadMetricDefinitions().getMetrics()) {
+            if (metricDefinition instanceof InternalMetric) {
+                final IMetric metric = new DSLConfigurationVisitor(allMetrics).doSwitch(metricDefinition);
+                allMetrics.put(metric.getMID(), metric);
+                definedMetrics.add(metric);
+            }
+        }
+        assertEquals(3, definedMetrics.size());
+
+        for (final IMetric metric : definedMetrics) {
+            metric.initialize(null, new SoMoXConfiguration(), allMetrics,
+                    new SimpleDirectedGraph<Type, ClassAccessGraphEdge>(ClassAccessGraphEdge.class), null);
+        }
+    }
+
+    @Test
+    public void compositionFunctionsUseTheDefinedWeightsAndSteps() {
+        final ClusteringRelation relation = evaluate(2, 5);
+
+        assertEquals(0.4, relation.getResultMetric(COUPLING), 1e-9);
+        assertEquals((2 * 0.2 + 5 * 0.3 + 0.4 * 1.5) / 2.0, relation.getResultMetric(WEIGHTED_ACCESSES), 1e-9);
+        assertEquals(1.25 * 0.8, relation.getResultMetric(STEPPED_ACCESSES), 1e-9);
+    }
+
+    @Test
+    public void compiledPlansEqualCompositionFunctions() {
+        final List<ClusteringRelation> interpreted = new ArrayList<ClusteringRelation>();
+        for (final int[] accesses : ACCESSES) {
+            interpreted.add(evaluate(accesses[0], accesses[1]));
+        }
+
+        for (final IMetric metric : definedMetrics) {
+            assertTrue(MetricEvaluationPlan.isCompilable(metric));
+            ((AbstractComposedMetric) metric).setEvaluationPlan(MetricEvaluationPlan.compile(metric, allMetrics));
+        }
+
+        for (int i = 0; i < ACCESSES.length; i++) {
+            final ClusteringRelation compiled = evaluate(ACCESSES[i][0], ACCESSES[i][1]);
+            for (final IMetric metric : definedMetrics) {
+                assertEquals("Metric " + metric.getMID() + " differs for accesses " + ACCESSES[i][0] + "/" + ACCESSES[i][1],
+                        interpreted.get(i).getResultMetric(metric.getMID()), compiled.getResultMetric(metric.getMID()), 0.0);
+            }
+        }
+    }
+
+    /**
+     * Computes all metrics defined in the DSL for a relation with the given access counts
+     */
+    private ClusteringRelation evaluate(final int internal, final int external) {
+        final ClusteringRelation relation = new ClusteringRelation(source, target);
+        relation.setResultMetric(internalAccesses.getMID(), internal);
+        relation.setResultMetric(externalAccesses.getMID(), external);
+        for (final IMetric metric : definedMetrics) {
+            if (!relation.hasResultMetric(metric.getMID())) {
+                metric.computeDirected(relation);
+            }
+        }
+        return relation;
+    }
+
+    private MetricModel loadMetricDefinitions() throws IOException {
+        final File file = folder.newFile("definitions.metrics");
+        final Writer writer = new FileWriter(file);
+        try {
+            writer.write(METRIC_DEFINITIONS);
+        } finally {
+            writer.close();
+        }
+
+        MetricDSLStandaloneSetup.doSetup();
+        final Resource resource = new ResourceSetImpl().getResource(URI.createFileURI(file.getPath()), true);
+        assertTrue("Metric definitions contain errors: " + resource.getErrors(), resource.getErrors().isEmpty());
+        return (MetricModel) resource.getContents().get(0);
+    }
+}
@@ -0,0 +1,176 @@
+package org.somox.metrics.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.URIConverter;
+import org.eclipse.gmt.modisco.java.Type;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.somox.configuration.SoMoXConfiguration;
+import org.somox.kdmhelper.KDMHelper;
+import org.somox.kdmhelper.KDMReader;
+import org.somox.kdmhelper.tests.generator.SyntheticJavaModelGenerator;
+import org.somox.kdmhelper.tests.generator.SyntheticModelParameters;
+
+/**
+ * Checks when a section of the {@link DerivedModelCache} is hit and when it is invalidated.
+ */
+public class DerivedModelCacheTest {
+
+    private static final URI PLATFORM_RESOURCE = URI.createURI("platform:/resource/");
+
+    private static final String SECTION = "test";
+
+    private static final int CACHED_VALUE = 42;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private SoMoXConfiguration configuration;
+
+    private File modelFile;
+
+    private List<Type> classes;
+
+    @Before
+    public void setUp() throws IOException {
+        URIConverter.URI_MAP.put(PLATFORM_RESOURCE,
+                URI.createFileURI(folder.newFolder("workspace").getPath() + File.separator));
+
+        configuration = new SoMoXConfiguration();
+        configuration.setDerivedModelCacheEnabled(true);
+        configuration.getFileLocations().setProjectName("project");
+        configuration.getFileLocations().setOutputFolder("/model");
+
+        final SyntheticModelParameters parameters = new SyntheticModelParameters();
+        parameters.setSeed(42);
+        parameters.setClassCount(40);
+        parameters.setClassesPerPackage(10);
+        final URI file = SyntheticJavaModelGenerator.save(
+                new SyntheticJavaModelGenerator(parameters).generate("synthetic"), folder.newFolder("input"));
+        modelFile = new File(file.trimSegments(1).toFileString(), "synthetic_java.xmi");
+        classes = KDMReader.loadFile(file, 1).getNormalClasses();
+    }
+
+    @After
+    public void tearDown() {
+        URIConverter.URI_MAP.remove(PLATFORM_RESOURCE);
+    }
+
+    @Test
+    public void cacheIsOnlyOpenedIfEnabledForAProject() {
+        configuration.setDerivedModelCacheEnabled(false);
+        assertNull(DerivedModelCache.open(configuration, SECTION, classes));
+
+        configuration.setDerivedModelCacheEnabled(true);
+        configuration.getFileLocations().setProjectName(null);
+        assertNull(DerivedModelCache.open(configuration, SECTION, classes));
+    }
+
+    @Test
+    public void cacheIsNotOpenedForDuplicateClassNames() {
+        final List<Type> duplicates = new ArrayList<Type>(classes);
+        duplicates.add(classes.get(0));
+
+        assertNull(DerivedModelCache.open(configuration, SECTION, duplicates));
+    }
+
+    @Test
+    public void classesAreOrderedByTheirQualifiedNames() {
+        final DerivedModelCache cache = DerivedModelCache.open(configuration, SECTION, classes);
+
+        final List<Type> orderedClasses = cache.getOrderedClasses();
+        assertEquals(classes.size(), orderedClasses.size());
+        for (int i = 0; i < orderedClasses.size(); i++) {
+            if (i > 0) {
+                assertTrue(KDMHelper.computeFullQualifiedName(orderedClasses.get(i - 1))
+                        .compareTo(KDMHelper.computeFullQualifiedName(orderedClasses.get(i))) < 0);
+            }
+            assertEquals(Integer.valueOf(i), cache.getClassIndex().get(orderedClasses.get(i)));
+        }
+    }
+
+    @Test
+    public void writtenSectionIsReadByTheNextRun() throws IOException {
+        final DerivedModelCache cache = DerivedModelCache.open(configuration, SECTION, classes, "value");
+        assertNull(cache.read());
+        write(cache);
+
+        assertEquals(CACHED_VALUE, read(DerivedModelCache.open(configuration, SECTION, classes, "value")));
+    }
+
+    @Test
+    public void invalidatedSectionIsMissed() throws IOException {
+        write(DerivedModelCache.open(configuration, SECTION, classes));
+
+        DerivedModelCache.open(configuration, SECTION, classes).invalidate();
+
+        assertNull(DerivedModelCache.open(configuration, SECTION, classes).read());
+    }
+
+    @Test
+    public void sectionIsMissedIfConfigurationValuesChange() throws IOException {
+        write(DerivedModelCache.open(configuration, SECTION, classes, "first", "second"));
+
+        assertNull(DerivedModelCache.open(configuration, SECTION, classes, "first", "other").read());
+        assertNull(DerivedModelCache.open(configuration, SECTION, classes, "first").read());
+        assertEquals(CACHED_VALUE, read(DerivedModelCache.open(configuration, SECTION, classes, "first", "second")));
+    }
+
+    @Test
+    public void sectionIsMissedIfClassesChange() throws IOException {
+        write(DerivedModelCache.open(configuration, SECTION, classes));
+
+        assertNull(DerivedModelCache.open(configuration, SECTION, classes.subList(1, classes.size())).read());
+    }
+
+    @Test
+    public void sectionIsMissedIfTheModelFileChanges() throws IOException {
+        write(DerivedModelCache.open(configuration, SECTION, classes));
+
+        assertTrue(modelFile.setLastModified(modelFile.lastModified() + 10000));
+
+        assertNull(DerivedModelCache.open(configuration, SECTION, classes).read());
+    }
+
+    @Test
+    public void sectionsAreIndependent() throws IOException {
+        write(DerivedModelCache.open(configuration, SECTION, classes));
+
+        assertNull(DerivedModelCache.open(configuration, "other", classes).read());
+        assertEquals(CACHED_VALUE, read(DerivedModelCache.open(configuration, SECTION, classes)));
+    }
+
+    private static void write(final DerivedModelCache cache) throws IOException {
+        final DataOutputStream output = cache.write();
+        try {
+            output.writeInt(CACHED_VALUE);
+        } finally {
+            cache.close(output);
+        }
+    }
+
+    private static int read(final DerivedModelCache cache) throws IOException {
+        final DataInputStream input = cache.read();
+        assertNotNull(input);
+        try {
+            return input.readInt();
+        } finally {
+            cache.close(input);
+        }
+    }
+}